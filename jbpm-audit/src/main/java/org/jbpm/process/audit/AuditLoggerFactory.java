@@ -31,7 +31,9 @@ import org.kie.api.runtime.KieSession;
  * Factory for producing support audit loggers. Currently two types are available:
  * <ul>
  *  <li>JPA - synchronous logger that is bound to the engine transaction and 
- *  persists audit events as part of runtime engine transaction</li>
+ *  persists audit events as part of runtime engine transaction, when system property
+ *  org.jbpm.audit.jpa.buffered is set to true audit events are collected and written in batch
+ *  right before the engine transaction completes (see <code>BufferedJPAWorkingMemoryDbLogger</code>)</li>
  *  <li>JMS - asynchronous logger that can be configured to place messages on the queue
  *  either with respect to active transaction (only after transaction is committed) or 
  *  place them directly as they are generated</li>
@@ -39,6 +41,8 @@ import org.kie.api.runtime.KieSession;
  */
 public class AuditLoggerFactory {
 
+    private static final boolean BUFFERED_JPA = Boolean.parseBoolean(System.getProperty("org.jbpm.audit.jpa.buffered", "false"));
+
     public enum Type {
         JPA,
         JMS
@@ -68,7 +72,11 @@ public class AuditLoggerFactory {
         AbstractAuditLogger logger = null;
         switch (type) {
             case JPA:
-                logger = new JPAWorkingMemoryDbLogger(ksession);
+                if (BUFFERED_JPA) {
+                    logger = new BufferedJPAWorkingMemoryDbLogger(ksession);
+                } else {
+                    logger = new JPAWorkingMemoryDbLogger(ksession);
+                }
                 break;
             case JMS:
                 boolean transacted = true;
@@ -115,6 +123,9 @@ public class AuditLoggerFactory {
      * @return new instance of JPA audit logger
      */
     public static AbstractAuditLogger newJPAInstance() {
+        if (BUFFERED_JPA) {
+            return new BufferedJPAWorkingMemoryDbLogger();
+        }
         return new JPAWorkingMemoryDbLogger();
     }
     
@@ -127,6 +138,9 @@ public class AuditLoggerFactory {
      * @return new instance of JPA audit logger
      */
     public static AbstractAuditLogger newJPAInstance(Environment env) {
+        if (BUFFERED_JPA) {
+            return new BufferedJPAWorkingMemoryDbLogger(env);
+        }
         return new JPAWorkingMemoryDbLogger(env);
     }
     
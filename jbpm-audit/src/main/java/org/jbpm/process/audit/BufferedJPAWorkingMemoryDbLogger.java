@@ -0,0 +1,293 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.process.audit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.drools.persistence.OrderedTransactionSynchronization;
+import org.drools.persistence.TransactionManager;
+import org.drools.persistence.TransactionManagerHelper;
+import org.jbpm.process.instance.impl.ProcessInstanceImpl;
+import org.kie.api.event.KieRuntimeEvent;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.runtime.Environment;
+import org.kie.api.runtime.EnvironmentName;
+import org.kie.api.runtime.KieSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JPA audit logger that does not write log entries as events occur but collects them for the duration
+ * of the transaction and writes them all at once right before the transaction completes.
+ * <br/>
+ * Buffered entries are persisted in the order they were created and flushed together so the JPA provider
+ * can send them in JDBC batches - for Hibernate that requires <code>hibernate.jdbc.batch_size</code>
+ * (and preferably <code>hibernate.order_inserts</code>) to be set on the persistence unit.
+ * Completion of process instances is written as single update statement instead of select and merge, unless
+ * the log entry is still managed by the entity manager (persisted by {@link #flush(Environment)} earlier in the
+ * same transaction) in which case the changes are written by the entity manager itself.
+ * <br/>
+ * Buffering is used only when logger shares entity manager of the engine (it is not created with its own
+ * <code>EntityManagerFactory</code>) and there is an active transaction managed by engine's
+ * <code>TransactionManager</code>, otherwise it behaves exactly as <code>JPAWorkingMemoryDbLogger</code>.
+ * <br/>
+ * As buffered entries are written only when the transaction is about to complete, audit queries executed
+ * later within the same transaction do not see them - use {@link #flush(Environment)} before such queries.
+ */
+public class BufferedJPAWorkingMemoryDbLogger extends JPAWorkingMemoryDbLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(BufferedJPAWorkingMemoryDbLogger.class);
+
+    private static final String COMPLETE_PROCESS_INSTANCE_LOG = "update ProcessInstanceLog log set log.end = :end, log.duration = :duration, "
+            + "log.status = :status, log.outcome = :outcome, log.processInstanceDescription = :description where log.id = :id";
+
+    private static final String FIND_ACTIVE_PROCESS_INSTANCE_LOGS = "select log.processInstanceId, log.id, log.start from ProcessInstanceLog log "
+            + "where log.processInstanceId in (:piIds) and log.end is null order by log.id";
+
+    private final String bufferKey = "AuditLogBuffer-" + System.identityHashCode(this);
+
+    public BufferedJPAWorkingMemoryDbLogger(KieSession session) {
+        super(session);
+    }
+
+    public BufferedJPAWorkingMemoryDbLogger(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    public BufferedJPAWorkingMemoryDbLogger() {
+        super();
+    }
+
+    public BufferedJPAWorkingMemoryDbLogger(EntityManagerFactory emf, Environment env) {
+        super(emf, env);
+    }
+
+    public BufferedJPAWorkingMemoryDbLogger(Environment env) {
+        super(env);
+    }
+
+    @Override
+    public void afterProcessCompleted(ProcessCompletedEvent event) {
+        AuditLogBuffer buffer = getBuffer(event);
+        if (buffer == null) {
+            super.afterProcessCompleted(event);
+            return;
+        }
+        ProcessInstanceLog log = (ProcessInstanceLog) ((ProcessInstanceImpl) event.getProcessInstance()).getMetaData().get("ProcessInstanceLog");
+        if (log != null) {
+            builder.buildEvent(event, log);
+            // log that is still buffered will be inserted with completion data already set
+            if (!buffer.contains(log) && log.getId() > 0) {
+                buffer.completed.add(new CompletedProcessInstance(log, true));
+            }
+        } else {
+            // start date is not known so duration is recalculated when the log entry is found on flush
+            log = (ProcessInstanceLog) builder.buildEvent(event, null);
+            buffer.completed.add(new CompletedProcessInstance(log, false));
+        }
+    }
+
+    @Override
+    protected void persist(Object entity, KieRuntimeEvent event) {
+        AuditLogBuffer buffer = getBuffer(event);
+        if (buffer == null) {
+            super.persist(entity, event);
+            return;
+        }
+        buffer.add(entity);
+    }
+
+    /**
+     * Returns buffer of the active transaction, creating and registering it if needed.
+     * @return buffer or null if log entries cannot be buffered and should be written directly
+     */
+    protected AuditLogBuffer getBuffer(KieRuntimeEvent event) {
+        if (hasOwnEntityManagerFactory()) {
+            return null;
+        }
+        Environment env = event.getKieRuntime().getEnvironment();
+        TransactionManager tm = getActiveTransactionManager(env);
+        if (tm == null) {
+            return null;
+        }
+        AuditLogBuffer buffer = (AuditLogBuffer) tm.getResource(bufferKey);
+        if (buffer == null || buffer.done) {
+            buffer = new AuditLogBuffer(env);
+            tm.putResource(bufferKey, buffer);
+            TransactionManagerHelper.registerTransactionSyncInContainer(tm, buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes log entries buffered so far in the active transaction, so that they are visible to audit queries
+     * executed later within the same transaction. Entries created afterwards are buffered again.
+     * @param env environment of the session the logger is attached to
+     */
+    public void flush(Environment env) {
+        TransactionManager tm = getActiveTransactionManager(env);
+        if (tm == null) {
+            return;
+        }
+        AuditLogBuffer buffer = (AuditLogBuffer) tm.getResource(bufferKey);
+        if (buffer != null && !buffer.done) {
+            flush(buffer);
+        }
+    }
+
+    protected TransactionManager getActiveTransactionManager(Environment env) {
+        if (env == null || !(env.get(EnvironmentName.TRANSACTION_MANAGER) instanceof TransactionManager)) {
+            return null;
+        }
+        TransactionManager tm = (TransactionManager) env.get(EnvironmentName.TRANSACTION_MANAGER);
+        if (tm.getStatus() != TransactionManager.STATUS_ACTIVE) {
+            return null;
+        }
+        return tm;
+    }
+
+    protected void flush(AuditLogBuffer buffer) {
+        if (buffer.entities.isEmpty() && buffer.completed.isEmpty()) {
+            return;
+        }
+        EntityManager em = getEntityManager(buffer.env);
+        Object tx = joinTransaction(em);
+        for (Object entity : buffer.entities) {
+            em.persist(entity);
+        }
+        em.flush();
+        if (!buffer.completed.isEmpty()) {
+            completeProcessInstances(em, buffer.completed);
+        }
+        logger.debug("Flushed {} audit log entries and {} completed process instances", buffer.entities.size(), buffer.completed.size());
+        leaveTransaction(em, tx);
+        buffer.clear();
+    }
+
+    protected void completeProcessInstances(EntityManager em, List<CompletedProcessInstance> completed) {
+        List<Long> unknown = new ArrayList<Long>();
+        for (CompletedProcessInstance instance : completed) {
+            if (!instance.known) {
+                unknown.add(instance.log.getProcessInstanceId());
+            }
+        }
+        // single lookup for all completed instances that log entry is not known for, last active entry wins
+        Map<Long, Object[]> active = new HashMap<Long, Object[]>();
+        if (!unknown.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = em.createQuery(FIND_ACTIVE_PROCESS_INSTANCE_LOGS).setParameter("piIds", unknown).getResultList();
+            for (Object[] row : rows) {
+                active.put((Long) row[0], row);
+            }
+        }
+        for (CompletedProcessInstance instance : completed) {
+            ProcessInstanceLog log = instance.log;
+            if (instance.known && em.contains(log)) {
+                // log persisted by earlier flush within the same transaction is still managed so its completion
+                // data was already written by dirty checking on flush
+                continue;
+            }
+            long id = log.getId();
+            Long duration = log.getDuration();
+            if (!instance.known) {
+                Object[] row = active.get(log.getProcessInstanceId());
+                if (row == null) {
+                    continue;
+                }
+                id = (Long) row[1];
+                if (row[2] != null && log.getEnd() != null) {
+                    duration = log.getEnd().getTime() - ((Date) row[2]).getTime();
+                }
+            }
+            em.createQuery(COMPLETE_PROCESS_INSTANCE_LOG)
+                .setParameter("end", log.getEnd())
+                .setParameter("duration", duration)
+                .setParameter("status", log.getStatus())
+                .setParameter("outcome", log.getOutcome())
+                .setParameter("description", log.getProcessInstanceDescription())
+                .setParameter("id", id)
+                .executeUpdate();
+        }
+    }
+
+    protected class AuditLogBuffer extends OrderedTransactionSynchronization {
+
+        private final Environment env;
+        private final List<Object> entities = new ArrayList<Object>();
+        private final Set<Object> buffered = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        private final List<CompletedProcessInstance> completed = new ArrayList<CompletedProcessInstance>();
+        private volatile boolean done = false;
+
+        AuditLogBuffer(Environment env) {
+            // flush before any other synchronization (e.g. session destroy) of the transaction
+            super(1, bufferKey);
+            this.env = env;
+        }
+
+        void add(Object entity) {
+            if (buffered.add(entity)) {
+                entities.add(entity);
+            }
+        }
+
+        boolean contains(Object entity) {
+            return buffered.contains(entity);
+        }
+
+        @Override
+        public void beforeCompletion() {
+            try {
+                flush(this);
+            } finally {
+                done = true;
+            }
+        }
+
+        void clear() {
+            entities.clear();
+            buffered.clear();
+            completed.clear();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            done = true;
+            clear();
+        }
+    }
+
+    protected static class CompletedProcessInstance {
+
+        private final ProcessInstanceLog log;
+        private final boolean known;
+
+        CompletedProcessInstance(ProcessInstanceLog log, boolean known) {
+            this.log = log;
+            this.known = known;
+        }
+    }
+}
@@ -370,10 +370,16 @@ public class JPAAuditLogService extends JPAService implements AuditLogService {
    
     // Delete queries -------------------------------------------------------------------------------------------------------------
    
+    /**
+     * Identifier of the id criteria of delete queries - all audit log entities use <code>id</code> as primary key
+     */
+    public static final String LOG_ID_LIST = "LogIdList";
+    
     public static Map<String, String> criteriaFields = new ConcurrentHashMap<String, String>();
     public static Map<String, Class<?>> criteriaFieldClasses = new ConcurrentHashMap<String, Class<?>>();
     
     static { 
+        addCriteria(LOG_ID_LIST, "l.id", Long.class);
         addCriteria(PROCESS_INSTANCE_ID_LIST, "l.processInstanceId", Long.class);
         addCriteria(PROCESS_ID_LIST, "l.processId", String.class);
         addCriteria(WORK_ITEM_ID_LIST, "l.workItemId", Long.class);
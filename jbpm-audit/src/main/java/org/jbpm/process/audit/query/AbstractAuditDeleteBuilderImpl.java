@@ -15,6 +15,7 @@
 
 package org.jbpm.process.audit.query;
 
+import static org.jbpm.process.audit.JPAAuditLogService.LOG_ID_LIST;
 import static org.kie.internal.query.QueryParameterIdentifiers.DATE_LIST;
 import static org.kie.internal.query.QueryParameterIdentifiers.PROCESS_ID_LIST;
 import static org.kie.internal.query.QueryParameterIdentifiers.PROCESS_INSTANCE_ID_LIST;
@@ -97,6 +98,18 @@ public abstract class AbstractAuditDeleteBuilderImpl<T> extends AbstractDeleteBu
         return (T) this;
     }
 
+    /**
+     * Restricts deletion to entries which id is within given range (inclusive), allows to delete
+     * large amount of entries in chunks.
+     * @param rangeStart lowest id of entries to be deleted
+     * @param rangeEnd highest id of entries to be deleted
+     */
+    @SuppressWarnings("unchecked")
+    public T idRange(long rangeStart, long rangeEnd) {
+        addRangeParameters(LOG_ID_LIST, "id range", rangeStart, rangeEnd);
+        return (T) this;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public T processInstanceId(long... processInstanceId) {
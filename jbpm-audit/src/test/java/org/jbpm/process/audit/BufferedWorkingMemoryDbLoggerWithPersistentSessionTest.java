@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.process.audit;
+
+import static org.jbpm.persistence.util.PersistenceUtil.createEnvironment;
+import static org.jbpm.process.audit.AbstractAuditLogServiceTest.createKieSession;
+import static org.junit.Assert.assertEquals;
+
+import javax.naming.InitialContext;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.jbpm.process.instance.impl.demo.SystemOutWorkItemHandler;
+import org.junit.Test;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.Environment;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.process.ProcessInstance;
+
+/*
+ * This class tests the following classes: 
+ * <ul>
+ * <li>BufferedJPAWorkingMemoryDbLogger</li>
+ * </ul>
+ */
+public class BufferedWorkingMemoryDbLoggerWithPersistentSessionTest extends AbstractWorkingMemoryDbLoggerTest {
+
+    private KieSession ksession = null;
+    
+    @Override
+    public ProcessInstance startProcess(String processName) {
+        if( ksession == null ) { 
+            KieBase kbase = createKnowledgeBase();
+            
+            Environment env = createEnvironment(context);
+            ksession = createKieSession(kbase, env);
+            
+            new BufferedJPAWorkingMemoryDbLogger(ksession);
+            ksession.getWorkItemManager().registerWorkItemHandler("Human Task", new SystemOutWorkItemHandler());
+        }
+        return ksession.startProcess(processName);
+    }
+
+    @Test
+    public void testBufferedLogsVisibleInTransactionAfterFlush() throws Exception {
+        KieSession session = createKieSession(createKnowledgeBase(), createEnvironment(context));
+        BufferedJPAWorkingMemoryDbLogger bufferedLogger = new BufferedJPAWorkingMemoryDbLogger(session);
+        session.getWorkItemManager().registerWorkItemHandler("Human Task", new SystemOutWorkItemHandler());
+        Environment env = session.getEnvironment();
+
+        UserTransaction ut = InitialContext.doLookup("java:comp/UserTransaction");
+        ut.begin();
+        try {
+            long processInstanceId = session.startProcess("com.sample.ruleflow").getId();
+            EntityManager em = bufferedLogger.getEntityManager(env);
+
+            // log entries are buffered until the transaction completes
+            assertEquals(0, countNodeInstanceLogs(em, processInstanceId));
+
+            bufferedLogger.flush(env);
+            assertEquals(6, countNodeInstanceLogs(em, processInstanceId));
+        } finally {
+            ut.rollback();
+            session.dispose();
+        }
+    }
+
+    private long countNodeInstanceLogs(EntityManager em, long processInstanceId) {
+        return em.createQuery("select count(log) from NodeInstanceLog log where log.processInstanceId = :piId", Long.class)
+                .setParameter("piId", processInstanceId)
+                .getSingleResult();
+    }
+
+}
@@ -27,9 +27,11 @@ import static org.jbpm.process.audit.query.AuditQueryDataUtil.createTestVariable
 import static org.jbpm.process.audit.query.AuditQueryDataUtil.randomLong;
 import static org.jbpm.process.audit.query.AuditQueryDataUtil.verifyMaxMinDuration;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.kie.api.runtime.EnvironmentName.ENTITY_MANAGER_FACTORY;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
@@ -37,6 +39,10 @@ import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -48,6 +54,7 @@ import org.jbpm.process.audit.ProcessInstanceLog;
 import org.jbpm.process.audit.VariableInstanceLog;
 import org.jbpm.process.audit.strategy.StandaloneJtaStrategy;
 import org.jbpm.process.instance.impl.util.LoggingPrintStream;
+import org.jbpm.query.jpa.impl.QueryPlanCache;
 import org.jbpm.test.util.AbstractBaseTest;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -496,6 +503,65 @@ public class AuditQueryTest extends JPAAuditLogService {
        verifyMaxMinDuration(resultList, BOTH, min, max );
     }
 
+    @Test
+    public void queryPlanCacheTest() {
+        QueryPlanCache planCache = QueryPlanCache.getInstance();
+        for( int i = 0; i < 5; ++i ) {
+            ProcessInstanceLog pil = pilTestData[i];
+            long hits = planCache.getHits();
+
+            List<org.kie.api.runtime.manager.audit.ProcessInstanceLog> resultList = this.processInstanceLogQuery()
+                    .intersect()
+                    .processInstanceId(pil.getProcessInstanceId())
+                    .processId(pil.getProcessId())
+                    .build().getResultList();
+            assertFalse( "empty result for query " + i, resultList.isEmpty());
+            for( org.kie.api.runtime.manager.audit.ProcessInstanceLog log : resultList ) {
+                assertEquals( "process instance id", pil.getProcessInstanceId(), log.getProcessInstanceId());
+                assertEquals( "process id", pil.getProcessId(), log.getProcessId());
+            }
+            if( i > 0 ) {
+                // same query shape, different values
+                assertEquals( "cached query for query " + i, hits + 1, planCache.getHits());
+            }
+        }
+    }
+
+    @Test
+    public void queryPlanCacheConcurrentTest() throws Exception {
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for( int t = 0; t < threads; ++t ) {
+                results.add(executor.submit(() -> {
+                    for( int i = 0; i < 20; ++i ) {
+                        ProcessInstanceLog pil = pilTestData[i % 5];
+                        List<org.kie.api.runtime.manager.audit.ProcessInstanceLog> resultList = this.processInstanceLogQuery()
+                                .intersect()
+                                .processInstanceId(pil.getProcessInstanceId())
+                                .processId(pil.getProcessId())
+                                .build().getResultList();
+                        for( org.kie.api.runtime.manager.audit.ProcessInstanceLog log : resultList ) {
+                            if( log.getProcessInstanceId() != pil.getProcessInstanceId() ) {
+                                return false;
+                            }
+                        }
+                        if( resultList.isEmpty() ) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for( Future<Boolean> result : results ) {
+                assertTrue( "wrong result for concurrently executed cached query", result.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void orderByQueryBuilderTest() { 
        ProcessInstanceLogQueryBuilder builder = this.processInstanceLogQuery();
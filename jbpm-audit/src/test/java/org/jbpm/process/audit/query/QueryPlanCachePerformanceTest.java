@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.process.audit.query;
+
+import static org.jbpm.persistence.util.PersistenceUtil.JBPM_PERSISTENCE_UNIT_NAME;
+import static org.jbpm.persistence.util.PersistenceUtil.cleanUp;
+import static org.jbpm.persistence.util.PersistenceUtil.setupWithPoolingDataSource;
+import static org.jbpm.process.audit.query.AuditQueryDataUtil.createTestProcessInstanceLogData;
+import static org.junit.Assert.assertFalse;
+import static org.kie.api.runtime.EnvironmentName.ENTITY_MANAGER_FACTORY;
+import static org.kie.internal.query.QueryParameterIdentifiers.PROCESS_ID_LIST;
+import static org.kie.internal.query.QueryParameterIdentifiers.PROCESS_INSTANCE_ID_LIST;
+import static org.kie.internal.query.QueryParameterIdentifiers.START_DATE_LIST;
+
+import java.util.HashMap;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.jbpm.process.audit.AuditQueryCriteriaUtil;
+import org.jbpm.process.audit.JPAAuditLogService;
+import org.jbpm.process.audit.ProcessInstanceLog;
+import org.jbpm.query.jpa.data.QueryWhere;
+import org.jbpm.query.jpa.impl.QueryPlanCache;
+import org.jbpm.test.util.AbstractBaseTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares execution of the same query shape (with different values) with and without the {@link QueryPlanCache}.
+ * Number of executed queries can be set with system property org.jbpm.query.plan.benchmark.queries (defaults to 20 000).
+ */
+@Ignore("performance benchmark, run manually")
+public class QueryPlanCachePerformanceTest extends AbstractBaseTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanCachePerformanceTest.class);
+
+    private static final int QUERIES = Integer.parseInt(System.getProperty("org.jbpm.query.plan.benchmark.queries", "20000"));
+    private static final int WARM_UP = 1000;
+
+    private HashMap<String, Object> context;
+    private JPAAuditLogService auditLogService;
+    private ProcessInstanceLog [] pilTestData;
+
+    @Before
+    public void setUp() throws Exception {
+        context = setupWithPoolingDataSource(JBPM_PERSISTENCE_UNIT_NAME);
+        EntityManagerFactory emf = (EntityManagerFactory) context.get(ENTITY_MANAGER_FACTORY);
+        pilTestData = createTestProcessInstanceLogData(emf);
+        auditLogService = new JPAAuditLogService(emf);
+    }
+
+    @After
+    public void cleanup() {
+        auditLogService.dispose();
+        cleanUp(context);
+    }
+
+    @Test
+    public void testQueryWithAndWithoutPlanCache() {
+        QueryPlanCache planCache = new QueryPlanCache(100);
+        AuditQueryCriteriaUtil cachedQueryUtil = new TestAuditQueryCriteriaUtil(auditLogService, planCache);
+        AuditQueryCriteriaUtil queryUtil = new TestAuditQueryCriteriaUtil(auditLogService, new QueryPlanCache(0));
+
+        runQueries(queryUtil, WARM_UP);
+        long withoutCache = runQueries(queryUtil, QUERIES);
+
+        runQueries(cachedQueryUtil, WARM_UP);
+        planCache.resetStatistics();
+        long withCache = runQueries(cachedQueryUtil, QUERIES);
+
+        logger.info("{} queries: without plan cache {} ms, with plan cache {} ms (hit ratio {})",
+                QUERIES, withoutCache / 1000000, withCache / 1000000, planCache.getHitRatio());
+    }
+
+    private long runQueries(AuditQueryCriteriaUtil queryUtil, int queries) {
+        long start = System.nanoTime();
+        for( int i = 0; i < queries; ++i ) {
+            ProcessInstanceLog pil = pilTestData[i % pilTestData.length];
+            QueryWhere queryWhere = new QueryWhere();
+            queryWhere.setToIntersection();
+            queryWhere.addParameter(PROCESS_INSTANCE_ID_LIST, pil.getProcessInstanceId());
+            queryWhere.addParameter(PROCESS_ID_LIST, pil.getProcessId());
+            queryWhere.addRangeParameter(START_DATE_LIST, pil.getStart(), true);
+            queryWhere.setAscending(PROCESS_INSTANCE_ID_LIST);
+            assertFalse(queryUtil.doCriteriaQuery(queryWhere, ProcessInstanceLog.class).isEmpty());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static class TestAuditQueryCriteriaUtil extends AuditQueryCriteriaUtil {
+
+        private final QueryPlanCache planCache;
+
+        TestAuditQueryCriteriaUtil(JPAAuditLogService service, QueryPlanCache planCache) {
+            super(service);
+            this.planCache = planCache;
+        }
+
+        @Override
+        protected QueryPlanCache getQueryPlanCache() {
+            return planCache;
+        }
+    }
+}
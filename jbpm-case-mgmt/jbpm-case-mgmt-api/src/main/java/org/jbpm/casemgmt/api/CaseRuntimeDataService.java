@@ -21,6 +21,7 @@ import java.util.List;
 
 import org.jbpm.casemgmt.api.model.AdHocFragment;
 import org.jbpm.casemgmt.api.model.CaseDefinition;
+import org.jbpm.casemgmt.api.model.instance.CaseFileDataItem;
 import org.jbpm.casemgmt.api.model.instance.CaseInstance;
 import org.jbpm.casemgmt.api.model.instance.CaseMilestoneInstance;
 import org.jbpm.casemgmt.api.model.instance.CaseStageInstance;
@@ -168,4 +169,35 @@ public interface CaseRuntimeDataService {
      */
     Collection<CaseInstance> getCaseInstancesOwnedBy(String owner, List<Integer> statuses, QueryContext queryContext);
     
+    /**
+     * Returns all case instances that have data item with given name and value in their case file
+     * @param dataItemName name of the case file data item
+     * @param dataItemValue value (string representation) of the case file data item
+     * @param statuses list of statuses that case should be in to match
+     * @param queryContext control parameters for the result e.g. sorting, paging
+     *
+     */
+    Collection<CaseInstance> getCaseInstancesByDataItem(String dataItemName, String dataItemValue, List<Integer> statuses, QueryContext queryContext);
+    
+    /*
+     * Case file data related
+     */
+    
+    /**
+     * Returns data items of case file of given case as they were last stored. Case instance itself is not accessed.
+     * @param caseId unique id of the case
+     * @param queryContext control parameters for the result e.g. sorting, paging
+     *
+     */
+    Collection<CaseFileDataItem> getCaseInstanceDataItems(String caseId, QueryContext queryContext);
+    
+    /**
+     * Returns data items with given names of case file of given case as they were last stored. Case instance itself is not accessed.
+     * @param caseId unique id of the case
+     * @param names names of data items to return
+     * @param queryContext control parameters for the result e.g. sorting, paging
+     *
+     */
+    Collection<CaseFileDataItem> getCaseInstanceDataItemsByName(String caseId, List<String> names, QueryContext queryContext);
+    
 }
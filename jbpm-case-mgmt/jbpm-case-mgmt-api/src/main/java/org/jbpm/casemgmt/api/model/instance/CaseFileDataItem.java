@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.casemgmt.api.model.instance;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Represents single data item of a case file as it was last stored,
+ * available without accessing the case instance itself
+ *
+ */
+public interface CaseFileDataItem extends Serializable {
+
+    /**
+     * Returns id of the case that data item belongs to
+     * @return case id
+     */
+    String getCaseId();
+
+    /**
+     * Name of the data item in case file
+     * @return name of the data item
+     */
+    String getName();
+
+    /**
+     * String representation of the data item value
+     * @return value of the data item
+     */
+    String getValue();
+
+    /**
+     * Fully qualified class name of the data item value
+     * @return type of the data item
+     */
+    String getType();
+
+    /**
+     * Date at which data item was last modified
+     * @return last modification date
+     */
+    Date getLastModified();
+}
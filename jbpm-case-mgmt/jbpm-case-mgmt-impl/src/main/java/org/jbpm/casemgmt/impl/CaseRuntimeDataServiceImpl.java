@@ -39,6 +39,7 @@ import org.jbpm.casemgmt.api.model.CaseDefinition;
 import org.jbpm.casemgmt.api.model.CaseMilestone;
 import org.jbpm.casemgmt.api.model.CaseRole;
 import org.jbpm.casemgmt.api.model.CaseStage;
+import org.jbpm.casemgmt.api.model.instance.CaseFileDataItem;
 import org.jbpm.casemgmt.api.model.instance.CaseInstance;
 import org.jbpm.casemgmt.api.model.instance.CaseMilestoneInstance;
 import org.jbpm.casemgmt.api.model.instance.CaseStageInstance;
@@ -375,6 +376,44 @@ public class CaseRuntimeDataServiceImpl implements CaseRuntimeDataService, Deplo
         return processInstances;
     }
     
+    @Override
+    public Collection<CaseInstance> getCaseInstancesByDataItem(String dataItemName, String dataItemValue, List<Integer> statuses, QueryContext queryContext) {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("itemName", dataItemName);
+        params.put("itemValue", dataItemValue);
+        params.put("statuses", statuses);
+        applyQueryContext(params, queryContext);
+        applyDeploymentFilter(params);
+        List<CaseInstance> processInstances =  commandService.execute(new QueryNameCommand<List<CaseInstance>>("getCaseInstancesByDataItem", params));
+
+        return processInstances;
+    }
+    
+    /*
+     * Case file data queries
+     */
+    
+    @Override
+    public Collection<CaseFileDataItem> getCaseInstanceDataItems(String caseId, QueryContext queryContext) {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("caseId", caseId);
+        applyQueryContext(params, queryContext);
+        List<CaseFileDataItem> dataItems =  commandService.execute(new QueryNameCommand<List<CaseFileDataItem>>("findCaseFileDataLogs", params));
+
+        return dataItems;
+    }
+
+    @Override
+    public Collection<CaseFileDataItem> getCaseInstanceDataItemsByName(String caseId, List<String> names, QueryContext queryContext) {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("caseId", caseId);
+        params.put("itemNames", names);
+        applyQueryContext(params, queryContext);
+        List<CaseFileDataItem> dataItems =  commandService.execute(new QueryNameCommand<List<CaseFileDataItem>>("findCaseFileDataLogsByName", params));
+
+        return dataItems;
+    }
+    
     @Override
     public Collection<AdHocFragment> getAdHocFragmentsForCase(String caseId) {
         ProcessInstanceDesc pi = runtimeDataService.getProcessInstanceByCorrelationKey(correlationKeyFactory.newCorrelationKey(caseId));        
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.casemgmt.impl.audit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.drools.core.ClassObjectFilter;
+import org.drools.core.command.impl.GenericCommand;
+import org.jbpm.casemgmt.api.event.CaseCancelEvent;
+import org.jbpm.casemgmt.api.event.CaseCommentEvent;
+import org.jbpm.casemgmt.api.event.CaseDataEvent;
+import org.jbpm.casemgmt.api.event.CaseDestroyEvent;
+import org.jbpm.casemgmt.api.event.CaseDynamicSubprocessEvent;
+import org.jbpm.casemgmt.api.event.CaseDynamicTaskEvent;
+import org.jbpm.casemgmt.api.event.CaseEventListener;
+import org.jbpm.casemgmt.api.event.CaseReopenEvent;
+import org.jbpm.casemgmt.api.event.CaseRoleAssignmentEvent;
+import org.jbpm.casemgmt.api.event.CaseStartEvent;
+import org.jbpm.casemgmt.api.model.instance.CaseFileInstance;
+import org.jbpm.process.core.context.variable.VariableScope;
+import org.jbpm.shared.services.impl.JpaPersistenceContext;
+import org.jbpm.shared.services.impl.TransactionalCommandService;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessVariableChangedEvent;
+import org.kie.api.runtime.EnvironmentName;
+import org.kie.api.runtime.KieRuntime;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.command.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps {@link CaseFileDataLog} entries in sync with case file data so it can be queried
+ * without loading the case instance.
+ * <br/>
+ * Changes are written in the same transaction as the operation that made them. Data changed via case service
+ * is captured by case events, data changed by processes of the case (<code>caseFile_</code> variables) is captured
+ * by process variable changed events - so the listener is registered as both case and process event listener.
+ * That is done for every case deployment by {@link org.jbpm.casemgmt.impl.event.CaseConfigurationDeploymentListener}
+ * unless the deployment descriptor registers it already or it is turned off with
+ * -Dorg.jbpm.casemgmt.data.log.enabled=false.
+ */
+public class CaseFileAuditEventListener extends DefaultProcessEventListener implements CaseEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaseFileAuditEventListener.class);
+
+    private static final int VALUE_LENGTH = Integer.parseInt(System.getProperty("org.jbpm.casemgmt.data.log.length", "255"));
+
+    private TransactionalCommandService commandService;
+
+    public CaseFileAuditEventListener(EntityManagerFactory emf) {
+        this(new TransactionalCommandService(emf));
+    }
+
+    public CaseFileAuditEventListener(TransactionalCommandService commandService) {
+        this.commandService = commandService;
+    }
+
+    /**
+     * Used when registered as process event listener class, uses entity manager factory of the session
+     */
+    public CaseFileAuditEventListener(KieSession ksession) {
+        this((EntityManagerFactory) ksession.getEnvironment().get(EnvironmentName.ENTITY_MANAGER_FACTORY));
+    }
+
+    /*
+     * case events that change case file
+     */
+
+    @Override
+    public void afterCaseStarted(CaseStartEvent event) {
+        CaseFileInstance caseFile = event.getCaseFile();
+        if (caseFile != null) {
+            storeData(event.getCaseId(), caseFile.getData());
+        }
+    }
+
+    @Override
+    public void afterCaseReopen(CaseReopenEvent event) {
+        storeData(event.getCaseId(), event.getData());
+    }
+
+    @Override
+    public void afterCaseDataAdded(CaseDataEvent event) {
+        storeData(event.getCaseId(), event.getData());
+    }
+
+    @Override
+    public void afterCaseDataRemoved(CaseDataEvent event) {
+        if (event.getData() != null && !event.getData().isEmpty()) {
+            removeData(event.getCaseId(), new ArrayList<String>(event.getData().keySet()));
+        }
+    }
+
+    @Override
+    public void afterCaseDestroyed(CaseDestroyEvent event) {
+        removeData(event.getCaseId(), null);
+    }
+
+    /*
+     * process events that change case file
+     */
+
+    @Override
+    public void afterVariableChanged(ProcessVariableChangedEvent event) {
+        String variableName = event.getVariableId();
+        // variables of inner scopes are prefixed with id of the scope
+        int scopeSeparator = variableName.lastIndexOf(':');
+        if (scopeSeparator != -1) {
+            variableName = variableName.substring(scopeSeparator + 1);
+        }
+        if (!variableName.startsWith(VariableScope.CASE_FILE_PREFIX)) {
+            return;
+        }
+        String caseId = getCaseId(event.getKieRuntime());
+        if (caseId == null) {
+            logger.debug("No distinct case file found for variable {}, skipping", variableName);
+            return;
+        }
+        String itemName = variableName.substring(VariableScope.CASE_FILE_PREFIX.length());
+        if (event.getNewValue() == null) {
+            removeData(caseId, Collections.singletonList(itemName));
+        } else {
+            storeData(caseId, Collections.singletonMap(itemName, event.getNewValue()));
+        }
+    }
+
+    /*
+     * helper methods
+     */
+
+    protected String getCaseId(KieRuntime kruntime) {
+        Collection<? extends Object> caseFiles = kruntime.getObjects(new ClassObjectFilter(CaseFileInstance.class));
+        if (caseFiles.size() != 1) {
+            return null;
+        }
+        return ((CaseFileInstance) caseFiles.iterator().next()).getCaseId();
+    }
+
+    protected void storeData(String caseId, Map<String, Object> data) {
+        if (data == null || data.isEmpty()) {
+            return;
+        }
+        logger.debug("Storing case file data {} of case {}", data.keySet(), caseId);
+        commandService.execute(new StoreCaseFileDataCommand(caseId, data));
+    }
+
+    protected void removeData(String caseId, List<String> itemNames) {
+        logger.debug("Removing case file data {} of case {}", (itemNames == null ? "(all)" : itemNames), caseId);
+        commandService.execute(new RemoveCaseFileDataCommand(caseId, itemNames));
+    }
+
+    protected static String toValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String stringValue = value.toString();
+        if (stringValue.length() > VALUE_LENGTH) {
+            stringValue = stringValue.substring(0, VALUE_LENGTH);
+        }
+        return stringValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static List<CaseFileDataLog> findCaseFileData(JpaPersistenceContext ctx, String caseId, List<String> itemNames) {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("caseId", caseId);
+        if (itemNames == null) {
+            return ctx.queryWithParametersInTransaction("findCaseFileDataLogs", params, List.class);
+        }
+        params.put("itemNames", itemNames);
+        return ctx.queryWithParametersInTransaction("findCaseFileDataLogsByName", params, List.class);
+    }
+
+    private static class StoreCaseFileDataCommand implements GenericCommand<Void> {
+
+        private static final long serialVersionUID = -2516830541843562738L;
+
+        private String caseId;
+        private Map<String, Object> data;
+
+        StoreCaseFileDataCommand(String caseId, Map<String, Object> data) {
+            this.caseId = caseId;
+            this.data = data;
+        }
+
+        @Override
+        public Void execute(Context context) {
+            JpaPersistenceContext ctx = (JpaPersistenceContext) context;
+            Map<String, CaseFileDataLog> existing = new HashMap<String, CaseFileDataLog>();
+            for (CaseFileDataLog log : findCaseFileData(ctx, caseId, new ArrayList<String>(data.keySet()))) {
+                existing.put(log.getItemName(), log);
+            }
+            Date now = new Date();
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                CaseFileDataLog log = existing.get(entry.getKey());
+                boolean isNew = log == null;
+                if (isNew) {
+                    log = new CaseFileDataLog(caseId, entry.getKey());
+                }
+                log.setItemType(entry.getValue() == null ? null : entry.getValue().getClass().getName());
+                log.setItemValue(toValue(entry.getValue()));
+                log.setLastModified(now);
+                if (isNew) {
+                    ctx.persist(log);
+                } else {
+                    ctx.merge(log);
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class RemoveCaseFileDataCommand implements GenericCommand<Void> {
+
+        private static final long serialVersionUID = 3675467382059102846L;
+
+        private String caseId;
+        private List<String> itemNames;
+
+        RemoveCaseFileDataCommand(String caseId, List<String> itemNames) {
+            this.caseId = caseId;
+            this.itemNames = itemNames;
+        }
+
+        @Override
+        public Void execute(Context context) {
+            JpaPersistenceContext ctx = (JpaPersistenceContext) context;
+            for (CaseFileDataLog log : findCaseFileData(ctx, caseId, itemNames)) {
+                ctx.remove(log);
+            }
+            return null;
+        }
+    }
+
+    /*
+     * case events that do not change case file
+     */
+
+    @Override
+    public void beforeCaseStarted(CaseStartEvent event) {
+    }
+
+    @Override
+    public void beforeCaseCancelled(CaseCancelEvent event) {
+    }
+
+    @Override
+    public void afterCaseCancelled(CaseCancelEvent event) {
+    }
+
+    @Override
+    public void beforeCaseDestroyed(CaseDestroyEvent event) {
+    }
+
+    @Override
+    public void beforeCaseReopen(CaseReopenEvent event) {
+    }
+
+    @Override
+    public void beforeCaseCommentAdded(CaseCommentEvent event) {
+    }
+
+    @Override
+    public void afterCaseCommentAdded(CaseCommentEvent event) {
+    }
+
+    @Override
+    public void beforeCaseCommentUpdated(CaseCommentEvent event) {
+    }
+
+    @Override
+    public void afterCaseCommentUpdated(CaseCommentEvent event) {
+    }
+
+    @Override
+    public void beforeCaseCommentRemoved(CaseCommentEvent event) {
+    }
+
+    @Override
+    public void afterCaseCommentRemoved(CaseCommentEvent event) {
+    }
+
+    @Override
+    public void beforeCaseRoleAssignmentAdded(CaseRoleAssignmentEvent event) {
+    }
+
+    @Override
+    public void afterCaseRoleAssignmentAdded(CaseRoleAssignmentEvent event) {
+    }
+
+    @Override
+    public void beforeCaseRoleAssignmentRemoved(CaseRoleAssignmentEvent event) {
+    }
+
+    @Override
+    public void afterCaseRoleAssignmentRemoved(CaseRoleAssignmentEvent event) {
+    }
+
+    @Override
+    public void beforeCaseDataAdded(CaseDataEvent event) {
+    }
+
+    @Override
+    public void beforeCaseDataRemoved(CaseDataEvent event) {
+    }
+
+    @Override
+    public void beforeDynamicTaskAdded(CaseDynamicTaskEvent event) {
+    }
+
+    @Override
+    public void afterDynamicTaskAdded(CaseDynamicTaskEvent event) {
+    }
+
+    @Override
+    public void beforeDynamicProcessAdded(CaseDynamicSubprocessEvent event) {
+    }
+
+    @Override
+    public void afterDynamicProcessAdded(CaseDynamicSubprocessEvent event) {
+    }
+}
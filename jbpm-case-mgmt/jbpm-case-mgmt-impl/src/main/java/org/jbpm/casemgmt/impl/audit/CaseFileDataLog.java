@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.casemgmt.impl.audit;
+
+import java.util.Date;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.UniqueConstraint;
+
+import org.jbpm.casemgmt.api.model.instance.CaseFileDataItem;
+
+/**
+ * Last stored value of single case file data item. Kept up to date by {@link CaseFileAuditEventListener}
+ * so case file data can be read and searched without loading the case instance.
+ */
+@Entity
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames={"caseId", "itemName"})})
+// supports search of case instances by data item value (JPA 2.0 has no index mapping)
+@org.hibernate.annotations.Table(appliesTo = "CaseFileDataLog",
+        indexes = {@org.hibernate.annotations.Index(name = "IDX_CaseFileData_NameValue", columnNames = {"itemName", "itemValue"})})
+@SequenceGenerator(name="caseFileDataLogIdSeq", sequenceName="CASE_FILE_DATA_LOG_ID_SEQ")
+public class CaseFileDataLog implements CaseFileDataItem {
+
+    private static final long serialVersionUID = 3393286346347131542L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator="caseFileDataLogIdSeq")
+    private Long id;
+
+    private String caseId;
+
+    private String itemName;
+
+    private String itemType;
+
+    private String itemValue;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModified;
+
+    public CaseFileDataLog() {
+
+    }
+
+    public CaseFileDataLog(String caseId, String itemName) {
+        this.caseId = caseId;
+        this.itemName = itemName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getCaseId() {
+        return caseId;
+    }
+
+    public void setCaseId(String caseId) {
+        this.caseId = caseId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getItemType() {
+        return itemType;
+    }
+
+    public void setItemType(String itemType) {
+        this.itemType = itemType;
+    }
+
+    public String getItemValue() {
+        return itemValue;
+    }
+
+    public void setItemValue(String itemValue) {
+        this.itemValue = itemValue;
+    }
+
+    @Override
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public String getName() {
+        return itemName;
+    }
+
+    @Override
+    public String getValue() {
+        return itemValue;
+    }
+
+    @Override
+    public String getType() {
+        return itemType;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((caseId == null) ? 0 : caseId.hashCode());
+        result = prime * result + ((id == null) ? 0 : id.hashCode());
+        result = prime * result + ((itemName == null) ? 0 : itemName.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        CaseFileDataLog other = (CaseFileDataLog) obj;
+        if (caseId == null) {
+            if (other.caseId != null)
+                return false;
+        } else if (!caseId.equals(other.caseId))
+            return false;
+        if (id == null) {
+            if (other.id != null)
+                return false;
+        } else if (!id.equals(other.id))
+            return false;
+        if (itemName == null) {
+            if (other.itemName != null)
+                return false;
+        } else if (!itemName.equals(other.itemName))
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "CaseFileDataLog [caseId=" + caseId + ", itemName=" + itemName + ", itemType=" + itemType + ", itemValue=" + itemValue + "]";
+    }
+
+}
@@ -21,11 +21,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.persistence.EntityManagerFactory;
+
 import org.jbpm.casemgmt.api.event.CaseEventListener;
+import org.jbpm.casemgmt.impl.audit.CaseFileAuditEventListener;
 import org.jbpm.runtime.manager.impl.PerCaseRuntimeManager;
+import org.jbpm.runtime.manager.impl.SimpleRegisterableItemsFactory;
 import org.jbpm.runtime.manager.impl.SimpleRuntimeEnvironment;
 import org.jbpm.services.api.DeploymentEvent;
 import org.jbpm.services.api.DeploymentEventListener;
+import org.kie.api.runtime.manager.RegisterableItemsFactory;
 import org.kie.internal.runtime.Cacheable;
 import org.kie.internal.runtime.Closeable;
 import org.kie.internal.runtime.conf.DeploymentDescriptor;
@@ -45,11 +50,14 @@ public class CaseConfigurationDeploymentListener implements DeploymentEventListe
     
     private static final Logger logger = LoggerFactory.getLogger(CaseConfigurationDeploymentListener.class);
 
+    private static final boolean CASE_FILE_DATA_LOG_ENABLED = Boolean.parseBoolean(System.getProperty("org.jbpm.casemgmt.data.log.enabled", "true"));
+
     @Override
     public void onDeploy(DeploymentEvent event) {
         InternalRuntimeManager runtimeManager = (InternalRuntimeManager) event.getDeployedUnit().getRuntimeManager();
         if (runtimeManager instanceof PerCaseRuntimeManager) {
             List<CaseEventListener> caseEventListeners = getEventListenerFromDescriptor(runtimeManager);
+            registerCaseFileAuditListener(runtimeManager, caseEventListeners);
             logger.debug("Adding following case event listeners {} for deployment {}", caseEventListeners, event.getDeploymentId());
             CaseEventSupport caseEventSupport = new CaseEventSupport(caseEventListeners);
             ((PerCaseRuntimeManager) runtimeManager).setCaseEventSupport(caseEventSupport);
@@ -110,6 +118,31 @@ public class CaseConfigurationDeploymentListener implements DeploymentEventListe
         return listeners;
     }
 
+    /**
+     * Registers {@link CaseFileAuditEventListener} as case and process event listener of the deployment unless
+     * its deployment descriptor does that already, so case file data queries of <code>CaseRuntimeDataService</code>
+     * are backed by the case file data log for every case deployment.
+     */
+    protected void registerCaseFileAuditListener(InternalRuntimeManager runtimeManager, List<CaseEventListener> caseEventListeners) {
+        if (!CASE_FILE_DATA_LOG_ENABLED) {
+            return;
+        }
+        for (CaseEventListener listener : caseEventListeners) {
+            if (listener instanceof CaseFileAuditEventListener) {
+                // registered by deployment descriptor as both case and process event listener
+                return;
+            }
+        }
+        EntityManagerFactory emf = ((SimpleRuntimeEnvironment) runtimeManager.getEnvironment()).getEmf();
+        RegisterableItemsFactory factory = runtimeManager.getEnvironment().getRegisterableItemsFactory();
+        if (emf == null || !(factory instanceof SimpleRegisterableItemsFactory)) {
+            logger.warn("Case file data log cannot be registered for deployment {}, case file data queries will not return its data", runtimeManager.getIdentifier());
+            return;
+        }
+        caseEventListeners.add(new CaseFileAuditEventListener(emf));
+        ((SimpleRegisterableItemsFactory) factory).addProcessListener(CaseFileAuditEventListener.class);
+    }
+
     protected Map<String, Object> getParametersMap(InternalRuntimeManager runtimeManager) {
         Map<String, Object> parameters = new HashMap<String, Object>();
         parameters.put("runtimeManager", runtimeManager);
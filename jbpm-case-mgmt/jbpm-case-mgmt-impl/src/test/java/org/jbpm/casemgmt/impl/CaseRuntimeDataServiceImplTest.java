@@ -25,6 +25,7 @@ import static org.kie.scanner.MavenRepository.getMavenRepository;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +37,7 @@ import org.jbpm.casemgmt.api.model.CaseDefinition;
 import org.jbpm.casemgmt.api.model.CaseMilestone;
 import org.jbpm.casemgmt.api.model.CaseRole;
 import org.jbpm.casemgmt.api.model.CaseStage;
+import org.jbpm.casemgmt.api.model.instance.CaseFileDataItem;
 import org.jbpm.casemgmt.api.model.instance.CaseFileInstance;
 import org.jbpm.casemgmt.api.model.instance.CaseInstance;
 import org.jbpm.casemgmt.impl.util.AbstractCaseServicesBaseTest;
@@ -466,4 +468,74 @@ public class CaseRuntimeDataServiceImplTest extends AbstractCaseServicesBaseTest
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCaseFileDataItems() {
+        assertNotNull(deploymentService);
+        DeploymentUnit deploymentUnit = new KModuleDeploymentUnit(GROUP_ID, ARTIFACT_ID, VERSION);
+
+        deploymentService.deploy(deploymentUnit);
+        units.add(deploymentUnit);
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "my first case");
+        CaseFileInstance caseFile = caseService.newCaseFileInstance(deploymentUnit.getIdentifier(), EMPTY_CASE_P_ID, data);
+
+        String caseId = caseService.startCase(deploymentUnit.getIdentifier(), EMPTY_CASE_P_ID, caseFile);
+        assertNotNull(caseId);
+        assertEquals(FIRST_CASE_ID, caseId);
+        try {
+            Collection<CaseFileDataItem> dataItems = caseRuntimeDataService.getCaseInstanceDataItems(caseId, new QueryContext());
+            assertNotNull(dataItems);
+            assertEquals(1, dataItems.size());
+
+            CaseFileDataItem dataItem = dataItems.iterator().next();
+            assertEquals(FIRST_CASE_ID, dataItem.getCaseId());
+            assertEquals("name", dataItem.getName());
+            assertEquals("my first case", dataItem.getValue());
+            assertEquals(String.class.getName(), dataItem.getType());
+            assertNotNull(dataItem.getLastModified());
+
+            caseService.addDataToCaseFile(caseId, "customer", "john");
+            caseService.addDataToCaseFile(caseId, "name", "my updated case");
+
+            dataItems = caseRuntimeDataService.getCaseInstanceDataItems(caseId, new QueryContext());
+            assertNotNull(dataItems);
+            assertEquals(2, dataItems.size());
+
+            dataItems = caseRuntimeDataService.getCaseInstanceDataItemsByName(caseId, Arrays.asList("name"), new QueryContext());
+            assertNotNull(dataItems);
+            assertEquals(1, dataItems.size());
+            assertEquals("my updated case", dataItems.iterator().next().getValue());
+
+            Collection<CaseInstance> instances = caseRuntimeDataService.getCaseInstancesByDataItem("customer", "john", Arrays.asList(ProcessInstance.STATE_ACTIVE), new QueryContext());
+            assertNotNull(instances);
+            assertEquals(1, instances.size());
+            assertEquals(FIRST_CASE_ID, instances.iterator().next().getCaseId());
+
+            instances = caseRuntimeDataService.getCaseInstancesByDataItem("customer", "mary", Arrays.asList(ProcessInstance.STATE_ACTIVE), new QueryContext());
+            assertNotNull(instances);
+            assertEquals(0, instances.size());
+
+            caseService.removeDataFromCaseFile(caseId, "customer");
+
+            dataItems = caseRuntimeDataService.getCaseInstanceDataItems(caseId, new QueryContext());
+            assertNotNull(dataItems);
+            assertEquals(1, dataItems.size());
+            assertEquals("name", dataItems.iterator().next().getName());
+
+            caseService.destroyCase(caseId);
+            caseId = null;
+
+            dataItems = caseRuntimeDataService.getCaseInstanceDataItems(FIRST_CASE_ID, new QueryContext());
+            assertNotNull(dataItems);
+            assertEquals(0, dataItems.size());
+        } catch (Exception e) {
+            logger.error("Unexpected error {}", e.getMessage(), e);
+            fail("Unexpected exception " + e.getMessage());
+        } finally {
+            if (caseId != null) {
+                caseService.cancelCase(caseId);
+            }
+        }
+    }
+}
@@ -15,6 +15,9 @@
 
 package org.jbpm.process.core.async;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.kie.api.executor.Command;
 import org.kie.api.executor.CommandContext;
 import org.kie.api.executor.ExecutionResults;
@@ -22,10 +25,20 @@ import org.kie.api.runtime.manager.RuntimeEngine;
 import org.kie.api.runtime.manager.RuntimeManager;
 import org.kie.internal.runtime.manager.RuntimeManagerRegistry;
 import org.kie.internal.runtime.manager.context.ProcessInstanceIdContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
+/**
+ * Signals single process instance (<code>ProcessInstanceId</code>) or a chunk of process instances
+ * (<code>ProcessInstanceIds</code>). When signaling a chunk every process instance is signaled in its own
+ * transaction and failure of one of them does not prevent others from being signaled - ids of signaled
+ * and failed process instances are returned as <code>Succeeded</code> and <code>Failed</code> results.
+ */
 public class AsyncSignalEventCommand implements Command {
 
+    private static final Logger logger = LoggerFactory.getLogger(AsyncSignalEventCommand.class);
+
     @Override
     public ExecutionResults execute(CommandContext ctx) throws Exception {
         String deploymentId = (String) ctx.getData("DeploymentId");
@@ -41,6 +54,11 @@ public class AsyncSignalEventCommand implements Command {
         if (runtimeManager == null) {
             throw new IllegalArgumentException("No runtime manager found for deployment id " + deploymentId);  
         }
+        @SuppressWarnings("unchecked")
+        List<Long> processInstanceIds = (List<Long>) ctx.getData("ProcessInstanceIds");
+        if (processInstanceIds != null) {
+            return signalAll(runtimeManager, processInstanceIds, signal, event);
+        }
         RuntimeEngine engine = runtimeManager.getRuntimeEngine(ProcessInstanceIdContext.get(processInstanceId));        
         try {
             engine.getKieSession().signalEvent(signal, event, processInstanceId);
@@ -51,4 +69,28 @@ public class AsyncSignalEventCommand implements Command {
         }
     }
 
+    protected ExecutionResults signalAll(RuntimeManager runtimeManager, List<Long> processInstanceIds, String signal, Object event) {
+        List<Long> succeeded = new ArrayList<Long>();
+        List<Long> failed = new ArrayList<Long>();
+        for (Long processInstanceId : processInstanceIds) {
+            try {
+                RuntimeEngine engine = runtimeManager.getRuntimeEngine(ProcessInstanceIdContext.get(processInstanceId));
+                try {
+                    engine.getKieSession().signalEvent(signal, event, processInstanceId);
+                } finally {
+                    runtimeManager.disposeRuntimeEngine(engine);
+                }
+                succeeded.add(processInstanceId);
+            } catch (Exception e) {
+                logger.warn("Signal '{}' could not be delivered to process instance {} due to {}", signal, processInstanceId, e.getMessage());
+                logger.debug("Signal delivery failure", e);
+                failed.add(processInstanceId);
+            }
+        }
+        ExecutionResults results = new ExecutionResults();
+        results.setData("Succeeded", succeeded);
+        results.setData("Failed", failed);
+        return results;
+    }
+
 }
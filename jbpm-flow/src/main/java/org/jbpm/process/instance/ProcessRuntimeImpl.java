@@ -42,8 +42,6 @@ import org.drools.core.time.impl.CommandServiceTimerJobFactoryManager;
 import org.drools.core.time.impl.CronExpression;
 import org.drools.core.time.impl.ThreadSafeTrackableTimeJobFactoryManager;
 import org.jbpm.process.core.event.EventFilter;
-import org.jbpm.process.core.event.EventTransformer;
-import org.jbpm.process.core.event.EventTypeFilter;
 import org.jbpm.process.core.timer.BusinessCalendar;
 import org.jbpm.process.core.timer.DateTimeUtils;
 import org.jbpm.process.core.timer.Timer;
@@ -53,12 +51,8 @@ import org.jbpm.process.instance.event.SignalManager;
 import org.jbpm.process.instance.event.SignalManagerFactory;
 import org.jbpm.process.instance.timer.TimerInstance;
 import org.jbpm.process.instance.timer.TimerManager;
-import org.jbpm.ruleflow.core.RuleFlowProcess;
-import org.jbpm.workflow.core.node.EventTrigger;
 import org.jbpm.workflow.core.node.StartNode;
-import org.jbpm.workflow.core.node.Trigger;
 import org.kie.api.KieBase;
-import org.kie.api.definition.process.Node;
 import org.kie.api.definition.process.Process;
 import org.kie.api.event.process.ProcessEventListener;
 import org.kie.api.event.rule.DefaultAgendaEventListener;
@@ -86,6 +80,7 @@ public class ProcessRuntimeImpl implements InternalProcessRuntime {
 	private SignalManager signalManager;
 	private TimerManager timerManager;
 	private ProcessEventSupport processEventSupport;
+	private StartProcessEventListener startProcessEventListener;
 
 	public ProcessRuntimeImpl(InternalKnowledgeRuntime kruntime) {
 		this.kruntime = kruntime;
@@ -107,14 +102,9 @@ public class ProcessRuntimeImpl implements InternalProcessRuntime {
 	}
 	
 	public void initStartTimers() {
-	    KieBase kbase = kruntime.getKieBase();
-        Collection<Process> processes = kbase.getProcesses();
-        for (Process process : processes) {
-            RuleFlowProcess p = (RuleFlowProcess) process;
-            List<StartNode> startNodes = p.getTimerStart();
-            if (startNodes != null && !startNodes.isEmpty()) {
-                kruntime.queueWorkingMemoryAction(new RegisterStartTimerAction(p.getId(), startNodes, this.timerManager));
-            }
+	    StartEventIndex index = StartEventIndex.get(kruntime.getKieBase());
+        for (StartEventIndex.StartTimers startTimers : index.getStartTimers()) {
+            kruntime.queueWorkingMemoryAction(new RegisterStartTimerAction(startTimers.getProcessId(), startTimers.getStartNodes(), this.timerManager));
         }
     }
 
@@ -294,58 +284,23 @@ public class ProcessRuntimeImpl implements InternalProcessRuntime {
     }
     
     public void initProcessEventListeners() {
-        for ( Process process : kruntime.getKieBase().getProcesses() ) {
-            initProcessEventListener(process);
+        removeProcessEventListeners();
+        // start events are indexed once per kie base, session only registers single listener per event type
+        StartEventIndex index = StartEventIndex.get(kruntime.getKieBase());
+        StartProcessEventListener listener = new StartProcessEventListener(index);
+        for (String type : index.getEventTypes()) {
+            signalManager.addEventListener(type, listener);
         }
+        this.startProcessEventListener = listener;
     }
     
     public void removeProcessEventListeners() {
-        for ( Process process : kruntime.getKieBase().getProcesses() ) {
-            removeProcessEventListener(process);
-        }
-    }
-    
-    private void removeProcessEventListener(Process process) {
-        if (process instanceof RuleFlowProcess) {
-            String type = (String) ((RuleFlowProcess) process).getRuntimeMetaData().get("StartProcessEventType");
-            StartProcessEventListener listener = (StartProcessEventListener) ((RuleFlowProcess) process).getRuntimeMetaData().get("StartProcessEventListener");
-            if (type != null && listener != null) {
+        StartProcessEventListener listener = this.startProcessEventListener;
+        if (listener != null) {
+            for (String type : listener.index.getEventTypes()) {
                 signalManager.removeEventListener(type, listener);
             }
-        }
-    }
-    
-    private void initProcessEventListener(Process process) {
-    	if ( process instanceof RuleFlowProcess ) {
-    	    for (Node node : ((RuleFlowProcess) process).getNodes()) {
-    	        if (node instanceof StartNode) {
-                    StartNode startNode = (StartNode) node;
-                    if (startNode != null) {
-                        List<Trigger> triggers = startNode.getTriggers();
-                        if ( triggers != null ) {
-                            for ( Trigger trigger : triggers ) {
-                                if ( trigger instanceof EventTrigger ) {
-                                    final List<EventFilter> filters = ((EventTrigger) trigger).getEventFilters();
-                                    String type = null;
-                                    for ( EventFilter filter : filters ) {
-                                        if ( filter instanceof EventTypeFilter ) {
-                                            type = ((EventTypeFilter) filter).getType();
-                                        }
-                                    }
-                                    StartProcessEventListener listener = new StartProcessEventListener( process.getId(),
-                                                                                                        filters,
-                                                                                                        trigger.getInMappings(),
-                                                                                                        startNode.getEventTransformer());
-                                    signalManager.addEventListener( type,
-                                                                    listener );
-                                    ((RuleFlowProcess) process).getRuntimeMetaData().put("StartProcessEventType", type);
-                                    ((RuleFlowProcess) process).getRuntimeMetaData().put("StartProcessEventListener", listener);
-                                }
-                            }
-                        }
-                    }
-        	    }
-        	}
+            this.startProcessEventListener = null;
         }
     }
     
@@ -367,19 +322,10 @@ public class ProcessRuntimeImpl implements InternalProcessRuntime {
 
     private class StartProcessEventListener implements EventListener {
     	
-	    private String              processId;
-	    private List<EventFilter>   eventFilters;
-	    private Map<String, String> inMappings;
-	    private EventTransformer eventTransformer;
+	    private StartEventIndex index;
 	
-	    public StartProcessEventListener(String processId,
-	                                     List<EventFilter> eventFilters,
-	                                     Map<String, String> inMappings,
-	                                     EventTransformer eventTransformer) {
-	        this.processId = processId;
-	        this.eventFilters = eventFilters;
-	        this.inMappings = inMappings;
-	        this.eventTransformer = eventTransformer;
+	    public StartProcessEventListener(StartEventIndex index) {
+	        this.index = index;
 	    }
 	
 	    public String[] getEventTypes() {
@@ -388,14 +334,24 @@ public class ProcessRuntimeImpl implements InternalProcessRuntime {
 	
 	    public void signalEvent(final String type,
 	                            Object event) {
-	        for ( EventFilter filter : eventFilters ) {
+	        for ( StartEventIndex.StartEvent startEvent : index.getStartEvents( type ) ) {
+	            signalStartEvent( startEvent, type, event );
+	        }
+	    }
+	
+	    private void signalStartEvent(StartEventIndex.StartEvent startEvent,
+	                                  final String type,
+	                                  Object event) {
+	        String processId = startEvent.getProcessId();
+	        Map<String, String> inMappings = startEvent.getInMappings();
+	        for ( EventFilter filter : startEvent.getEventFilters() ) {
 	            if ( !filter.acceptsEvent( type,
 	                                       event ) ) {
 	                return;
 	            }
 	        }
-	        if (eventTransformer != null) {
-    			event = eventTransformer.transformEvent(event);
+	        if (startEvent.getEventTransformer() != null) {
+    			event = startEvent.getEventTransformer().transformEvent(event);
     		}
 	        Map<String, Object> params = null;
 	        if ( inMappings != null && !inMappings.isEmpty() ) {
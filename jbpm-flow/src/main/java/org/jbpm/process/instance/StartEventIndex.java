@@ -0,0 +1,265 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.process.instance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpm.process.core.event.EventFilter;
+import org.jbpm.process.core.event.EventTransformer;
+import org.jbpm.process.core.event.EventTypeFilter;
+import org.jbpm.ruleflow.core.RuleFlowProcess;
+import org.jbpm.workflow.core.node.EventTrigger;
+import org.jbpm.workflow.core.node.StartNode;
+import org.jbpm.workflow.core.node.Trigger;
+import org.kie.api.KieBase;
+import org.kie.api.definition.process.Node;
+import org.kie.api.definition.process.Process;
+import org.kie.api.event.kiebase.AfterKiePackageAddedEvent;
+import org.kie.api.event.kiebase.AfterKiePackageRemovedEvent;
+import org.kie.api.event.kiebase.AfterProcessAddedEvent;
+import org.kie.api.event.kiebase.AfterProcessRemovedEvent;
+import org.kie.api.event.kiebase.DefaultKieBaseEventListener;
+import org.kie.api.event.kiebase.KieBaseEventListener;
+
+/**
+ * Immutable index of start events and start timers of all processes of a kie base.
+ * <br/>
+ * Index is built once per kie base and shared by all sessions created from it, so sessions do not need to go
+ * over all nodes of all processes when they are created. It is rebuilt on next access after processes are added
+ * to or removed from the kie base.
+ */
+public class StartEventIndex {
+
+    private static final Object LOCK = new Object();
+
+    private final Map<String, List<StartEvent>> startEvents = new LinkedHashMap<String, List<StartEvent>>();
+    private final List<StartTimers> startTimers = new ArrayList<StartTimers>();
+
+    /**
+     * Returns index of given kie base, building it if it does not exist yet or processes of the kie base changed.
+     * @param kbase kie base to get the index for
+     * @return start event index of the kie base
+     */
+    public static StartEventIndex get(KieBase kbase) {
+        if (kbase == null) {
+            return new StartEventIndex(Collections.<Process>emptyList());
+        }
+        IndexHolder holder = findHolder(kbase);
+        if (holder == null) {
+            synchronized (LOCK) {
+                holder = findHolder(kbase);
+                if (holder == null) {
+                    holder = new IndexHolder();
+                    kbase.addEventListener(holder);
+                }
+            }
+        }
+        return holder.getIndex(kbase);
+    }
+
+    private static IndexHolder findHolder(KieBase kbase) {
+        for (KieBaseEventListener listener : kbase.getKieBaseEventListeners()) {
+            if (listener instanceof IndexHolder) {
+                return (IndexHolder) listener;
+            }
+        }
+        return null;
+    }
+
+    StartEventIndex(Collection<Process> processes) {
+        for (Process process : processes) {
+            if (!(process instanceof RuleFlowProcess)) {
+                continue;
+            }
+            RuleFlowProcess ruleFlowProcess = (RuleFlowProcess) process;
+            for (Node node : ruleFlowProcess.getNodes()) {
+                if (node instanceof StartNode) {
+                    indexStartNode(process.getId(), (StartNode) node);
+                }
+            }
+            List<StartNode> timerStartNodes = ruleFlowProcess.getTimerStart();
+            if (timerStartNodes != null && !timerStartNodes.isEmpty()) {
+                startTimers.add(new StartTimers(process.getId(), Collections.unmodifiableList(timerStartNodes)));
+            }
+        }
+    }
+
+    private void indexStartNode(String processId, StartNode startNode) {
+        List<Trigger> triggers = startNode.getTriggers();
+        if (triggers == null) {
+            return;
+        }
+        for (Trigger trigger : triggers) {
+            if (trigger instanceof EventTrigger) {
+                List<EventFilter> filters = ((EventTrigger) trigger).getEventFilters();
+                String type = null;
+                for (EventFilter filter : filters) {
+                    if (filter instanceof EventTypeFilter) {
+                        type = ((EventTypeFilter) filter).getType();
+                    }
+                }
+                List<StartEvent> typeStartEvents = startEvents.get(type);
+                if (typeStartEvents == null) {
+                    typeStartEvents = new ArrayList<StartEvent>();
+                    startEvents.put(type, typeStartEvents);
+                }
+                typeStartEvents.add(new StartEvent(processId, filters, trigger.getInMappings(), startNode.getEventTransformer()));
+            }
+        }
+    }
+
+    /**
+     * @return types of events that start processes
+     */
+    public Set<String> getEventTypes() {
+        return Collections.unmodifiableSet(startEvents.keySet());
+    }
+
+    /**
+     * @param type type of the event
+     * @return start events of given type, in order of processes and their start nodes
+     */
+    public List<StartEvent> getStartEvents(String type) {
+        List<StartEvent> typeStartEvents = startEvents.get(type);
+        if (typeStartEvents == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(typeStartEvents);
+    }
+
+    /**
+     * @return timer start nodes of processes that have any
+     */
+    public List<StartTimers> getStartTimers() {
+        return Collections.unmodifiableList(startTimers);
+    }
+
+    public static class StartEvent {
+
+        private final String processId;
+        private final List<EventFilter> eventFilters;
+        private final Map<String, String> inMappings;
+        private final EventTransformer eventTransformer;
+
+        StartEvent(String processId, List<EventFilter> eventFilters, Map<String, String> inMappings, EventTransformer eventTransformer) {
+            this.processId = processId;
+            this.eventFilters = eventFilters;
+            this.inMappings = inMappings;
+            this.eventTransformer = eventTransformer;
+        }
+
+        public String getProcessId() {
+            return processId;
+        }
+
+        public List<EventFilter> getEventFilters() {
+            return eventFilters;
+        }
+
+        public Map<String, String> getInMappings() {
+            return inMappings;
+        }
+
+        public EventTransformer getEventTransformer() {
+            return eventTransformer;
+        }
+    }
+
+    public static class StartTimers {
+
+        private final String processId;
+        private final List<StartNode> startNodes;
+
+        StartTimers(String processId, List<StartNode> startNodes) {
+            this.processId = processId;
+            this.startNodes = startNodes;
+        }
+
+        public String getProcessId() {
+            return processId;
+        }
+
+        public List<StartNode> getStartNodes() {
+            return startNodes;
+        }
+    }
+
+    /*
+     * Registered as kie base event listener so the index lives as long as the kie base does and is dropped
+     * when processes of the kie base change. Does not keep any reference to sessions.
+     */
+    private static class IndexHolder extends DefaultKieBaseEventListener {
+
+        private volatile StartEventIndex index;
+        // incremented on every change so index built concurrently with a change is not cached, guarded by this
+        private long changes = 0;
+
+        StartEventIndex getIndex(KieBase kbase) {
+            StartEventIndex current = index;
+            if (current == null) {
+                long changesBefore = getChanges();
+                current = new StartEventIndex(kbase.getProcesses());
+                publish(current, changesBefore);
+            }
+            return current;
+        }
+
+        private synchronized long getChanges() {
+            return changes;
+        }
+
+        /*
+         * checks for changes and publishes the index atomically with respect to invalidate
+         */
+        private synchronized void publish(StartEventIndex built, long changesBefore) {
+            if (changes == changesBefore) {
+                index = built;
+            }
+        }
+
+        private synchronized void invalidate() {
+            changes++;
+            index = null;
+        }
+
+        @Override
+        public void afterProcessAdded(AfterProcessAddedEvent event) {
+            invalidate();
+        }
+
+        @Override
+        public void afterProcessRemoved(AfterProcessRemovedEvent event) {
+            invalidate();
+        }
+
+        @Override
+        public void afterKiePackageAdded(AfterKiePackageAddedEvent event) {
+            invalidate();
+        }
+
+        @Override
+        public void afterKiePackageRemoved(AfterKiePackageRemovedEvent event) {
+            invalidate();
+        }
+    }
+}
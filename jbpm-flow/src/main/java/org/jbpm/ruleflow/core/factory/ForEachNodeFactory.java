@@ -59,6 +59,11 @@ public class ForEachNodeFactory extends RuleFlowNodeContainerFactory {
         return this;
     }
 
+    public ForEachNodeFactory parallelism(int parallelism) {
+    	getForEachNode().setParallelism(parallelism);
+        return this;
+    }
+
     public ForEachNodeFactory linkIncomingConnections(long nodeId) {
     	this.linkedIncomingNodeId = nodeId;
         return this;
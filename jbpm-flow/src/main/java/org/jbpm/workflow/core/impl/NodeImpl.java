@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.jbpm.process.core.Context;
@@ -31,6 +32,7 @@ import org.jbpm.workflow.core.Node;
 import org.jbpm.workflow.core.node.CompositeNode;
 import org.kie.api.definition.process.Connection;
 import org.kie.api.definition.process.NodeContainer;
+import org.mvel2.MVEL;
 
 /**
  * Default implementation of a node.
@@ -54,6 +56,11 @@ public abstract class NodeImpl implements Node, Serializable, ContextResolver {
     
     protected Map<ConnectionRef, Constraint> constraints = new HashMap<ConnectionRef, Constraint>();
 
+    // MVEL expressions evaluated by node instances, compiled on first use
+    private static final int MAX_COMPILED_EXPRESSIONS = 100;
+    private static final Object NOT_COMPILABLE = new Object();
+    private transient volatile Map<String, Object> compiledExpressions;
+
     public NodeImpl() {
         this.id = -1;
         this.incomingConnections = new HashMap<String, List<Connection>>();
@@ -328,5 +335,42 @@ public abstract class NodeImpl implements Node, Serializable, ContextResolver {
     public Map<ConnectionRef, Constraint> getConstraints() {
         return Collections.unmodifiableMap( this.constraints );
     }
-    
+
+    /**
+     * Returns given MVEL expression in compiled form. Expressions are compiled on first use and kept by the node
+     * so node instances do not need to parse them every time they are executed.
+     * @param expression MVEL expression
+     * @return compiled expression or null if it cannot be compiled (or too many expressions are kept already)
+     * in which case it should be evaluated as is
+     */
+    public Serializable getCompiledExpression(String expression) {
+        if (expression == null) {
+            return null;
+        }
+        Map<String, Object> compiled = compiledExpressions;
+        if (compiled == null) {
+            synchronized (this) {
+                compiled = compiledExpressions;
+                if (compiled == null) {
+                    compiled = new ConcurrentHashMap<String, Object>();
+                    compiledExpressions = compiled;
+                }
+            }
+        }
+        Object result = compiled.get(expression);
+        if (result == null) {
+            // expressions might also come from runtime values (e.g. #{} in parameters) so keep the number bounded
+            if (compiled.size() >= MAX_COMPILED_EXPRESSIONS) {
+                return null;
+            }
+            try {
+                result = MVEL.compileExpression(expression);
+            } catch (RuntimeException e) {
+                result = NOT_COMPILABLE;
+            }
+            compiled.put(expression, result);
+        }
+        return result == NOT_COMPILABLE ? null : (Serializable) result;
+    }
+
 }
@@ -16,10 +16,19 @@
 
 package org.jbpm.workflow.core.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.kie.api.definition.process.Node;
 import org.kie.api.definition.process.NodeContainer;
 import org.jbpm.process.core.impl.ProcessImpl;
 import org.jbpm.workflow.core.WorkflowProcess;
+import org.jbpm.workflow.core.node.EventNodeInterface;
 
 /**
  * Default implementation of a RuleFlow process.
@@ -32,6 +41,7 @@ public class WorkflowProcessImpl extends ProcessImpl implements WorkflowProcess,
     private boolean autoComplete = false;
     private boolean dynamic = false;
     private org.jbpm.workflow.core.NodeContainer nodeContainer;
+    private transient volatile EventNodeIndex eventNodeIndex;
     
     public WorkflowProcessImpl() {
         nodeContainer = (org.jbpm.workflow.core.NodeContainer) createNodeContainer();
@@ -64,13 +74,32 @@ public class WorkflowProcessImpl extends ProcessImpl implements WorkflowProcess,
     public void removeNode(final Node node) {
         nodeContainer.removeNode(node);
         ((org.jbpm.workflow.core.Node) node).setNodeContainer(null);
+        eventNodeIndex = null;
     }
 
     public void addNode(final Node node) {
         nodeContainer.addNode(node);
         ((org.jbpm.workflow.core.Node) node).setNodeContainer(this);
+        eventNodeIndex = null;
     }
     
+    /**
+     * Returns event nodes (in order of {@link #getNodes()}) that might accept event of given type.
+     * Nodes that know their event types up front are looked up by type, all other event nodes
+     * (e.g. with event types resolved from variables) are always returned, so callers still
+     * need to check returned nodes with acceptsEvent.
+     * @param type type of the event
+     * @return candidate event nodes
+     */
+    public List<Node> getEventNodes(String type) {
+        EventNodeIndex index = eventNodeIndex;
+        if (index == null) {
+            index = new EventNodeIndex(getNodes());
+            eventNodeIndex = index;
+        }
+        return index.getEventNodes(type);
+    }
+
     public boolean isAutoComplete() {
         return autoComplete;
     }
@@ -95,4 +124,57 @@ public class WorkflowProcessImpl extends ProcessImpl implements WorkflowProcess,
         return PROCESS_TYPE;
     }
 
+    private static class EventNodeIndex {
+
+        private final Map<String, List<Node>> nodesByType = new HashMap<String, List<Node>>();
+        private final List<Node> unindexedNodes = new ArrayList<Node>();
+        private final Map<Node, Integer> positions = new IdentityHashMap<Node, Integer>();
+
+        EventNodeIndex(Node[] nodes) {
+            for (int i = 0; i < nodes.length; i++) {
+                Node node = nodes[i];
+                if (!(node instanceof EventNodeInterface)) {
+                    continue;
+                }
+                positions.put(node, i);
+                Set<String> types = ((EventNodeInterface) node).getAcceptedEventTypes();
+                if (types == null) {
+                    unindexedNodes.add(node);
+                    continue;
+                }
+                for (String type : types) {
+                    List<Node> typeNodes = nodesByType.get(type);
+                    if (typeNodes == null) {
+                        typeNodes = new ArrayList<Node>();
+                        nodesByType.put(type, typeNodes);
+                    }
+                    typeNodes.add(node);
+                }
+            }
+        }
+
+        List<Node> getEventNodes(String type) {
+            List<Node> typeNodes = nodesByType.get(type);
+            if (typeNodes == null) {
+                return unindexedNodes.isEmpty() ? Collections.<Node>emptyList() : unindexedNodes;
+            }
+            if (unindexedNodes.isEmpty()) {
+                return typeNodes;
+            }
+            // merge both lists keeping definition order so nodes are signaled as before
+            List<Node> result = new ArrayList<Node>(typeNodes.size() + unindexedNodes.size());
+            int i = 0;
+            int j = 0;
+            while (i < typeNodes.size() || j < unindexedNodes.size()) {
+                if (j == unindexedNodes.size() || (i < typeNodes.size()
+                        && positions.get(typeNodes.get(i)) < positions.get(unindexedNodes.get(j)))) {
+                    result.add(typeNodes.get(i++));
+                } else {
+                    result.add(unindexedNodes.get(j++));
+                }
+            }
+            return result;
+        }
+    }
+
 }
@@ -19,8 +19,10 @@ package org.jbpm.workflow.core.node;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.kie.api.definition.process.Connection;
 import org.kie.api.definition.process.Node;
@@ -110,6 +112,20 @@ public class CompositeNode extends StateBasedNode implements NodeContainer, Even
 		}
 		return false;
 	}
+
+	public Set<String> getAcceptedEventTypes() {
+		Set<String> types = new HashSet<String>();
+		for (Node node: internalGetNodes()) {
+			if (node instanceof EventNodeInterface) {
+				Set<String> nodeTypes = ((EventNodeInterface) node).getAcceptedEventTypes();
+				if (nodeTypes == null) {
+					return null;
+				}
+				types.addAll(nodeTypes);
+			}
+		}
+		return types;
+	}
     
     public void linkIncomingConnections(String inType, long inNodeId, String inNodeType) {
         linkIncomingConnections(inType, new NodeAndType(inNodeId, inNodeType));
@@ -18,6 +18,7 @@ package org.jbpm.workflow.core.node;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.kie.api.definition.process.Node;
@@ -38,6 +39,11 @@ public class DynamicNode extends CompositeContextNode {
 		}
 		return super.acceptsEvent(type, event);
 	}
+
+	public Set<String> getAcceptedEventTypes() {
+		// ad hoc fragments are triggered by node name, nodes can be added at runtime
+		return null;
+	}
 	
     public Node internalGetNode(long id) {
     	try {
@@ -17,7 +17,9 @@
 package org.jbpm.workflow.core.node;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.kie.api.definition.process.Connection;
 import org.jbpm.process.core.event.EventFilter;
@@ -75,6 +77,18 @@ public class EventNode extends ExtendedNodeImpl implements EventNodeInterface {
     	}
     	return true;
     }
+
+	public Set<String> getAcceptedEventTypes() {
+	    // only plain type filter can be indexed, other filters might look at the event itself
+	    if (filters.size() != 1 || filters.get(0).getClass() != EventTypeFilter.class) {
+	        return null;
+	    }
+	    String type = ((EventTypeFilter) filters.get(0)).getType();
+	    if (type == null) {
+	        return Collections.emptySet();
+	    }
+	    return Collections.singleton(type);
+	}
 	
 	public void setEventTransformer(EventTransformer transformer) {
 		this.transformer = transformer;
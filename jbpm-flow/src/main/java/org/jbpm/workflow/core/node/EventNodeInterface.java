@@ -16,6 +16,7 @@
 
 package org.jbpm.workflow.core.node;
 
+import java.util.Set;
 import java.util.function.Function;
 
 public interface EventNodeInterface {
@@ -26,4 +27,14 @@ public interface EventNodeInterface {
 	    return acceptsEvent(type, event);
 	}
 
+	/**
+	 * Returns event types this node accepts, used to index event nodes of a process by event type.
+	 * Must be exact - node must not accept any other type of event. Nodes that can't tell up front
+	 * (e.g. event types resolved from variables) return null and are always checked with acceptsEvent.
+	 * @return set of accepted event types or null if not known
+	 */
+	default Set<String> getAcceptedEventTypes() {
+	    return null;
+	}
+
 }
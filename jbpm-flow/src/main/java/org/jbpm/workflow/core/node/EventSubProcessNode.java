@@ -17,6 +17,7 @@ package org.jbpm.workflow.core.node;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.jbpm.process.core.event.EventTypeFilter;
@@ -91,6 +92,23 @@ public class EventSubProcessNode extends CompositeContextNode {
         }
         return super.acceptsEvent(type, event);
     }
-    
-}
 
+    public Set<String> getAcceptedEventTypes() {
+        Set<String> types = super.getAcceptedEventTypes();
+        if (types == null) {
+            return null;
+        }
+        for( EventTypeFilter filter : this.eventTypeFilters ) {
+            String type = filter.getType();
+            // types with variable expressions are only known when the event is signaled
+            if( filter.getClass() != EventTypeFilter.class || (type != null && type.contains("#{")) ) {
+                return null;
+            }
+            if( type != null ) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+}
@@ -46,6 +46,7 @@ public class ForEachNode extends CompositeContextNode {
     private String outputCollectionExpression;
     private String completionConditionExpression;
     private boolean waitForCompletion = true;
+    private int parallelism;
 
     public ForEachNode() {
         // Split
@@ -242,6 +243,19 @@ public class ForEachNode extends CompositeContextNode {
         this.waitForCompletion = waitForCompletion;
     }
 
+    /**
+     * Max number of iterations active at the same time, remaining items of the collection are started as active
+     * iterations complete. All iterations are started at once when not set (0). Iterations execute concurrently
+     * only when their work is asynchronous, e.g. work items handled by <code>AsyncWorkItemHandler</code>.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
    public class ForEachSplitNode extends ExtendedNodeImpl {
         private static final long serialVersionUID = 510l;
     }
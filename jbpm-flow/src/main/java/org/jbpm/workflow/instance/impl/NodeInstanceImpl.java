@@ -26,6 +26,7 @@ import java.util.Map;
 
 import org.drools.core.common.InternalKnowledgeRuntime;
 import org.drools.core.spi.ProcessContext;
+import org.drools.core.util.MVELSafeHelper;
 import org.jbpm.process.core.Context;
 import org.jbpm.process.core.ContextContainer;
 import org.jbpm.process.core.context.exception.ExceptionScope;
@@ -49,6 +50,7 @@ import org.kie.api.definition.process.Connection;
 import org.kie.api.definition.process.Node;
 import org.kie.api.runtime.process.NodeInstance;
 import org.kie.api.runtime.process.NodeInstanceContainer;
+import org.mvel2.integration.VariableResolverFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -187,6 +189,21 @@ public abstract class NodeInstanceImpl implements org.jbpm.workflow.instance.Nod
     
     public abstract void internalTrigger(NodeInstance from, String type);
    
+    /**
+     * Evaluates given MVEL expression, using its compiled form kept by the node definition when available.
+     * @param expression MVEL expression
+     * @param factory resolver factory used to resolve variables of the expression
+     * @return result of the expression
+     */
+    protected Object evaluateExpression(String expression, VariableResolverFactory factory) {
+        Node node = getNode();
+        Serializable compiled = node instanceof NodeImpl ? ((NodeImpl) node).getCompiledExpression(expression) : null;
+        if (compiled != null) {
+            return MVELSafeHelper.getEvaluator().executeExpression(compiled, null, factory);
+        }
+        return MVELSafeHelper.getEvaluator().eval(expression, factory);
+    }
+
     /**
      * This method is used in both instances of the {@link ExtendedNodeInstanceImpl}
      * and {@link ActionNodeInstance} instances in order to handle 
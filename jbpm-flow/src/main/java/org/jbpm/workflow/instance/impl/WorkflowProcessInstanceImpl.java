@@ -19,6 +19,7 @@ package org.jbpm.workflow.instance.impl;
 import static org.jbpm.workflow.instance.impl.DummyEventListener.EMPTY_EVENT_LISTENER;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -42,6 +43,7 @@ import org.jbpm.process.instance.context.variable.VariableScopeInstance;
 import org.jbpm.process.instance.impl.ProcessInstanceImpl;
 import org.jbpm.workflow.core.DroolsAction;
 import org.jbpm.workflow.core.impl.NodeImpl;
+import org.jbpm.workflow.core.impl.WorkflowProcessImpl;
 import org.jbpm.workflow.core.node.AsyncEventNode;
 import org.jbpm.workflow.core.node.EventNode;
 import org.jbpm.workflow.core.node.EventNodeInterface;
@@ -83,6 +85,8 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
 	private static final Logger logger = LoggerFactory.getLogger(WorkflowProcessInstanceImpl.class);
 
 	private final List<NodeInstance> nodeInstances = new ArrayList<NodeInstance>();;
+	// active node instances indexed by node id to avoid scanning all node instances when looking them up by node
+	private final Map<Long, List<NodeInstance>> nodeInstancesByNodeId = new HashMap<Long, List<NodeInstance>>();
 
 	private AtomicLong singleNodeInstanceCounter = new AtomicLong(0);
 
@@ -113,6 +117,23 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
     		((NodeInstanceImpl) nodeInstance).setId(id);
 	    }
 		this.nodeInstances.add(nodeInstance);
+		indexNodeInstance(nodeInstance);
+	}
+
+	private void indexNodeInstance(NodeInstance nodeInstance) {
+		List<NodeInstance> indexed = nodeInstancesByNodeId.get(nodeInstance.getNodeId());
+		if (indexed == null) {
+			indexed = new ArrayList<NodeInstance>(1);
+			nodeInstancesByNodeId.put(nodeInstance.getNodeId(), indexed);
+		}
+		indexed.add(nodeInstance);
+	}
+
+	private void reindexNodeInstances() {
+		nodeInstancesByNodeId.clear();
+		for (NodeInstance nodeInstance : nodeInstances) {
+			indexNodeInstance(nodeInstance);
+		}
 	}
 
     @Override
@@ -139,7 +160,12 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
 			getKnowledgeRuntime().delete(
 					getKnowledgeRuntime().getFactHandle(nodeInstance));
 		}
-		this.nodeInstances.remove(nodeInstance);
+		if (this.nodeInstances.remove(nodeInstance)) {
+			List<NodeInstance> indexed = nodeInstancesByNodeId.get(nodeInstance.getNodeId());
+			if (indexed != null && indexed.remove(nodeInstance) && indexed.isEmpty()) {
+				nodeInstancesByNodeId.remove(nodeInstance.getNodeId());
+			}
+		}
 	}
 
 	public Collection<org.kie.api.runtime.process.NodeInstance> getNodeInstances() {
@@ -197,11 +223,12 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
 	}
 
 	public NodeInstance getFirstNodeInstance(final long nodeId) {
-		for (final Iterator<NodeInstance> iterator = this.nodeInstances
-				.iterator(); iterator.hasNext();) {
-			final NodeInstance nodeInstance = iterator.next();
-			if (nodeInstance.getNodeId() == nodeId && nodeInstance.getLevel() == getCurrentLevel()) {
-				return nodeInstance;
+		List<NodeInstance> indexed = nodeInstancesByNodeId.get(nodeId);
+		if (indexed != null) {
+			for (NodeInstance nodeInstance : indexed) {
+				if (nodeInstance.getNodeId() == nodeId && nodeInstance.getLevel() == getCurrentLevel()) {
+					return nodeInstance;
+				}
 			}
 		}
 		return null;
@@ -209,11 +236,12 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
 
 	public List<NodeInstance> getNodeInstances(final long nodeId) {
 		List<NodeInstance> result = new ArrayList<NodeInstance>();
-		for (final Iterator<NodeInstance> iterator = this.nodeInstances
-				.iterator(); iterator.hasNext();) {
-			final NodeInstance nodeInstance = iterator.next();
-			if (nodeInstance.getNodeId() == nodeId) {
-				result.add(nodeInstance);
+		List<NodeInstance> indexed = nodeInstancesByNodeId.get(nodeId);
+		if (indexed != null) {
+			for (NodeInstance nodeInstance : indexed) {
+				if (nodeInstance.getNodeId() == nodeId) {
+					result.add(nodeInstance);
+				}
 			}
 		}
 		return result;
@@ -402,6 +430,8 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
 
 	public void reconnect() {
 		super.reconnect();
+		// node ids of node instances might have changed e.g. by migration
+		reindexNodeInstances();
 		for (NodeInstance nodeInstance : nodeInstances) {
 			if (nodeInstance instanceof EventBasedNodeInstanceInterface) {
 				((EventBasedNodeInstanceInterface) nodeInstance)
@@ -487,7 +517,12 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
 	                return;
 	            }
 	        }
-			List<NodeInstance> currentView = new ArrayList<NodeInstance>(this.nodeInstances);
+			List<Node> eventNodes = getEventNodes(type);
+			// node instances of event nodes as they were before listeners were notified
+			Map<Long, List<NodeInstance>> currentView = new HashMap<Long, List<NodeInstance>>();
+			for (Node node : eventNodes) {
+				currentView.put(node.getId(), getNodeInstances(node.getId()));
+			}
 
 			try {
 				this.activatingNodeIds = new ArrayList<String>();
@@ -503,7 +538,7 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
 						listener.signalEvent(type, event);
 					}
 				}
-				for (Node node : getWorkflowProcess().getNodes()) {
+				for (Node node : eventNodes) {
 			        if (node instanceof EventNodeInterface) {
 			            if (((EventNodeInterface) node).acceptsEvent(type, event, (e) -> resolveVariable(e) )) {
 			                if (node instanceof EventNode && ((EventNode) node).getFrom() == null) {
@@ -514,7 +549,7 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
     			                    EventSubProcessNodeInstance eventNodeInstance = (EventSubProcessNodeInstance) getNodeInstance(node);
     			                    eventNodeInstance.signalEvent(type, event);
 			                    } else {
-    								List<NodeInstance> nodeInstances = getNodeInstances(node.getId(), currentView);
+    								List<NodeInstance> nodeInstances = currentView.get(node.getId());
     			                    if (nodeInstances != null && !nodeInstances.isEmpty()) {
     			                        for (NodeInstance nodeInstance : nodeInstances) {
     										((EventNodeInstanceInterface) nodeInstance).signalEvent(type, event);
@@ -552,6 +587,14 @@ public abstract class WorkflowProcessInstanceImpl extends ProcessInstanceImpl
 		}
 	}
 
+	private List<Node> getEventNodes(String type) {
+	    WorkflowProcess process = getWorkflowProcess();
+	    if (process instanceof WorkflowProcessImpl) {
+	        return ((WorkflowProcessImpl) process).getEventNodes(type);
+	    }
+	    return Arrays.asList(process.getNodes());
+	}
+
 	protected List<String> resolveVariables(List<String> events) {
 	    return events.stream().map( event -> resolveVariable(event)).collect(Collectors.toList());
 	}
@@ -23,7 +23,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.drools.core.util.MVELSafeHelper;
 import org.jbpm.process.core.ContextContainer;
 import org.jbpm.process.core.context.variable.VariableScope;
 import org.jbpm.process.instance.ContextInstance;
@@ -49,6 +48,11 @@ public class ForEachNodeInstance extends CompositeContextNodeInstance {
     private static final long serialVersionUID = 510l;
    
     private static final String TEMP_OUTPUT_VAR = "foreach_output";
+    private static final String TEMP_PENDING_VAR = "foreach_pending";
+    
+    // pending items are being started by the join, iterations that complete meanwhile only free a slot
+    private boolean triggeringPending;
+    private int freeSlots;
     
     public ForEachNode getForEachNode() {
         return (ForEachNode) getNode();
@@ -104,7 +108,7 @@ public class ForEachNodeInstance extends CompositeContextNodeInstance {
             collection = variableScopeInstance.getVariable(collectionExpression);
         } else {
             try {
-                collection = MVELSafeHelper.getEvaluator().eval(collectionExpression, new NodeInstanceResolverFactory(this));
+                collection = evaluateExpression(collectionExpression, new NodeInstanceResolverFactory(this));
             } catch (Throwable t) {
                 throw new IllegalArgumentException(
                     "Could not find collection " + collectionExpression);
@@ -127,6 +131,62 @@ public class ForEachNodeInstance extends CompositeContextNodeInstance {
         throw new IllegalArgumentException(
             "Unexpected collection type: " + collection.getClass());
     }
+
+    private NodeInstance createIteration(Object item) {
+        String variableName = getForEachNode().getVariableName();
+        NodeInstance nodeInstance = (NodeInstance) getNodeInstance(getForEachNode().getForEachSplitNode().getTo().getTo());
+        VariableScopeInstance variableScopeInstance = (VariableScopeInstance)
+            nodeInstance.resolveContextInstance(VariableScope.VARIABLE_SCOPE, variableName);
+        variableScopeInstance.setVariable(variableName, item);
+        return nodeInstance;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> getPendingItems() {
+        VariableScopeInstance variableScopeInstance = (VariableScopeInstance) getContextInstance(VariableScope.VARIABLE_SCOPE);
+        return (List<Object>) variableScopeInstance.getVariable(TEMP_PENDING_VAR);
+    }
+
+    /**
+     * Starts iterations for items that were held back due to parallelism limit of the node, one for every 
+     * completed iteration. Iterations that complete synchronously while pending items are being started
+     * do not start the next one themselves (what would recurse for every item) but leave it to the running loop.
+     */
+    private void triggerPendingIterations(org.kie.api.runtime.process.NodeInstance from) {
+        if (triggeringPending) {
+            freeSlots++;
+            return;
+        }
+        triggeringPending = true;
+        freeSlots = 1;
+        try {
+            while (freeSlots > 0 && triggerPendingIteration(from)) {
+                freeSlots--;
+            }
+        } finally {
+            triggeringPending = false;
+            freeSlots = 0;
+        }
+    }
+
+    /**
+     * Starts iteration for the next item that was held back due to parallelism limit of the node.
+     * @return true if there was such item
+     */
+    private boolean triggerPendingIteration(org.kie.api.runtime.process.NodeInstance from) {
+        List<Object> pending = getPendingItems();
+        if (pending == null || pending.isEmpty()) {
+            return false;
+        }
+        VariableScopeInstance variableScopeInstance = (VariableScopeInstance) getContextInstance(VariableScope.VARIABLE_SCOPE);
+        pending = new ArrayList<Object>(pending);
+        Object item = pending.remove(0);
+        variableScopeInstance.setVariable(TEMP_PENDING_VAR, pending.isEmpty() ? null : pending);
+        NodeInstance nodeInstance = createIteration(item);
+        logger.debug( "Triggering [{}] in multi-instance loop for pending item.", ((NodeInstanceImpl) nodeInstance).getNodeId() );
+        nodeInstance.trigger(from, getForEachNode().getForEachSplitNode().getTo().getToType());
+        return true;
+    }
     
 
     
@@ -145,15 +205,17 @@ public class ForEachNodeInstance extends CompositeContextNodeInstance {
             if (collection.isEmpty()) {
             	ForEachNodeInstance.this.triggerCompleted(org.jbpm.workflow.core.Node.CONNECTION_DEFAULT_TYPE, true);
             } else {
+            	List<Object> items = new ArrayList<Object>(collection);
+            	int parallelism = getForEachNode().getParallelism();
+            	if (parallelism > 0 && items.size() > parallelism) {
+            		// remaining items are started one by one as active iterations complete
+            		VariableScopeInstance variableScopeInstance = (VariableScopeInstance) getContextInstance(VariableScope.VARIABLE_SCOPE);
+            		variableScopeInstance.setVariable(TEMP_PENDING_VAR, new ArrayList<Object>(items.subList(parallelism, items.size())));
+            		items = items.subList(0, parallelism);
+            	}
             	List<NodeInstance> nodeInstances = new ArrayList<NodeInstance>();
-            	for (Object o: collection) {
-            		String variableName = getForEachNode().getVariableName();
-            		NodeInstance nodeInstance = (NodeInstance)
-            		((NodeInstanceContainer) getNodeInstanceContainer()).getNodeInstance(getForEachSplitNode().getTo().getTo());
-            		VariableScopeInstance variableScopeInstance = (VariableScopeInstance)
-            			nodeInstance.resolveContextInstance(VariableScope.VARIABLE_SCOPE, variableName);
-            		variableScopeInstance.setVariable(variableName, o);
-            		nodeInstances.add(nodeInstance);
+            	for (Object o: items) {
+            		nodeInstances.add(createIteration(o));
             	}
             	for (NodeInstance nodeInstance: nodeInstances) {
             	    logger.debug( "Triggering [{}] in multi-instance loop.", ((NodeInstanceImpl) nodeInstance).getNodeId() );
@@ -205,7 +267,16 @@ public class ForEachNodeInstance extends CompositeContextNodeInstance {
                 }
             }
             boolean isCompletionConditionMet = evaluateCompletionCondition(getForEachNode().getCompletionConditionExpression(), tempVariables);
+            List<Object> pending = getPendingItems();
+            if (!isCompletionConditionMet && pending != null && !pending.isEmpty()) {
+                triggerPendingIterations(this);
+                return;
+            }
             if (getNodeInstanceContainer().getNodeInstances().size() == 1 || isCompletionConditionMet) {
+                // once completion condition is met items held back are not started, active iterations are cancelled
+                if (pending != null) {
+                    ((VariableScopeInstance) getContextInstance(VariableScope.VARIABLE_SCOPE)).setVariable(TEMP_PENDING_VAR, null);
+                }
                 String outputCollection = getForEachNode().getOutputCollectionExpression();
                 if (outputCollection != null) {
                     VariableScopeInstance variableScopeInstance = (VariableScopeInstance) resolveContextInstance(VariableScope.VARIABLE_SCOPE, outputCollection);
@@ -239,7 +310,7 @@ public class ForEachNodeInstance extends CompositeContextNodeInstance {
         		return false;
         	}
         	try {
-                Object result = MVELSafeHelper.getEvaluator().eval(expression, new ForEachNodeInstanceResolverFactory(this, tempVariables));
+                Object result = evaluateExpression(expression, new ForEachNodeInstanceResolverFactory(this, tempVariables));
                 if ( !(result instanceof Boolean) ) {
                     throw new RuntimeException( "Completion condition expression must return boolean values: " + result 
                     		+ " for expression " + expression);
@@ -17,14 +17,23 @@
 package org.jbpm.process;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.drools.core.process.core.datatype.impl.type.ListDataType;
 import org.drools.core.process.core.datatype.impl.type.ObjectDataType;
+import org.drools.core.process.core.impl.WorkImpl;
 import org.jbpm.process.core.context.variable.Variable;
 import org.jbpm.process.instance.impl.Action;
 import org.jbpm.process.test.Person;
@@ -39,9 +48,15 @@ import org.jbpm.workflow.core.node.ActionNode;
 import org.jbpm.workflow.core.node.EndNode;
 import org.jbpm.workflow.core.node.ForEachNode;
 import org.jbpm.workflow.core.node.StartNode;
+import org.jbpm.workflow.core.node.WorkItemNode;
+import org.junit.After;
 import org.junit.Test;
 import org.kie.api.runtime.KieSession;
 import org.kie.api.runtime.process.ProcessContext;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.runtime.process.WorkItemManager;
 import org.slf4j.LoggerFactory;
 
 public class ForEachTest extends AbstractBaseTest {
@@ -72,8 +87,14 @@ public class ForEachTest extends AbstractBaseTest {
             "aps"
     };
     
-	@Test
-    public void testForEach() {
+    private java.util.concurrent.ExecutorService workers = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdownWorkers() {
+        workers.shutdownNow();
+    }
+
+    private RuleFlowProcess createProcess(ForEachNode forEachNode, org.jbpm.workflow.core.Node body) {
         RuleFlowProcess process = new RuleFlowProcess();
         process.setId("org.drools.core.process.foreach");
         process.setName("ForEach Process");
@@ -97,7 +118,6 @@ public class ForEachTest extends AbstractBaseTest {
         endNode.setName("EndNode");
         endNode.setId(2);
         process.addNode(endNode);
-        ForEachNode forEachNode = new ForEachNode();
         forEachNode.setName("ForEach");
         forEachNode.setId(3);
         forEachNode.setCollectionExpression("persons");
@@ -113,7 +133,18 @@ public class ForEachTest extends AbstractBaseTest {
             endNode, Node.CONNECTION_DEFAULT_TYPE
         );
         
-        final List<String> myList = new ArrayList<String>();
+        forEachNode.addNode(body);
+        forEachNode.linkIncomingConnections(
+            Node.CONNECTION_DEFAULT_TYPE,
+            body.getId(), Node.CONNECTION_DEFAULT_TYPE);
+        forEachNode.linkOutgoingConnections(
+            body.getId(), Node.CONNECTION_DEFAULT_TYPE,
+            Node.CONNECTION_DEFAULT_TYPE);
+        forEachNode.setVariable("child", personDataType);
+        return process;
+    }
+
+    private RuleFlowProcess createProcess(final List<String> myList) {
         ActionNode actionNode = new ActionNode();
         actionNode.setName("Print child");
         DroolsAction action = new DroolsConsequenceAction("java", null);
@@ -124,15 +155,36 @@ public class ForEachTest extends AbstractBaseTest {
             }
         });
         actionNode.setAction(action);
-        forEachNode.addNode(actionNode);
-        forEachNode.linkIncomingConnections(
-            Node.CONNECTION_DEFAULT_TYPE,
-            actionNode.getId(), Node.CONNECTION_DEFAULT_TYPE);
-        forEachNode.linkOutgoingConnections(
-            actionNode.getId(), Node.CONNECTION_DEFAULT_TYPE,
-            Node.CONNECTION_DEFAULT_TYPE);
-        forEachNode.setVariable("child", personDataType);
-        
+        return createProcess(new ForEachNode(), actionNode);
+    }
+
+    private RuleFlowProcess createParallelProcess(int parallelism, String completionCondition) {
+        ForEachNode forEachNode = new ForEachNode();
+        forEachNode.setParallelism(parallelism);
+        forEachNode.setCompletionConditionExpression(completionCondition);
+        WorkItemNode workItemNode = new WorkItemNode();
+        workItemNode.setName("Work");
+        WorkImpl work = new WorkImpl();
+        work.setName("Async");
+        workItemNode.setWork(work);
+        return createProcess(forEachNode, workItemNode);
+    }
+
+    private Map<String, Object> createParameters(int count) {
+        Map<String, Object> parameters = new HashMap<String, Object>();
+        List<Person> persons = new ArrayList<Person>();
+        for (int i = 0; i < count; i++) {
+            persons.add(new Person("Person " + i));
+        }
+        parameters.put("persons", persons);
+        return parameters;
+    }
+
+	@Test
+    public void testForEach() {
+        final List<String> myList = new ArrayList<String>();
+        RuleFlowProcess process = createProcess(myList);
+
         KieSession ksession = createKieSession(process);
         
         Map<String, Object> parameters = new HashMap<String, Object>();
@@ -150,4 +202,123 @@ public class ForEachTest extends AbstractBaseTest {
         verifyEventHistory(eventOrder, procEventListener.getEventHistory());
     }
 
+    @Test
+    public void testParallelForEachManySynchronousIterations() {
+        final List<String> myList = new ArrayList<String>();
+        RuleFlowProcess process = createProcess(myList);
+        ((ForEachNode) process.getNode(3)).setParallelism(1);
+        KieSession ksession = createKieSession(process);
+
+        // held back items are started from a loop so synchronous iterations do not nest
+        ProcessInstance processInstance = ksession.startProcess("org.drools.core.process.foreach", createParameters(5000));
+        assertEquals(ProcessInstance.STATE_COMPLETED, processInstance.getState());
+        assertEquals(5000, myList.size());
+    }
+
+    @Test(timeout=10000)
+    public void testParallelForEachLimitsActiveIterations() throws Exception {
+        final KieSession ksession = createKieSession(createParallelProcess(2, null));
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        AsyncWorkItemHandler handler = new AsyncWorkItemHandler(ksession) {
+            protected void doWork(WorkItem workItem) throws Exception {
+                int current = active.incrementAndGet();
+                maxActive.set(Math.max(maxActive.get(), current));
+                Thread.sleep(50);
+                active.decrementAndGet();
+            }
+        };
+        ksession.getWorkItemManager().registerWorkItemHandler("Async", handler);
+
+        ProcessInstance processInstance;
+        synchronized (ksession) {
+            processInstance = ksession.startProcess("org.drools.core.process.foreach", createParameters(5));
+            // items above the limit are not started until active iterations complete
+            assertEquals(2, handler.jobs.size());
+        }
+        waitForCompletion(ksession, processInstance);
+        assertEquals(5, handler.completed.get());
+        assertTrue(maxActive.get() <= 2);
+        assertTrue(handler.failures.isEmpty());
+    }
+
+    @Test
+    public void testParallelForEachCompletionConditionCancelsJobs() throws Exception {
+        KieSession ksession = createKieSession(createParallelProcess(2, "true"));
+        // jobs never finish on their own
+        AsyncWorkItemHandler handler = new AsyncWorkItemHandler(ksession) {
+            protected void doWork(WorkItem workItem) throws Exception {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(10));
+            }
+        };
+        ksession.getWorkItemManager().registerWorkItemHandler("Async", handler);
+
+        ProcessInstance processInstance = ksession.startProcess("org.drools.core.process.foreach", createParameters(4));
+        assertEquals(2, handler.jobs.size());
+        List<Long> workItemIds = new ArrayList<Long>(handler.jobs.keySet());
+        Future<?> remaining = handler.jobs.get(workItemIds.get(1));
+
+        // first completed iteration meets the condition so the other one is cancelled and pending items are not started
+        ksession.getWorkItemManager().completeWorkItem(workItemIds.get(0), null);
+        assertEquals(ProcessInstance.STATE_COMPLETED, processInstance.getState());
+        assertTrue(remaining.isCancelled());
+        assertEquals(1, handler.jobs.size());
+        assertFalse(handler.jobs.containsKey(workItemIds.get(1)));
+    }
+
+    private void waitForCompletion(KieSession ksession, ProcessInstance processInstance) throws InterruptedException {
+        while (true) {
+            synchronized (ksession) {
+                if (processInstance.getState() != ProcessInstance.STATE_ACTIVE) {
+                    break;
+                }
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(ProcessInstance.STATE_COMPLETED, processInstance.getState());
+    }
+
+    /**
+     * Work item handler that does the work on another thread and completes work item back once done,
+     * session is used only while holding its monitor.
+     */
+    private abstract class AsyncWorkItemHandler implements WorkItemHandler {
+
+        private final KieSession ksession;
+        private final Map<Long, Future<?>> jobs = new ConcurrentHashMap<Long, Future<?>>();
+        private final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        private final AtomicInteger completed = new AtomicInteger();
+
+        AsyncWorkItemHandler(KieSession ksession) {
+            this.ksession = ksession;
+        }
+
+        protected abstract void doWork(WorkItem workItem) throws Exception;
+
+        public void executeWorkItem(final WorkItem workItem, WorkItemManager manager) {
+            jobs.put(workItem.getId(), workers.submit(new Runnable() {
+                public void run() {
+                    try {
+                        doWork(workItem);
+                        synchronized (ksession) {
+                            ksession.getWorkItemManager().completeWorkItem(workItem.getId(), null);
+                        }
+                        completed.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        // job cancelled
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+
+        public void abortWorkItem(WorkItem workItem, WorkItemManager manager) {
+            Future<?> job = jobs.remove(workItem.getId());
+            if (job != null) {
+                job.cancel(true);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.process.instance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.core.impl.KnowledgeBaseImpl;
+import org.jbpm.process.core.event.EventTypeFilter;
+import org.jbpm.ruleflow.core.RuleFlowProcess;
+import org.jbpm.test.util.AbstractBaseTest;
+import org.jbpm.workflow.core.Node;
+import org.jbpm.workflow.core.impl.ConnectionImpl;
+import org.jbpm.workflow.core.node.EndNode;
+import org.jbpm.workflow.core.node.EventTrigger;
+import org.jbpm.workflow.core.node.StartNode;
+import org.junit.Test;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessStartedEvent;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.KnowledgeBase;
+import org.kie.internal.KnowledgeBaseFactory;
+import org.slf4j.LoggerFactory;
+
+public class StartEventIndexTest extends AbstractBaseTest {
+
+    public void addLogger() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @Test
+    public void testIndexSharedBySessions() {
+        KnowledgeBase kbase = KnowledgeBaseFactory.newKnowledgeBase();
+        ((KnowledgeBaseImpl) kbase).addProcess(createProcess("org.jbpm.process.start.first", "signal"));
+
+        StartEventIndex index = StartEventIndex.get(kbase);
+        assertSame(index, StartEventIndex.get(kbase));
+        assertEquals(1, index.getEventTypes().size());
+        assertEquals("org.jbpm.process.start.first", index.getStartEvents("signal").get(0).getProcessId());
+        assertTrue(index.getStartEvents("other").isEmpty());
+        assertTrue(index.getStartTimers().isEmpty());
+
+        final List<String> startedProcesses = new ArrayList<String>();
+        for (int i = 0; i < 2; i++) {
+            KieSession ksession = kbase.newStatefulKnowledgeSession();
+            ksession.addEventListener(new DefaultProcessEventListener() {
+                public void beforeProcessStarted(ProcessStartedEvent event) {
+                    startedProcesses.add(event.getProcessInstance().getProcessId());
+                }
+            });
+            ksession.signalEvent("signal", null);
+            ksession.dispose();
+        }
+        assertEquals(2, startedProcesses.size());
+        assertSame(index, StartEventIndex.get(kbase));
+    }
+
+    @Test
+    public void testIndexRebuiltWhenProcessAdded() {
+        KnowledgeBase kbase = KnowledgeBaseFactory.newKnowledgeBase();
+        ((KnowledgeBaseImpl) kbase).addProcess(createProcess("org.jbpm.process.start.first", "signal"));
+
+        StartEventIndex index = StartEventIndex.get(kbase);
+        assertEquals(1, index.getStartEvents("signal").size());
+
+        ((KnowledgeBaseImpl) kbase).addProcess(createProcess("org.jbpm.process.start.second", "signal"));
+
+        StartEventIndex rebuilt = StartEventIndex.get(kbase);
+        assertNotSame(index, rebuilt);
+        assertEquals(2, rebuilt.getStartEvents("signal").size());
+    }
+
+    private RuleFlowProcess createProcess(String processId, String signal) {
+        RuleFlowProcess process = new RuleFlowProcess();
+        process.setId(processId);
+        process.setName("Start Event Process");
+        process.setPackageName("org.jbpm");
+
+        StartNode startNode = new StartNode();
+        startNode.setName("Start");
+        startNode.setId(1);
+        EventTrigger trigger = new EventTrigger();
+        EventTypeFilter eventFilter = new EventTypeFilter();
+        eventFilter.setType(signal);
+        trigger.addEventFilter(eventFilter);
+        startNode.addTrigger(trigger);
+        process.addNode(startNode);
+
+        EndNode endNode = new EndNode();
+        endNode.setName("End");
+        endNode.setId(2);
+        process.addNode(endNode);
+        new ConnectionImpl(
+            startNode, Node.CONNECTION_DEFAULT_TYPE,
+            endNode, Node.CONNECTION_DEFAULT_TYPE
+        );
+        return process;
+    }
+}
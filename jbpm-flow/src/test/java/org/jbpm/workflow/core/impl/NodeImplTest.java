@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.workflow.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.drools.core.util.MVELSafeHelper;
+import org.jbpm.test.util.AbstractBaseTest;
+import org.jbpm.workflow.core.node.WorkItemNode;
+import org.junit.Test;
+import org.mvel2.integration.impl.MapVariableResolverFactory;
+import org.slf4j.LoggerFactory;
+
+public class NodeImplTest extends AbstractBaseTest {
+
+    public void addLogger() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @Test
+    public void testCompiledExpressionReused() {
+        WorkItemNode node = new WorkItemNode();
+
+        Serializable compiled = node.getCompiledExpression("person.name + suffix");
+        assertNotNull(compiled);
+        assertSame(compiled, node.getCompiledExpression("person.name + suffix"));
+
+        Map<String, Object> person = new HashMap<String, Object>();
+        person.put("name", "john");
+        Map<String, Object> variables = new HashMap<String, Object>();
+        variables.put("person", person);
+        variables.put("suffix", "!");
+        assertEquals("john!", MVELSafeHelper.getEvaluator().executeExpression(compiled, null, new MapVariableResolverFactory(variables)));
+
+        person.put("name", "mary");
+        assertEquals("mary!", MVELSafeHelper.getEvaluator().executeExpression(compiled, null, new MapVariableResolverFactory(variables)));
+    }
+
+    @Test
+    public void testInvalidExpressionNotCompiled() {
+        WorkItemNode node = new WorkItemNode();
+
+        assertNull(node.getCompiledExpression(null));
+        assertNull(node.getCompiledExpression("person.name +"));
+    }
+
+    @Test
+    public void testNumberOfCompiledExpressionsBounded() {
+        WorkItemNode node = new WorkItemNode();
+
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(node.getCompiledExpression("var" + i));
+        }
+        assertNull(node.getCompiledExpression("var100"));
+        assertNotNull(node.getCompiledExpression("var0"));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.workflow.core.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.jbpm.process.core.event.EventTypeFilter;
+import org.jbpm.ruleflow.core.RuleFlowProcess;
+import org.jbpm.test.util.AbstractBaseTest;
+import org.jbpm.workflow.core.node.ActionNode;
+import org.jbpm.workflow.core.node.CompositeNode;
+import org.jbpm.workflow.core.node.EventNode;
+import org.jbpm.workflow.core.node.EventSubProcessNode;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+public class WorkflowProcessImplTest extends AbstractBaseTest {
+
+    public void addLogger() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @Test
+    public void testEventNodesIndexedByType() {
+        RuleFlowProcess process = new RuleFlowProcess();
+        process.setId("org.jbpm.process.event.index");
+
+        EventNode first = eventNode(1, "signalA");
+        process.addNode(first);
+
+        ActionNode actionNode = new ActionNode();
+        actionNode.setId(2);
+        process.addNode(actionNode);
+
+        // type resolved from variables must always be checked
+        EventSubProcessNode eventSubProcess = new EventSubProcessNode();
+        eventSubProcess.setId(3);
+        eventSubProcess.addEvent(eventFilter("signal-#{caseId}"));
+        process.addNode(eventSubProcess);
+
+        EventNode second = eventNode(4, "signalB");
+        process.addNode(second);
+
+        CompositeNode compositeNode = new CompositeNode();
+        compositeNode.setId(5);
+        compositeNode.addNode(eventNode(6, "signalA"));
+        process.addNode(compositeNode);
+
+        assertEquals(Arrays.asList(first, eventSubProcess, compositeNode), process.getEventNodes("signalA"));
+        assertEquals(Arrays.asList(eventSubProcess, second), process.getEventNodes("signalB"));
+        assertEquals(Arrays.asList(eventSubProcess), process.getEventNodes("signal-123"));
+
+        process.removeNode(eventSubProcess);
+        assertEquals(Arrays.asList(first, compositeNode), process.getEventNodes("signalA"));
+        assertEquals(0, process.getEventNodes("signal-123").size());
+
+        EventNode third = eventNode(7, "signalB");
+        process.addNode(third);
+        assertEquals(Arrays.asList(second, third), process.getEventNodes("signalB"));
+    }
+
+    private EventNode eventNode(long id, String type) {
+        EventNode eventNode = new EventNode();
+        eventNode.setId(id);
+        eventNode.addEventFilter(eventFilter(type));
+        return eventNode;
+    }
+
+    private EventTypeFilter eventFilter(String type) {
+        EventTypeFilter filter = new EventTypeFilter();
+        filter.setType(type);
+        return filter;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package org.jbpm.services.task.commands;
+
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.kie.api.task.model.Task;
+import org.kie.internal.command.Context;
+
+/**
+ * Loads task with only selected input and output variables - all variables of given kind are loaded
+ * when no names are given for it.
+ */
+@XmlRootElement(name="get-task-variables-command")
+@XmlAccessorType(XmlAccessType.NONE)
+public class GetTaskVariablesCommand extends TaskCommand<Task> {
+
+	private static final long serialVersionUID = -2736858563282428853L;
+
+	@XmlElement
+	private List<String> inputNames;
+
+	@XmlElement
+	private List<String> outputNames;
+
+	public GetTaskVariablesCommand() {
+	}
+
+	public GetTaskVariablesCommand(Long taskId, List<String> inputNames, List<String> outputNames) {
+		this.taskId = taskId;
+		this.inputNames = inputNames;
+		this.outputNames = outputNames;
+	}
+
+	public List<String> getInputNames() {
+		return inputNames;
+	}
+
+	public void setInputNames(List<String> inputNames) {
+		this.inputNames = inputNames;
+	}
+
+	public List<String> getOutputNames() {
+		return outputNames;
+	}
+
+	public void setOutputNames(List<String> outputNames) {
+		this.outputNames = outputNames;
+	}
+
+	public Task execute(Context cntxt) {
+		TaskContext context = (TaskContext) cntxt;
+		Task taskById = context.getTaskQueryService().getTaskInstanceById(taskId);
+		if (taskById == null) {
+			throw new IllegalStateException("Unable to find task with id " + taskId);
+		}
+
+		return context.loadTaskVariables(taskById, inputNames, outputNames);
+	}
+
+}
@@ -15,7 +15,10 @@
  */
 package org.jbpm.services.task.commands;
 
+import java.util.Collection;
+
 import org.jbpm.services.task.events.TaskEventSupport;
+import org.jbpm.services.task.impl.SelectiveTaskContentService;
 import org.jbpm.services.task.impl.TaskAdminServiceImpl;
 import org.jbpm.services.task.impl.TaskAttachmentServiceImpl;
 import org.jbpm.services.task.impl.TaskCommentServiceImpl;
@@ -39,7 +42,6 @@ import org.kie.internal.command.World;
 import org.kie.internal.task.api.TaskAdminService;
 import org.kie.internal.task.api.TaskAttachmentService;
 import org.kie.internal.task.api.TaskCommentService;
-import org.kie.internal.task.api.TaskContentService;
 import org.kie.internal.task.api.TaskDeadlinesService;
 import org.kie.internal.task.api.TaskDefService;
 import org.kie.internal.task.api.TaskIdentityService;
@@ -82,7 +84,7 @@ public class TaskContext implements org.kie.internal.task.api.TaskContext {
         return new TaskQueryServiceImpl(persistenceContext, getUserGroupCallback());
     }
 
-    public TaskContentService getTaskContentService() {
+    public SelectiveTaskContentService getTaskContentService() {
         return new TaskContentServiceImpl(this, persistenceContext, taskEventSupport);
     }
     
@@ -172,6 +174,10 @@ public class TaskContext implements org.kie.internal.task.api.TaskContext {
     @Override
     public Task loadTaskVariables(Task task) {
         return getTaskContentService().loadTaskVariables(task);
-    }    
+    }
+
+    public Task loadTaskVariables(Task task, Collection<String> inputNames, Collection<String> outputNames) {
+        return getTaskContentService().loadTaskVariables(task, inputNames, outputNames);
+    }
 
 }
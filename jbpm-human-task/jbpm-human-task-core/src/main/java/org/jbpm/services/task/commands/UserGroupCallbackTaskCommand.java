@@ -63,6 +63,11 @@ public class UserGroupCallbackTaskCommand<T> extends TaskCommand<T> {
     private static final Logger logger = LoggerFactory.getLogger(UserGroupCallbackTaskCommand.class);  
 
     private Map<String, Boolean> userGroupsMap = new HashMap<String, Boolean>();
+    // identities resolved by this command so every distinct id is checked with callback and task store only once
+    private transient Map<String, Boolean> resolvedUsers;
+    private transient Map<String, Boolean> resolvedGroups;
+    private transient Map<String, User> knownUsers;
+    private transient Set<String> knownGroups;
     private static Set<String> restrictedGroups = new HashSet<String>(); 
     
     public UserGroupCallbackTaskCommand() {
@@ -94,7 +99,7 @@ public class UserGroupCallbackTaskCommand<T> extends TaskCommand<T> {
 
     protected boolean doCallbackUserOperation(String userId, TaskContext context) {
 
-        if (userId != null && context.getUserGroupCallback().existsUser(userId)) {
+        if (userId != null && existsUser(userId, context)) {
             addUserFromCallbackOperation(userId, context);
             return true;
         }
@@ -104,7 +109,7 @@ public class UserGroupCallbackTaskCommand<T> extends TaskCommand<T> {
     
     protected User doCallbackAndReturnUserOperation(String userId, TaskContext context) {
 
-        if (userId != null && context.getUserGroupCallback().existsUser(userId)) {
+        if (userId != null && existsUser(userId, context)) {
             return addUserFromCallbackOperation(userId, context);
             
         }
@@ -114,7 +119,7 @@ public class UserGroupCallbackTaskCommand<T> extends TaskCommand<T> {
 
     protected boolean doCallbackGroupOperation(String groupId, TaskContext context) {
 
-        if (groupId != null && context.getUserGroupCallback().existsGroup(groupId) && !restrictedGroups.contains(groupId)) {
+        if (groupId != null && existsGroup(groupId, context) && !restrictedGroups.contains(groupId)) {
             addGroupFromCallbackOperation(groupId, context);
             return true;
         }
@@ -122,7 +127,38 @@ public class UserGroupCallbackTaskCommand<T> extends TaskCommand<T> {
 
     }
 
+    protected boolean existsUser(String userId, TaskContext context) {
+        if (resolvedUsers == null) {
+            resolvedUsers = new HashMap<String, Boolean>();
+        }
+        Boolean exists = resolvedUsers.get(userId);
+        if (exists == null) {
+            exists = context.getUserGroupCallback().existsUser(userId);
+            resolvedUsers.put(userId, exists);
+        }
+        return exists;
+    }
+
+    protected boolean existsGroup(String groupId, TaskContext context) {
+        if (resolvedGroups == null) {
+            resolvedGroups = new HashMap<String, Boolean>();
+        }
+        Boolean exists = resolvedGroups.get(groupId);
+        if (exists == null) {
+            exists = context.getUserGroupCallback().existsGroup(groupId);
+            resolvedGroups.put(groupId, exists);
+        }
+        return exists;
+    }
+
     protected User addUserFromCallbackOperation(String userId, TaskContext context) {
+        if (knownUsers == null) {
+            knownUsers = new HashMap<String, User>();
+        }
+        User known = knownUsers.get(userId);
+        if (known != null) {
+            return known;
+        }
     	User user = context.getPersistenceContext().findUser(userId);
         boolean userExists = user != null;
         if (!StringUtils.isEmpty(userId) && !userExists) {
@@ -131,6 +167,9 @@ public class UserGroupCallbackTaskCommand<T> extends TaskCommand<T> {
             
             persistIfNotExists(user, context);
         } 
+        if (user != null) {
+            knownUsers.put(userId, user);
+        }
         
         return user;
     }
@@ -154,7 +193,7 @@ public class UserGroupCallbackTaskCommand<T> extends TaskCommand<T> {
                 List<String> userGroups = filterGroups(context.getUserGroupCallback().getGroupsForUser(userId, groupIds, null));
                 for (String groupId : groupIds) {
 
-                    if (context.getUserGroupCallback().existsGroup(groupId) && userGroups != null && userGroups.contains(groupId)) {
+                    if (userGroups != null && userGroups.contains(groupId) && existsGroup(groupId, context)) {
                         addGroupFromCallbackOperation(groupId, context);
                     }
                 }
@@ -183,6 +222,12 @@ public class UserGroupCallbackTaskCommand<T> extends TaskCommand<T> {
     }
 
     protected void addGroupFromCallbackOperation(String groupId, TaskContext context) {
+        if (knownGroups == null) {
+            knownGroups = new HashSet<String>();
+        }
+        if (!knownGroups.add(groupId)) {
+            return;
+        }
     	Group group = context.getPersistenceContext().findGroup(groupId);
     	boolean groupExists = group != null;
         if (!StringUtils.isEmpty(groupId) && !groupExists) {
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.services.task.identity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.kie.internal.task.api.UserGroupCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * UserGroupCallback decorator that caches results of the delegate so user and group information
+ * does not have to be fetched from backing identity store (like LDAP or data base) on every task operation.
+ * <br/>
+ * Cache is configured with:
+ * <ul>
+ *  <li>ttl - time (in milliseconds) results are kept in the cache</li>
+ *  <li>negative ttl - time (in milliseconds) results for not existing users and groups are kept in the cache,
+ *  0 disables caching of not existing users and groups</li>
+ *  <li>max size - max number of cached entries, least recently used entries are evicted when exceeded</li>
+ * </ul>
+ * Cached entries can be removed explicitly with <code>invalidate</code> methods, e.g. when user or group
+ * membership has changed.
+ */
+public class CachedUserGroupCallback implements UserGroupCallback {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachedUserGroupCallback.class);
+
+    private final org.kie.api.task.UserGroupCallback delegate;
+    private final long ttl;
+    private final long negativeTtl;
+
+    private final Map<CacheKey, CacheEntry> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachedUserGroupCallback(org.kie.api.task.UserGroupCallback delegate) {
+        this(delegate,
+             Long.parseLong(System.getProperty("org.jbpm.ht.callback.cache.ttl", "60000")),
+             Long.parseLong(System.getProperty("org.jbpm.ht.callback.cache.negative.ttl", "10000")),
+             Integer.parseInt(System.getProperty("org.jbpm.ht.callback.cache.max", "1000")));
+    }
+
+    @SuppressWarnings("serial")
+    public CachedUserGroupCallback(org.kie.api.task.UserGroupCallback delegate, long ttl, long negativeTtl, final int maxSize) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate UserGroupCallback cannot be null");
+        }
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    @Override
+    public boolean existsUser(String userId) {
+        CacheKey key = new CacheKey(Kind.USER, userId, null, null);
+        Boolean exists = (Boolean) get(key);
+        if (exists == null) {
+            exists = delegate.existsUser(userId);
+            put(key, exists, exists);
+        }
+        return exists;
+    }
+
+    @Override
+    public boolean existsGroup(String groupId) {
+        CacheKey key = new CacheKey(Kind.GROUP, groupId, null, null);
+        Boolean exists = (Boolean) get(key);
+        if (exists == null) {
+            exists = delegate.existsGroup(groupId);
+            put(key, exists, exists);
+        }
+        return exists;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<String> getGroupsForUser(String userId, List<String> groupIds, List<String> allExistingGroupIds) {
+        CacheKey key = new CacheKey(Kind.GROUPS_FOR_USER, userId, groupIds, allExistingGroupIds);
+        Object groups = get(key);
+        if (groups == NULL_VALUE) {
+            return null;
+        }
+        if (groups == null) {
+            List<String> result = delegate.getGroupsForUser(userId, groupIds, allExistingGroupIds);
+            put(key, result == null ? NULL_VALUE : Collections.unmodifiableList(new ArrayList<String>(result)), result != null && !result.isEmpty());
+            return result;
+        }
+        // callers are allowed to modify returned list
+        return new ArrayList<String>((List<String>) groups);
+    }
+
+    /**
+     * Removes all cached information about given user or group
+     * @param id user or group id
+     */
+    public void invalidate(String id) {
+        synchronized (cache) {
+            Iterator<CacheKey> it = cache.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().id.equals(id)) {
+                    it.remove();
+                }
+            }
+        }
+        logger.debug("Invalidated cached user group information for {}", id);
+    }
+
+    /**
+     * Removes all cached entries
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    protected Object get(CacheKey key) {
+        CacheEntry entry = cache.get(key);
+        if (entry != null) {
+            if (entry.expiresAt > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            cache.remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    protected void put(CacheKey key, Object value, boolean positive) {
+        long entryTtl = positive ? ttl : negativeTtl;
+        if (entryTtl <= 0) {
+            return;
+        }
+        cache.put(key, new CacheEntry(value, System.currentTimeMillis() + entryTtl));
+    }
+
+    private static final Object NULL_VALUE = new Object();
+
+    private enum Kind {
+        USER, GROUP, GROUPS_FOR_USER
+    }
+
+    protected static class CacheKey {
+
+        private final Kind kind;
+        private final String id;
+        private final List<String> groupIds;
+        private final List<String> allExistingGroupIds;
+
+        CacheKey(Kind kind, String id, List<String> groupIds, List<String> allExistingGroupIds) {
+            this.kind = kind;
+            this.id = id == null ? "" : id;
+            this.groupIds = groupIds == null ? null : new ArrayList<String>(groupIds);
+            this.allExistingGroupIds = allExistingGroupIds == null ? null : new ArrayList<String>(allExistingGroupIds);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = kind.hashCode();
+            result = 31 * result + id.hashCode();
+            result = 31 * result + (groupIds == null ? 0 : groupIds.hashCode());
+            result = 31 * result + (allExistingGroupIds == null ? 0 : allExistingGroupIds.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return kind == other.kind && id.equals(other.id)
+                    && (groupIds == null ? other.groupIds == null : groupIds.equals(other.groupIds))
+                    && (allExistingGroupIds == null ? other.allExistingGroupIds == null : allExistingGroupIds.equals(other.allExistingGroupIds));
+        }
+    }
+
+    private static class CacheEntry {
+
+        private final Object value;
+        private final long expiresAt;
+
+        CacheEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.services.task.impl;
+
+import java.util.Collection;
+
+import org.kie.api.task.model.Task;
+import org.kie.internal.task.api.TaskContentService;
+
+/**
+ * Task content service that is able to load only selected task variables - content stored per entry
+ * (enabled with -Dorg.jbpm.ht.content.per.entry=true) is then unmarshalled only for the requested variables,
+ * content stored as single map is unmarshalled as a whole and filtered.
+ */
+public interface SelectiveTaskContentService extends TaskContentService {
+
+    /**
+     * Loads only selected variables of the task's input and output content.
+     * @param task task to load variables of
+     * @param inputNames names of input variables to load, all are loaded if null
+     * @param outputNames names of output variables to load, all are loaded if null
+     * @return task with (partial) input and output variables set
+     */
+    Task loadTaskVariables(Task task, Collection<String> inputNames, Collection<String> outputNames);
+}
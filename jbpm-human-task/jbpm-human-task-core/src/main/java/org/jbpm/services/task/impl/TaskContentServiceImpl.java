@@ -16,6 +16,7 @@
 package org.jbpm.services.task.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,7 +26,6 @@ import org.jbpm.services.task.utils.ContentMarshallerHelper;
 import org.kie.api.task.model.Content;
 import org.kie.api.task.model.Task;
 import org.kie.internal.task.api.ContentMarshallerContext;
-import org.kie.internal.task.api.TaskContentService;
 import org.kie.internal.task.api.TaskModelProvider;
 import org.kie.internal.task.api.TaskPersistenceContext;
 import org.kie.internal.task.api.model.ContentData;
@@ -35,7 +35,12 @@ import org.kie.internal.task.api.model.InternalTaskData;
 /**
  *
  */
-public class TaskContentServiceImpl implements TaskContentService {
+public class TaskContentServiceImpl implements SelectiveTaskContentService {
+
+    // when enabled output content is stored per entry so that adding output does not need to unmarshall and marshall
+    // whole content - opt in as content written per entry can only be read by versions that know the format,
+    // content stored as single map is read in both modes and converted on its first merge
+    private boolean perEntryContent = Boolean.parseBoolean(System.getProperty("org.jbpm.ht.content.per.entry", "false"));
 
     private TaskPersistenceContext persistenceContext;
     private TaskEventSupport taskEventSupport;
@@ -58,6 +63,10 @@ public class TaskContentServiceImpl implements TaskContentService {
     public void setTaskEventSupport(TaskEventSupport taskEventSupport) {
         this.taskEventSupport = taskEventSupport;
     }
+
+    public void setPerEntryContent(boolean perEntryContent) {
+        this.perEntryContent = perEntryContent;
+    }
     
     @SuppressWarnings("unchecked")
 	public long addOutputContent(long taskId, Map<String, Object> params) {
@@ -68,13 +77,25 @@ public class TaskContentServiceImpl implements TaskContentService {
         long contentId = -1;
         if (outputContent == null) { 
             ContentMarshallerContext context = getMarshallerContext(task);
-            ContentData outputContentData = ContentMarshallerHelper.marshal(task, params, context.getEnvironment());
+            ContentData outputContentData = null;
+            if (perEntryContent) {
+                outputContentData = ContentMarshallerHelper.marshallEntries(task, params, null, context.getEnvironment(), context.getClassloader());
+            } else {
+                outputContentData = ContentMarshallerHelper.marshal(task, params, context.getEnvironment());
+            }
             Content content = TaskModelProvider.getFactory().newContent();
             ((InternalContent) content).setContent(outputContentData.getContent());
             persistenceContext.persistContent(content);
             
             ((InternalTaskData) task.getTaskData()).setOutput(content.getId(), outputContentData);
             contentId = content.getId();
+        } else if (perEntryContent) {
+            // merge only given entries, remaining entries are kept as they are
+            ContentMarshallerContext context = getMarshallerContext(task);
+            ContentData outputContentData = ContentMarshallerHelper.marshallEntries(task, params, outputContent.getContent(), context.getEnvironment(), context.getClassloader());
+            ((InternalContent)outputContent).setContent(outputContentData.getContent());
+            persistenceContext.persistContent(outputContent);
+            contentId = outputContentId;
         } else {
             // I need to merge it if it already exist
             ContentMarshallerContext context = getMarshallerContext(task);
@@ -158,6 +179,33 @@ public class TaskContentServiceImpl implements TaskContentService {
         return task;
     }
     
+    @Override
+    public Task loadTaskVariables(Task task, Collection<String> inputNames, Collection<String> outputNames) {
+        if (task.getTaskData().getTaskInputVariables() == null) {
+            Map<String, Object> input = loadContentData(task.getTaskData().getDocumentContentId(), task, inputNames);
+            ((InternalTaskData)task.getTaskData()).setTaskInputVariables(input);
+        }
+        if (task.getTaskData().getTaskOutputVariables() == null) {
+            Map<String, Object> output = loadContentData(task.getTaskData().getOutputContentId(), task, outputNames);
+            ((InternalTaskData)task.getTaskData()).setTaskOutputVariables(output);
+        }
+        return task;
+    }
+
+    protected Map<String, Object> loadContentData(Long contentId, Task task, Collection<String> names) {
+        if (names == null) {
+            return loadContentData(contentId, task);
+        }
+        if (contentId != null) {
+            Content contentById = getContentById(contentId);
+            if (contentById != null) {
+                ContentMarshallerContext mContext = getMarshallerContext(task);
+                return ContentMarshallerHelper.unmarshallEntries(contentById.getContent(), names, mContext.getEnvironment(), mContext.getClassloader());
+            }
+        }
+        return null;
+    }
+
     @SuppressWarnings("unchecked")
     protected Map<String, Object> loadContentData(Long contentId, Task task) {
         
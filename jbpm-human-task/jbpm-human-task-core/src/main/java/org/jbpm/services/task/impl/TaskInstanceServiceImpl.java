@@ -75,6 +75,8 @@ public class TaskInstanceServiceImpl implements TaskInstanceService {
     private TaskPersistenceContext persistenceContext;    
     private TaskEventSupport taskEventSupport;
     private Environment environment;
+    // when enabled input content is stored per entry (same as output content) so that selected variables can be loaded on their own
+    private boolean perEntryContent = Boolean.parseBoolean(System.getProperty("org.jbpm.ht.content.per.entry", "false"));
 
     public TaskInstanceServiceImpl() {
     }
@@ -102,6 +104,10 @@ public class TaskInstanceServiceImpl implements TaskInstanceService {
         this.persistenceContext = persistenceContext;
     }
 
+    public void setPerEntryContent(boolean perEntryContent) {
+        this.perEntryContent = perEntryContent;
+    }
+
    
     public long addTask(Task task, Map<String, Object> params) {    	
     	taskEventSupport.fireBeforeTaskAdded(task, context);
@@ -113,7 +119,13 @@ public class TaskInstanceServiceImpl implements TaskInstanceService {
     	if (params != null) {
     	    resolveTaskDetails(params, task);
     	    
-    	    ContentData contentData = ContentMarshallerHelper.marshal(task, params, TaskContentRegistry.get().getMarshallerContext(task).getEnvironment());
+    	    ContentMarshallerContext marshallerContext = TaskContentRegistry.get().getMarshallerContext(task);
+    	    ContentData contentData = null;
+    	    if (perEntryContent) {
+    	        contentData = ContentMarshallerHelper.marshallEntries(task, params, null, marshallerContext.getEnvironment(), marshallerContext.getClassloader());
+    	    } else {
+    	        contentData = ContentMarshallerHelper.marshal(task, params, marshallerContext.getEnvironment());
+    	    }
 			Content content = TaskModelProvider.getFactory().newContent();
 			((InternalContent) content).setContent(contentData.getContent());
 			persistenceContext.persistContent(content);
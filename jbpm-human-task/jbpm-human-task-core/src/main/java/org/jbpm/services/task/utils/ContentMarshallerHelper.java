@@ -17,8 +17,13 @@ package org.jbpm.services.task.utils;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.drools.core.marshalling.impl.ClassObjectMarshallingStrategyAcceptor;
@@ -53,6 +58,13 @@ public class ContentMarshallerHelper {
     private static final Logger logger = LoggerFactory.getLogger(ContentMarshallerHelper.class);
     private static final String SINGLE_VAR_KEY = "_results_";
 
+    /*
+     * Prefix of content stored per entry - protobuf header of content stored as whole never starts with 0,
+     * so both formats can be told apart without any other marker. Prefix is followed by number of entries
+     * and then by name, version, length and marshalled bytes of every entry.
+     */
+    private static final byte[] ENTRIES_PREFIX = new byte[]{0x00, 'J', 'T', 'C', 0x01};
+
     public static ContentData marshal(Object o, Environment env) {
         return marshal(null, o, env);
     }
@@ -95,6 +107,17 @@ public class ContentMarshallerHelper {
     }   
 
     public static Object unmarshall(byte[] content, Environment env, ClassLoader classloader) {
+        if (isContentEntries(content)) {
+            Map<String, Object> value = unmarshallEntries(content, null, env, classloader);
+            if (value.containsKey(SINGLE_VAR_KEY) && value.size() == 1) {
+                return value.get(SINGLE_VAR_KEY);
+            }
+            return value;
+        }
+        return unmarshallContent(content, env, classloader);
+    }
+
+    private static Object unmarshallContent(byte[] content, Environment env, ClassLoader classloader) {
         MarshallerReaderContext context = null;
         try {
             ByteArrayInputStream stream = new ByteArrayInputStream(content);
@@ -186,6 +209,165 @@ public class ContentMarshallerHelper {
         return null;
     }
     
+    /**
+     * Returns true if given content is stored per entry (see {@link #marshallEntries(Task, Map, byte[], Environment, ClassLoader)})
+     * and not as single marshalled map.
+     */
+    public static boolean isContentEntries(byte[] content) {
+        if (content == null || content.length < ENTRIES_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < ENTRIES_PREFIX.length; i++) {
+            if (content[i] != ENTRIES_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marshals given variables into content where every variable is marshalled and versioned separately,
+     * so single variables can be read and updated without unmarshalling all the others. Entries of the existing
+     * content that are not among given variables are kept as they are, without unmarshalling them - only
+     * existing content stored as single map is unmarshalled (once) to convert it into entries.
+     * @param task task the content belongs to
+     * @param variables variables to be added or replaced
+     * @param existingContent current content, might be null
+     * @param env environment with marshalling strategies
+     * @param classloader class loader used to unmarshall existing content stored as single map
+     * @return content data with merged content
+     */
+    public static ContentData marshallEntries(Task task, Map<String, Object> variables, byte[] existingContent, Environment env, ClassLoader classloader) {
+        Map<String, ContentEntry> entries = null;
+        if (isContentEntries(existingContent)) {
+            entries = readEntries(existingContent);
+        } else {
+            entries = new LinkedHashMap<String, ContentEntry>();
+            if (existingContent != null) {
+                Object existing = unmarshallContent(existingContent, env, classloader);
+                if (existing instanceof Map) {
+                    for (Map.Entry<?, ?> variable : ((Map<?, ?>) existing).entrySet()) {
+                        String name = String.valueOf(variable.getKey());
+                        entries.put(name, new ContentEntry(1, marshallContent(task, Collections.singletonMap(name, variable.getValue()), env)));
+                    }
+                } else if (existing != null) {
+                    entries.put(SINGLE_VAR_KEY, new ContentEntry(1, marshallContent(task, Collections.singletonMap(SINGLE_VAR_KEY, existing), env)));
+                }
+            }
+        }
+        for (Map.Entry<String, Object> variable : variables.entrySet()) {
+            ContentEntry current = entries.get(variable.getKey());
+            int version = current == null ? 1 : current.version + 1;
+            entries.put(variable.getKey(), new ContentEntry(version, marshallContent(task, Collections.singletonMap(variable.getKey(), variable.getValue()), env)));
+        }
+
+        ContentData content = TaskModelProvider.getFactory().newContentData();
+        content.setContent(writeEntries(entries));
+        content.setType(variables.getClass().getCanonicalName());
+        content.setAccessType(AccessType.Inline);
+
+        return content;
+    }
+
+    /**
+     * Unmarshalls selected entries of the content. Content stored as single map is unmarshalled completely
+     * and only selected entries are returned.
+     * @param content content to read
+     * @param names names of entries to be unmarshalled, all entries are unmarshalled if null
+     * @param env environment with marshalling strategies
+     * @param classloader class loader to load classes of the variables
+     * @return unmarshalled entries by name, entries that do not exist in the content are omitted
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> unmarshallEntries(byte[] content, Collection<String> names, Environment env, ClassLoader classloader) {
+        Map<String, Object> result = new HashMap<String, Object>();
+        if (!isContentEntries(content)) {
+            Object value = unmarshallContent(content, env, classloader);
+            if (value instanceof Map) {
+                result.putAll((Map<String, Object>) value);
+                if (names != null) {
+                    result.keySet().retainAll(names);
+                }
+            }
+            return result;
+        }
+        for (Map.Entry<String, ContentEntry> entry : readEntries(content).entrySet()) {
+            if (names != null && !names.contains(entry.getKey())) {
+                continue;
+            }
+            Object value = unmarshallContent(entry.getValue().data, env, classloader);
+            if (value instanceof Map) {
+                result.put(entry.getKey(), ((Map<String, Object>) value).get(entry.getKey()));
+            } else {
+                // entry that holds single var key is returned directly
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns versions of the entries of the content, version is increased every time the entry is replaced.
+     * Content stored as single map has no entries.
+     */
+    public static Map<String, Integer> getEntryVersions(byte[] content) {
+        Map<String, Integer> versions = new LinkedHashMap<String, Integer>();
+        if (isContentEntries(content)) {
+            for (Map.Entry<String, ContentEntry> entry : readEntries(content).entrySet()) {
+                versions.put(entry.getKey(), entry.getValue().version);
+            }
+        }
+        return versions;
+    }
+
+    private static Map<String, ContentEntry> readEntries(byte[] content) {
+        Map<String, ContentEntry> entries = new LinkedHashMap<String, ContentEntry>();
+        try {
+            DataInputStream stream = new DataInputStream(new ByteArrayInputStream(content, ENTRIES_PREFIX.length, content.length - ENTRIES_PREFIX.length));
+            int size = stream.readInt();
+            for (int i = 0; i < size; i++) {
+                String name = stream.readUTF();
+                int version = stream.readInt();
+                byte[] data = new byte[stream.readInt()];
+                stream.readFully(data);
+                entries.put(name, new ContentEntry(version, data));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read content entries", e);
+        }
+        return entries;
+    }
+
+    private static byte[] writeEntries(Map<String, ContentEntry> entries) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream stream = new DataOutputStream(bytes);
+            stream.write(ENTRIES_PREFIX);
+            stream.writeInt(entries.size());
+            for (Map.Entry<String, ContentEntry> entry : entries.entrySet()) {
+                stream.writeUTF(entry.getKey());
+                stream.writeInt(entry.getValue().version);
+                stream.writeInt(entry.getValue().data.length);
+                stream.write(entry.getValue().data);
+            }
+            stream.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write content entries", e);
+        }
+    }
+
+    private static class ContentEntry {
+
+        private final int version;
+        private final byte[] data;
+
+        ContentEntry(int version, byte[] data) {
+            this.version = version;
+            this.data = data;
+        }
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
 	private static Object fallbackParse(MarshallerReaderContext context, Header header, ExtensionRegistry registry) throws Exception {
     	Variable parseFrom = JBPMMessages.Variable.parseFrom(header.getPayload(), registry);
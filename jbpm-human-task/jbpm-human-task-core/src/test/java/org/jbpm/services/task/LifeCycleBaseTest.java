@@ -24,11 +24,13 @@ import static org.junit.Assert.fail;
 
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.jbpm.services.task.commands.GetTaskVariablesCommand;
 import org.jbpm.services.task.events.DefaultTaskEventListener;
 import org.jbpm.services.task.exception.PermissionDeniedException;
 import org.jbpm.services.task.impl.factories.TaskFactory;
@@ -47,6 +49,7 @@ import org.kie.api.task.model.Task;
 import org.kie.api.task.model.TaskSummary;
 import org.kie.api.task.model.User;
 import org.kie.internal.task.api.EventService;
+import org.kie.internal.task.api.InternalTaskService;
 import org.kie.internal.task.api.TaskModelProvider;
 import org.kie.internal.task.api.model.AccessType;
 import org.kie.internal.task.api.model.ContentData;
@@ -2507,6 +2510,46 @@ public abstract class LifeCycleBaseTest extends HumanTaskServicesBaseTest {
 
     }
 
+
+    @Test
+    public void testGetSelectedTaskVariables() {
+        String str = "(with (new Task()) { priority = 55, taskData = (with( new TaskData()) { } ), ";
+        str += "peopleAssignments = (with ( new PeopleAssignments() ) { potentialOwners = [new User('Bobba Fet'), new User('Darth Vader') ],businessAdministrators = [ new User('Administrator') ], }),";
+        str += "name =  'This is my task name' })";
+
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("input", "simple input");
+        params.put("other", "other input");
+        Task task = TaskFactory.evalTask(new StringReader(str));
+        taskService.addTask(task, params);
+        long taskId = task.getId();
+
+        taskService.start(taskId, "Darth Vader");
+        params = new HashMap<String, Object>();
+        params.put("content", "content");
+        params.put("other", "other content");
+        taskService.complete(taskId, "Darth Vader", params);
+
+        Task loaded = ((InternalTaskService) taskService).execute(
+                new GetTaskVariablesCommand(taskId, Arrays.asList("input"), Arrays.asList("content")));
+
+        Map<String, Object> inputs = loaded.getTaskData().getTaskInputVariables();
+        assertEquals(1, inputs.size());
+        assertEquals("simple input", inputs.get("input"));
+        Map<String, Object> outputs = loaded.getTaskData().getTaskOutputVariables();
+        assertEquals(1, outputs.size());
+        assertEquals("content", outputs.get("content"));
+
+        // no names given loads all variables
+        loaded = ((InternalTaskService) taskService).execute(new GetTaskVariablesCommand(taskId, null, null));
+        assertEquals(2, loaded.getTaskData().getTaskInputVariables().size());
+        assertEquals(2, loaded.getTaskData().getTaskOutputVariables().size());
+
+        // whole content is still readable as a map
+        Content content = taskService.getContentById(loaded.getTaskData().getDocumentContentId());
+        Object unmarshalled = ContentMarshallerHelper.unmarshall(content.getContent(), null);
+        assertEquals("other input", ((Map<?, ?>) unmarshalled).get("other"));
+    }
     
     protected void testCompleteWithContentAndVarListener(TaskLifeCycleEventListener listener) {
         
@@ -179,6 +179,22 @@ public class UserGroupInvocationTest extends HumanTaskServicesBaseTest {
         assertEquals("Darth Vader", task2.getTaskData().getActualOwner().getId());
     }
     
+    @Test
+    public void testAddTaskWithRepeatedUserAssignment() {
+
+        String str = "(with (new Task()) { priority = 55, taskData = (with( new TaskData()) { } ), ";
+        str += "peopleAssignments = (with ( new PeopleAssignments() ) { potentialOwners = [new User('Bobba Fet'), new User('Darth Vader') ],businessAdministrators = [ new User('Administrator'), new User('Darth Vader') ], }),";
+        str += "name = 'This is my task name' })";
+
+        Task task = (Task) TaskFactory.evalTask(new StringReader(str));
+        taskService.addTask(task, new HashMap<String, Object>());
+
+        // every distinct user is checked only once within single operation
+        assertEquals(3, callback.getExistsUserCounter());
+        assertEquals(0, callback.getExistsGroupCounter());
+        assertEquals(0, callback.getGetGroupCounter());
+    }
+    
     private class CountInvokeUserGroupCallback implements UserGroupCallback {
 
     	private int existsUserCounter = 0;
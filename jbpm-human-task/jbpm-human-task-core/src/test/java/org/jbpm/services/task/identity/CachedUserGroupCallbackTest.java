@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.services.task.identity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.kie.api.task.UserGroupCallback;
+
+public class CachedUserGroupCallbackTest {
+
+    @Test
+    public void testCachedExistsUserAndGroup() {
+        CountingUserGroupCallback delegate = new CountingUserGroupCallback();
+        CachedUserGroupCallback callback = new CachedUserGroupCallback(delegate, 60000, 60000, 100);
+
+        assertTrue(callback.existsUser("john"));
+        assertTrue(callback.existsUser("john"));
+        assertTrue(callback.existsGroup("HR"));
+        assertTrue(callback.existsGroup("HR"));
+
+        assertEquals(1, delegate.count("existsUser:john"));
+        assertEquals(1, delegate.count("existsGroup:HR"));
+        assertEquals(2, callback.getHits());
+        assertEquals(2, callback.getMisses());
+    }
+
+    @Test
+    public void testCachedGroupsForUser() {
+        CountingUserGroupCallback delegate = new CountingUserGroupCallback();
+        CachedUserGroupCallback callback = new CachedUserGroupCallback(delegate, 60000, 60000, 100);
+
+        List<String> groups = callback.getGroupsForUser("john", null, null);
+        assertEquals(Arrays.asList("HR", "PM"), groups);
+        // returned list must not affect cached entry
+        groups.clear();
+        assertEquals(Arrays.asList("HR", "PM"), callback.getGroupsForUser("john", null, null));
+        assertEquals(1, delegate.count("getGroupsForUser:john"));
+
+        // different arguments are cached separately
+        callback.getGroupsForUser("john", Arrays.asList("HR"), null);
+        assertEquals(2, delegate.count("getGroupsForUser:john"));
+    }
+
+    @Test
+    public void testNegativeCaching() {
+        CountingUserGroupCallback delegate = new CountingUserGroupCallback();
+        CachedUserGroupCallback callback = new CachedUserGroupCallback(delegate, 60000, 60000, 100);
+
+        assertFalse(callback.existsUser("unknown"));
+        assertFalse(callback.existsUser("unknown"));
+        assertEquals(1, delegate.count("existsUser:unknown"));
+
+        // negative caching disabled
+        callback = new CachedUserGroupCallback(delegate, 60000, 0, 100);
+        assertFalse(callback.existsUser("unknown"));
+        assertFalse(callback.existsUser("unknown"));
+        assertEquals(3, delegate.count("existsUser:unknown"));
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        CountingUserGroupCallback delegate = new CountingUserGroupCallback();
+        CachedUserGroupCallback callback = new CachedUserGroupCallback(delegate, 50, 50, 100);
+
+        callback.existsUser("john");
+        Thread.sleep(100);
+        callback.existsUser("john");
+        assertEquals(2, delegate.count("existsUser:john"));
+    }
+
+    @Test
+    public void testMaxSize() {
+        CountingUserGroupCallback delegate = new CountingUserGroupCallback();
+        CachedUserGroupCallback callback = new CachedUserGroupCallback(delegate, 60000, 60000, 2);
+
+        callback.existsUser("john");
+        callback.existsUser("mary");
+        // makes john most recently used so mary is evicted
+        callback.existsUser("john");
+        callback.existsUser("peter");
+        assertEquals(2, callback.size());
+
+        callback.existsUser("john");
+        callback.existsUser("mary");
+        assertEquals(1, delegate.count("existsUser:john"));
+        assertEquals(2, delegate.count("existsUser:mary"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        CountingUserGroupCallback delegate = new CountingUserGroupCallback();
+        CachedUserGroupCallback callback = new CachedUserGroupCallback(delegate, 60000, 60000, 100);
+
+        callback.existsUser("john");
+        callback.getGroupsForUser("john", null, null);
+        callback.existsGroup("HR");
+
+        callback.invalidate("john");
+        assertEquals(1, callback.size());
+        callback.existsUser("john");
+        callback.getGroupsForUser("john", null, null);
+        assertEquals(2, delegate.count("existsUser:john"));
+        assertEquals(2, delegate.count("getGroupsForUser:john"));
+
+        callback.invalidateAll();
+        assertEquals(0, callback.size());
+        callback.existsGroup("HR");
+        assertEquals(2, delegate.count("existsGroup:HR"));
+    }
+
+    private static class CountingUserGroupCallback implements UserGroupCallback {
+
+        private Map<String, Integer> invocations = new HashMap<String, Integer>();
+
+        @Override
+        public boolean existsUser(String userId) {
+            invoked("existsUser:" + userId);
+            return !"unknown".equals(userId);
+        }
+
+        @Override
+        public boolean existsGroup(String groupId) {
+            invoked("existsGroup:" + groupId);
+            return !"unknown".equals(groupId);
+        }
+
+        @Override
+        public List<String> getGroupsForUser(String userId, List<String> groupIds, List<String> allExistingGroupIds) {
+            invoked("getGroupsForUser:" + userId);
+            return new ArrayList<String>(Arrays.asList("HR", "PM"));
+        }
+
+        int count(String invocation) {
+            Integer count = invocations.get(invocation);
+            return count == null ? 0 : count;
+        }
+
+        private void invoked(String invocation) {
+            invocations.put(invocation, count(invocation) + 1);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.services.task.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.kie.internal.task.api.model.ContentData;
+
+public class ContentMarshallerHelperTest {
+
+    @Test
+    public void testMarshallEntriesFromLegacyContent() {
+        Map<String, Object> variables = new HashMap<String, Object>();
+        variables.put("name", "john");
+        variables.put("age", 35);
+        byte[] legacy = ContentMarshallerHelper.marshallContent(variables, null);
+        assertFalse(ContentMarshallerHelper.isContentEntries(legacy));
+
+        ContentData contentData = ContentMarshallerHelper.marshallEntries(null, Collections.<String, Object>singletonMap("age", 36), legacy, null, null);
+        byte[] content = contentData.getContent();
+        assertTrue(ContentMarshallerHelper.isContentEntries(content));
+
+        Object unmarshalled = ContentMarshallerHelper.unmarshall(content, null);
+        assertTrue(unmarshalled instanceof Map);
+        assertEquals("john", ((Map<?, ?>) unmarshalled).get("name"));
+        assertEquals(36, ((Map<?, ?>) unmarshalled).get("age"));
+
+        Map<String, Integer> versions = ContentMarshallerHelper.getEntryVersions(content);
+        assertEquals(Integer.valueOf(1), versions.get("name"));
+        assertEquals(Integer.valueOf(2), versions.get("age"));
+    }
+
+    @Test
+    public void testMarshallEntriesKeepsOtherEntries() {
+        Map<String, Object> variables = new HashMap<String, Object>();
+        variables.put("name", "john");
+        variables.put("approved", false);
+        byte[] content = ContentMarshallerHelper.marshallEntries(null, variables, null, null, null).getContent();
+
+        content = ContentMarshallerHelper.marshallEntries(null, Collections.<String, Object>singletonMap("approved", true), content, null, null).getContent();
+        content = ContentMarshallerHelper.marshallEntries(null, Collections.<String, Object>singletonMap("comment", "ok"), content, null, null).getContent();
+
+        Map<String, Integer> versions = ContentMarshallerHelper.getEntryVersions(content);
+        assertEquals(3, versions.size());
+        assertEquals(Integer.valueOf(1), versions.get("name"));
+        assertEquals(Integer.valueOf(2), versions.get("approved"));
+        assertEquals(Integer.valueOf(1), versions.get("comment"));
+
+        Map<String, Object> entries = ContentMarshallerHelper.unmarshallEntries(content, Arrays.asList("approved", "missing"), null, null);
+        assertEquals(1, entries.size());
+        assertEquals(true, entries.get("approved"));
+
+        entries = ContentMarshallerHelper.unmarshallEntries(content, null, null, null);
+        assertEquals(3, entries.size());
+        assertEquals("john", entries.get("name"));
+        assertEquals("ok", entries.get("comment"));
+    }
+
+    @Test
+    public void testUnmarshallEntriesFromLegacyContent() {
+        Map<String, Object> variables = new HashMap<String, Object>();
+        variables.put("name", "john");
+        variables.put("age", 35);
+        byte[] legacy = ContentMarshallerHelper.marshallContent(variables, null);
+
+        Map<String, Object> entries = ContentMarshallerHelper.unmarshallEntries(legacy, Collections.singleton("name"), null, null);
+        assertEquals(1, entries.size());
+        assertEquals("john", entries.get("name"));
+        assertTrue(ContentMarshallerHelper.getEntryVersions(legacy).isEmpty());
+    }
+}
@@ -161,13 +161,54 @@ public class TaskSummaryQueryCriteriaUtil extends AbstractTaskQueryCriteriaUtil
 
     // Implementation specific methods --------------------------------------------------------------------------------------------
 
-    public List<TaskSummary> doCriteriaQuery(String userId, UserGroupCallback userGroupCallback, QueryWhere queryWhere) {
+    public List<TaskSummary> doCriteriaQuery(String userId, UserGroupCallback userGroupCallback, final QueryWhere queryWhere) {
 
-        // 1. create builder and query instances
-        CriteriaBuilder builder = getCriteriaBuilder();
+        // 1. create builder instance
+        final CriteriaBuilder builder = getCriteriaBuilder();
+
+        // 2. limit the query to the user's tasks and optimize the criteria
+        checkExistingCriteriaForUserBasedLimit(queryWhere, userId, userGroupCallback);
+        for( QueryModificationService queryModificationService : queryModificationServiceLoader ) {
+            queryModificationService.optimizeCriteria(queryWhere);
+        }
+
+        // 3. retrieve the query (for the same query shape) from the cache or create it
+        CriteriaQuery<Tuple> criteriaQuery = prepareCriteriaQuery(queryWhere, TaskImpl.class, builder, TaskSummary.class.getName(),
+                () -> createTaskSummaryCriteriaQuery(builder, queryWhere));
+
+        // 4. retrieve result (after also applying meta-criteria)
+        List<Tuple> result = createQueryAndCallApplyMetaCriteriaAndGetResult(queryWhere, criteriaQuery, builder);
+
+        List<TaskSummary> taskSummaryList = new ArrayList<TaskSummary>(result.size());
+        for( Tuple tupleRow : result ) {
+            int i = 0;
+            //@formatter:off
+            TaskSummaryImpl taskSummaryImpl = new TaskSummaryImpl(
+               // id
+               tupleRow.get(i++, Long.class),
+               // name, subject, description
+               tupleRow.get(i++, String.class), tupleRow.get(i++, String.class), tupleRow.get(i++, String.class),
+               // status, prio, skippable
+               tupleRow.get(i++, Status.class), tupleRow.get(i++, Integer.class), tupleRow.get(i++, Boolean.class),
+               // actual owner, created by
+               tupleRow.get(i++, String.class), tupleRow.get(i++, String.class),
+               // created on, activation time, expiration time
+               tupleRow.get(i++, Date.class), tupleRow.get(i++, Date.class), tupleRow.get(i++, Date.class),
+               // process id, process session id, process inst id, deployment id
+               tupleRow.get(i++, String.class), tupleRow.get(i++, Long.class), tupleRow.get(i++, Long.class), tupleRow.get(i++, String.class),
+               tupleRow.get(i++, SubTasksStrategy.class),
+               tupleRow.get(i++, Long.class) );
+            //@formatter:on
+            taskSummaryList.add(taskSummaryImpl);
+
+        }
+        return taskSummaryList;
+    }
+
+    private CriteriaQuery<Tuple> createTaskSummaryCriteriaQuery(CriteriaBuilder builder, QueryWhere queryWhere) {
         CriteriaQuery<Tuple> criteriaQuery = builder.createTupleQuery();
 
-        // 2. query base
+        // query base
         Root<TaskImpl> taskRoot = criteriaQuery.from(TaskImpl.class);
         criteriaQuery = criteriaQuery.multiselect(
                 taskRoot.get(TaskImpl_.id),                                                         // 0
@@ -196,42 +237,12 @@ public class TaskSummaryQueryCriteriaUtil extends AbstractTaskQueryCriteriaUtil
                 );
         taskRoot.join(TaskImpl_.taskData); // added for convienence sake, since other logic expects to find this join
 
-        checkExistingCriteriaForUserBasedLimit(queryWhere, userId, userGroupCallback);
-        for( QueryModificationService queryModificationService : queryModificationServiceLoader ) {
-            queryModificationService.optimizeCriteria(queryWhere);
-        }
-
-        // 4. process query criteria
+        // process query criteria
         fillCriteriaQuery(criteriaQuery, queryWhere, builder, TaskImpl.class);
 
-        // 5. retrieve result (after also applying meta-criteria)
         useDistinctWhenLefOuterJoinsPresent(criteriaQuery);
-        List<Tuple> result = createQueryAndCallApplyMetaCriteriaAndGetResult(queryWhere, criteriaQuery, builder);
-
-        List<TaskSummary> taskSummaryList = new ArrayList<TaskSummary>(result.size());
-        for( Tuple tupleRow : result ) {
-            int i = 0;
-            //@formatter:off
-            TaskSummaryImpl taskSummaryImpl = new TaskSummaryImpl(
-               // id
-               tupleRow.get(i++, Long.class),
-               // name, subject, description
-               tupleRow.get(i++, String.class), tupleRow.get(i++, String.class), tupleRow.get(i++, String.class),
-               // status, prio, skippable
-               tupleRow.get(i++, Status.class), tupleRow.get(i++, Integer.class), tupleRow.get(i++, Boolean.class),
-               // actual owner, created by
-               tupleRow.get(i++, String.class), tupleRow.get(i++, String.class),
-               // created on, activation time, expiration time
-               tupleRow.get(i++, Date.class), tupleRow.get(i++, Date.class), tupleRow.get(i++, Date.class),
-               // process id, process session id, process inst id, deployment id
-               tupleRow.get(i++, String.class), tupleRow.get(i++, Long.class), tupleRow.get(i++, Long.class), tupleRow.get(i++, String.class),
-               tupleRow.get(i++, SubTasksStrategy.class),
-               tupleRow.get(i++, Long.class) );
-            //@formatter:on
-            taskSummaryList.add(taskSummaryImpl);
 
-        }
-        return taskSummaryList;
+        return criteriaQuery;
     }
 
     /**
@@ -73,6 +73,7 @@
     create table CorrelationKeyInfo (
         keyId bigint generated by default as identity (start with 1),
         name varchar(255),
+        keyHash varchar(64),
         processInstanceId bigint not null,
         OPTLOCK integer,
         primary key (keyId)
@@ -371,6 +372,19 @@
         primary key (id)
     );
 
+    create table TimerJobInfo (
+        id bigint generated by default as identity (start with 1),
+        failedCount integer not null,
+        fireTime bigint not null,
+        jobData longvarbinary,
+        jobName varchar(255) not null,
+        leaseExpiration bigint not null,
+        ownerId varchar(255),
+        timerServiceId varchar(255) not null,
+        OPTLOCK integer,
+        primary key (id)
+    );
+
     create table VariableInstanceLog (
         id bigint generated by default as identity (start with 1),
         log_date timestamp,
@@ -649,6 +663,7 @@
         references Task;
 
 
+    create unique index UK_CorrKeyInfo_Hash ON CorrelationKeyInfo(keyHash);
     create index IDX_Attachment_Id ON Attachment(attachedBy_id);
     create index IDX_Attachment_DataId ON Attachment(TaskData_Attachments_Id);
     create index IDX_BoolExpr_Id ON BooleanExpression(Escalation_Constraints_Id);
@@ -743,3 +758,7 @@
     create index IDX_NInstLog_pInstId on NodeInstanceLog(processInstanceId);
     create index IDX_NInstLog_nodeType on NodeInstanceLog(nodeType);
     create index IDX_NInstLog_pId on NodeInstanceLog(processId);
+
+    create index IDX_TimerJob_Fire on TimerJobInfo(timerServiceId, fireTime);
+    create unique index UK_TimerJob_Name on TimerJobInfo(jobName, timerServiceId);
+    create index IDX_TimerJob_Owner on TimerJobInfo(ownerId);
@@ -80,6 +80,7 @@
     create table CorrelationKeyInfo (
         keyId bigint not null auto_increment,
         name varchar(255),
+        keyHash varchar(64),
         processInstanceId bigint not null,
         OPTLOCK integer,
         primary key (keyId)
@@ -395,6 +396,19 @@
         primary key (id)
     );
 
+    create table TimerJobInfo (
+        id bigint not null auto_increment,
+        failedCount integer not null,
+        fireTime bigint not null,
+        jobData longblob,
+        jobName varchar(255) not null,
+        leaseExpiration bigint not null,
+        ownerId varchar(255),
+        timerServiceId varchar(255) not null,
+        OPTLOCK integer,
+        primary key (id)
+    );
+
     create table VariableInstanceLog (
         id bigint not null auto_increment,
         log_date datetime,
@@ -721,6 +735,7 @@
         references Task (id);
 
         
+    create unique index UK_CorrKeyInfo_Hash ON CorrelationKeyInfo(keyHash);
     create index IDX_Attachment_Id ON Attachment(attachedBy_id);
     create index IDX_Attachment_DataId ON Attachment(TaskData_Attachments_Id);
     create index IDX_BoolExpr_Id ON BooleanExpression(Escalation_Constraints_Id);
@@ -815,3 +830,7 @@
     create index IDX_NInstLog_pInstId on NodeInstanceLog(processInstanceId);
     create index IDX_NInstLog_nodeType on NodeInstanceLog(nodeType);
     create index IDX_NInstLog_pId on NodeInstanceLog(processId);
+
+    create index IDX_TimerJob_Fire on TimerJobInfo(timerServiceId, fireTime);
+    create unique index UK_TimerJob_Name on TimerJobInfo(jobName, timerServiceId);
+    create index IDX_TimerJob_Owner on TimerJobInfo(ownerId);
@@ -73,6 +73,7 @@
     create table CorrelationKeyInfo (
         keyId int8 not null,
         name varchar(255),
+        keyHash varchar(64),
         processInstanceId int8 not null,
         OPTLOCK int4,
         primary key (keyId)
@@ -371,6 +372,19 @@
         primary key (id)
     );
 
+    create table TimerJobInfo (
+        id int8 not null,
+        failedCount int4 not null,
+        fireTime int8 not null,
+        jobData oid,
+        jobName varchar(255) not null,
+        leaseExpiration int8 not null,
+        ownerId varchar(255),
+        timerServiceId varchar(255) not null,
+        OPTLOCK int4,
+        primary key (id)
+    );
+
     create table VariableInstanceLog (
         id int8 not null,
         log_date timestamp,
@@ -702,11 +716,14 @@
 
     create sequence TASK_VAR_ID_SEQ;
 
+    create sequence TIMER_JOB_ID_SEQ;
+
     create sequence VAR_INST_LOG_ID_SEQ;
 
     create sequence WORKITEMINFO_ID_SEQ;
 
     
+    create unique index UK_CorrKeyInfo_Hash ON CorrelationKeyInfo(keyHash);
     create index IDX_Attachment_Id ON Attachment(attachedBy_id);
     create index IDX_Attachment_DataId ON Attachment(TaskData_Attachments_Id);
     create index IDX_BoolExpr_Id ON BooleanExpression(Escalation_Constraints_Id);
@@ -801,3 +818,7 @@
     create index IDX_NInstLog_pInstId on NodeInstanceLog(processInstanceId);
     create index IDX_NInstLog_nodeType on NodeInstanceLog(nodeType);
     create index IDX_NInstLog_pId on NodeInstanceLog(processId);
+
+    create index IDX_TimerJob_Fire on TimerJobInfo(timerServiceId, fireTime);
+    create unique index UK_TimerJob_Name on TimerJobInfo(jobName, timerServiceId);
+    create index IDX_TimerJob_Owner on TimerJobInfo(ownerId);
@@ -79,6 +79,7 @@
     create table CorrelationKeyInfo (
         keyId numeric(19,0) identity not null,
         name varchar(255) null,
+        keyHash varchar(64) null,
         processInstanceId numeric(19,0) not null,
         OPTLOCK int null,
         primary key (keyId)
@@ -408,6 +409,20 @@
     ) lock datarows
     go
 
+    create table TimerJobInfo (
+        id numeric(19,0) identity not null,
+        failedCount int not null,
+        fireTime numeric(19,0) not null,
+        jobData image null,
+        jobName varchar(255) not null,
+        leaseExpiration numeric(19,0) not null,
+        ownerId varchar(255) null,
+        timerServiceId varchar(255) not null,
+        OPTLOCK int null,
+        primary key (id)
+    ) lock datarows
+    go
+
     create table VariableInstanceLog (
         id numeric(19,0) identity not null,
         log_date datetime null,
@@ -737,6 +752,7 @@
         references Task
     go
 
+    create unique index UK_CorrKeyInfo_Hash ON CorrelationKeyInfo(keyHash)
     create index IDX_Attachment_Id ON Attachment(attachedBy_id)
     create index IDX_Attachment_DataId ON Attachment(TaskData_Attachments_Id)
     create index IDX_BoolExpr_Id ON BooleanExpression(Escalation_Constraints_Id)
@@ -831,3 +847,7 @@
     create index IDX_NInstLog_pInstId on NodeInstanceLog(processInstanceId);
     create index IDX_NInstLog_nodeType on NodeInstanceLog(nodeType);
     create index IDX_NInstLog_pId on NodeInstanceLog(processId);
+
+    create index IDX_TimerJob_Fire on TimerJobInfo(timerServiceId, fireTime);
+    create unique index UK_TimerJob_Name on TimerJobInfo(jobName, timerServiceId);
+    create index IDX_TimerJob_Owner on TimerJobInfo(ownerId);
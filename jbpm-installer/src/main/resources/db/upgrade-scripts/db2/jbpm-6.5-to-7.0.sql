@@ -2,4 +2,24 @@ alter table RequestInfo add column priority integer;
 ALTER TABLE ProcessInstanceLog ADD COLUMN processType integer;
 
 update ProcessInstanceLog set processType = 1;
-update RequestInfo set priority = 5;
\ No newline at end of file
+update RequestInfo set priority = 5;
+
+alter table CorrelationKeyInfo add column keyHash varchar(64);
+create unique index UK_CorrKeyInfo_Hash ON CorrelationKeyInfo(keyHash) exclude null keys;
+-- hash of existing correlation keys is computed by org.jbpm.persistence.correlation.CorrelationKeyHashUpdater
+
+create table TimerJobInfo (
+    id bigint generated by default as identity,
+    failedCount integer not null,
+    fireTime bigint not null,
+    jobData blob(2147483647),
+    jobName varchar(255) not null,
+    leaseExpiration bigint not null,
+    ownerId varchar(255),
+    timerServiceId varchar(255) not null,
+    OPTLOCK integer,
+    primary key (id)
+);
+create index IDX_TimerJob_Fire on TimerJobInfo(timerServiceId, fireTime);
+create unique index UK_TimerJob_Name on TimerJobInfo(jobName, timerServiceId);
+create index IDX_TimerJob_Owner on TimerJobInfo(ownerId);
@@ -2,4 +2,25 @@ alter table RequestInfo add priority number(10,0);
 alter table ProcessInstanceLog add processType number(10,0);
 
 update ProcessInstanceLog set processType = 1;
-update RequestInfo set priority = 5;
\ No newline at end of file
+update RequestInfo set priority = 5;
+
+alter table CorrelationKeyInfo add keyHash varchar2(64 char);
+create unique index UK_CorrKeyInfo_Hash ON CorrelationKeyInfo(keyHash);
+-- hash of existing correlation keys is computed by org.jbpm.persistence.correlation.CorrelationKeyHashUpdater
+
+create table TimerJobInfo (
+    id number(19,0) not null,
+    failedCount number(10,0) not null,
+    fireTime number(19,0) not null,
+    jobData blob,
+    jobName varchar2(255 char) not null,
+    leaseExpiration number(19,0) not null,
+    ownerId varchar2(255 char),
+    timerServiceId varchar2(255 char) not null,
+    OPTLOCK number(10,0),
+    primary key (id)
+);
+create sequence TIMER_JOB_ID_SEQ;
+create index IDX_TimerJob_Fire on TimerJobInfo(timerServiceId, fireTime);
+create unique index UK_TimerJob_Name on TimerJobInfo(jobName, timerServiceId);
+create index IDX_TimerJob_Owner on TimerJobInfo(ownerId);
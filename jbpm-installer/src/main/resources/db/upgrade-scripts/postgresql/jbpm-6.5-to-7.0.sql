@@ -2,4 +2,25 @@ alter table RequestInfo add column priority int4;
 ALTER TABLE ProcessInstanceLog ADD COLUMN processType int4;
 
 update ProcessInstanceLog set processType = 1;
-update RequestInfo set priority = 5;
\ No newline at end of file
+update RequestInfo set priority = 5;
+
+alter table CorrelationKeyInfo add column keyHash varchar(64);
+create unique index UK_CorrKeyInfo_Hash ON CorrelationKeyInfo(keyHash);
+-- hash of existing correlation keys is computed by org.jbpm.persistence.correlation.CorrelationKeyHashUpdater
+
+create table TimerJobInfo (
+    id int8 not null,
+    failedCount int4 not null,
+    fireTime int8 not null,
+    jobData oid,
+    jobName varchar(255) not null,
+    leaseExpiration int8 not null,
+    ownerId varchar(255),
+    timerServiceId varchar(255) not null,
+    OPTLOCK int4,
+    primary key (id)
+);
+create sequence TIMER_JOB_ID_SEQ;
+create index IDX_TimerJob_Fire on TimerJobInfo(timerServiceId, fireTime);
+create unique index UK_TimerJob_Name on TimerJobInfo(jobName, timerServiceId);
+create index IDX_TimerJob_Owner on TimerJobInfo(ownerId);
@@ -2,4 +2,27 @@ alter table RequestInfo add priority int not null;
 ALTER TABLE ProcessInstanceLog ADD processType int not null;
 
 update ProcessInstanceLog set processType = 1;
-update RequestInfo set priority = 5;
\ No newline at end of file
+update RequestInfo set priority = 5;
+
+alter table CorrelationKeyInfo add keyHash varchar(64);
+create index IDX_CorrKeyInfo_Hash ON CorrelationKeyInfo(keyHash);
+-- hash of existing correlation keys is computed by org.jbpm.persistence.correlation.CorrelationKeyHashUpdater
+-- unique index allows single null value only, so it replaces the index above once all keys have their hash:
+-- drop index CorrelationKeyInfo.IDX_CorrKeyInfo_Hash;
+-- create unique index UK_CorrKeyInfo_Hash ON CorrelationKeyInfo(keyHash);
+
+create table TimerJobInfo (
+    id numeric(19,0) identity not null,
+    failedCount int not null,
+    fireTime numeric(19,0) not null,
+    jobData image,
+    jobName varchar(255) not null,
+    leaseExpiration numeric(19,0) not null,
+    ownerId varchar(255),
+    timerServiceId varchar(255) not null,
+    OPTLOCK int,
+    primary key (id)
+);
+create index IDX_TimerJob_Fire on TimerJobInfo(timerServiceId, fireTime);
+create unique index UK_TimerJob_Name on TimerJobInfo(jobName, timerServiceId);
+create index IDX_TimerJob_Owner on TimerJobInfo(ownerId);
@@ -28,7 +28,9 @@ import org.drools.persistence.SingleSessionCommandService;
 import org.drools.persistence.TransactionManager;
 import org.drools.persistence.TransactionManagerHelper;
 import org.drools.persistence.jpa.JpaPersistenceContext;
+import org.jbpm.persistence.correlation.CorrelationKeyHashUpdater;
 import org.jbpm.persistence.correlation.CorrelationKeyInfo;
+import org.jbpm.persistence.correlation.JPACorrelationKeyFactory;
 import org.jbpm.persistence.processinstance.JPASignalManager;
 import org.jbpm.persistence.processinstance.ProcessInstanceInfo;
 import org.jbpm.process.instance.ProcessInstance;
@@ -111,6 +113,40 @@ public class JpaProcessPersistenceContext extends JpaPersistenceContext
     	}
     }
 
+    /**
+     * Returns one page of ids of process instances waiting for given event type, ordered by id. Next page
+     * is retrieved by passing last id of the previous page as <code>afterProcessInstanceId</code>, which keeps
+     * the cost of every page constant regardless of how many instances are waiting.
+     * </p>
+     * Same as {@link #getProcessInstancesWaitingForEvent(String)} the query is not locked.
+     */
+    public List<Long> getProcessInstancesWaitingForEvent(String type, Long afterProcessInstanceId, int maxResults) {
+        EntityManager entityManager = getEntityManager();
+        if (entityManager != null) {
+            Query processInstancesForEvent = entityManager.createNamedQuery( "ProcessInstancesWaitingForEventAfter" );
+            processInstancesForEvent.setParameter( "type", type );
+            processInstancesForEvent.setParameter( "lastId", afterProcessInstanceId == null ? -1L : afterProcessInstanceId );
+            processInstancesForEvent.setMaxResults( maxResults );
+            return (List<Long>) processInstancesForEvent.getResultList();
+        } else {
+            return new ArrayList<Long>();
+        }
+    }
+
+    /**
+     * Loads process instance infos of given ids with single query so they are already managed by the entity manager
+     * when process instances are retrieved one by one afterwards (see {@link #findProcessInstanceInfo(Long)}).
+     */
+    public List<ProcessInstanceInfo> findProcessInstanceInfos(List<Long> processInstanceIds) {
+        EntityManager entityManager = getEntityManager();
+        if (entityManager == null || processInstanceIds == null || processInstanceIds.isEmpty()) {
+            return new ArrayList<ProcessInstanceInfo>();
+        }
+        Query processInstanceInfos = entityManager.createNamedQuery( "ProcessInstanceInfosByIds" );
+        processInstanceInfos.setParameter( "ids", processInstanceIds );
+        return (List<ProcessInstanceInfo>) processInstanceInfos.getResultList();
+    }
+
     public CorrelationKeyInfo persist(CorrelationKeyInfo correlationKeyInfo) {
         Long processInstanceId = getProcessInstanceByCorrelationKey(correlationKeyInfo);
         if (processInstanceId != null) {
@@ -133,8 +169,28 @@ public class JpaProcessPersistenceContext extends JpaPersistenceContext
      * However, this is not an issue: see the {@link #getProcessInstancesWaitingForEvent(String)} documentation
      * for more information. The same logic applies to this method. 
      * </p>
+     * Correlation key is looked up by its hash (see {@link JPACorrelationKeyFactory#computeKeyHash(CorrelationKey)}),
+     * when not found it is looked up by property values as long as there are keys stored without hash that
+     * were not migrated with {@link CorrelationKeyHashUpdater} yet.
+     * </p>
      */
     public Long getProcessInstanceByCorrelationKey(CorrelationKey correlationKey) {
+        String keyHash = null;
+        if (correlationKey instanceof CorrelationKeyInfo) {
+            keyHash = ((CorrelationKeyInfo) correlationKey).getKeyHash();
+        }
+        if (keyHash == null) {
+            keyHash = JPACorrelationKeyFactory.computeKeyHash(correlationKey);
+        }
+        List<Long> processInstanceIds = getEntityManager().createNamedQuery( "GetProcessInstanceIdByCorrelationKeyHash" )
+                .setParameter( "keyHash", keyHash )
+                .getResultList();
+        if (processInstanceIds.size() == 1) {
+            return processInstanceIds.get(0);
+        } else if (!processInstanceIds.isEmpty() || !CorrelationKeyHashUpdater.isLegacyLookupRequired(getEntityManager())) {
+            return null;
+        }
+        // keys stored before the hash was introduced that have not been migrated yet
         Query processInstancesForEvent = getEntityManager().createNamedQuery( "GetProcessInstanceIdByCorrelation" );
         processInstancesForEvent.setParameter( "elem_count", new Long(correlationKey.getProperties().size()) );
         List<Object> properties = new ArrayList<Object>();
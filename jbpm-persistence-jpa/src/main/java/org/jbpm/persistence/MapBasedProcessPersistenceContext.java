@@ -77,6 +77,31 @@ public class MapBasedProcessPersistenceContext extends MapBasedPersistenceContex
         return storage.getProcessInstancesWaitingForEvent( type );
     }
 
+    public List<Long> getProcessInstancesWaitingForEvent(String type, Long afterProcessInstanceId, int maxResults) {
+        List<Long> processInstanceIds = new ArrayList<Long>();
+        for ( Long id : storage.getProcessInstancesWaitingForEvent( type ) ) {
+            if ( afterProcessInstanceId == null || id > afterProcessInstanceId ) {
+                processInstanceIds.add( id );
+            }
+        }
+        Collections.sort( processInstanceIds );
+        if ( processInstanceIds.size() > maxResults ) {
+            return new ArrayList<Long>( processInstanceIds.subList( 0, maxResults ) );
+        }
+        return processInstanceIds;
+    }
+
+    public List<ProcessInstanceInfo> findProcessInstanceInfos(List<Long> processInstanceIds) {
+        List<ProcessInstanceInfo> processInstanceInfos = new ArrayList<ProcessInstanceInfo>();
+        for ( Long id : processInstanceIds ) {
+            ProcessInstanceInfo processInstanceInfo = findProcessInstanceInfo( id );
+            if ( processInstanceInfo != null ) {
+                processInstanceInfos.add( processInstanceInfo );
+            }
+        }
+        return processInstanceInfos;
+    }
+
     public void clearStoredProcessInstances() {
         processes.clear();
     }
@@ -35,6 +35,10 @@ public interface ProcessPersistenceContext
     void remove(ProcessInstanceInfo processInstanceInfo);
 
     List<Long> getProcessInstancesWaitingForEvent(String type);
+
+    List<Long> getProcessInstancesWaitingForEvent(String type, Long afterProcessInstanceId, int maxResults);
+
+    List<ProcessInstanceInfo> findProcessInstanceInfos(List<Long> processInstanceIds);
     
     Long getProcessInstanceByCorrelationKey(CorrelationKey correlationKey);
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.persistence.correlation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes hash of correlation keys that were stored before the hash column was introduced.
+ * Keys are migrated in batches, each batch is expected to be executed in its own transaction:
+ * <pre>
+ * CorrelationKeyHashUpdater updater = new CorrelationKeyHashUpdater(1000);
+ * int updated;
+ * do {
+ *     ut.begin();
+ *     updated = updater.updateNextBatch(em);
+ *     ut.commit();
+ * } while (updated > 0);
+ * </pre>
+ * Until all keys are migrated correlation keys not found by their hash are looked up by property values,
+ * see {@link #isLegacyLookupRequired(EntityManager)}.
+ */
+public class CorrelationKeyHashUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorrelationKeyHashUpdater.class);
+
+    private static final String LEGACY_LOOKUP = System.getProperty("org.jbpm.correlation.legacy.lookup");
+
+    // new keys always get their hash, so once there is no key without it the check is not repeated
+    private static final Map<EntityManagerFactory, Boolean> migrated = Collections.synchronizedMap(new WeakHashMap<EntityManagerFactory, Boolean>());
+
+    private final int batchSize;
+
+    public CorrelationKeyHashUpdater(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Computes and stores hash of next batch of correlation keys that do not have it yet.
+     * Must be invoked within active transaction.
+     * @param em entity manager to be used
+     * @return number of updated correlation keys, 0 when there are no more keys to migrate
+     */
+    @SuppressWarnings("unchecked")
+    public int updateNextBatch(EntityManager em) {
+        List<Long> keyIds = em.createNamedQuery("GetCorrelationKeyIdsWithoutHash")
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (keyIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<Object>> values = new HashMap<Long, List<Object>>();
+        List<Object[]> properties = em.createNamedQuery("GetCorrelationPropertyValuesByKeyIds")
+                .setParameter("keyIds", keyIds)
+                .getResultList();
+        for (Object[] property : properties) {
+            List<Object> keyValues = values.get(property[0]);
+            if (keyValues == null) {
+                keyValues = new ArrayList<Object>();
+                values.put((Long) property[0], keyValues);
+            }
+            keyValues.add(property[1]);
+        }
+        for (Long keyId : keyIds) {
+            List<Object> keyValues = values.get(keyId);
+            if (keyValues == null) {
+                keyValues = new ArrayList<Object>();
+            }
+            em.createNamedQuery("UpdateCorrelationKeyHash")
+                .setParameter("keyHash", JPACorrelationKeyFactory.computeKeyHash(keyValues))
+                .setParameter("keyId", keyId)
+                .executeUpdate();
+        }
+        logger.debug("Computed hash of {} correlation keys", keyIds.size());
+        return keyIds.size();
+    }
+
+    /**
+     * Tells whether correlation key that was not found by its hash must be looked up by its property values as well,
+     * as it might have been stored before the hash was introduced and not migrated yet. That is the case as long
+     * as there are keys without hash, unless system property org.jbpm.correlation.legacy.lookup is set - true
+     * to always look up by property values, false to never do so.
+     * @param em entity manager to be used
+     * @return true if lookup by property values is required
+     */
+    @SuppressWarnings("unchecked")
+    public static boolean isLegacyLookupRequired(EntityManager em) {
+        if (LEGACY_LOOKUP != null) {
+            return Boolean.parseBoolean(LEGACY_LOOKUP);
+        }
+        EntityManagerFactory emf = em.getEntityManagerFactory();
+        if (migrated.containsKey(emf)) {
+            return false;
+        }
+        List<Long> keyIds = em.createNamedQuery("GetCorrelationKeyIdsWithoutHash")
+                .setMaxResults(1)
+                .getResultList();
+        if (keyIds.isEmpty()) {
+            migrated.put(emf, Boolean.TRUE);
+            return false;
+        }
+        return true;
+    }
+}
@@ -26,7 +26,10 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
 import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.persistence.Version;
 
 import org.kie.internal.jaxb.CorrelationKeyXmlAdapter;
@@ -34,6 +37,7 @@ import org.kie.internal.process.CorrelationKey;
 import org.kie.internal.process.CorrelationProperty;
 
 @Entity
+@Table(uniqueConstraints={@UniqueConstraint(name="UK_CorrKeyInfo_Hash", columnNames="keyHash")})
 @SequenceGenerator(name="correlationKeyInfoIdSeq", sequenceName="CORRELATION_KEY_ID_SEQ")
 public class CorrelationKeyInfo implements CorrelationKey, Serializable {
 
@@ -52,6 +56,9 @@ public class CorrelationKeyInfo implements CorrelationKey, Serializable {
     
     private String name;
     
+    @Column(length = 64)
+    private String keyHash;
+    
     @OneToMany(mappedBy="correlationKey", cascade=CascadeType.ALL)
     private List<CorrelationPropertyInfo> properties;
     
@@ -83,6 +90,23 @@ public class CorrelationKeyInfo implements CorrelationKey, Serializable {
         }
         property.setCorrelationKey(this);
         this.properties.add(property);
+        // properties changed so hash needs to be recomputed
+        this.keyHash = null;
+    }
+
+    public String getKeyHash() {
+        return keyHash;
+    }
+
+    public void setKeyHash(String keyHash) {
+        this.keyHash = keyHash;
+    }
+
+    @PrePersist
+    protected void ensureKeyHash() {
+        if (this.keyHash == null && this.properties != null) {
+            this.keyHash = JPACorrelationKeyFactory.computeKeyHash(this);
+        }
     }
 
     @Override
@@ -15,13 +15,23 @@
  */
 package org.jbpm.persistence.correlation;
 
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.kie.internal.process.CorrelationKey;
 import org.kie.internal.process.CorrelationKeyFactory;
+import org.kie.internal.process.CorrelationProperty;
 
 public class JPACorrelationKeyFactory implements CorrelationKeyFactory {
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
     public CorrelationKey newCorrelationKey(String businessKey) {
         if (businessKey.isEmpty()) {
             throw new IllegalArgumentException("businessKey cannot be empty");
@@ -29,6 +39,7 @@ public class JPACorrelationKeyFactory implements CorrelationKeyFactory {
 
         CorrelationKeyInfo correlationKey = new CorrelationKeyInfo();
         correlationKey.addProperty(new CorrelationPropertyInfo(null, businessKey));
+        correlationKey.setKeyHash(computeKeyHash(correlationKey));
 
         return correlationKey;
     }
@@ -42,7 +53,51 @@ public class JPACorrelationKeyFactory implements CorrelationKeyFactory {
         for (String businessKey : properties) {
             correlationKey.addProperty(new CorrelationPropertyInfo(null, businessKey));
         }
+        correlationKey.setKeyHash(computeKeyHash(correlationKey));
 
         return correlationKey;
     }
+
+    /**
+     * Computes hash of given correlation key that is stored (and indexed) with the key so it can be found
+     * with single equality lookup. Hash is built from canonical form of property values - sorted and length
+     * prefixed - so it matches the same keys as lookup by property values does regardless of their order.
+     * @param correlationKey correlation key to compute hash for
+     * @return hex encoded SHA-256 hash of the key's property values
+     */
+    public static String computeKeyHash(CorrelationKey correlationKey) {
+        List<Object> values = new ArrayList<Object>();
+        for (CorrelationProperty<?> property : correlationKey.getProperties()) {
+            values.add(property.getValue());
+        }
+        return computeKeyHash(values);
+    }
+
+    /**
+     * Computes hash of correlation key with given property values.
+     * @see #computeKeyHash(CorrelationKey)
+     */
+    public static String computeKeyHash(Collection<?> propertyValues) {
+        List<String> values = new ArrayList<String>();
+        for (Object value : propertyValues) {
+            values.add(value == null ? "-" : value.toString().length() + ":" + value);
+        }
+        Collections.sort(values);
+
+        StringBuilder canonical = new StringBuilder();
+        for (String value : values) {
+            canonical.append(value).append(';');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(UTF8));
+            char[] hash = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hash[i * 2] = HEX[(digest[i] >> 4) & 0x0F];
+                hash[i * 2 + 1] = HEX[digest[i] & 0x0F];
+            }
+            return new String(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package org.jbpm.persistence.processinstance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of signal delivered in bulk by {@link JPASignalManager}. Process instances signaled directly
+ * are reported as succeeded, process instances that could not be loaded by the session (e.g. as they belong
+ * to another context of the runtime manager) are reported as skipped, while process instances handed over
+ * to executor service (to be signaled in separate transactions) are reported as scheduled.
+ * Failure to signal a process instance directly is not part of the result - it is rethrown so the whole
+ * transaction is rolled back.
+ */
+public class BulkSignalResult {
+
+    private final List<Long> succeeded = new ArrayList<Long>();
+    private final List<Long> skipped = new ArrayList<Long>();
+    private final List<Long> scheduled = new ArrayList<Long>();
+
+    void addSucceeded(Long processInstanceId) {
+        succeeded.add(processInstanceId);
+    }
+
+    void addSkipped(Long processInstanceId) {
+        skipped.add(processInstanceId);
+    }
+
+    void addScheduled(List<Long> processInstanceIds) {
+        scheduled.addAll(processInstanceIds);
+    }
+
+    public List<Long> getSucceeded() {
+        return Collections.unmodifiableList(succeeded);
+    }
+
+    public List<Long> getSkipped() {
+        return Collections.unmodifiableList(skipped);
+    }
+
+    public List<Long> getScheduled() {
+        return Collections.unmodifiableList(scheduled);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkSignalResult [succeeded=" + succeeded.size() + ", skipped=" + skipped.size() + ", scheduled=" + scheduled.size() + "]";
+    }
+}
@@ -15,7 +15,10 @@
 
 package org.jbpm.persistence.processinstance;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.drools.core.common.InternalKnowledgeRuntime;
 import org.jbpm.persistence.ProcessPersistenceContext;
@@ -26,19 +29,43 @@ import org.kie.api.executor.CommandContext;
 import org.kie.api.executor.ExecutorService;
 import org.kie.api.runtime.EnvironmentName;
 import org.kie.api.runtime.manager.RuntimeManager;
+import org.kie.api.runtime.process.ProcessInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Signal manager that makes sure process instances waiting for given signal are loaded from data base
+ * before the signal is delivered.
+ * <br/>
+ * By default all waiting process instances are loaded one by one and signaled at once. Bulk mode can be
+ * enabled by setting system property <code>org.jbpm.signal.bulk.size</code> to positive number, in that case
+ * ids of waiting process instances are read in pages of given size, process instances of every page are
+ * loaded with single query and signaled one by one. Signals sent asynchronously (with <code>ASYNC-</code> prefix)
+ * are then scheduled on executor service as one request per page instead of one request per process instance,
+ * so they are signaled by executor threads, each process instance in its own transaction.
+ */
 public class JPASignalManager extends DefaultSignalManager {
     private static final String ASYNC_SIGNAL_PREFIX = "ASYNC-";
     private static final Logger logger = LoggerFactory.getLogger(JPASignalManager.class);
 
+    private int bulkSize = Integer.parseInt(System.getProperty("org.jbpm.signal.bulk.size", "0"));
+
     public JPASignalManager(InternalKnowledgeRuntime kruntime) {
         super(kruntime);
     }
     
     public void signalEvent(String type, Object event) {
         String actualSignalType = type.replaceFirst(ASYNC_SIGNAL_PREFIX, "");
+        if (bulkSize > 0) {
+            BulkSignalResult result = signalEventInBulk(actualSignalType, event, type.startsWith(ASYNC_SIGNAL_PREFIX));
+            if (!result.getSkipped().isEmpty()) {
+                // expected when process instances belong to other sessions (e.g. per process instance strategy)
+                logger.debug("Signal '{}' was not delivered to {} process instances {} as they could not be loaded by this session",
+                        actualSignalType, result.getSkipped().size(), result.getSkipped());
+            }
+            logger.debug("Signal '{}' delivered in bulk with result {}", actualSignalType, result);
+            return;
+        }
         
         ProcessPersistenceContextManager contextManager 
             = (ProcessPersistenceContextManager) getKnowledgeRuntime().getEnvironment().get( EnvironmentName.PERSISTENCE_CONTEXT_MANAGER );
@@ -67,6 +94,8 @@ public class JPASignalManager extends DefaultSignalManager {
         }
         
         
+        List<Long> failed = new ArrayList<Long>();
+        RuntimeException lastError = null;
         for ( long id : processInstancesToSignalList ) {
             try {
                 getKnowledgeRuntime().getProcessInstance( id );
@@ -74,12 +103,111 @@ public class JPASignalManager extends DefaultSignalManager {
                 // IllegalStateException can be thrown when using RuntimeManager
                 // and invalid ksession was used for given context
             } catch (RuntimeException e) {
-                logger.warn("Exception when loading process instance for signal '{}', instance with id {} will not be signaled",
-                        e.getMessage(), id);
+                failed.add(id);
+                lastError = e;
+                logger.debug("Exception when loading process instance with id {} for signal '{}'", id, actualSignalType, e);
             }
         }
+        if (!failed.isEmpty()) {
+            // single message per signal instead of one per process instance
+            logger.warn("Signal '{}' will not be delivered to {} process instances that could not be loaded, last error: {}",
+                    actualSignalType, failed.size(), lastError.getMessage());
+        }
         super.signalEvent( actualSignalType,
                            event );
     }
 
+    /**
+     * Delivers signal to all process instances waiting for it, reading them in pages of configured bulk size.
+     * @param type type of the signal (without <code>ASYNC-</code> prefix)
+     * @param event signal data
+     * @param async if true and executor service is available process instances are scheduled to be signaled
+     * in chunks by executor service, otherwise they are signaled within current transaction
+     * @return ids of process instances that were signaled, skipped or were scheduled to be signaled
+     * @throws RuntimeException when signaling of any process instance within current transaction fails, so the
+     * transaction is rolled back instead of committing process instances signaled before the failure
+     */
+    public BulkSignalResult signalEventInBulk(String type, Object event, boolean async) {
+        BulkSignalResult result = new BulkSignalResult();
+        int pageSize = bulkSize > 0 ? bulkSize : 100;
+
+        ProcessPersistenceContextManager contextManager 
+            = (ProcessPersistenceContextManager) getKnowledgeRuntime().getEnvironment().get( EnvironmentName.PERSISTENCE_CONTEXT_MANAGER );
+        ProcessPersistenceContext context = contextManager.getProcessPersistenceContext();
+
+        RuntimeManager runtimeManager = ((RuntimeManager)getKnowledgeRuntime().getEnvironment().get("RuntimeManager"));
+        ExecutorService executorService = (ExecutorService) getKnowledgeRuntime().getEnvironment().get("ExecutorService");
+        boolean dispatch = async && runtimeManager != null && executorService != null;
+        if (async && !dispatch) {
+            logger.warn("Signal should be sent asynchronously but there is no executor service available, continuing sync...");
+        }
+
+        Set<Long> alreadySignaled = new HashSet<Long>();
+        if (!dispatch) {
+            // deliver to listeners registered already - process instances that are loaded and event based start nodes
+            super.signalEvent( type, event );
+            for (ProcessInstance processInstance : getKnowledgeRuntime().getProcessInstances()) {
+                alreadySignaled.add(processInstance.getId());
+            }
+        }
+
+        Long lastId = null;
+        List<Long> page;
+        do {
+            page = context.getProcessInstancesWaitingForEvent(type, lastId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1);
+
+            if (dispatch) {
+                CommandContext ctx = new CommandContext();
+                ctx.setData("DeploymentId", runtimeManager.getIdentifier());
+                ctx.setData("ProcessInstanceIds", new ArrayList<Long>(page));
+                ctx.setData("Signal", type);
+                ctx.setData("Event", event);
+
+                executorService.scheduleRequest(AsyncSignalEventCommand.class.getName(), ctx);
+                result.addScheduled(page);
+                continue;
+            }
+
+            List<Long> toSignal = new ArrayList<Long>(page.size());
+            for (Long id : page) {
+                if (!alreadySignaled.contains(id)) {
+                    toSignal.add(id);
+                }
+            }
+            // load all process instance infos of the page at once so they are not queried one by one
+            context.findProcessInstanceInfos(toSignal);
+            for (Long id : toSignal) {
+                try {
+                    ProcessInstance processInstance = getKnowledgeRuntime().getProcessInstance( id );
+                    if (processInstance != null) {
+                        processInstance.signalEvent( type, event );
+                        result.addSucceeded(id);
+                    }
+                } catch (IllegalStateException e) {
+                    // IllegalStateException can be thrown when using RuntimeManager
+                    // and invalid ksession was used for given context
+                    result.addSkipped(id);
+                } catch (RuntimeException e) {
+                    logger.warn("Exception when signaling process instance with id {} with signal '{}' due to {}",
+                            id, type, e.getMessage());
+                    throw e;
+                }
+            }
+        } while (page.size() == pageSize);
+
+        return result;
+    }
+
+    public int getBulkSize() {
+        return bulkSize;
+    }
+
+    public void setBulkSize(int bulkSize) {
+        this.bulkSize = bulkSize;
+    }
+
 }
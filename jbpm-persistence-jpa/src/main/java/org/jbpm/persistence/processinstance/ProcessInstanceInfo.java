@@ -20,10 +20,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
@@ -34,6 +39,7 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
+import javax.persistence.PostLoad;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Transient;
 import javax.persistence.Version;
@@ -56,10 +62,24 @@ import org.jbpm.workflow.instance.impl.WorkflowProcessInstanceImpl;
 import org.kie.api.runtime.Environment;
 import org.kie.api.runtime.process.ProcessInstance;
 
+/**
+ * Persistent representation of a process instance. Process instance is stored as marshalled byte array that can
+ * optionally be compressed - enabled with system property <code>org.jbpm.pi.compression</code> set to 
+ * <code>deflate</code>, applied to byte arrays larger than <code>org.jbpm.pi.compression.threshold</code> (1024 bytes
+ * by default). Compressed data starts with a header so both compressed and not compressed byte arrays can be read
+ * regardless of the configuration.
+ * <br/>
+ * When process instance did not change since it was read (its marshalled form has the same digest) the entity is left
+ * untouched so no update is issued.
+ */
 @Entity
 @SequenceGenerator(name="processInstanceInfoIdSeq", sequenceName="PROCESS_INSTANCE_INFO_ID_SEQ")
 public class ProcessInstanceInfo implements Transformable {
 
+    private static final byte[] COMPRESSED_HEADER = new byte[] {'P', 'I', 'Z', 1};
+    private static final boolean COMPRESSION_ENABLED = "deflate".equalsIgnoreCase(System.getProperty("org.jbpm.pi.compression", "none"));
+    private static final int COMPRESSION_THRESHOLD = Integer.parseInt(System.getProperty("org.jbpm.pi.compression.threshold", "1024"));
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO, generator="processInstanceInfoIdSeq")
     @Column(name = "InstanceId")
@@ -89,6 +109,12 @@ public class ProcessInstanceInfo implements Transformable {
     
     @Transient
     Environment                               env;
+    
+    @Transient
+    private byte[]                            persistedDigest;
+    
+    @Transient
+    private Date                              persistedLastReadDate;
 
     protected ProcessInstanceInfo() {
     }
@@ -172,7 +198,9 @@ public class ProcessInstanceInfo implements Transformable {
         this.env = env;
         if ( processInstance == null ) {        	
             try {
-                ByteArrayInputStream bais = new ByteArrayInputStream( processInstanceByteArray );
+                byte[] data = decompress( processInstanceByteArray );
+                persistedDigest = digest( data );
+                ByteArrayInputStream bais = new ByteArrayInputStream( data );
                 MarshallerReaderContext context = new MarshallerReaderContext( bais,
                                                                                (InternalKnowledgeBase) kruntime.getKieBase(),
                                                                                null,
@@ -247,15 +275,21 @@ public class ProcessInstanceInfo implements Transformable {
         		+ processInstance.getId() + ": " + e.getMessage(), e );
         }
         byte[] newByteArray = baos.toByteArray();
-        if ( variablesChanged || !Arrays.equals( newByteArray,
-                                                 processInstanceByteArray ) ) {
+        byte[] newDigest = digest( newByteArray );
+        if ( variablesChanged || persistedDigest == null || !Arrays.equals( newDigest,
+                                                                            persistedDigest ) ) {
             this.state = processInstance.getState();
             this.lastModificationDate = new Date();
-            this.processInstanceByteArray = newByteArray;
+            this.processInstanceByteArray = COMPRESSION_ENABLED ? compress( newByteArray ) : newByteArray;
+            this.persistedDigest = newDigest;
+            this.persistedLastReadDate = lastReadDate;
             this.eventTypes.clear();
             for ( String type : processInstance.getEventTypes() ) {
                 eventTypes.add( type );
             }
+        } else if ( persistedLastReadDate != null ) {
+            // nothing changed, keep the entity as it was loaded so no update is issued
+            this.lastReadDate = persistedLastReadDate;
         }
         if (!processInstance.getProcessId().equals(this.processId)) {
     		this.processId = processInstance.getProcessId();
@@ -263,6 +297,76 @@ public class ProcessInstanceInfo implements Transformable {
         ((WorkflowProcessInstanceImpl) processInstance).setPersisted(true);
     }
 
+    
+    @PostLoad
+    protected void onLoad() {
+        this.persistedLastReadDate = lastReadDate;
+    }
+
+    static byte[] compress(byte[] data) {
+        if ( data.length <= COMPRESSION_THRESHOLD ) {
+            return data;
+        }
+        Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+        try {
+            deflater.setInput( data );
+            deflater.finish();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream( data.length / 2 );
+            baos.write( COMPRESSED_HEADER, 0, COMPRESSED_HEADER.length );
+            byte[] buffer = new byte[8192];
+            while ( !deflater.finished() ) {
+                int count = deflater.deflate( buffer );
+                baos.write( buffer, 0, count );
+            }
+            return baos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] decompress(byte[] data) {
+        if ( !isCompressed( data ) ) {
+            return data;
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput( data, COMPRESSED_HEADER.length, data.length - COMPRESSED_HEADER.length );
+            ByteArrayOutputStream baos = new ByteArrayOutputStream( data.length * 2 );
+            byte[] buffer = new byte[8192];
+            while ( !inflater.finished() ) {
+                int count = inflater.inflate( buffer );
+                if ( count == 0 && (inflater.needsInput() || inflater.needsDictionary()) ) {
+                    throw new IllegalArgumentException( "Truncated compressed process instance data" );
+                }
+                baos.write( buffer, 0, count );
+            }
+            return baos.toByteArray();
+        } catch ( DataFormatException e ) {
+            throw new IllegalArgumentException( "Invalid compressed process instance data: " + e.getMessage(), e );
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static boolean isCompressed(byte[] data) {
+        if ( data == null || data.length < COMPRESSED_HEADER.length ) {
+            return false;
+        }
+        for ( int i = 0; i < COMPRESSED_HEADER.length; i++ ) {
+            if ( data[i] != COMPRESSED_HEADER[i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] digest(byte[] data) {
+        try {
+            return MessageDigest.getInstance( "SHA-256" ).digest( data );
+        } catch ( NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( "SHA-256 is not available", e );
+        }
+    }
 
     @Override
     public boolean equals(Object obj) {
@@ -0,0 +1,749 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.persistence.timer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceException;
+
+import org.drools.core.time.InternalSchedulerService;
+import org.drools.core.time.Job;
+import org.drools.core.time.JobContext;
+import org.drools.core.time.JobHandle;
+import org.drools.core.time.TimerService;
+import org.drools.core.time.Trigger;
+import org.drools.core.time.impl.TimerJobInstance;
+import org.drools.persistence.TransactionManager;
+import org.drools.persistence.TransactionManagerFactory;
+import org.drools.persistence.TransactionSynchronization;
+import org.jbpm.process.core.timer.GlobalSchedulerService;
+import org.jbpm.process.core.timer.NamedJobContext;
+import org.jbpm.process.core.timer.SchedulerServiceInterceptor;
+import org.jbpm.process.core.timer.TimerServiceRegistry;
+import org.jbpm.process.core.timer.impl.DelegateSchedulerServiceInterceptor;
+import org.jbpm.process.core.timer.impl.GlobalTimerService;
+import org.jbpm.process.core.timer.impl.GlobalTimerService.GlobalJobHandle;
+import org.jbpm.process.instance.timer.TimerManager.ProcessJobContext;
+import org.jbpm.process.instance.timer.TimerManager.StartProcessJobContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lightweight persistent scheduler service that keeps timers in the <code>TimerJobInfo</code> table
+ * and can be used in cluster without additional scheduler infrastructure.
+ * <br/>
+ * Timers are stored within transaction of the caller so they are created (and removed) only when the
+ * transaction commits. Every node periodically claims timers that are due before its next poll in batches -
+ * rows are selected with skip locked semantics (where the JPA provider and data base support it) so nodes claiming
+ * at the same time take different timers instead of waiting on each other, claimed rows are leased to the node,
+ * so other nodes will not fire them as long as the lease is renewed. Claimed timers are held in in-memory hashed
+ * wheel ({@link TimerWheel}) and fired with precision of the wheel's tick, timers far in the future are held only
+ * in the data base, so the number of pending timers is not limited by memory.
+ * <br/>
+ * Timers are delivered at least once - timer is executed and its row removed in separate transactions, so when
+ * the node fails (or its lease expires) in between, the timer is claimed and fired again by another node.
+ * <br/>
+ * Configuration via system properties:
+ * <ul>
+ *  <li>org.jbpm.timer.jpa.poll.interval - interval in milliseconds in which due timers are claimed (default 5000)</li>
+ *  <li>org.jbpm.timer.jpa.lease - duration of the lease in milliseconds, must be longer than poll interval (default 60000)</li>
+ *  <li>org.jbpm.timer.jpa.batch.size - maximum number of timers claimed at once (default 500)</li>
+ *  <li>org.jbpm.timer.jpa.lock.timeout - lock timeout hint used when claiming timers, -2 stands for skip locked
+ *  in JPA providers that support it e.g. Hibernate (default -2)</li>
+ *  <li>org.jbpm.timer.jpa.tick - tick duration of the timer wheel in milliseconds (default 10)</li>
+ *  <li>org.jbpm.timer.jpa.wheel.size - number of buckets of the timer wheel (default 512)</li>
+ *  <li>org.jbpm.timer.jpa.threads - number of threads that execute timers (default 5)</li>
+ * </ul>
+ * Poll interval and lease can be given via setters as well. Timers that cannot be serialized (e.g. rule timers)
+ * are kept in memory only.
+ */
+public class JpaSchedulerService implements GlobalSchedulerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JpaSchedulerService.class);
+
+    private static final int BATCH_SIZE = Integer.parseInt(System.getProperty("org.jbpm.timer.jpa.batch.size", "500"));
+    // -2 stands for skip locked rows in JPA providers that support it (e.g. Hibernate), others fall back to regular lock
+    private static final Integer LOCK_TIMEOUT = Integer.parseInt(System.getProperty("org.jbpm.timer.jpa.lock.timeout", "-2"));
+    private static final String LOCK_TIMEOUT_HINT = "javax.persistence.lock.timeout";
+    private static final long TICK = Long.parseLong(System.getProperty("org.jbpm.timer.jpa.tick", "10"));
+    private static final int WHEEL_SIZE = Integer.parseInt(System.getProperty("org.jbpm.timer.jpa.wheel.size", "512"));
+    private static final int THREADS = Integer.parseInt(System.getProperty("org.jbpm.timer.jpa.threads", "5"));
+    private static final int MAX_FAILURES = 5;
+
+    // global data shared across all scheduler service instances
+    private static ExecutorService executor;
+    private static ScheduledExecutorService poller;
+    private static TimerWheel wheel;
+    private static int instances;
+
+    private final EntityManagerFactory emf;
+    private final String nodeId;
+
+    private long pollInterval = Long.parseLong(System.getProperty("org.jbpm.timer.jpa.poll.interval", "5000"));
+    private long lease = Long.parseLong(System.getProperty("org.jbpm.timer.jpa.lease", "60000"));
+
+    private AtomicLong idCounter = new AtomicLong();
+    private TimerService globalTimerService;
+    private SchedulerServiceInterceptor interceptor = new DelegateSchedulerServiceInterceptor(this);
+    private ScheduledFuture<?> pollTask;
+    private volatile boolean active;
+
+    // timers held in the wheel of this node by job name
+    private ConcurrentHashMap<String, ScheduledTimer> scheduled = new ConcurrentHashMap<String, ScheduledTimer>();
+
+    public JpaSchedulerService(EntityManagerFactory emf) {
+        this(emf, System.getProperty("org.jbpm.timer.jpa.node", "node"));
+    }
+
+    /**
+     * @param emf entity manager factory of the persistence unit that includes <code>TimerJobInfo</code> entity
+     * @param nodeName name of the node used as prefix of the owner of claimed timers
+     */
+    public JpaSchedulerService(EntityManagerFactory emf, String nodeName) {
+        this.emf = emf;
+        // every start of the node is a new owner so leases of previous run are not renewed
+        this.nodeId = nodeName + "-" + UUID.randomUUID().toString();
+    }
+
+    @Override
+    public JobHandle scheduleJob(Job job, JobContext ctx, Trigger trigger) {
+        Long id = idCounter.getAndIncrement();
+        final String jobName = getJobName(ctx, id);
+
+        ScheduledTimer local = scheduled.get(jobName);
+        if (local != null) {
+            return local.timerJobInstance.getJobHandle();
+        }
+        TimerJobInfo stored = executeInTransaction(em -> findTimer(em, jobName), null);
+        if (stored != null) {
+            TimerJobInstance storedInstance = deserialize(stored.getJobData());
+            if (storedInstance != null) {
+                return storedInstance.getJobHandle();
+            }
+        }
+
+        GlobalJpaJobHandle jobHandle = new GlobalJpaJobHandle(id, jobName, getTimerServiceId());
+        TimerJobInstance jobInstance = globalTimerService.
+                getTimerJobFactoryManager().createTimerJobInstance( job,
+                                                                    ctx,
+                                                                    trigger,
+                                                                    jobHandle,
+                                                                    (InternalSchedulerService) globalTimerService );
+        jobHandle.setTimerJobInstance( jobInstance );
+
+        interceptor.internalSchedule( jobInstance );
+        return jobHandle;
+    }
+
+    @Override
+    public boolean removeJob(JobHandle jobHandle) {
+        final GlobalJpaJobHandle jpaJobHandle = (GlobalJpaJobHandle) jobHandle;
+        jobHandle.setCancel(true);
+
+        // local timer is cancelled right away, in case the transaction is rolled back the timer
+        // will be claimed again once its lease expires
+        ScheduledTimer local = scheduled.remove(jpaJobHandle.getJobName());
+        if (local != null) {
+            local.cancel();
+        }
+        if (jpaJobHandle.getTimerJobInstance() != null) {
+            globalTimerService.getTimerJobFactoryManager().removeTimerJobInstance(jpaJobHandle.getTimerJobInstance());
+        }
+        int removed = executeInTransaction(em -> em.createQuery("delete from TimerJobInfo t where t.jobName = :jobName and t.timerServiceId = :timerServiceId")
+                .setParameter("jobName", jpaJobHandle.getJobName())
+                .setParameter("timerServiceId", getTimerServiceId())
+                .executeUpdate(), null);
+
+        return removed > 0 || local != null;
+    }
+
+    @Override
+    public void internalSchedule(final TimerJobInstance timerJobInstance) {
+        if (!active) {
+            return;
+        }
+        Date nextFireTime = timerJobInstance.getTrigger().hasNextFireTime();
+        if (nextFireTime == null) {
+            return;
+        }
+        final long fireTime = nextFireTime.getTime();
+        final String jobName = ((GlobalJpaJobHandle) timerJobInstance.getJobHandle()).getJobName();
+        globalTimerService.getTimerJobFactoryManager().addTimerJobInstance( timerJobInstance );
+
+        final byte[] data = serialize(timerJobInstance);
+        if (data == null) {
+            // in case job cannot be persisted, like rule timer then make it in memory
+            scheduleLocally(null, jobName, fireTime, timerJobInstance);
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final boolean claim = fireTime <= now + pollInterval;
+
+        Function<EntityManager, Long> store = em -> {
+            TimerJobInfo timer = findTimer(em, jobName);
+            if (timer == null) {
+                timer = new TimerJobInfo(jobName, getTimerServiceId(), fireTime, data);
+                em.persist(timer);
+            } else {
+                timer.setFireTime(fireTime);
+                timer.setJobData(data);
+                timer.setFailedCount(0);
+            }
+            // timers due before next poll are claimed right away to be fired by this node
+            if (claim) {
+                timer.lease(nodeId, now + lease);
+            } else {
+                timer.release();
+            }
+            return timer.getId();
+        };
+        Consumer<Long> afterCommit = timerId -> {
+            if (claim) {
+                scheduleLocally(timerId, jobName, fireTime, timerJobInstance);
+            }
+        };
+        boolean callerTransaction = TransactionManagerFactory.get().newTransactionManager().getStatus() != TransactionManager.STATUS_NO_TRANSACTION;
+        try {
+            executeInTransaction(store, afterCommit);
+        } catch (PersistenceException e) {
+            if (callerTransaction || !isConstraintViolation(e)) {
+                throw e;
+            }
+            // timer with the same name was stored concurrently by another node, update that one instead
+            logger.debug("Timer {} was stored concurrently, updating it", jobName);
+            executeInTransaction(store, afterCommit);
+        }
+    }
+
+    @Override
+    public void initScheduler(TimerService timerService) {
+        this.globalTimerService = timerService;
+        synchronized (JpaSchedulerService.class) {
+            if (instances == 0) {
+                executor = Executors.newFixedThreadPool(THREADS, new TimerThreadFactory("jbpm-timer-executor"));
+                poller = Executors.newSingleThreadScheduledExecutor(new TimerThreadFactory("jbpm-timer-poller"));
+                wheel = new TimerWheel(TICK, WHEEL_SIZE, executor);
+            }
+            instances++;
+            this.active = true;
+            this.pollTask = poller.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    poll();
+                }
+            }, 0, pollInterval, TimeUnit.MILLISECONDS);
+        }
+        // timers are persistent so there is no need to initialize them on start of runtime manager
+        System.setProperty("org.jbpm.rm.init.timer", "false");
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (JpaSchedulerService.class) {
+            if (!active) {
+                return;
+            }
+            active = false;
+            pollTask.cancel(false);
+            for (ScheduledTimer timer : scheduled.values()) {
+                timer.cancel();
+            }
+            scheduled.clear();
+            instances--;
+            if (instances == 0) {
+                wheel.stop();
+                poller.shutdownNow();
+                executor.shutdown();
+                try {
+                    if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                        executor.shutdownNow();
+                    }
+                } catch (InterruptedException e) {
+                    executor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        // release timers of this node so other nodes (or next start of this one) do not wait for the lease to expire
+        try {
+            executeInTransaction(em -> em.createQuery("update TimerJobInfo t set t.ownerId = null, t.leaseExpiration = 0 where t.ownerId = :ownerId")
+                    .setParameter("ownerId", nodeId)
+                    .executeUpdate(), null);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to release timers of node {} due to {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Renews leases of timers owned by this node and claims timers that are due before the next poll
+     */
+    protected void poll() {
+        final String timerServiceId = getTimerServiceId();
+        if (!active || timerServiceId == null || TimerServiceRegistry.getInstance().get(timerServiceId) == null) {
+            // timer service is not yet registered
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        try {
+            List<TimerJobInfo> claimed = executeInTransaction(em -> {
+                em.createQuery("update TimerJobInfo t set t.leaseExpiration = :leaseExpiration where t.ownerId = :ownerId and t.timerServiceId = :timerServiceId")
+                    .setParameter("leaseExpiration", now + lease)
+                    .setParameter("ownerId", nodeId)
+                    .setParameter("timerServiceId", timerServiceId)
+                    .executeUpdate();
+
+                List<TimerJobInfo> timers = em.createQuery("select t from TimerJobInfo t where t.timerServiceId = :timerServiceId and t.fireTime <= :horizon"
+                        + " and (t.ownerId is null or t.leaseExpiration < :now) order by t.fireTime", TimerJobInfo.class)
+                    .setParameter("timerServiceId", timerServiceId)
+                    .setParameter("horizon", now + pollInterval)
+                    .setParameter("now", now)
+                    .setMaxResults(BATCH_SIZE)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setHint(LOCK_TIMEOUT_HINT, LOCK_TIMEOUT)
+                    .getResultList();
+                for (TimerJobInfo timer : timers) {
+                    timer.lease(nodeId, now + lease);
+                }
+                return timers;
+            }, null);
+
+            logger.debug("Claimed {} timers for timer service {}", claimed.size(), timerServiceId);
+            for (TimerJobInfo timer : claimed) {
+                TimerJobInstance timerJobInstance = deserialize(timer.getJobData());
+                if (timerJobInstance == null) {
+                    continue;
+                }
+                globalTimerService.getTimerJobFactoryManager().addTimerJobInstance( timerJobInstance );
+                scheduleLocally(timer.getId(), timer.getJobName(), timer.getFireTime(), timerJobInstance);
+            }
+            if (claimed.size() == BATCH_SIZE && active) {
+                // there are more due timers, claim next batch right away
+                poller.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        poll();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            logger.warn("Unable to claim timers for timer service {} due to {}", timerServiceId, e.getMessage(), e);
+        }
+    }
+
+    protected void scheduleLocally(Long timerId, String jobName, long fireTime, TimerJobInstance timerJobInstance) {
+        if (!active) {
+            return;
+        }
+        ((GlobalJpaJobHandle) timerJobInstance.getJobHandle()).setTimerJobInstance(timerJobInstance);
+        ScheduledTimer timer = new ScheduledTimer(timerId, jobName, fireTime, timerJobInstance);
+        ScheduledTimer previous = scheduled.put(jobName, timer);
+        if (previous != null) {
+            previous.cancel();
+        }
+        timer.schedule();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void fire(final ScheduledTimer timer) {
+        if (timer.cancelled) {
+            return;
+        }
+        if (timer.timerId != null) {
+            // make sure timer was not removed or claimed by other node in the meantime
+            Boolean owned = executeInTransaction(em -> {
+                TimerJobInfo stored = em.find(TimerJobInfo.class, timer.timerId);
+                return stored != null && nodeId.equals(stored.getOwnerId()) && stored.getFireTime() == timer.fireTime;
+            }, null);
+            if (!owned) {
+                scheduled.remove(timer.jobName, timer);
+                logger.debug("Timer {} is no longer owned by node {}, skipping", timer.jobName, nodeId);
+                return;
+            }
+        }
+        try {
+            ((Callable<Void>) timer.timerJobInstance).call();
+            scheduled.remove(timer.jobName, timer);
+            if (timer.timerId != null) {
+                // not in the transaction of the job - timer is fired again if the node fails before this commits
+                // repeatable timers were already rescheduled with new fire time so they are kept
+                executeInTransaction(em -> em.createQuery("delete from TimerJobInfo t where t.id = :id and t.fireTime = :fireTime")
+                        .setParameter("id", timer.timerId)
+                        .setParameter("fireTime", timer.fireTime)
+                        .executeUpdate(), null);
+            }
+        } catch (Exception e) {
+            scheduled.remove(timer.jobName, timer);
+            logger.warn("Execution of timer {} failed due to {}", timer.jobName, e.getMessage(), e);
+            if (timer.timerId != null) {
+                handleFailure(timer);
+            }
+        }
+    }
+
+    protected void handleFailure(final ScheduledTimer timer) {
+        executeInTransaction(em -> {
+            TimerJobInfo stored = em.find(TimerJobInfo.class, timer.timerId);
+            if (stored == null || stored.getFireTime() != timer.fireTime) {
+                return null;
+            }
+            int failedCount = stored.getFailedCount() + 1;
+            if (failedCount > MAX_FAILURES) {
+                logger.error("Timer execution failed {} times in a row, unscheduling ({})", MAX_FAILURES, timer.jobName);
+                em.remove(stored);
+                return null;
+            }
+            // let's give it a bit of time before retrying, timer will be claimed again by any node
+            stored.setFailedCount(failedCount);
+            stored.setFireTime(System.currentTimeMillis() + failedCount * 1000L);
+            stored.release();
+            return null;
+        }, null);
+    }
+
+    @Override
+    public JobHandle buildJobHandleForContext(NamedJobContext ctx) {
+        return new GlobalJpaJobHandle(-1, getJobName(ctx, -1l), getTimerServiceId());
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    @Override
+    public boolean retryEnabled() {
+        return false;
+    }
+
+    @Override
+    public void setInterceptor(SchedulerServiceInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public boolean isValid(GlobalJobHandle jobHandle) {
+        if (!(jobHandle instanceof GlobalJpaJobHandle)) {
+            return true;
+        }
+        final String jobName = ((GlobalJpaJobHandle) jobHandle).getJobName();
+        if (scheduled.containsKey(jobName)) {
+            return true;
+        }
+        return executeInTransaction(em -> findTimer(em, jobName) != null, null);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Sets interval in which due timers are claimed, must be set before the scheduler is initialized
+     */
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Sets duration of the lease of claimed timers, must be longer than poll interval
+     */
+    public void setLease(long lease) {
+        this.lease = lease;
+    }
+
+    protected String getTimerServiceId() {
+        if (globalTimerService instanceof GlobalTimerService) {
+            return ((GlobalTimerService) globalTimerService).getTimerServiceId();
+        }
+        return null;
+    }
+
+    protected TimerJobInfo findTimer(EntityManager em, String jobName) {
+        List<TimerJobInfo> timers = em.createQuery("select t from TimerJobInfo t where t.jobName = :jobName and t.timerServiceId = :timerServiceId", TimerJobInfo.class)
+                .setParameter("jobName", jobName)
+                .setParameter("timerServiceId", getTimerServiceId())
+                .getResultList();
+        if (timers.isEmpty()) {
+            return null;
+        }
+        if (timers.size() > 1) {
+            // prevented by unique constraint of TimerJobInfo, unless the schema was created without it
+            throw new IllegalStateException("Found " + timers.size() + " timers named " + jobName + " for timer service "
+                    + getTimerServiceId() + ", add unique constraint on (jobName, timerServiceId) to TimerJobInfo table");
+        }
+        return timers.get(0);
+    }
+
+    /**
+     * Checks if given exception was caused by violation of integrity constraint (SQL state class 23)
+     */
+    protected boolean isConstraintViolation(Throwable e) {
+        while (e != null) {
+            if (e instanceof SQLException) {
+                String sqlState = ((SQLException) e).getSQLState();
+                if (sqlState != null && sqlState.startsWith("23")) {
+                    return true;
+                }
+            }
+            e = e.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Executes given work within transaction - joins the transaction of the caller if there is any.
+     * @param afterCommit invoked with the result once the transaction is committed, might be null
+     */
+    protected <T> T executeInTransaction(Function<EntityManager, T> work, final Consumer<T> afterCommit) {
+        TransactionManager tm = TransactionManagerFactory.get().newTransactionManager();
+        boolean txOwner = tm.begin();
+        EntityManager em = emf.createEntityManager();
+        final T result;
+        try {
+            em.joinTransaction();
+            result = work.apply(em);
+            em.flush();
+            if (afterCommit != null && !txOwner) {
+                tm.registerTransactionSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCompletion() {
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == TransactionManager.STATUS_COMMITTED) {
+                            afterCommit.accept(result);
+                        }
+                    }
+                });
+            }
+            tm.commit(txOwner);
+        } catch (RuntimeException e) {
+            tm.rollback(txOwner);
+            throw e;
+        } finally {
+            em.close();
+        }
+        if (afterCommit != null && txOwner) {
+            afterCommit.accept(result);
+        }
+        return result;
+    }
+
+    protected byte[] serialize(TimerJobInstance timerJobInstance) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(timerJobInstance);
+            out.close();
+            return bytes.toByteArray();
+        } catch (NotSerializableException e) {
+            logger.debug("Timer job instance {} is not serializable and will be kept in memory only", timerJobInstance);
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to serialize timer job instance " + timerJobInstance, e);
+        }
+    }
+
+    protected TimerJobInstance deserialize(byte[] data) {
+        try {
+            ObjectInputStream in = new ContextClassLoaderObjectInputStream(new ByteArrayInputStream(data));
+            try {
+                TimerJobInstance timerJobInstance = (TimerJobInstance) in.readObject();
+                ((GlobalJpaJobHandle) timerJobInstance.getJobHandle()).setTimerJobInstance(timerJobInstance);
+                return timerJobInstance;
+            } finally {
+                in.close();
+            }
+        } catch (Exception e) {
+            logger.warn("Unable to deserialize timer job instance due to {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private String getJobName(JobContext ctx, Long id) {
+        String jobname = null;
+
+        if (ctx instanceof ProcessJobContext) {
+            ProcessJobContext processCtx = (ProcessJobContext) ctx;
+            jobname = processCtx.getSessionId() + "-" + processCtx.getProcessInstanceId() + "-" + processCtx.getTimer().getId();
+            if (processCtx instanceof StartProcessJobContext) {
+                jobname = "StartProcess-"+((StartProcessJobContext) processCtx).getProcessId()+ "-" + processCtx.getTimer().getId();
+            }
+        } else if (ctx instanceof NamedJobContext) {
+            jobname = ((NamedJobContext) ctx).getJobName();
+        } else {
+            jobname = "Timer-"+ctx.getClass().getSimpleName()+ "-" + id;
+        }
+        return jobname;
+    }
+
+    protected class ScheduledTimer implements Runnable {
+
+        private final Long timerId;
+        private final String jobName;
+        private final long fireTime;
+        private final TimerJobInstance timerJobInstance;
+        private volatile TimerWheel.Timeout timeout;
+        private volatile boolean cancelled;
+
+        ScheduledTimer(Long timerId, String jobName, long fireTime, TimerJobInstance timerJobInstance) {
+            this.timerId = timerId;
+            this.jobName = jobName;
+            this.fireTime = fireTime;
+            this.timerJobInstance = timerJobInstance;
+        }
+
+        void schedule() {
+            this.timeout = wheel.schedule(this, fireTime);
+            if (cancelled) {
+                timeout.cancel();
+            }
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            fire(this);
+        }
+
+        @Override
+        public String toString() {
+            return "ScheduledTimer [jobName=" + jobName + ", fireTime=" + fireTime + "]";
+        }
+    }
+
+    public static class GlobalJpaJobHandle extends GlobalJobHandle {
+
+        private static final long serialVersionUID = 510l;
+        private String jobName;
+        private String timerServiceId;
+
+        public GlobalJpaJobHandle(long id, String jobName, String timerServiceId) {
+            super(id);
+            this.jobName = jobName;
+            this.timerServiceId = timerServiceId;
+        }
+
+        public String getJobName() {
+            return jobName;
+        }
+
+        public String getTimerServiceId() {
+            return timerServiceId;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + ((jobName == null) ? 0 : jobName.hashCode());
+            result = prime * result + ((timerServiceId == null) ? 0 : timerServiceId.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            GlobalJpaJobHandle other = (GlobalJpaJobHandle) obj;
+            if (jobName == null) {
+                if (other.jobName != null)
+                    return false;
+            } else if (!jobName.equals(other.jobName))
+                return false;
+            if (timerServiceId == null) {
+                return other.timerServiceId == null;
+            }
+            return timerServiceId.equals(other.timerServiceId);
+        }
+
+        @Override
+        public String toString() {
+            return "GlobalJpaJobHandle [jobName=" + jobName + ", timerServiceId=" + timerServiceId + "]";
+        }
+    }
+
+    private static class ContextClassLoaderObjectInputStream extends ObjectInputStream {
+
+        ContextClassLoaderObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    // fall back to default resolution
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+
+    private static class TimerThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        TimerThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
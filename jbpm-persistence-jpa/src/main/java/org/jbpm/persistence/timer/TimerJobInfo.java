@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.persistence.timer;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+
+/**
+ * Timer persisted by {@link JpaSchedulerService}. Fire time and lease expiration are kept as milliseconds since
+ * epoch to keep millisecond precision on data bases that do not store it for date columns.
+ * <br/>
+ * Timer that is owned by a node (owner is set and lease did not expire) is held in memory of that node and
+ * must not be claimed by others. Nodes renew leases of their timers while they are alive, so timers of
+ * a node that went down are claimed by the remaining nodes once leases expire.
+ * <br/>
+ * Job name is unique within timer service, so the same timer scheduled concurrently by two nodes is stored once.
+ */
+@Entity
+@Table(uniqueConstraints={@UniqueConstraint(name="UK_TimerJob_Name", columnNames={"jobName", "timerServiceId"})})
+@SequenceGenerator(name="timerJobInfoIdSeq", sequenceName="TIMER_JOB_ID_SEQ")
+public class TimerJobInfo implements Serializable {
+
+    private static final long serialVersionUID = -2460416718513522733L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator="timerJobInfoIdSeq")
+    private Long id;
+
+    @Version
+    @Column(name = "OPTLOCK")
+    private int version;
+
+    @Column(nullable = false)
+    private String jobName;
+
+    @Column(nullable = false)
+    private String timerServiceId;
+
+    private long fireTime;
+
+    private String ownerId;
+
+    private long leaseExpiration;
+
+    private int failedCount;
+
+    @Lob
+    @Column(length=2147483647)
+    private byte[] jobData;
+
+    public TimerJobInfo() {
+    }
+
+    public TimerJobInfo(String jobName, String timerServiceId, long fireTime, byte[] jobData) {
+        this.jobName = jobName;
+        this.timerServiceId = timerServiceId;
+        this.fireTime = fireTime;
+        this.jobData = jobData;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getTimerServiceId() {
+        return timerServiceId;
+    }
+
+    public long getFireTime() {
+        return fireTime;
+    }
+
+    public void setFireTime(long fireTime) {
+        this.fireTime = fireTime;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public long getLeaseExpiration() {
+        return leaseExpiration;
+    }
+
+    public void lease(String ownerId, long leaseExpiration) {
+        this.ownerId = ownerId;
+        this.leaseExpiration = leaseExpiration;
+    }
+
+    public void release() {
+        this.ownerId = null;
+        this.leaseExpiration = 0;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public byte[] getJobData() {
+        return jobData;
+    }
+
+    public void setJobData(byte[] jobData) {
+        this.jobData = jobData;
+    }
+
+    @Override
+    public String toString() {
+        return "TimerJobInfo [id=" + id + ", jobName=" + jobName + ", fireTime=" + fireTime + ", ownerId=" + ownerId + "]";
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.persistence.timer;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed wheel of timeouts - in memory index of timers that are about to fire. Scheduling and cancelling
+ * is constant time regardless of number of timers held by the wheel, timers are fired with precision
+ * of the tick duration. Single worker thread advances the wheel and hands over expired timers to the
+ * given executor, so tasks do not delay the wheel.
+ */
+public class TimerWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    private final long tickDuration;
+    private final LinkedList<Timeout>[] buckets;
+    private final int mask;
+    private final Executor executor;
+
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<Timeout>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final long startTime;
+    private long tick;
+
+    /**
+     * @param tickDuration duration of the single tick in milliseconds
+     * @param wheelSize number of buckets of the wheel, rounded up to power of two
+     * @param executor executor to run expired timers
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickDuration, int wheelSize, Executor executor) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size = size << 1;
+        }
+        this.tickDuration = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+        this.buckets = new LinkedList[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new LinkedList<Timeout>();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+        this.startTime = System.nanoTime();
+
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWheel();
+            }
+        }, "jbpm-timer-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules given task to be executed at given time
+     * @param task task to be executed
+     * @param fireTime time (in milliseconds since epoch) the task should be executed at, tasks with fire time
+     * in the past are executed on the next tick
+     * @return timeout that allows to cancel the task
+     */
+    public Timeout schedule(Runnable task, long fireTime) {
+        if (!running) {
+            throw new IllegalStateException("Timer wheel has been stopped");
+        }
+        long delay = Math.max(0, fireTime - System.currentTimeMillis());
+        Timeout timeout = new Timeout(task, System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(delay));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.NANOSECONDS.toMillis(tickDuration) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected void runWheel() {
+        while (running) {
+            long deadline = waitForNextTick();
+            if (deadline < 0) {
+                continue;
+            }
+            transferPending();
+            expire(buckets[(int) (tick & mask)], deadline);
+            tick++;
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long current = System.nanoTime() - startTime;
+            long sleepTime = deadline - current;
+            if (sleepTime <= 0) {
+                return current;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepTime);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (calculated - tick) / buckets.length;
+            long ticks = Math.max(calculated, tick);
+            buckets[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void expire(LinkedList<Timeout> bucket, long deadline) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                iterator.remove();
+                try {
+                    executor.execute(timeout.task);
+                } catch (RuntimeException e) {
+                    logger.warn("Unable to execute expired timer {} due to {}", timeout.task, e.getMessage(), e);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    public static class Timeout {
+
+        private final Runnable task;
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.persistence.correlation;
+
+import static org.jbpm.persistence.util.PersistenceUtil.JBPM_PERSISTENCE_UNIT_NAME;
+import static org.jbpm.persistence.util.PersistenceUtil.cleanUp;
+import static org.jbpm.persistence.util.PersistenceUtil.setupWithPoolingDataSource;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import javax.naming.InitialContext;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import javax.transaction.UserTransaction;
+
+import org.jbpm.test.util.AbstractBaseTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.kie.api.runtime.EnvironmentName;
+import org.kie.internal.process.CorrelationKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares lookup of correlation keys by property values (join and count) with lookup by key hash.
+ * Number of stored keys can be set with system property org.jbpm.correlation.benchmark.keys
+ * (defaults to 10 000 000) - it takes long time to populate so it is not executed by default.
+ */
+@Ignore("performance benchmark, run manually")
+public class CorrelationKeyLookupPerformanceTest extends AbstractBaseTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorrelationKeyLookupPerformanceTest.class);
+
+    private static final int KEYS = Integer.parseInt(System.getProperty("org.jbpm.correlation.benchmark.keys", "10000000"));
+    private static final int BATCH = 5000;
+    private static final int LOOKUPS = 1000;
+
+    private HashMap<String, Object> context;
+    private JPACorrelationKeyFactory factory = new JPACorrelationKeyFactory();
+
+    @Before
+    public void before() throws Exception {
+        context = setupWithPoolingDataSource(JBPM_PERSISTENCE_UNIT_NAME);
+        EntityManagerFactory emf = (EntityManagerFactory) context.get(EnvironmentName.ENTITY_MANAGER_FACTORY);
+        UserTransaction ut = InitialContext.doLookup("java:comp/UserTransaction");
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < KEYS; i += BATCH) {
+            ut.begin();
+            EntityManager em = emf.createEntityManager();
+            for (int j = i; j < Math.min(i + BATCH, KEYS); j++) {
+                CorrelationKeyInfo key = (CorrelationKeyInfo) factory.newCorrelationKey(properties(j));
+                key.setProcessInstanceId(j);
+                em.persist(key);
+            }
+            ut.commit();
+            em.close();
+        }
+        logger.info("Stored {} correlation keys in {} ms", KEYS, System.currentTimeMillis() - start);
+    }
+
+    @After
+    public void after() {
+        cleanUp(context);
+    }
+
+    @Test
+    public void testLookupByPropertiesVsHash() throws Exception {
+        EntityManagerFactory emf = (EntityManagerFactory) context.get(EnvironmentName.ENTITY_MANAGER_FACTORY);
+        EntityManager em = emf.createEntityManager();
+        Random random = new Random(1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            int id = random.nextInt(KEYS);
+            Query query = em.createNamedQuery("GetProcessInstanceIdByCorrelation");
+            query.setParameter("properties", properties(id));
+            query.setParameter("elem_count", new Long(2));
+            assertEquals(Long.valueOf(id), query.getSingleResult());
+        }
+        long byProperties = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            int id = random.nextInt(KEYS);
+            CorrelationKey key = factory.newCorrelationKey(properties(id));
+            Query query = em.createNamedQuery("GetProcessInstanceIdByCorrelationKeyHash");
+            query.setParameter("keyHash", ((CorrelationKeyInfo) key).getKeyHash());
+            assertEquals(Long.valueOf(id), query.getSingleResult());
+        }
+        long byHash = System.nanoTime() - start;
+        em.close();
+
+        logger.info("{} lookups among {} keys: by properties {} ms, by hash {} ms",
+                LOOKUPS, KEYS, byProperties / 1000000, byHash / 1000000);
+    }
+
+    private List<String> properties(int id) {
+        List<String> properties = new ArrayList<String>();
+        properties.add("customer-" + (id % 1000));
+        properties.add("order-" + id);
+        return properties;
+    }
+}
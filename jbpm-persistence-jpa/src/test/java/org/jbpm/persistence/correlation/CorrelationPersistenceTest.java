@@ -19,7 +19,10 @@ import static org.jbpm.persistence.util.PersistenceUtil.JBPM_PERSISTENCE_UNIT_NA
 import static org.jbpm.persistence.util.PersistenceUtil.cleanUp;
 import static org.jbpm.persistence.util.PersistenceUtil.setupWithPoolingDataSource;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -30,6 +33,7 @@ import java.util.List;
 import javax.naming.InitialContext;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 import javax.transaction.UserTransaction;
 
@@ -139,4 +143,96 @@ public class CorrelationPersistenceTest extends AbstractBaseTest {
         assertNotNull(processInstances);
         assertEquals(1, processInstances.size());
     }
+    
+    @Test
+    public void testCorrelationKeyHashLookup() throws Exception {
+        EntityManagerFactory emf = (EntityManagerFactory) context.get(EnvironmentName.ENTITY_MANAGER_FACTORY);
+        EntityManager em = emf.createEntityManager();
+        
+        Query query = em.createNamedQuery("GetProcessInstanceIdByCorrelationKeyHash");
+        // order of the properties does not matter
+        query.setParameter("keyHash", JPACorrelationKeyFactory.computeKeyHash(Arrays.asList(new String[] {"123test", "test123"})));
+        List<Long> processInstances = query.getResultList();
+        assertNotNull(processInstances);
+        assertEquals(1, processInstances.size());
+        
+        query.setParameter("keyHash", JPACorrelationKeyFactory.computeKeyHash(Arrays.asList(new String[] {"test123"})));
+        processInstances = query.getResultList();
+        assertEquals(1, processInstances.size());
+        
+        query.setParameter("keyHash", JPACorrelationKeyFactory.computeKeyHash(Arrays.asList(new String[] {"test1", "23test123"})));
+        processInstances = query.getResultList();
+        em.close();
+        assertEquals(0, processInstances.size());
+    }
+    
+    @Test
+    public void testCorrelationKeyHashUpdater() throws Exception {
+        EntityManagerFactory emf = (EntityManagerFactory) context.get(EnvironmentName.ENTITY_MANAGER_FACTORY);
+        UserTransaction ut = InitialContext.doLookup("java:comp/UserTransaction");
+        ut.begin();
+        EntityManager em = emf.createEntityManager();
+        // simulate keys stored before hash was introduced
+        em.createQuery("update CorrelationKeyInfo set keyHash = null").executeUpdate();
+        ut.commit();
+        
+        CorrelationKeyHashUpdater updater = new CorrelationKeyHashUpdater(1);
+        int total = 0;
+        int updated;
+        do {
+            ut.begin();
+            em.joinTransaction();
+            updated = updater.updateNextBatch(em);
+            ut.commit();
+            total += updated;
+        } while (updated > 0);
+        assertEquals(2, total);
+        
+        Query query = em.createNamedQuery("GetProcessInstanceIdByCorrelationKeyHash");
+        query.setParameter("keyHash", JPACorrelationKeyFactory.computeKeyHash(Arrays.asList(new String[] {"test123", "123test"})));
+        List<Long> processInstances = query.getResultList();
+        em.close();
+        assertEquals(1, processInstances.size());
+    }
+    
+    @Test
+    public void testLegacyLookupRequiredUntilKeysMigrated() throws Exception {
+        EntityManagerFactory emf = (EntityManagerFactory) context.get(EnvironmentName.ENTITY_MANAGER_FACTORY);
+        UserTransaction ut = InitialContext.doLookup("java:comp/UserTransaction");
+        ut.begin();
+        EntityManager em = emf.createEntityManager();
+        // simulate keys stored before hash was introduced
+        em.createQuery("update CorrelationKeyInfo set keyHash = null").executeUpdate();
+        ut.commit();
+        
+        assertTrue(CorrelationKeyHashUpdater.isLegacyLookupRequired(em));
+        
+        CorrelationKeyHashUpdater updater = new CorrelationKeyHashUpdater(10);
+        ut.begin();
+        em.joinTransaction();
+        updater.updateNextBatch(em);
+        ut.commit();
+        
+        assertFalse(CorrelationKeyHashUpdater.isLegacyLookupRequired(em));
+        em.close();
+    }
+    
+    @Test
+    public void testDuplicateCorrelationKeyRejected() throws Exception {
+        CorrelationKeyFactory factory = KieInternalServices.Factory.get().newCorrelationKeyFactory();
+        EntityManagerFactory emf = (EntityManagerFactory) context.get(EnvironmentName.ENTITY_MANAGER_FACTORY);
+        UserTransaction ut = InitialContext.doLookup("java:comp/UserTransaction");
+        ut.begin();
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.persist(factory.newCorrelationKey("test123"));
+            em.flush();
+            fail("Correlation key with the same hash should be rejected");
+        } catch (PersistenceException e) {
+            // expected
+        } finally {
+            ut.rollback();
+            em.close();
+        }
+    }
 }
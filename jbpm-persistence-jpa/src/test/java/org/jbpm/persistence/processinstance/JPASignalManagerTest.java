@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.persistence.processinstance;
+
+import static org.jbpm.persistence.util.PersistenceUtil.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jbpm.persistence.session.objects.TestWorkItemHandler;
+import org.jbpm.test.util.AbstractBaseTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.Environment;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.internal.KnowledgeBase;
+import org.kie.internal.builder.KnowledgeBuilder;
+import org.kie.internal.builder.KnowledgeBuilderFactory;
+import org.kie.internal.io.ResourceFactory;
+import org.kie.internal.persistence.jpa.JPAKnowledgeService;
+import org.kie.internal.runtime.StatefulKnowledgeSession;
+
+public class JPASignalManagerTest extends AbstractBaseTest {
+
+    private HashMap<String, Object> context;
+    private Environment env;
+
+    @Before
+    public void setUp() throws Exception {
+        System.setProperty("org.jbpm.signal.bulk.size", "2");
+        context = setupWithPoolingDataSource(JBPM_PERSISTENCE_UNIT_NAME);
+        env = createEnvironment(context);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty("org.jbpm.signal.bulk.size");
+        cleanUp(context);
+    }
+
+    @Test
+    public void testBulkSignalToAllWaitingProcessInstances() {
+        KnowledgeBuilder kbuilder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+        kbuilder.add(ResourceFactory.newClassPathResource("EventsProcess.rf"), ResourceType.DRF);
+        assertFalse(kbuilder.getErrors().toString(), kbuilder.hasErrors());
+        KnowledgeBase kbase = kbuilder.newKnowledgeBase();
+
+        StatefulKnowledgeSession ksession = JPAKnowledgeService.newStatefulKnowledgeSession(kbase, null, env);
+        long sessionId = ksession.getIdentifier();
+
+        // odd number of instances so last page is not full
+        List<Long> processInstanceIds = new ArrayList<Long>();
+        List<WorkItem> workItems = new ArrayList<WorkItem>();
+        for (int i = 0; i < 5; i++) {
+            ProcessInstance processInstance = ksession.startProcess("org.drools.test.TestProcess");
+            processInstanceIds.add(processInstance.getId());
+            WorkItem workItem = TestWorkItemHandler.getInstance().getWorkItem();
+            assertNotNull(workItem);
+            workItems.add(workItem);
+        }
+        ksession.dispose();
+
+        ksession = JPAKnowledgeService.loadStatefulKnowledgeSession(sessionId, kbase, null, env);
+        ksession.signalEvent("MyEvent1", null);
+        ksession.dispose();
+
+        ksession = JPAKnowledgeService.loadStatefulKnowledgeSession(sessionId, kbase, null, env);
+        ksession.signalEvent("MyEvent2", null);
+        ksession.dispose();
+
+        ksession = JPAKnowledgeService.loadStatefulKnowledgeSession(sessionId, kbase, null, env);
+        for (WorkItem workItem : workItems) {
+            ksession.getWorkItemManager().completeWorkItem(workItem.getId(), null);
+        }
+        // all instances completed, so all of them received both signals
+        for (Long processInstanceId : processInstanceIds) {
+            assertNull(ksession.getProcessInstance(processInstanceId));
+        }
+        ksession.dispose();
+    }
+
+    @Test
+    public void testBulkSignalFailureRollsBackSignaledProcessInstances() {
+        KnowledgeBuilder kbuilder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+        kbuilder.add(ResourceFactory.newClassPathResource("FailingEventProcess.rf"), ResourceType.DRF);
+        assertFalse(kbuilder.getErrors().toString(), kbuilder.hasErrors());
+        KnowledgeBase kbase = kbuilder.newKnowledgeBase();
+
+        StatefulKnowledgeSession ksession = JPAKnowledgeService.newStatefulKnowledgeSession(kbase, null, env);
+        long sessionId = ksession.getIdentifier();
+
+        // first instance is signaled successfully, second one fails on the signal
+        long succeedingId = ksession.startProcess("org.drools.test.FailingEventProcess").getId();
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("fail", "true");
+        long failingId = ksession.startProcess("org.drools.test.FailingEventProcess", params).getId();
+        ksession.dispose();
+
+        ksession = JPAKnowledgeService.loadStatefulKnowledgeSession(sessionId, kbase, null, env);
+        try {
+            ksession.signalEvent("FailingEvent", null);
+            fail("Signal should fail as one of the process instances throws exception");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        ksession.dispose();
+
+        // whole transaction is rolled back so none of the instances completed
+        ksession = JPAKnowledgeService.loadStatefulKnowledgeSession(sessionId, kbase, null, env);
+        assertNotNull(ksession.getProcessInstance(succeedingId));
+        assertNotNull(ksession.getProcessInstance(failingId));
+        ksession.dispose();
+    }
+}
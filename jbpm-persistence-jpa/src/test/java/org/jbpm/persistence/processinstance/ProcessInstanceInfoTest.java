@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.persistence.processinstance;
+
+import static org.jbpm.persistence.util.PersistenceUtil.*;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.jbpm.test.util.AbstractBaseTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.Environment;
+import org.kie.api.runtime.EnvironmentName;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.kie.internal.KnowledgeBase;
+import org.kie.internal.builder.KnowledgeBuilder;
+import org.kie.internal.builder.KnowledgeBuilderFactory;
+import org.kie.internal.io.ResourceFactory;
+import org.kie.internal.persistence.jpa.JPAKnowledgeService;
+import org.kie.internal.runtime.StatefulKnowledgeSession;
+
+public class ProcessInstanceInfoTest extends AbstractBaseTest {
+
+    private HashMap<String, Object> context;
+    private Environment env;
+
+    @Before
+    public void setUp() throws Exception {
+        context = setupWithPoolingDataSource(JBPM_PERSISTENCE_UNIT_NAME);
+        env = createEnvironment(context);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cleanUp(context);
+    }
+
+    @Test
+    public void testCompressionRoundTrip() {
+        byte[] data = new byte[64 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 16);
+        }
+        byte[] compressed = ProcessInstanceInfo.compress(data);
+        assertTrue(ProcessInstanceInfo.isCompressed(compressed));
+        assertTrue(compressed.length < data.length);
+        assertArrayEquals(data, ProcessInstanceInfo.decompress(compressed));
+    }
+
+    @Test
+    public void testSmallAndUncompressedDataUntouched() {
+        byte[] small = new byte[] {(byte) 0xAC, (byte) 0xED, 0, 5};
+        assertSame(small, ProcessInstanceInfo.compress(small));
+
+        byte[] raw = new byte[4096];
+        new Random(1).nextBytes(raw);
+        raw[0] = (byte) 0xAC;
+        raw[1] = (byte) 0xED;
+        assertFalse(ProcessInstanceInfo.isCompressed(raw));
+        assertSame(raw, ProcessInstanceInfo.decompress(raw));
+    }
+
+    @Test
+    public void testNoUpdateWhenProcessInstanceNotChanged() {
+        KnowledgeBuilder kbuilder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+        kbuilder.add(ResourceFactory.newClassPathResource("EventsProcess.rf"), ResourceType.DRF);
+        assertFalse(kbuilder.getErrors().toString(), kbuilder.hasErrors());
+        KnowledgeBase kbase = kbuilder.newKnowledgeBase();
+
+        StatefulKnowledgeSession ksession = JPAKnowledgeService.newStatefulKnowledgeSession(kbase, null, env);
+        long sessionId = ksession.getIdentifier();
+        ProcessInstance processInstance = ksession.startProcess("org.drools.test.TestProcess");
+        ksession.dispose();
+
+        int version = getVersion(processInstance.getId());
+
+        // signal process instance does not react to
+        ksession = JPAKnowledgeService.loadStatefulKnowledgeSession(sessionId, kbase, null, env);
+        ksession.signalEvent("UnknownEvent", null, processInstance.getId());
+        ksession.dispose();
+        assertEquals(version, getVersion(processInstance.getId()));
+
+        ksession = JPAKnowledgeService.loadStatefulKnowledgeSession(sessionId, kbase, null, env);
+        ksession.signalEvent("MyEvent1", null, processInstance.getId());
+        ksession.dispose();
+        assertTrue(getVersion(processInstance.getId()) > version);
+    }
+
+    private int getVersion(long processInstanceId) {
+        EntityManager em = ((EntityManagerFactory) context.get(EnvironmentName.ENTITY_MANAGER_FACTORY)).createEntityManager();
+        try {
+            return em.find(ProcessInstanceInfo.class, processInstanceId).getVersion();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.persistence.timer;
+
+import static org.jbpm.persistence.util.PersistenceUtil.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.naming.InitialContext;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import javax.transaction.UserTransaction;
+
+import org.jbpm.process.core.timer.TimerServiceRegistry;
+import org.jbpm.process.core.timer.impl.GlobalTimerService;
+import org.jbpm.test.util.AbstractBaseTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.runtime.EnvironmentName;
+
+public class JpaSchedulerServiceTest extends AbstractBaseTest {
+
+    private static final String TIMER_SERVICE_ID = "test" + TimerServiceRegistry.TIMER_SERVICE_SUFFIX;
+    private static final long LEASE = 1000;
+
+    private HashMap<String, Object> context;
+    private EntityManagerFactory emf;
+    private List<JpaSchedulerService> schedulers = new ArrayList<JpaSchedulerService>();
+
+    @Before
+    public void setUp() throws Exception {
+        context = setupWithPoolingDataSource(JBPM_PERSISTENCE_UNIT_NAME);
+        emf = (EntityManagerFactory) context.get(EnvironmentName.ENTITY_MANAGER_FACTORY);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (JpaSchedulerService scheduler : schedulers) {
+            scheduler.shutdown();
+        }
+        TimerServiceRegistry.getInstance().remove(TIMER_SERVICE_ID);
+        System.clearProperty("org.jbpm.rm.init.timer");
+        cleanUp(context);
+    }
+
+    @Test
+    public void testTimersClaimedByOtherNodeOnceLeaseExpires() throws Exception {
+        JpaSchedulerService node1 = createScheduler("node1");
+        storeDueTimers(3);
+
+        node1.poll();
+        assertOwnedBy(node1, 3);
+        JpaSchedulerService node2 = createScheduler("node2");
+
+        // lease of node1 is valid so node2 must not claim its timers
+        node2.poll();
+        assertOwnedBy(node1, 3);
+
+        // node1 renews the lease while it is alive
+        Thread.sleep(LEASE * 6 / 10);
+        node1.poll();
+        Thread.sleep(LEASE * 6 / 10);
+        node2.poll();
+        assertOwnedBy(node1, 3);
+
+        // node1 stops polling (went down) so its timers are claimed by node2 once the lease expires
+        Thread.sleep(LEASE * 6 / 10);
+        node2.poll();
+        assertOwnedBy(node2, 3);
+    }
+
+    @Test
+    public void testDuplicateTimerRejected() throws Exception {
+        UserTransaction ut = InitialContext.doLookup("java:comp/UserTransaction");
+        ut.begin();
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.persist(new TimerJobInfo("job", TIMER_SERVICE_ID, System.currentTimeMillis(), new byte[] {0}));
+            em.persist(new TimerJobInfo("job", TIMER_SERVICE_ID, System.currentTimeMillis(), new byte[] {0}));
+            em.flush();
+            fail("Timer with the same name should be rejected within the same timer service");
+        } catch (PersistenceException e) {
+            // expected
+        } finally {
+            ut.rollback();
+            em.close();
+        }
+    }
+
+    private JpaSchedulerService createScheduler(String nodeName) {
+        JpaSchedulerService scheduler = new JpaSchedulerService(emf, nodeName);
+        // polls are invoked by the test
+        scheduler.setPollInterval(60 * 60 * 1000);
+        scheduler.setLease(LEASE);
+        GlobalTimerService timerService = new GlobalTimerService(null, scheduler);
+        timerService.setTimerServiceId(TIMER_SERVICE_ID);
+        TimerServiceRegistry.getInstance().registerTimerService(TIMER_SERVICE_ID, timerService);
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    private void storeDueTimers(int count) throws Exception {
+        UserTransaction ut = InitialContext.doLookup("java:comp/UserTransaction");
+        ut.begin();
+        EntityManager em = emf.createEntityManager();
+        for (int i = 0; i < count; i++) {
+            // job data is not needed as timers are only claimed, not fired
+            em.persist(new TimerJobInfo("job-" + i, TIMER_SERVICE_ID, System.currentTimeMillis(), new byte[] {0}));
+        }
+        ut.commit();
+        em.close();
+    }
+
+    private void assertOwnedBy(JpaSchedulerService scheduler, int expected) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<String> owners = em.createQuery("select t.ownerId from TimerJobInfo t", String.class).getResultList();
+            assertEquals(expected, owners.size());
+            for (String owner : owners) {
+                assertEquals(scheduler.getNodeId(), owner);
+            }
+        } finally {
+            em.close();
+        }
+    }
+}
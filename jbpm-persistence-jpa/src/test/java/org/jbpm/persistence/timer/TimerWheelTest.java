@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.persistence.timer;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimerWheelTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private TimerWheel wheel;
+
+    @Before
+    public void setup() {
+        // small wheel so timers need more than one round
+        wheel = new TimerWheel(5, 8, DIRECT);
+    }
+
+    @After
+    public void cleanup() {
+        wheel.stop();
+    }
+
+    @Test(timeout=10000)
+    public void testTimersFiredInOrder() throws Exception {
+        final List<Integer> fired = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        long now = System.currentTimeMillis();
+
+        wheel.schedule(new RecordingTask(3, fired, latch), now + 300);
+        wheel.schedule(new RecordingTask(1, fired, latch), now + 20);
+        wheel.schedule(new RecordingTask(2, fired, latch), now + 150);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(3, fired.size());
+        assertEquals(Integer.valueOf(1), fired.get(0));
+        assertEquals(Integer.valueOf(2), fired.get(1));
+        assertEquals(Integer.valueOf(3), fired.get(2));
+        assertTrue(System.currentTimeMillis() - now >= 300);
+    }
+
+    @Test(timeout=10000)
+    public void testTimerInPastFiredImmediately() throws Exception {
+        final List<Integer> fired = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        wheel.schedule(new RecordingTask(1, fired, latch), System.currentTimeMillis() - 1000);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout=10000)
+    public void testCancelledTimerNotFired() throws Exception {
+        final List<Integer> fired = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        long now = System.currentTimeMillis();
+
+        TimerWheel.Timeout timeout = wheel.schedule(new RecordingTask(1, fired, new CountDownLatch(1)), now + 50);
+        timeout.cancel();
+        wheel.schedule(new RecordingTask(2, fired, latch), now + 200);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, fired.size());
+        assertEquals(Integer.valueOf(2), fired.get(0));
+        assertTrue(timeout.isCancelled());
+    }
+
+    private static class RecordingTask implements Runnable {
+
+        private final int id;
+        private final List<Integer> fired;
+        private final CountDownLatch latch;
+
+        RecordingTask(int id, List<Integer> fired, CountDownLatch latch) {
+            this.id = id;
+            this.fired = fired;
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            fired.add(id);
+            latch.countDown();
+        }
+    }
+}
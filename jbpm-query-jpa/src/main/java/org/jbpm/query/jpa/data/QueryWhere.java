@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
+import javax.persistence.Parameter;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Subquery;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -34,6 +35,7 @@ import org.codehaus.jackson.annotate.JsonAutoDetect;
 import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
 import org.codehaus.jackson.annotate.JsonIgnore;
 import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.jbpm.query.jpa.impl.QueryPlanCache.QueryPlan;
 
 /**
  * THIS CLASS SHOULD NEVER BE EXPOSED IN THE PUBLIC API!!
@@ -105,6 +107,12 @@ public class QueryWhere {
     @JsonIgnore
     private transient Map<String, Predicate> joinPredicates = null;
 
+    @JsonIgnore
+    private transient Map<Parameter<?>, Object> parameterValues = null;
+
+    @JsonIgnore
+    private transient QueryPlan<?> queryPlan = null;
+
     public QueryWhere() {
         // JAXB constructor
     }
@@ -307,6 +315,29 @@ public class QueryWhere {
         return this.joinPredicates;
     }
 
+    /**
+     * @return The values of the parameters of the (cached) query created from this instance, or null if the query
+     * does not use parameters
+     */
+    public Map<Parameter<?>, Object> getParameterValues() {
+        return this.parameterValues;
+    }
+
+    public void setParameterValues( Map<Parameter<?>, Object> parameterValues ) {
+        this.parameterValues = parameterValues;
+    }
+
+    /**
+     * @return The new (not yet cached) query plan of the query created from this instance
+     */
+    public QueryPlan<?> getQueryPlan() {
+        return this.queryPlan;
+    }
+
+    public void setQueryPlan( QueryPlan<?> queryPlan ) {
+        this.queryPlan = queryPlan;
+    }
+
     // clear & clone
 
     public void clear() {
@@ -324,6 +355,8 @@ public class QueryWhere {
         this.ascOrDesc = null;
 
        this.joinPredicates = null;
+       this.parameterValues = null;
+       this.queryPlan = null;
     }
 
     public QueryWhere(QueryWhere queryWhere) {
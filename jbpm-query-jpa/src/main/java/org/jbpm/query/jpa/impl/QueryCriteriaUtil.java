@@ -4,16 +4,23 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import javax.persistence.Entity;
 import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
 import javax.persistence.Query;
 import javax.persistence.criteria.AbstractQuery;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -31,6 +38,8 @@ import javax.persistence.metamodel.SingularAttribute;
 import org.jbpm.query.jpa.data.QueryCriteria;
 import org.jbpm.query.jpa.data.QueryWhere;
 import org.jbpm.query.jpa.data.QueryWhere.QueryCriteriaType;
+import org.jbpm.query.jpa.impl.QueryPlanCache.QueryPlan;
+import org.jbpm.query.jpa.impl.QueryPlanCache.QueryPlanRecorder;
 import org.kie.api.runtime.manager.audit.VariableInstanceLog;
 import org.kie.internal.query.QueryParameterIdentifiers;
 
@@ -106,7 +115,8 @@ public abstract class QueryCriteriaUtil {
     /**
      * This method takes the high-level steps needed in order to create a JPA {@link CriteriaQuery}.
      * <ol>
-     * <li>A {@link CriteriaBuilder} and {@link CriteriaQuery} instance are created.</li>
+     * <li>A {@link CriteriaBuilder} and {@link CriteriaQuery} instance are created
+     * (or a cached {@link CriteriaQuery} for a {@link QueryWhere} with the same shape is retrieved).</li>
      * <li>The tables being selected from are defined in the query.</li>
      * <li>The {@link CriteriaQuery} instance is filled using the criteria in the {@link QueryWhere} instance</li>
      * <li>A JPA {@link Query} instance is created</li>
@@ -117,21 +127,183 @@ public abstract class QueryCriteriaUtil {
      * @param queryType The type ({@link Class}) of the result
      * @return The result of the query, a {@link List}.
      */
-    public <T> List<T> doCriteriaQuery( QueryWhere queryWhere, Class<T> queryType ) {
+    public <T> List<T> doCriteriaQuery( final QueryWhere queryWhere, final Class<T> queryType ) {
         // 1. create builder and query instances
-        CriteriaBuilder builder = getCriteriaBuilder();
-        CriteriaQuery<T> criteriaQuery = builder.createQuery(queryType);
+        final CriteriaBuilder builder = getCriteriaBuilder();
+        CriteriaQuery<T> criteriaQuery = prepareCriteriaQuery(queryWhere, queryType, builder, queryType.getName(),
+                () -> {
+                    CriteriaQuery<T> query = builder.createQuery(queryType);
 
-        // query base;
-        criteriaQuery.select(criteriaQuery.from(queryType));
+                    // query base;
+                    query.select(query.from(queryType));
 
-        fillCriteriaQuery(criteriaQuery, queryWhere, builder, queryType);
+                    fillCriteriaQuery(query, queryWhere, builder, queryType);
+                    return query;
+                });
 
         List<T> result = createQueryAndCallApplyMetaCriteriaAndGetResult(queryWhere, criteriaQuery, builder);
 
         return result;
     }
 
+    // query plan cache -----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return The {@link QueryPlanCache} used to cache the {@link CriteriaQuery} instances created by this instance
+     */
+    protected QueryPlanCache getQueryPlanCache() {
+        return QueryPlanCache.getInstance();
+    }
+
+    /**
+     * Retrieves the cached {@link CriteriaQuery} for the shape of the given {@link QueryWhere} instance, or creates
+     * (and caches) it using the given query factory.
+     * </p>
+     * The values of the (cached) query parameters are stored in the {@link QueryWhere} instance and are set on the JPA
+     * {@link Query} in the {@link #applyMetaCriteriaToQuery(Query, QueryWhere)} method.
+     *
+     * @param queryWhere The {@link QueryWhere} instance containing the query criteria
+     * @param queryType The {@link Class} indicating the main {@link Root} of the {@link CriteriaQuery}
+     * @param builder The {@link CriteriaBuilder} used to create the query
+     * @param queryName Identifies the type of the (base) query created by the query factory
+     * @param queryFactory Creates and fills the {@link CriteriaQuery} when it is not cached yet
+     * @return The {@link CriteriaQuery} instance
+     */
+    protected <R,T> CriteriaQuery<R> prepareCriteriaQuery( QueryWhere queryWhere, Class<T> queryType, CriteriaBuilder builder,
+            String queryName, Supplier<CriteriaQuery<R>> queryFactory ) {
+        QueryPlanCache planCache = getQueryPlanCache();
+        if( ! planCache.isEnabled() ) {
+            queryWhere.setParameterValues(null);
+            return queryFactory.get();
+        }
+
+        List<QueryCriteria> indexedCriteria = new ArrayList<QueryCriteria>();
+        Set<QueryCriteria> parameterizedCriteria = Collections.newSetFromMap(new IdentityHashMap<QueryCriteria, Boolean>());
+        StringBuilder shape = new StringBuilder(queryName).append(':').append(getClass().getName());
+        if( ! addQueryShape(shape, queryWhere.getCriteria(), queryType, indexedCriteria, parameterizedCriteria) ) {
+            // the criteria contain values that can not be reliably be represented in the shape
+            queryWhere.setParameterValues(null);
+            return queryFactory.get();
+        }
+        if( queryWhere.getAscOrDesc() != null ) {
+            shape.append(" ORDER BY ").append(queryWhere.getOrderByListId()).append(queryWhere.getAscOrDesc() ? " ASC" : " DESC");
+        }
+        String shapeKey = shape.toString();
+
+        QueryPlan<R> plan = planCache.get(shapeKey, builder);
+        if( plan != null ) {
+            queryWhere.setParameterValues(plan.getParameterValues(indexedCriteria));
+            return plan.getQuery();
+        }
+
+        QueryPlanRecorder recorder = QueryPlanCache.startRecording(builder, indexedCriteria, parameterizedCriteria);
+        try {
+            CriteriaQuery<R> criteriaQuery = queryFactory.get();
+            // cached only once the JPA query is created from it, see applyMetaCriteriaToQuery
+            queryWhere.setQueryPlan(recorder.createPlan(planCache, shapeKey, criteriaQuery));
+            queryWhere.setParameterValues(recorder.getParameterValues());
+            return criteriaQuery;
+        } finally {
+            QueryPlanCache.stopRecording();
+        }
+    }
+
+    /**
+     * Adds the shape of the given criteria to the shape (key) of the query: everything that determines the structure
+     * of the created {@link CriteriaQuery}.
+     * </p>
+     * Criteria that refer directly to a field (with values of the field's type) are added as
+     * {@link javax.persistence.criteria.ParameterExpression}s to the query, so only the number, type and position (for ranges)
+     * of their values are part of the shape. The values of other (e.g. implementation specific) criteria are part of the shape,
+     * since they are used as literals or can be used in any way in the query.
+     *
+     * @return false if the criteria contain values that can not be added to the shape (the query can then not be cached)
+     */
+    private boolean addQueryShape( StringBuilder shape, List<QueryCriteria> criteriaList, Class queryType,
+            List<QueryCriteria> indexedCriteria, Set<QueryCriteria> parameterizedCriteria ) {
+        Map<String, Attribute> queryTypeAttributes = getCriteriaAttributes().get(queryType);
+        shape.append('(');
+        for( QueryCriteria criteria : criteriaList ) {
+            indexedCriteria.add(criteria);
+            shape.append(criteria.isFirst() ? "" : criteria.isUnion() ? " OR " : " AND ").append(criteria.getType());
+            if( criteria.isGroupCriteria() ) {
+                if( ! addQueryShape(shape, criteria.getCriteria(), queryType, indexedCriteria, parameterizedCriteria) ) {
+                    return false;
+                }
+                continue;
+            }
+            String listId = criteria.getListId();
+            shape.append(' ').append(listId);
+            List<Object> parameters = criteria.getParameters();
+            if( listId != null && queryTypeAttributes != null && isParameterizable(queryTypeAttributes.get(listId), parameters) ) {
+                parameterizedCriteria.add(criteria);
+                shape.append('[');
+                for( Object parameter : parameters ) {
+                    shape.append(parameter == null ? "null" : parameter.getClass().getName()).append(',');
+                }
+                shape.append(']');
+            } else {
+                if( ! addLiteralValueShape(shape, parameters) ) {
+                    return false;
+                }
+            }
+        }
+        shape.append(')');
+        return true;
+    }
+
+    private static boolean addLiteralValueShape( StringBuilder shape, Object value ) {
+        if( value == null ) {
+            shape.append("null");
+        } else if( value instanceof Collection ) {
+            shape.append('{');
+            for( Object element : (Collection) value ) {
+                if( ! addLiteralValueShape(shape, element) ) {
+                    return false;
+                }
+                shape.append(',');
+            }
+            shape.append('}');
+        } else if( value instanceof Date ) {
+            shape.append(value.getClass().getName()).append('#').append(((Date) value).getTime());
+        } else if( value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum ) {
+            shape.append(value.getClass().getName()).append('#').append(value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isParameterizable( Attribute attr, List<Object> parameters ) {
+        if( !(attr instanceof SingularAttribute) ) {
+            return false;
+        }
+        Class fieldType = attr.getJavaType();
+        if( fieldType.isPrimitive() ) {
+            fieldType = PRIMITIVE_WRAPPERS.get(fieldType);
+        }
+        for( Object parameter : parameters ) {
+            // parameter values are bound with the type of the field: "5" (Integer) can be used as a literal for a Long field, but not as a value
+            if( parameter != null && (fieldType == null || ! fieldType.isInstance(parameter)) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final Map<Class, Class> PRIMITIVE_WRAPPERS = new HashMap<Class, Class>();
+    static {
+        PRIMITIVE_WRAPPERS.put(boolean.class, Boolean.class);
+        PRIMITIVE_WRAPPERS.put(byte.class, Byte.class);
+        PRIMITIVE_WRAPPERS.put(short.class, Short.class);
+        PRIMITIVE_WRAPPERS.put(char.class, Character.class);
+        PRIMITIVE_WRAPPERS.put(int.class, Integer.class);
+        PRIMITIVE_WRAPPERS.put(long.class, Long.class);
+        PRIMITIVE_WRAPPERS.put(float.class, Float.class);
+        PRIMITIVE_WRAPPERS.put(double.class, Double.class);
+    }
+
     // query logic ----------------------------------------------------------------------------------------------------------------
 
     /**
@@ -326,12 +498,19 @@ public abstract class QueryCriteriaUtil {
                     }
 
                     List values = dateValues ? previousCriteria.getDateValues() : previousCriteria.getValues();
+                    QueryPlanRecorder recorder = QueryPlanCache.getRecorder();
                     if( prevCritValues[0] == null && thisCritValues[1] == null ) {
                         values.set(0, thisCritValues[0]);
+                        if( recorder != null ) {
+                            recorder.valueCopied(previousCriteria, 0, criteria);
+                        }
                         intersectingRangeCriteria.put(previousCriteria.getListId(), previousCriteria);
                         iter.remove();
                     } else if( prevCritValues[1] == null && thisCritValues[0] == null ) {
                         values.set(1, thisCritValues[1]);
+                        if( recorder != null ) {
+                            recorder.valueCopied(previousCriteria, 1, criteria);
+                        }
                         intersectingRangeCriteria.put(previousCriteria.getListId(), previousCriteria);
                         iter.remove();
                     }
@@ -467,24 +646,47 @@ public abstract class QueryCriteriaUtil {
         List<Object> parameters = criteria.getParameters();
         int numParameters = parameters.size();
         assert ! parameters.isEmpty() : "Empty parameters for criteria [" + criteria.toString() + "]";
+        // when the query is going to be cached, the values are added as parameters instead of literals
+        QueryPlanRecorder recorder = QueryPlanCache.getRecorder();
+        if( recorder != null && ! recorder.isParameterized(criteria) ) {
+            recorder = null;
+        }
         switch ( criteria.getType() ) {
         case NORMAL:
             if( numParameters == 1 ) {
                 Object parameter = parameters.get(0);
                 assert parameter != null : "Null parameter for criteria [" + criteria.toString() + "]";
-                predicate = builder.equal(entityField, parameter);
+                if( recorder != null ) {
+                    predicate = builder.equal(entityField, recorder.parameter(criteria, 0, parameter, false));
+                } else {
+                    predicate = builder.equal(entityField, parameter);
+                }
             } else {
                 assert parameters.get(0) != null : "Null 1rst parameter for criteria [" + criteria.toString() + "]";
                 assert parameters.get(parameters.size()-1) != null : "Null last parameter for criteria [" + criteria.toString() + "]";
-                predicate = entityField.in(parameters);
+                if( recorder != null ) {
+                    Expression [] parameterExprs = new Expression[numParameters];
+                    for( int i = 0; i < numParameters; ++i ) {
+                        parameterExprs[i] = recorder.parameter(criteria, i, parameters.get(i), false);
+                    }
+                    predicate = entityField.in(parameterExprs);
+                } else {
+                    predicate = entityField.in(parameters);
+                }
             }
             break;
         case REGEXP:
             List<Predicate> predicateList = new ArrayList<Predicate>();
-            for( Object param : parameters ) {
+            for( int i = 0; i < numParameters; ++i ) {
+                Object param = parameters.get(i);
                 assert param != null : "Null regular expression parameter for criteria [" + criteria.toString() + "]";
-                String likeRegex = convertRegexToJPALikeExpression((String) param );
-                Predicate regexPredicate = builder.like((Expression<String>) entityField, likeRegex);
+                Predicate regexPredicate;
+                if( recorder != null ) {
+                    regexPredicate = builder.like((Expression<String>) entityField, recorder.parameter(criteria, i, (String) param, true));
+                } else {
+                    String likeRegex = convertRegexToJPALikeExpression((String) param );
+                    regexPredicate = builder.like((Expression<String>) entityField, likeRegex);
+                }
                 predicateList.add(regexPredicate);
             }
             if( predicateList.size() == 1 ) {
@@ -502,7 +704,13 @@ public abstract class QueryCriteriaUtil {
             assert numParameters > 0 && numParameters < 3: "Range expressions may only contain between 1 and 2 parameters, not " + numParameters + " [" + criteria.toString() + "]";
             Object [] rangeObjArr = parameters.toArray();
             Class rangeType = rangeObjArr[0] != null ? rangeObjArr[0].getClass() : rangeObjArr[1].getClass();
-            predicate = createRangePredicate( builder, entityField, rangeObjArr[0], rangeObjArr[1], rangeType);
+            if( recorder != null ) {
+                Object start = rangeObjArr[0] != null ? recorder.parameter(criteria, 0, rangeObjArr[0], false) : null;
+                Object end = numParameters > 1 && rangeObjArr[1] != null ? recorder.parameter(criteria, 1, rangeObjArr[1], false) : null;
+                predicate = createRangePredicate( builder, entityField, start, end, rangeType);
+            } else {
+                predicate = createRangePredicate( builder, entityField, rangeObjArr[0], rangeObjArr[1], rangeType);
+            }
             break;
         default:
             throw new IllegalStateException("Unknown criteria type: " + criteria.getType());
@@ -535,6 +743,16 @@ public abstract class QueryCriteriaUtil {
      */
     @SuppressWarnings("unchecked")
     private static <Y extends Comparable<? super Y>> Predicate createRangePredicate( CriteriaBuilder builder, Expression field, Object start, Object end, Class<Y> rangeType ) {
+        if( start instanceof Expression || end instanceof Expression ) {
+            // parameterized range (see the QueryPlanCache)
+            if( start != null && end != null ) {
+                return builder.between(field, (Expression<Y>) start, (Expression<Y>) end);
+            } else if ( start != null ) {
+                return builder.greaterThanOrEqualTo(field, (Expression<Y>) start);
+            } else {
+                return builder.lessThanOrEqualTo(field, (Expression<Y>) end);
+            }
+        }
         if( start != null && end != null ) {
             // TODO :asserts!
             return builder.between(field, (Y) start, (Y) end);
@@ -599,10 +817,25 @@ public abstract class QueryCriteriaUtil {
 
     /**
      * Small method to apply the meta criteria from the {@link QueryWhere} instance to the {@link Query} instance
+     * </p>
+     * The values of the parameters of a cached query (see {@link QueryPlanCache}) are also set here and a newly
+     * created query is cached, as the JPA query was created from it.
      * @param query The {@link Query} instance
      * @param queryWhere The {@link QueryWhere} instance, with the abstract information about the query
      */
+    @SuppressWarnings("unchecked")
     public static void applyMetaCriteriaToQuery(Query query, QueryWhere queryWhere) {
+        QueryPlan<?> queryPlan = queryWhere.getQueryPlan();
+        if( queryPlan != null ) {
+            queryWhere.setQueryPlan(null);
+            queryPlan.queryCreated();
+        }
+        Map<Parameter<?>, Object> parameterValues = queryWhere.getParameterValues();
+        if( parameterValues != null ) {
+            for( Map.Entry<Parameter<?>, Object> parameterValue : parameterValues.entrySet() ) {
+                query.setParameter((Parameter<Object>) parameterValue.getKey(), parameterValue.getValue());
+            }
+        }
         if( queryWhere.getCount() != null ) {
            query.setMaxResults(queryWhere.getCount());
         }
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.query.jpa.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.Parameter;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+
+import org.jbpm.query.jpa.data.QueryCriteria;
+import org.jbpm.query.jpa.data.QueryWhere;
+
+/**
+ * Cache of {@link CriteriaQuery} instances created from {@link QueryWhere} instances, keyed by the structural
+ * shape of the {@link QueryWhere}: criteria list ids, types, operators, grouping and ordering - but not the values.
+ * </p>
+ * Values of the (basic) criteria are not added to the cached {@link CriteriaQuery} as literals but as
+ * {@link ParameterExpression}s, so a cached query can be reused with the values of another {@link QueryWhere}
+ * with the same shape. This also means that the JPQL the query is translated to is always the same for the same
+ * shape, so the query plan cached by the persistence provider is reused as well.
+ * </p>
+ * Queries are cached per {@link CriteriaBuilder} (so per persistence unit) and shape. A query is only cached
+ * once a JPA query was created from it (see {@link QueryCriteriaUtil#applyMetaCriteriaToQuery(javax.persistence.Query, QueryWhere)}):
+ * rendering a {@link CriteriaQuery} for the first time completes it (e.g. generated aliases), after that it is only
+ * read so the cached query can be shared by all threads. A new JPA query, with its own parameter values, is still
+ * created for each execution.
+ * </p>
+ * The max number of cached queries can be set with the <code>org.jbpm.query.plan.cache.size</code> system property
+ * (defaults to 1000), 0 disables the cache.
+ */
+public class QueryPlanCache {
+
+    private static final QueryPlanCache INSTANCE = new QueryPlanCache(Integer.parseInt(System.getProperty("org.jbpm.query.plan.cache.size", "1000")));
+
+    private static final ThreadLocal<QueryPlanRecorder> recorder = new ThreadLocal<QueryPlanRecorder>();
+
+    private final int maxSize;
+    private final Map<PlanKey, QueryPlan<?>> plans;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public static QueryPlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    @SuppressWarnings("serial")
+    public QueryPlanCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.plans = Collections.synchronizedMap(new LinkedHashMap<PlanKey, QueryPlan<?>>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PlanKey, QueryPlan<?>> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Returns the query cached for the given shape
+     * @param shape The shape of the query
+     * @param builder The {@link CriteriaBuilder} of the persistence unit the query will be executed in: queries
+     * are only reused within the persistence unit they were created for.
+     * @return The cached {@link QueryPlan} or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> QueryPlan<T> get(String shape, CriteriaBuilder builder) {
+        QueryPlan<T> plan = (QueryPlan<T>) plans.get(new PlanKey(shape, builder));
+        if( plan != null ) {
+            hits.incrementAndGet();
+            return plan;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches the given query, which must have been rendered (a JPA query must have been created from it) already
+     * @param plan The {@link QueryPlan} to be cached
+     */
+    public void put(QueryPlan<?> plan) {
+        plans.put(new PlanKey(plan.shape, plan.builder), plan);
+    }
+
+    public void clear() {
+        plans.clear();
+    }
+
+    /**
+     * @return The number of cached query shapes
+     */
+    public int size() {
+        return plans.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The ratio of queries that were served from the cache, between 0 and 1
+     */
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        if( total == 0 ) {
+            return 0;
+        }
+        return (double) hits.get() / total;
+    }
+
+    public void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    // recording ------------------------------------------------------------------------------------------------------------------
+
+    static QueryPlanRecorder startRecording(CriteriaBuilder builder, List<QueryCriteria> indexedCriteria, Set<QueryCriteria> parameterizedCriteria) {
+        QueryPlanRecorder planRecorder = new QueryPlanRecorder(builder, indexedCriteria, parameterizedCriteria);
+        recorder.set(planRecorder);
+        return planRecorder;
+    }
+
+    static void stopRecording() {
+        recorder.remove();
+    }
+
+    /**
+     * @return The recorder of the query that is being created on this thread, or null if the created query
+     * is not going to be cached (and should therefore use literal values)
+     */
+    static QueryPlanRecorder getRecorder() {
+        return recorder.get();
+    }
+
+    /**
+     * Keeps track of the {@link ParameterExpression}s created while a cacheable query is being created.
+     */
+    static class QueryPlanRecorder {
+
+        private final CriteriaBuilder builder;
+        private final Map<QueryCriteria, Integer> indexes = new IdentityHashMap<QueryCriteria, Integer>();
+        private final Set<QueryCriteria> parameterized;
+        private final Map<QueryCriteria, Map<Integer, Integer>> valueSources = new IdentityHashMap<QueryCriteria, Map<Integer, Integer>>();
+        private final List<ParameterBinding> bindings = new ArrayList<ParameterBinding>();
+        private final Map<Parameter<?>, Object> values = new HashMap<Parameter<?>, Object>();
+
+        QueryPlanRecorder(CriteriaBuilder builder, List<QueryCriteria> indexedCriteria, Set<QueryCriteria> parameterizedCriteria) {
+            this.builder = builder;
+            this.parameterized = parameterizedCriteria;
+            for( int i = 0; i < indexedCriteria.size(); ++i ) {
+                indexes.put(indexedCriteria.get(i), i);
+            }
+        }
+
+        boolean isParameterized(QueryCriteria criteria) {
+            return parameterized.contains(criteria);
+        }
+
+        /**
+         * Records that the value at the given index of the target criteria was taken from the source criteria
+         * (see the range criteria combination in {@link QueryCriteriaUtil})
+         */
+        void valueCopied(QueryCriteria target, int valueIndex, QueryCriteria source) {
+            Integer sourceIndex = indexes.get(source);
+            if( sourceIndex == null || ! indexes.containsKey(target) ) {
+                return;
+            }
+            Map<Integer, Integer> sources = valueSources.get(target);
+            if( sources == null ) {
+                sources = new HashMap<Integer, Integer>(2);
+                valueSources.put(target, sources);
+            }
+            sources.put(valueIndex, sourceIndex);
+        }
+
+        @SuppressWarnings("unchecked")
+        <P> ParameterExpression<P> parameter(QueryCriteria criteria, int valueIndex, P value, boolean like) {
+            ParameterExpression<P> parameter = builder.parameter((Class<P>) value.getClass());
+            int criteriaIndex = indexes.get(criteria);
+            Map<Integer, Integer> sources = valueSources.get(criteria);
+            if( sources != null && sources.containsKey(valueIndex) ) {
+                criteriaIndex = sources.get(valueIndex);
+            }
+            bindings.add(new ParameterBinding(parameter, criteriaIndex, valueIndex, like));
+            values.put(parameter, like ? QueryCriteriaUtil.convertRegexToJPALikeExpression((String) value) : value);
+            return parameter;
+        }
+
+        <T> QueryPlan<T> createPlan(QueryPlanCache cache, String shape, CriteriaQuery<T> query) {
+            return new QueryPlan<T>(cache, shape, builder, query, bindings);
+        }
+
+        Map<Parameter<?>, Object> getParameterValues() {
+            return values;
+        }
+    }
+
+    // cached query ---------------------------------------------------------------------------------------------------------------
+
+    public static class QueryPlan<T> {
+
+        private final QueryPlanCache cache;
+        private final String shape;
+        private final CriteriaBuilder builder;
+        private final CriteriaQuery<T> query;
+        private final List<ParameterBinding> bindings;
+
+        QueryPlan(QueryPlanCache cache, String shape, CriteriaBuilder builder, CriteriaQuery<T> query, List<ParameterBinding> bindings) {
+            this.cache = cache;
+            this.shape = shape;
+            this.builder = builder;
+            this.query = query;
+            this.bindings = Collections.unmodifiableList(new ArrayList<ParameterBinding>(bindings));
+        }
+
+        public CriteriaQuery<T> getQuery() {
+            return query;
+        }
+
+        /**
+         * Caches this (new) plan once a JPA query was created from its query
+         */
+        void queryCreated() {
+            cache.put(this);
+        }
+
+        /**
+         * Retrieves the values for the parameters of the cached query from the given criteria
+         * @param indexedCriteria The criteria of a {@link QueryWhere} with the same shape, in the same order
+         * as when the query was created
+         * @return A {@link Map} with the values of the parameters
+         */
+        Map<Parameter<?>, Object> getParameterValues(List<QueryCriteria> indexedCriteria) {
+            Map<Parameter<?>, Object> values = new HashMap<Parameter<?>, Object>(bindings.size());
+            for( ParameterBinding binding : bindings ) {
+                Object value = indexedCriteria.get(binding.criteriaIndex).getParameters().get(binding.valueIndex);
+                if( binding.like ) {
+                    value = QueryCriteriaUtil.convertRegexToJPALikeExpression((String) value);
+                }
+                values.put(binding.parameter, value);
+            }
+            return values;
+        }
+    }
+
+    private static class ParameterBinding {
+
+        private final ParameterExpression<?> parameter;
+        private final int criteriaIndex;
+        private final int valueIndex;
+        private final boolean like;
+
+        ParameterBinding(ParameterExpression<?> parameter, int criteriaIndex, int valueIndex, boolean like) {
+            this.parameter = parameter;
+            this.criteriaIndex = criteriaIndex;
+            this.valueIndex = valueIndex;
+            this.like = like;
+        }
+    }
+
+    private static class PlanKey {
+
+        private final String shape;
+        private final CriteriaBuilder builder;
+
+        PlanKey(String shape, CriteriaBuilder builder) {
+            this.shape = shape;
+            this.builder = builder;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * shape.hashCode() + System.identityHashCode(builder);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if( !(obj instanceof PlanKey) ) {
+                return false;
+            }
+            PlanKey other = (PlanKey) obj;
+            return builder == other.builder && shape.equals(other.shape);
+        }
+    }
+}
@@ -15,9 +15,17 @@
  */
 package org.jbpm.runtime.manager.impl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.drools.core.command.CommandService;
 import org.drools.core.command.SingleSessionCommandService;
@@ -75,12 +83,21 @@ import org.slf4j.LoggerFactory;
  *  <li>CorrelationKeyContext</li>
  *  <li>EmptyContext - for initial RuntimeEngine to start process only</li>
  * </ul>
+ * <br/>
+ * Signals broadcast via {@link #signalEvent(String, Object)} are delivered to process instances one by one on calling
+ * thread by default. When system property <code>org.jbpm.runtime.manager.ppi.signal.parallelism</code> is set to number
+ * greater than 1, process instances are signaled concurrently by a pool of that many threads - each process instance
+ * with its own RuntimeEngine and in its own transaction. Parallel delivery is only used when there is no active
+ * transaction on calling thread, otherwise signals are delivered one by one so they take part in caller's transaction.
  */
 public class PerProcessInstanceRuntimeManager extends AbstractRuntimeManager {
 	
 	private static final Logger logger = LoggerFactory.getLogger(PerProcessInstanceRuntimeManager.class);
 	
 	private boolean useLocking = Boolean.parseBoolean(System.getProperty("org.jbpm.runtime.manager.ppi.lock", "true"));
+	
+	private int signalParallelism = Integer.parseInt(System.getProperty("org.jbpm.runtime.manager.ppi.signal.parallelism", "1"));
+	private volatile ExecutorService signalExecutor;
     
     private SessionFactory factory;
     private TaskServiceFactory taskServiceFactory;
@@ -164,12 +181,16 @@ public class PerProcessInstanceRuntimeManager extends AbstractRuntimeManager {
     
         // next find out all instances waiting for given event type
         List<String> processInstances = ((InternalMapper) mapper).findContextIdForEvent(type, getIdentifier());
-        for (String piId : processInstances) {
-            runtimeEngine = getRuntimeEngine(ProcessInstanceIdContext.get(Long.parseLong(piId)));        
-            runtimeEngine.getKieSession().signalEvent(type, event);        
-            
-            disposeRuntimeEngine(runtimeEngine);
-            
+        if (signalParallelism > 1 && processInstances.size() > 1 && !isTransactionActive()) {
+            signalEventInParallel(processInstances, type, event);
+        } else {
+            for (String piId : processInstances) {
+                runtimeEngine = getRuntimeEngine(ProcessInstanceIdContext.get(Long.parseLong(piId)));        
+                runtimeEngine.getKieSession().signalEvent(type, event);        
+                
+                disposeRuntimeEngine(runtimeEngine);
+                
+            }
         }
         
         // process currently active runtime engines
@@ -186,6 +207,78 @@ public class PerProcessInstanceRuntimeManager extends AbstractRuntimeManager {
         }
     }
     
+    
+    protected boolean isTransactionActive() {
+        TransactionManager tm = getTransactionManagerInternal(environment.getEnvironment());
+        return tm.getStatus() != TransactionManager.STATUS_NO_TRANSACTION;
+    }
+
+    protected void signalEventInParallel(List<String> processInstances, final String type, final Object event) {
+        List<Future<Void>> results = new ArrayList<Future<Void>>();
+        for (String piId : processInstances) {
+            final Long processInstanceId = Long.parseLong(piId);
+            if (findLocalRuntime(processInstanceId) != null) {
+                // runtime engine of this process instance is already used (and locked) by calling thread
+                signalProcessInstance(processInstanceId, type, event);
+                continue;
+            }
+            results.add(getSignalExecutor().submit(new Callable<Void>() {
+
+                @Override
+                public Void call() throws Exception {
+                    signalProcessInstance(processInstanceId, type, event);
+                    return null;
+                }
+            }));
+        }
+        // wait for all so failure of one process instance does not prevent others from being signaled
+        RuntimeException failure = null;
+        for (Future<Void> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                logger.warn("Signal {} failed to be delivered to process instance due to {}", type, e.getCause().getMessage());
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for signal " + type + " to be delivered", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    protected void signalProcessInstance(Long processInstanceId, String type, Object event) {
+        RuntimeEngine runtimeEngine = getRuntimeEngine(ProcessInstanceIdContext.get(processInstanceId));
+        try {
+            runtimeEngine.getKieSession().signalEvent(type, event);
+        } finally {
+            disposeRuntimeEngine(runtimeEngine);
+        }
+    }
+    
+    protected ExecutorService getSignalExecutor() {
+        if (signalExecutor == null) {
+            synchronized (this) {
+                if (signalExecutor == null) {
+                    signalExecutor = Executors.newFixedThreadPool(signalParallelism, new ThreadFactory() {
+                        private final AtomicInteger counter = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "jbpm-signal-" + identifier + "-" + counter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return signalExecutor;
+    }
 
     @Override
     public void validate(KieSession ksession, Context<?> context) throws IllegalStateException {
@@ -251,6 +344,10 @@ public class PerProcessInstanceRuntimeManager extends AbstractRuntimeManager {
         }
         super.close();
         factory.close();
+        if (signalExecutor != null) {
+            signalExecutor.shutdown();
+            signalExecutor = null;
+        }
     }
 
     
@@ -584,4 +681,12 @@ public class PerProcessInstanceRuntimeManager extends AbstractRuntimeManager {
         return useLocking;
     }
 
+    public int getSignalParallelism() {
+        return signalParallelism;
+    }
+
+    public void setSignalParallelism(int signalParallelism) {
+        this.signalParallelism = signalParallelism;
+    }
+
 }
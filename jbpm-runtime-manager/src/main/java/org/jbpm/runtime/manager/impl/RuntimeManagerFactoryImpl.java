@@ -23,12 +23,15 @@ import org.jbpm.runtime.manager.api.SchedulerProvider;
 import org.jbpm.runtime.manager.impl.factory.InMemorySessionFactory;
 import org.jbpm.runtime.manager.impl.factory.JPASessionFactory;
 import org.jbpm.runtime.manager.impl.factory.LocalTaskServiceFactory;
+import org.jbpm.runtime.manager.impl.factory.PooledSessionFactory;
 import org.jbpm.runtime.manager.impl.tx.TransactionAwareSchedulerServiceInterceptor;
 import org.kie.api.runtime.manager.RuntimeEnvironment;
 import org.kie.api.runtime.manager.RuntimeManager;
 import org.kie.api.runtime.manager.RuntimeManagerFactory;
 import org.kie.internal.runtime.manager.SessionFactory;
 import org.kie.internal.runtime.manager.TaskServiceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This is the main entry point class for the RuntimeManager module responsible for delivering <code>RuntimeManager</code>
@@ -47,7 +50,8 @@ import org.kie.internal.runtime.manager.TaskServiceFactory;
  *
  */
 public class RuntimeManagerFactoryImpl implements RuntimeManagerFactory {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(RuntimeManagerFactoryImpl.class);
 
     @Override
     public RuntimeManager newSingletonRuntimeManager(RuntimeEnvironment environment) {
@@ -73,12 +77,15 @@ public class RuntimeManagerFactoryImpl implements RuntimeManagerFactory {
     }
     
     public RuntimeManager newPerRequestRuntimeManager(RuntimeEnvironment environment, String identifier) {
-        SessionFactory factory = getSessionFactory(environment);
+        SessionFactory factory = getPooledSessionFactory(environment, identifier);
         TaskServiceFactory taskServiceFactory = getTaskServiceFactory(environment);
 
         RuntimeManager manager = new PerRequestRuntimeManager(environment, factory, taskServiceFactory, identifier);
         initTimerService(environment, manager);
         ((AbstractRuntimeManager) manager).init();
+        if (factory instanceof PooledSessionFactory) {
+            ((PooledSessionFactory) factory).start();
+        }
         return manager;
     }
 
@@ -89,12 +96,15 @@ public class RuntimeManagerFactoryImpl implements RuntimeManagerFactory {
     }
     
     public RuntimeManager newPerProcessInstanceRuntimeManager(RuntimeEnvironment environment, String identifier) {
-        SessionFactory factory = getSessionFactory(environment);
+        SessionFactory factory = getPooledSessionFactory(environment, identifier);
         TaskServiceFactory taskServiceFactory = getTaskServiceFactory(environment);
 
         RuntimeManager manager = new PerProcessInstanceRuntimeManager(environment, factory, taskServiceFactory, identifier);
         initTimerService(environment, manager);
         ((AbstractRuntimeManager) manager).init();
+        if (factory instanceof PooledSessionFactory) {
+            ((PooledSessionFactory) factory).start();
+        }
         return manager;
     }
     
@@ -125,6 +135,31 @@ public class RuntimeManagerFactoryImpl implements RuntimeManagerFactory {
         return factory;
     }
 
+    /**
+     * Returns session factory that keeps pool of pre-created sessions when enabled via system property
+     * <code>org.jbpm.rm.session.pool.max</code> (max number of idle sessions), optionally configured with
+     * <code>org.jbpm.rm.session.pool.warmup</code> (sessions created up front) and 
+     * <code>org.jbpm.rm.session.pool.idle.timeout</code> (in milliseconds). Otherwise same as 
+     * {@link #getSessionFactory(RuntimeEnvironment)}.
+     * <br/>
+     * Pool is used only for in memory sessions - persistent sessions created up front would be stored
+     * and left behind when they are never given out (e.g. server is stopped). Only the session creation is
+     * taken off the caller's thread, runtime engine is still initialized for every request - see
+     * {@link PooledSessionFactory}.
+     */
+    protected SessionFactory getPooledSessionFactory(RuntimeEnvironment environment, String identifier) {
+        SessionFactory factory = getSessionFactory(environment);
+        int maxSize = Integer.parseInt(System.getProperty("org.jbpm.rm.session.pool.max", "0"));
+        if (maxSize > 0 && environment.usePersistence()) {
+            logger.warn("Session pool is supported only for in memory sessions, runtime manager {} will create sessions on demand", identifier);
+        } else if (maxSize > 0) {
+            int warmUpSize = Integer.parseInt(System.getProperty("org.jbpm.rm.session.pool.warmup", "0"));
+            long idleTimeout = Long.parseLong(System.getProperty("org.jbpm.rm.session.pool.idle.timeout", "60000"));
+            factory = new PooledSessionFactory(factory, identifier, warmUpSize, maxSize, idleTimeout);
+        }
+        return factory;
+    }
+
     protected TaskServiceFactory getTaskServiceFactory(RuntimeEnvironment environment) {
     	
     	// if there is an implementation of TaskServiceFactory in the environment then use it
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.runtime.manager.impl.factory;
+
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.runtime.manager.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SessionFactory that keeps a bounded pool of pre-created in memory <code>KieSession</code>s so new sessions
+ * do not have to be created on the caller's thread. Lookup of existing sessions is always delegated.
+ * <br/>
+ * Pool is configured with:
+ * <ul>
+ *  <li>warm up size - number of sessions created when the pool is started and kept even when not used</li>
+ *  <li>max size - max number of idle sessions in the pool, pool grows up to this size under load</li>
+ *  <li>idle timeout - sessions above warm up size that were not used for that long are destroyed</li>
+ * </ul>
+ * Sessions given out by the pool are never returned to it - they are owned (and disposed or destroyed) by
+ * the runtime manager, the pool is replenished in background instead.
+ * <br/>
+ * Scope of the pool is intentionally narrow:
+ * <ul>
+ *  <li>only in memory sessions are pooled - persistent sessions would be stored before they are used</li>
+ *  <li>only bare sessions are pooled - runtime engine (task service, work item handlers and listeners) is still
+ *  set up by the runtime manager for every session it gives out, so the pool saves only the cost of creating
+ *  the session itself and not the cost of initializing the runtime engine</li>
+ * </ul>
+ */
+public class PooledSessionFactory implements SessionFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledSessionFactory.class);
+
+    private final SessionFactory delegate;
+    private final int warmUpSize;
+    private final int maxSize;
+    private final long idleTimeout;
+
+    private final LinkedBlockingDeque<PooledSession> pool = new LinkedBlockingDeque<PooledSession>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong creationTime = new AtomicLong();
+
+    private ScheduledExecutorService maintenance;
+    private volatile boolean closed = false;
+
+    public PooledSessionFactory(SessionFactory delegate, String identifier, int warmUpSize, int maxSize, long idleTimeout) {
+        this.delegate = delegate;
+        this.warmUpSize = Math.min(warmUpSize, maxSize);
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        final String threadName = "jbpm-session-pool-" + identifier;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Creates warm up sessions on calling thread and starts eviction of idle sessions.
+     */
+    public void start() {
+        for (int i = pool.size(); i < warmUpSize; i++) {
+            pool.offerFirst(new PooledSession(createSession()));
+        }
+        if (idleTimeout > 0) {
+            maintenance.scheduleWithFixedDelay(new Runnable() {
+
+                @Override
+                public void run() {
+                    evictIdle();
+                }
+            }, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+        }
+        logger.debug("Session pool started with {} sessions", pool.size());
+    }
+
+    @Override
+    public KieSession newKieSession() {
+        // most recently created sessions are used first so the least recently created ones can become idle
+        PooledSession pooled = pool.pollFirst();
+        KieSession ksession = null;
+        if (pooled != null) {
+            hits.incrementAndGet();
+            ksession = pooled.ksession;
+        } else {
+            misses.incrementAndGet();
+            ksession = createSession();
+        }
+        replenish();
+        return ksession;
+    }
+
+    @Override
+    public KieSession findKieSessionById(Long sessionId) {
+        return delegate.findKieSessionById(sessionId);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        PooledSession pooled;
+        while ((pooled = pool.pollFirst()) != null) {
+            destroy(pooled.ksession);
+        }
+        delegate.close();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getCreated() {
+        return created.get();
+    }
+
+    /**
+     * @return average time (in milliseconds) needed to create single session
+     */
+    public double getAverageCreationTime() {
+        long count = created.get();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMicros(creationTime.get()) / 1000.0 / count;
+    }
+
+    public int getIdleCount() {
+        return pool.size();
+    }
+
+    protected KieSession createSession() {
+        long start = System.nanoTime();
+        KieSession ksession = delegate.newKieSession();
+        creationTime.addAndGet(System.nanoTime() - start);
+        created.incrementAndGet();
+        return ksession;
+    }
+
+    protected void replenish() {
+        if (closed || pool.size() + pending.get() >= maxSize) {
+            return;
+        }
+        pending.incrementAndGet();
+        try {
+            maintenance.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        if (!closed && pool.size() < maxSize) {
+                            pool.offerFirst(new PooledSession(createSession()));
+                        }
+                    } catch (Exception e) {
+                        logger.warn("Unable to create session for the pool due to {}", e.getMessage());
+                    } finally {
+                        pending.decrementAndGet();
+                    }
+                }
+            });
+        } catch (Exception e) {
+            // pool is being closed
+            pending.decrementAndGet();
+        }
+    }
+
+    protected void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledSession> it = pool.descendingIterator();
+        while (it.hasNext() && pool.size() > warmUpSize) {
+            PooledSession pooled = it.next();
+            if (now - pooled.since > idleTimeout && pool.removeLastOccurrence(pooled)) {
+                logger.debug("Evicting idle session {} from the pool", pooled.ksession.getIdentifier());
+                destroy(pooled.ksession);
+            }
+        }
+    }
+
+    protected void destroy(KieSession ksession) {
+        try {
+            ksession.destroy();
+        } catch (Exception e) {
+            logger.debug("Unable to destroy pooled session {} due to {}", ksession.getIdentifier(), e.getMessage());
+        }
+    }
+
+    private static class PooledSession {
+        private final KieSession ksession;
+        private final long since = System.currentTimeMillis();
+
+        PooledSession(KieSession ksession) {
+            this.ksession = ksession;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.jbpm.runtime.manager.impl.identity;
 
+import org.jbpm.services.task.identity.CachedUserGroupCallback;
 import org.jbpm.services.task.identity.DBUserGroupCallbackImpl;
 import org.jbpm.services.task.identity.DBUserInfoImpl;
 import org.jbpm.services.task.identity.DefaultUserInfo;
@@ -48,6 +49,14 @@ import org.kie.internal.task.api.UserInfo;
  * </ul>
  * </li>
  * 	<li>
+ * org.jbpm.ht.callback.cache - when set to true selected user group callback is wrapped with cache, configured with:
+ * <ul>
+ * 	<li>org.jbpm.ht.callback.cache.ttl - time in milliseconds results are cached, defaults to 60000</li>
+ * 	<li>org.jbpm.ht.callback.cache.negative.ttl - time in milliseconds not existing users and groups are cached, defaults to 10000</li>
+ * 	<li>org.jbpm.ht.callback.cache.max - max number of cached entries, defaults to 1000</li>
+ * </ul>
+ * </li>
+ * 	<li>
  * org.jbpm.ht.userinfo - specify what implementation of UserInfo shall be used, one of:
  * <ul>
  * 	<li>ldap - backed by ldap - requires configuration via jbpm-user.info.properties file</li>
@@ -65,6 +74,7 @@ public class UserDataServiceProvider {
 	private static final String USER_INFO_IMPL = System.getProperty("org.jbpm.ht.userinfo");
 	
 	private static final String CUSTOM_USER_CALLBACK_IMPL = System.getProperty("org.jbpm.ht.custom.callback");
+	private static final boolean USER_CALLBACK_CACHE = Boolean.parseBoolean(System.getProperty("org.jbpm.ht.callback.cache", "false"));
 	private static final String CUSTOM_USER_INFO_IMPL = System.getProperty("org.jbpm.ht.custom.userinfo");
 	
 
@@ -88,6 +98,9 @@ public class UserDataServiceProvider {
 				throw new RuntimeException("Unable to create instance of custom user group callback impl", e);
 			}
 		}
+		if (USER_CALLBACK_CACHE) {
+			callback = new CachedUserGroupCallback(callback);
+		}
 		
 		return callback;
 	}
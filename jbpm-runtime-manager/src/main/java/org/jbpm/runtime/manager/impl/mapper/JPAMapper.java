@@ -25,6 +25,9 @@ import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.Query;
 
+import org.jbpm.persistence.correlation.CorrelationKeyHashUpdater;
+import org.jbpm.persistence.correlation.CorrelationKeyInfo;
+import org.jbpm.persistence.correlation.JPACorrelationKeyFactory;
 import org.jbpm.runtime.manager.impl.jpa.ContextMappingInfo;
 import org.kie.api.runtime.Environment;
 import org.kie.api.runtime.EnvironmentName;
@@ -125,6 +128,23 @@ public class JPAMapper extends InternalMapper {
     
     
     public Context getProcessInstanceByCorrelationKey(CorrelationKey correlationKey, EntityManager em) {
+        String keyHash = null;
+        if (correlationKey instanceof CorrelationKeyInfo) {
+            keyHash = ((CorrelationKeyInfo) correlationKey).getKeyHash();
+        }
+        if (keyHash == null) {
+            keyHash = JPACorrelationKeyFactory.computeKeyHash(correlationKey);
+        }
+        @SuppressWarnings("unchecked")
+        List<Long> processInstanceIds = em.createNamedQuery( "GetProcessInstanceIdByCorrelationKeyHash" )
+                .setParameter( "keyHash", keyHash )
+                .getResultList();
+        if (processInstanceIds.size() == 1) {
+            return ProcessInstanceIdContext.get(processInstanceIds.get(0));
+        } else if (!processInstanceIds.isEmpty() || !CorrelationKeyHashUpdater.isLegacyLookupRequired(em)) {
+            return null;
+        }
+        // keys stored before the hash was introduced that have not been migrated yet
         Query processInstancesForEvent = em.createNamedQuery( "GetProcessInstanceIdByCorrelation" );
         
         processInstancesForEvent.setParameter( "elem_count", new Long(correlationKey.getProperties().size()) );
@@ -1455,4 +1455,90 @@ public class PerProcessInstanceRuntimeManagerTest extends AbstractBaseTest {
         assertEquals(ProcessInstance.STATE_COMPLETED, pi1.getState());        
         manager.close();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testParallelSignalBroadcast() {
+        RuntimeEnvironment environment = RuntimeEnvironmentBuilder.Factory.get()
+                .newDefaultBuilder()
+                .userGroupCallback(userGroupCallback)
+                .addAsset(ResourceFactory.newClassPathResource("BPMN2-IntermediateCatchEventSignalWithRef.bpmn2"), ResourceType.BPMN2)
+                .get();
+        
+        manager = RuntimeManagerFactory.Factory.get().newPerProcessInstanceRuntimeManager(environment);        
+        assertNotNull(manager);
+        ((PerProcessInstanceRuntimeManager) manager).setSignalParallelism(3);
+        
+        List<Long> processInstanceIds = new ArrayList<Long>();
+        for (int i = 0; i < 5; i++) {
+            RuntimeEngine runtime = manager.getRuntimeEngine(ProcessInstanceIdContext.get());
+            ProcessInstance processInstance = runtime.getKieSession().startProcess("IntermediateCatchEventWithRef");
+            assertEquals(ProcessInstance.STATE_ACTIVE, processInstance.getState());
+            processInstanceIds.add(processInstance.getId());
+            manager.disposeRuntimeEngine(runtime);
+        }
+        
+        manager.signalEvent("Signal1", "parallel");
+        
+        RuntimeEngine runtime = manager.getRuntimeEngine(ProcessInstanceIdContext.get());
+        AuditService auditService = runtime.getAuditService();
+        for (Long processInstanceId : processInstanceIds) {
+            ProcessInstanceLog log = auditService.findProcessInstance(processInstanceId);
+            assertNotNull(log);
+            assertEquals(ProcessInstance.STATE_COMPLETED, log.getStatus().intValue());
+        }
+        manager.disposeRuntimeEngine(runtime);
+    }
+
+    @Test
+    public void testParallelSignalBroadcastWithinTransaction() throws Exception {
+        System.setProperty("jbpm.tm.jndi.lookup", "java:comp/UserTransaction");
+        RuntimeEnvironment environment = RuntimeEnvironmentBuilder.Factory.get()
+                .newDefaultBuilder()
+                .userGroupCallback(userGroupCallback)
+                .addAsset(ResourceFactory.newClassPathResource("BPMN2-IntermediateCatchEventSignalWithRef.bpmn2"), ResourceType.BPMN2)
+                .get();
+        
+        manager = RuntimeManagerFactory.Factory.get().newPerProcessInstanceRuntimeManager(environment);        
+        assertNotNull(manager);
+        ((PerProcessInstanceRuntimeManager) manager).setSignalParallelism(3);
+        
+        List<Long> processInstanceIds = new ArrayList<Long>();
+        for (int i = 0; i < 5; i++) {
+            RuntimeEngine runtime = manager.getRuntimeEngine(ProcessInstanceIdContext.get());
+            ProcessInstance processInstance = runtime.getKieSession().startProcess("IntermediateCatchEventWithRef");
+            assertEquals(ProcessInstance.STATE_ACTIVE, processInstance.getState());
+            processInstanceIds.add(processInstance.getId());
+            manager.disposeRuntimeEngine(runtime);
+        }
+        
+        // signals must be delivered within caller's transaction so rollback undoes all of them
+        UserTransaction ut = InitialContext.doLookup("java:comp/UserTransaction");
+        ut.begin();
+        manager.signalEvent("Signal1", "parallel");
+        ut.rollback();
+        
+        RuntimeEngine runtime = manager.getRuntimeEngine(ProcessInstanceIdContext.get());
+        AuditService auditService = runtime.getAuditService();
+        for (Long processInstanceId : processInstanceIds) {
+            ProcessInstanceLog log = auditService.findProcessInstance(processInstanceId);
+            assertNotNull(log);
+            assertEquals(ProcessInstance.STATE_ACTIVE, log.getStatus().intValue());
+        }
+        manager.disposeRuntimeEngine(runtime);
+        
+        ut.begin();
+        manager.signalEvent("Signal1", "parallel");
+        ut.commit();
+        
+        runtime = manager.getRuntimeEngine(ProcessInstanceIdContext.get());
+        auditService = runtime.getAuditService();
+        for (Long processInstanceId : processInstanceIds) {
+            ProcessInstanceLog log = auditService.findProcessInstance(processInstanceId);
+            assertNotNull(log);
+            assertEquals(ProcessInstance.STATE_COMPLETED, log.getStatus().intValue());
+        }
+        manager.disposeRuntimeEngine(runtime);
+        
+        System.clearProperty("jbpm.tm.jndi.lookup");
+    }
+}
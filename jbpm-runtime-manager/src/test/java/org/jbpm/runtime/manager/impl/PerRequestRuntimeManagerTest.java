@@ -16,6 +16,7 @@
 package org.jbpm.runtime.manager.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -24,13 +25,16 @@ import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.naming.InitialContext;
 import javax.transaction.UserTransaction;
 
+import org.jbpm.runtime.manager.impl.factory.PooledSessionFactory;
 import org.jbpm.runtime.manager.util.TestUtil;
 import org.jbpm.services.task.identity.JBossUserGroupCallbackImpl;
 import org.jbpm.test.util.AbstractBaseTest;
@@ -129,6 +133,59 @@ public class PerRequestRuntimeManagerTest extends AbstractBaseTest {
         }
     }
     
+    @Test
+    public void testCreationOfSessionFromPool() {
+        System.setProperty("org.jbpm.rm.session.pool.max", "2");
+        System.setProperty("org.jbpm.rm.session.pool.warmup", "2");
+        try {
+            RuntimeEnvironment environment = RuntimeEnvironmentBuilder.Factory.get()
+                    .newEmptyBuilder()
+                    .userGroupCallback(userGroupCallback)
+                    .addAsset(ResourceFactory.newClassPathResource("BPMN2-ScriptTask.bpmn2"), ResourceType.BPMN2)
+                    .get();
+
+            manager = RuntimeManagerFactory.Factory.get().newPerRequestRuntimeManager(environment);
+            assertNotNull(manager);
+            PooledSessionFactory factory = (PooledSessionFactory) ((PerRequestRuntimeManager) manager).getFactory();
+            assertEquals(2, factory.getIdleCount());
+
+            Set<Long> sessionIds = new HashSet<Long>();
+            for (int i = 0; i < 3; i++) {
+                RuntimeEngine runtime = manager.getRuntimeEngine(EmptyContext.get());
+                KieSession ksession = runtime.getKieSession();
+                // every request gets its own session
+                assertTrue(sessionIds.add(ksession.getIdentifier()));
+                ProcessInstance processInstance = ksession.startProcess("ScriptTask");
+                assertEquals(ProcessInstance.STATE_COMPLETED, processInstance.getState());
+                manager.disposeRuntimeEngine(runtime);
+            }
+            // warmed up sessions are given out first
+            assertTrue(factory.getHits() >= 2);
+            assertEquals(3, factory.getHits() + factory.getMisses());
+        } finally {
+            System.clearProperty("org.jbpm.rm.session.pool.max");
+            System.clearProperty("org.jbpm.rm.session.pool.warmup");
+        }
+    }
+
+    @Test
+    public void testSessionPoolNotUsedWithPersistence() {
+        System.setProperty("org.jbpm.rm.session.pool.max", "2");
+        try {
+            RuntimeEnvironment environment = RuntimeEnvironmentBuilder.Factory.get()
+                    .newDefaultBuilder()
+                    .userGroupCallback(userGroupCallback)
+                    .addAsset(ResourceFactory.newClassPathResource("BPMN2-ScriptTask.bpmn2"), ResourceType.BPMN2)
+                    .get();
+
+            manager = RuntimeManagerFactory.Factory.get().newPerRequestRuntimeManager(environment);
+            assertNotNull(manager);
+            assertFalse(((PerRequestRuntimeManager) manager).getFactory() instanceof PooledSessionFactory);
+        } finally {
+            System.clearProperty("org.jbpm.rm.session.pool.max");
+        }
+    }
+
     @Test
     public void testCreationOfSessionWithPeristence() {
         RuntimeEnvironment environment = RuntimeEnvironmentBuilder.Factory.get()
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package org.jbpm.executor;
+
+import java.util.List;
+
+import org.kie.api.executor.RequestInfo;
+
+public interface BatchRequestAware {
+
+	/**
+	 * Claims up to <code>batchSize</code> pending <code>RequestInfo</code> instances in single transaction
+	 * and marks them as running so no other executor picks them up. Rows locked by other executors 
+	 * are skipped where the underlying data base supports it.
+	 * @param batchSize maximum number of requests to be claimed
+	 * @return list of claimed requests, empty list when there is nothing to process
+	 */
+	List<RequestInfo> getRequestsForProcessing(int batchSize);
+	
+	/**
+	 * Moves claimed requests that were not executed (e.g. executor was stopped) back to queued state 
+	 * so they can be picked up again.
+	 * @param requests claimed requests that were not executed
+	 */
+	void releaseRequests(List<RequestInfo> requests);
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package org.jbpm.executor;
+
+import java.io.IOException;
+
+/**
+ * Encodes and decodes data stored on <code>RequestInfo</code> - <code>CommandContext</code> as request data
+ * and <code>ExecutionResults</code> as response data.
+ * Implementation to be used for encoding can be configured with system property org.kie.executor.codec
+ * that should point to fully qualified class name of the implementation (or <code>java</code> - the default,
+ * or <code>compact</code>).
+ */
+public interface RequestDataCodec {
+
+	/**
+	 * Encodes given data (usually <code>CommandContext</code> or <code>ExecutionResults</code>)
+	 * @param data data to be encoded
+	 * @return encoded data
+	 * @throws IOException in case data cannot be encoded
+	 */
+	byte[] encode(Object data) throws IOException;
+	
+	/**
+	 * Decodes given data back to objects.
+	 * @param data encoded data
+	 * @param classLoader class loader to be used to load classes of the data (e.g. kjar class loader)
+	 * @return decoded data
+	 * @throws IOException in case data cannot be decoded
+	 * @throws ClassNotFoundException in case any of the classes cannot be found
+	 */
+	Object decode(byte[] data, ClassLoader classLoader) throws IOException, ClassNotFoundException;
+}
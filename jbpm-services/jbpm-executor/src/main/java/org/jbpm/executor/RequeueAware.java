@@ -29,4 +29,11 @@ public interface RequeueAware {
 	 * @param requestId request unique identifier
 	 */
 	void requeueById(Long requestId);
+	
+	/**
+	 * Moves <code>RequestInfo</code> instances of given owner that are in running state regardless of how long
+	 * they run - meant to be used on start of executor with given owner (executor id) when none of its jobs can be running
+	 * @param owner owner of the requests (executor id)
+	 */
+	void requeueByOwner(String owner);
 }
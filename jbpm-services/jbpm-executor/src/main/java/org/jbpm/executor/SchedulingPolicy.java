@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package org.jbpm.executor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.kie.api.executor.RequestInfo;
+
+/**
+ * Decides which of the pending requests should be executed next. Allows to control how jobs 
+ * of different deployments share executor threads - e.g. so one deployment scheduling large 
+ * number of jobs does not starve the others.
+ */
+public interface SchedulingPolicy {
+
+	/**
+	 * Decides how many requests of each deployment should be claimed, based on the number of pending requests
+	 * per deployment and priority. Only the allocated number of requests (highest priority first) is then locked
+	 * for every deployment, so deployments with many pending requests do not hide the requests of the others.
+	 * <br/>
+	 * Default implementation takes requests by priority regardless of their deployment.
+	 * @param pending pending requests grouped by deployment and priority, ordered by priority (highest first)
+	 * @param maxJobs maximum number of requests to be allocated in total
+	 * @return number of requests to be claimed by deployment id (null deployment id stands for requests without deployment)
+	 */
+	default Map<String, Integer> allocate(List<PendingRequests> pending, int maxJobs) {
+		Map<String, Integer> allocation = new LinkedHashMap<String, Integer>();
+		int remaining = maxJobs;
+		for (PendingRequests group : pending) {
+			if (remaining <= 0) {
+				break;
+			}
+			int count = (int) Math.min(remaining, group.getCount());
+			allocation.merge(group.getDeploymentId(), count, Integer::sum);
+			remaining -= count;
+		}
+		return allocation;
+	}
+
+	/**
+	 * Selects requests to be executed out of given candidates. Selection is done while requests are being claimed
+	 * so it should not record anything as the claim might still be rolled back - see <code>jobStarted</code>.
+	 * @param candidates pending requests that are eligible for execution
+	 * @param maxJobs maximum number of requests to be selected
+	 * @return selected requests in order they should be executed
+	 */
+	List<RequestInfo> select(List<RequestInfo> candidates, int maxJobs);
+	
+	/**
+	 * Notifies the policy that given selected request was claimed (claim was committed) and is in flight
+	 * until <code>jobCompleted</code> is invoked for it.
+	 * @param request request that was claimed for execution
+	 * @param waitTime time (in milliseconds) request waited since its scheduled time
+	 */
+	default void jobStarted(RequestInfo request, long waitTime) {
+	}
+	
+	/**
+	 * Notifies the policy that given request is completed (regardless of its outcome). Invoked exactly once
+	 * for every request the policy was notified about via <code>jobStarted</code>.
+	 * @param request request that was executed
+	 */
+	void jobCompleted(RequestInfo request);
+
+	/**
+	 * Number of pending requests of single deployment with the same priority
+	 */
+	class PendingRequests {
+
+		private final String deploymentId;
+		private final int priority;
+		private final long count;
+
+		public PendingRequests(String deploymentId, int priority, long count) {
+			this.deploymentId = deploymentId;
+			this.priority = priority;
+			this.count = count;
+		}
+
+		public String getDeploymentId() {
+			return deploymentId;
+		}
+
+		public int getPriority() {
+			return priority;
+		}
+
+		public long getCount() {
+			return count;
+		}
+	}
+}
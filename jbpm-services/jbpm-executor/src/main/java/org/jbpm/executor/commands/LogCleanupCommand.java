@@ -17,10 +17,13 @@ package org.jbpm.executor.commands;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 
 import org.jbpm.executor.impl.jpa.ExecutorJPAAuditService;
+import org.jbpm.process.audit.query.AbstractAuditDeleteBuilderImpl;
 import org.jbpm.process.core.timer.DateTimeUtils;
 import org.jbpm.runtime.manager.impl.jpa.EntityManagerFactoryManager;
 import org.kie.api.executor.Command;
@@ -54,6 +57,10 @@ import org.slf4j.LoggerFactory;
  * 	<li>OlderThanPeriod - indicated what logs should be deleted older than given time expression (valid time expression e.g. 1d, 5h, etc)</li>
  * 	<li>ForProcess - indicates logs to be deleted only for given process definition</li>
  * 	<li>ForDeployment - indicates logs to be deleted that are from given deployment id</li>
+ * 	<li>RecordsPerTransaction - enables chunked mode in which logs are deleted in chunks of given size (by id range), each in its own transaction</li>
+ * 	<li>RecordsPerSecond - chunked mode only, max number of records to be deleted per second</li>
+ * 	<li>MaxRunTime - chunked mode only, max time single execution can take (valid time expression e.g. 30m, 1h, etc), when exceeded 
+ * 	progress is stored in the command context so next execution (of reoccurring command) continues where this one stopped</li>
  * </ul>
  */
 public class LogCleanupCommand implements Command, Reoccurring {
@@ -121,36 +128,33 @@ public class LogCleanupCommand implements Command, Reoccurring {
 			
 			olderThan = formatToUse.format(olderThanDate);
 		}
+		final Date olderThanDate = olderThan==null?null:formatToUse.parse(olderThan);
+		
+		LogRemoval removal = new LogRemoval(ctx, emf);
 		if (!skipProcessLog) {
 		// process tables
 			long piLogsRemoved = 0l;		
-			piLogsRemoved = auditLogService.processInstanceLogDelete()
+			piLogsRemoved = removal.remove("ProcessInstanceLog", () -> deleteBuilder(auditLogService.processInstanceLogDelete()
 			.processId(forProcess)
 			.status(ProcessInstance.STATE_COMPLETED, ProcessInstance.STATE_ABORTED)
-			.endDateRangeEnd(olderThan==null?null:formatToUse.parse(olderThan))
-			.externalId(forDeployment)
-			.build()
-			.execute();
+			.endDateRangeEnd(olderThanDate)
+			.externalId(forDeployment)));
 			logger.info("ProcessInstanceLogRemoved {}", piLogsRemoved);
 			executionResults.setData("ProcessInstanceLogRemoved", piLogsRemoved);
 			
 			long niLogsRemoved = 0l;
-			niLogsRemoved = auditLogService.nodeInstanceLogDelete()
+			niLogsRemoved = removal.remove("NodeInstanceLog", () -> deleteBuilder(auditLogService.nodeInstanceLogDelete()
 			.processId(forProcess)
-			.dateRangeEnd(olderThan==null?null:formatToUse.parse(olderThan))
-			.externalId(forDeployment)
-			.build()
-			.execute();
+			.dateRangeEnd(olderThanDate)
+			.externalId(forDeployment)));
 			logger.info("NodeInstanceLogRemoved {}", niLogsRemoved);
 			executionResults.setData("NodeInstanceLogRemoved", niLogsRemoved);
 			
 			long viLogsRemoved = 0l;
-			viLogsRemoved = auditLogService.variableInstanceLogDelete()
+			viLogsRemoved = removal.remove("VariableInstanceLog", () -> deleteBuilder(auditLogService.variableInstanceLogDelete()
 			.processId(forProcess)
-			.dateRangeEnd(olderThan==null?null:formatToUse.parse(olderThan))
-			.externalId(forDeployment)
-			.build()
-			.execute();
+			.dateRangeEnd(olderThanDate)
+			.externalId(forDeployment)));
 			logger.info("VariableInstanceLogRemoved {}", viLogsRemoved);
 			executionResults.setData("VariableInstanceLogRemoved", viLogsRemoved);
 		}
@@ -158,20 +162,16 @@ public class LogCleanupCommand implements Command, Reoccurring {
 		if (!skipTaskLog) {
 			// task tables
 			long taLogsRemoved = 0l;
-			taLogsRemoved = auditLogService.auditTaskDelete()
+			taLogsRemoved = removal.remove("AuditTaskImpl", () -> deleteBuilder(auditLogService.auditTaskDelete()
 			.processId(forProcess)		
-			.dateRangeEnd(olderThan==null?null:formatToUse.parse(olderThan))
-			.deploymentId(forDeployment)
-			.build()
-			.execute();
+			.dateRangeEnd(olderThanDate)
+			.deploymentId(forDeployment)));
 			logger.info("TaskAuditLogRemoved {}", taLogsRemoved);
 			executionResults.setData("TaskAuditLogRemoved", taLogsRemoved);
 			
 			long teLogsRemoved = 0l;
-			teLogsRemoved = auditLogService.taskEventInstanceLogDelete()
-			.dateRangeEnd(olderThan==null?null:formatToUse.parse(olderThan))		
-			.build()
-			.execute();
+			teLogsRemoved = removal.remove("TaskEventImpl", () -> deleteBuilder(auditLogService.taskEventInstanceLogDelete()
+			.dateRangeEnd(olderThanDate)));
 			logger.info("TaskEventLogRemoved {}", teLogsRemoved);
 			executionResults.setData("TaskEventLogRemoved", teLogsRemoved);
 		}
@@ -179,22 +179,19 @@ public class LogCleanupCommand implements Command, Reoccurring {
 		if (!skipExecutorLog) {
 			// executor tables	
 			long errorInfoLogsRemoved = 0l;
-			errorInfoLogsRemoved = auditLogService.errorInfoLogDeleteBuilder()		
-			.dateRangeEnd(olderThan==null?null:formatToUse.parse(olderThan))
-			.build()
-			.execute();
+			errorInfoLogsRemoved = removal.remove("ErrorInfo", () -> deleteBuilder(auditLogService.errorInfoLogDeleteBuilder()		
+			.dateRangeEnd(olderThanDate)));
 			logger.info("ErrorInfoLogsRemoved {}", errorInfoLogsRemoved);
 			executionResults.setData("ErrorInfoLogsRemoved", errorInfoLogsRemoved);
 			
 			long requestInfoLogsRemoved = 0l;
-			requestInfoLogsRemoved = auditLogService.requestInfoLogDeleteBuilder()
-			.dateRangeEnd(olderThan==null?null:formatToUse.parse(olderThan))
-			.status(STATUS.CANCELLED, STATUS.DONE, STATUS.ERROR)
-			.build()
-			.execute();
+			requestInfoLogsRemoved = removal.remove("RequestInfo", () -> deleteBuilder(auditLogService.requestInfoLogDeleteBuilder()
+			.dateRangeEnd(olderThanDate)
+			.status(STATUS.CANCELLED, STATUS.DONE, STATUS.ERROR)));
 			logger.info("RequestInfoLogsRemoved {}", requestInfoLogsRemoved);
 			executionResults.setData("RequestInfoLogsRemoved", requestInfoLogsRemoved);
 		}
+		removal.complete();
 		
 		// bam tables
 		long bamLogsRemoved = 0l;
@@ -204,4 +201,127 @@ public class LogCleanupCommand implements Command, Reoccurring {
         return executionResults;
 	}
 
+
+	/*
+	 * Provides delete builder with all the criteria applied, for chunked mode id range is added on top of it
+	 */
+	private interface LogDelete {
+		
+		AbstractAuditDeleteBuilderImpl<?> builder();
+	}
+	
+	/*
+	 * Delete builders are exposed through kie-internal interfaces while id range is only available on jBPM's implementation
+	 */
+	private static AbstractAuditDeleteBuilderImpl<?> deleteBuilder(Object builder) {
+		if (!(builder instanceof AbstractAuditDeleteBuilderImpl)) {
+			throw new IllegalStateException("Unsupported delete builder " + builder.getClass().getName());
+		}
+		return (AbstractAuditDeleteBuilderImpl<?>) builder;
+	}
+	
+	/*
+	 * Removes logs either in single pass or in chunks - by id range, each chunk in its own transaction
+	 */
+	private static class LogRemoval {
+		
+		private static final String CHECKPOINT_PREFIX = "Checkpoint";
+		private static final long DONE = -1;
+		
+		private final CommandContext ctx;
+		private final EntityManagerFactory emf;
+		private final int recordsPerTransaction;
+		private final int recordsPerSecond;
+		private final long deadline;
+		private final long startTime = System.currentTimeMillis();
+		
+		private long removedTotal = 0;
+		private boolean interrupted = false;
+		
+		LogRemoval(CommandContext ctx, EntityManagerFactory emf) {
+			this.ctx = ctx;
+			this.emf = emf;
+			this.recordsPerTransaction = ctx.getData("RecordsPerTransaction") == null ? 0 : Integer.parseInt(String.valueOf(ctx.getData("RecordsPerTransaction")));
+			this.recordsPerSecond = ctx.getData("RecordsPerSecond") == null ? 0 : Integer.parseInt(String.valueOf(ctx.getData("RecordsPerSecond")));
+			String maxRunTime = (String) ctx.getData("MaxRunTime");
+			this.deadline = maxRunTime == null ? Long.MAX_VALUE : startTime + DateTimeUtils.parseDateAsDuration(maxRunTime);
+		}
+		
+		long remove(String entity, LogDelete delete) throws InterruptedException {
+			if (recordsPerTransaction <= 0) {
+				return delete.builder().build().execute();
+			}
+			String checkpointKey = CHECKPOINT_PREFIX + entity;
+			long lastId = ctx.getData(checkpointKey) == null ? 0 : Long.parseLong(String.valueOf(ctx.getData(checkpointKey)));
+			if (lastId == DONE || interrupted) {
+				return 0;
+			}
+			long removed = 0;
+			while (true) {
+				if (System.currentTimeMillis() > deadline) {
+					logger.info("Max run time exceeded, log clean up of {} will continue from id {}", entity, lastId);
+					ctx.setData(checkpointKey, lastId);
+					interrupted = true;
+					break;
+				}
+				Long chunkEnd = findChunkEnd(entity, lastId);
+				if (chunkEnd == null) {
+					ctx.setData(checkpointKey, DONE);
+					break;
+				}
+				AbstractAuditDeleteBuilderImpl<?> builder = delete.builder();
+				builder.idRange(lastId + 1, chunkEnd);
+				int chunkRemoved = builder.build().execute();
+				logger.debug("Removed {} entries of {} with id in range {} - {}", chunkRemoved, entity, lastId + 1, chunkEnd);
+				
+				removed += chunkRemoved;
+				lastId = chunkEnd;
+				throttle(chunkRemoved);
+			}
+			return removed;
+		}
+		
+		/*
+		 * clears the progress once all logs were visited so next execution starts from the beginning
+		 */
+		void complete() {
+			if (recordsPerTransaction > 0 && !interrupted) {
+				ctx.getData().keySet().removeIf(key -> key.startsWith(CHECKPOINT_PREFIX));
+			}
+		}
+		
+		Long findChunkEnd(String entity, long lastId) {
+			EntityManager em = emf.createEntityManager();
+			try {
+				List<?> ids = em.createQuery("select l.id from " + entity + " l where l.id > :lastId order by l.id")
+						.setParameter("lastId", lastId)
+						.setFirstResult(recordsPerTransaction - 1)
+						.setMaxResults(1)
+						.getResultList();
+				if (!ids.isEmpty()) {
+					return ((Number) ids.get(0)).longValue();
+				}
+				// less than full chunk left
+				Number maxId = (Number) em.createQuery("select max(l.id) from " + entity + " l where l.id > :lastId")
+						.setParameter("lastId", lastId)
+						.getSingleResult();
+				return maxId == null ? null : maxId.longValue();
+			} finally {
+				em.close();
+			}
+		}
+		
+		void throttle(int chunkRemoved) throws InterruptedException {
+			removedTotal += chunkRemoved;
+			if (recordsPerSecond <= 0) {
+				return;
+			}
+			long expectedTime = removedTotal * 1000 / recordsPerSecond;
+			long elapsed = System.currentTimeMillis() - startTime;
+			if (expectedTime > elapsed) {
+				Thread.sleep(expectedTime - elapsed);
+			}
+		}
+	}
+
 }
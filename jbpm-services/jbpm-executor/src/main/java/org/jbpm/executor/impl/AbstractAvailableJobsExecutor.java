@@ -16,21 +16,20 @@
 
 package org.jbpm.executor.impl;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.io.input.ClassLoaderObjectInputStream;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.jbpm.executor.RequestDataCodec;
+import org.jbpm.executor.SchedulingPolicy;
 import org.jbpm.executor.entities.ErrorInfo;
 import org.jbpm.executor.entities.RequestInfo;
+import org.jbpm.executor.impl.codec.RequestDataCodecFactory;
 import org.jbpm.executor.impl.event.ExecutorEventSupport;
+import org.jbpm.executor.impl.policy.SchedulingPolicyFactory;
 import org.kie.api.executor.Command;
 import org.kie.api.executor.CommandCallback;
 import org.kie.api.executor.CommandContext;
@@ -64,6 +63,10 @@ public abstract class AbstractAvailableJobsExecutor {
     protected ExecutorStoreService executorStoreService;
     
     protected ExecutorEventSupport eventSupport = new ExecutorEventSupport();
+    
+    protected RequestDataCodec requestDataCodec = RequestDataCodecFactory.get();
+    
+    protected SchedulingPolicy schedulingPolicy = SchedulingPolicyFactory.get();
 
     public void setEventSupport(ExecutorEventSupport eventSupport) {
         this.eventSupport = eventSupport;
@@ -80,6 +83,14 @@ public abstract class AbstractAvailableJobsExecutor {
 	public void setExecutorStoreService(ExecutorStoreService executorStoreService) {
 		this.executorStoreService = executorStoreService;
 	}
+	
+    public void setRequestDataCodec(RequestDataCodec requestDataCodec) {
+        this.requestDataCodec = requestDataCodec;
+    }
+    
+    public void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+    }
      
     public void executeGivenJob(RequestInfo request) {
         Throwable exception = null;
@@ -91,6 +102,8 @@ public abstract class AbstractAvailableJobsExecutor {
                 CommandContext ctx = null;
                 List<CommandCallback> callbacks = null;
                 ClassLoader cl = getClassLoader(request.getDeploymentId());
+                // keeps cached command from being closed when its deployment is evicted while the job is running
+                ClassCacheManager.LoaderCache loaderCache = classCacheManager.acquire(cl);
                 try {
     
                     logger.debug("Processing Request Id: {}, status {} command {}", request.getId(), request.getStatus(), request.getCommandName());
@@ -98,17 +111,11 @@ public abstract class AbstractAvailableJobsExecutor {
                     
                     byte[] reqData = request.getRequestData();
                     if (reqData != null) {
-                        ObjectInputStream in = null;
                         try {
-                            in = new ClassLoaderObjectInputStream(cl, new ByteArrayInputStream(reqData));
-                            ctx = (CommandContext) in.readObject();
+                            ctx = (CommandContext) requestDataCodec.decode(reqData, cl);
                         } catch (IOException e) {                        
                             logger.warn("Exception while serializing context data", e);
                             return;
-                        } finally {
-                            if (in != null) {
-                                in.close();
-                            }
                         }
                     }
                     for (Map.Entry<String, Object> entry : contextData.entrySet()) {
@@ -118,7 +125,7 @@ public abstract class AbstractAvailableJobsExecutor {
                     ctx.setData("ClassLoader", cl);
                     
                     
-                    cmd = classCacheManager.findCommand(request.getCommandName(), cl);
+                    cmd = classCacheManager.findCommand(request.getCommandName(), cl, loaderCache);
                     ExecutionResults results = cmd.execute(ctx);
                     
                     callbacks = classCacheManager.buildCommandCallback(ctx, cl);                
@@ -130,10 +137,7 @@ public abstract class AbstractAvailableJobsExecutor {
                     
                     if (results != null) {
                         try {
-                            ByteArrayOutputStream bout = new ByteArrayOutputStream();
-                            ObjectOutputStream out = new ObjectOutputStream(bout);
-                            out.writeObject(results);
-                            byte[] respData = bout.toByteArray();
+                            byte[] respData = requestDataCodec.encode(results);
                             request.setResponseData(respData);
                         } catch (IOException e) {
                             request.setResponseData(null);
@@ -155,6 +159,7 @@ public abstract class AbstractAvailableJobsExecutor {
                 	
                 } finally {
                 	handleCompletion(processReoccurring, cmd, ctx);
+                	classCacheManager.release(loaderCache);
                 	eventSupport.fireAfterJobExecuted(request, exception);
                 }
             }
@@ -172,6 +177,7 @@ public abstract class AbstractAvailableJobsExecutor {
         InternalRuntimeManager manager = ((InternalRuntimeManager)RuntimeManagerRegistry.get().getManager(deploymentId));
         if (manager != null && manager.getEnvironment().getClassLoader() != null) {            
             cl = manager.getEnvironment().getClassLoader();
+            classCacheManager.trackDeployment(deploymentId, cl);
         }
         
         return cl;
@@ -258,10 +264,7 @@ public abstract class AbstractAvailableJobsExecutor {
                         // remove transient data
                         ctx.getData().remove("ClassLoader");
                         
-                        ByteArrayOutputStream bout = new ByteArrayOutputStream();
-                        ObjectOutputStream oout = new ObjectOutputStream(bout);
-                        oout.writeObject(ctx);
-                        requestInfo.setRequestData(bout.toByteArray());
+                        requestInfo.setRequestData(requestDataCodec.encode(ctx));
                     } catch (IOException e) {
                         logger.warn("Error serializing context data", e);
                         requestInfo.setRequestData(null);
@@ -16,6 +16,12 @@
 
 package org.jbpm.executor.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.jbpm.executor.BatchRequestAware;
 import org.jbpm.executor.entities.RequestInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,9 +36,23 @@ public class AvailableJobsExecutor extends AbstractAvailableJobsExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(AvailableJobsExecutor.class);
     
+    protected int batchSize = Integer.parseInt(System.getProperty("org.kie.executor.batch.size", "1"));
+    
+    // jobs already claimed (marked as running) by this executor but not yet executed, released when executor is stopped
+    private Queue<RequestInfo> workQueue = new ConcurrentLinkedQueue<RequestInfo>();
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
     public void executeJob() {
         logger.debug("Executor Thread {} Waking Up!!!", this.toString());
         try {
+            classCacheManager.evictUndeployed();
+            if ((batchSize > 1 || schedulingPolicy != null) && queryService instanceof BatchRequestAware) {
+                executeJobsInBatch((BatchRequestAware) queryService);
+                return;
+            }
             RequestInfo request = (RequestInfo) queryService.getRequestForProcessing();
             if (request != null) {
             	executeGivenJob(request);
@@ -42,5 +62,62 @@ public class AvailableJobsExecutor extends AbstractAvailableJobsExecutor {
         }
     }
 
+    /*
+     * keeps on claiming and executing jobs as long as there are any available, returns only 
+     * when there is nothing more to process so the thread waits for next interval
+     */
+    protected void executeJobsInBatch(BatchRequestAware batchQueryService) {
+        while (!Thread.currentThread().isInterrupted()) {
+            RequestInfo request = workQueue.poll();
+            if (request == null) {
+                List<org.kie.api.executor.RequestInfo> claimed = batchQueryService.getRequestsForProcessing(batchSize);
+                if (claimed.isEmpty()) {
+                    logger.debug("No more jobs available for processing, executor thread {} waits for next interval", this.toString());
+                    return;
+                }
+                logger.debug("Claimed {} jobs for processing", claimed.size());
+                for (org.kie.api.executor.RequestInfo claimedRequest : claimed) {
+                    workQueue.add((RequestInfo) claimedRequest);
+                }
+                continue;
+            }
+            try {
+                executeGivenJob(request);
+            } finally {
+                if (schedulingPolicy != null) {
+                    // every claimed job was reported to the policy as started once its claim was committed
+                    schedulingPolicy.jobCompleted(request);
+                }
+            }
+        }
+        // executor is being stopped, claimed jobs that were not executed must not stay in running state
+        releaseClaimedJobs(batchQueryService);
+    }
+    
+    protected void releaseClaimedJobs(BatchRequestAware batchQueryService) {
+        List<org.kie.api.executor.RequestInfo> unprocessed = new ArrayList<org.kie.api.executor.RequestInfo>();
+        RequestInfo request = null;
+        while ((request = workQueue.poll()) != null) {
+            unprocessed.add(request);
+        }
+        if (unprocessed.isEmpty()) {
+            return;
+        }
+        logger.debug("Releasing {} claimed jobs that were not executed", unprocessed.size());
+        // clear interrupted flag for the time of release as it might break data base access
+        boolean interrupted = Thread.interrupted();
+        try {
+            batchQueryService.releaseRequests(unprocessed);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (schedulingPolicy != null) {
+                for (org.kie.api.executor.RequestInfo released : unprocessed) {
+                    schedulingPolicy.jobCompleted(released);
+                }
+            }
+        }
+    }
 
 }
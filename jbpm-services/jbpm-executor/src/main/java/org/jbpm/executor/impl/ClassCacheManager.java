@@ -17,30 +17,48 @@
 package org.jbpm.executor.impl;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.kie.api.executor.Command;
 import org.kie.api.executor.CommandCallback;
 import org.kie.api.executor.CommandContext;
 import org.kie.internal.runtime.Cacheable;
 import org.kie.internal.runtime.Closeable;
+import org.kie.internal.runtime.manager.RuntimeManagerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Simple cache to keep classes of commands and callback to not attempt to load them every time.
- *
+ * Entries are kept per class loader so commands and callbacks of different deployments (kjars) do not clash.
+ * Cached commands and classes reference their class loader, so entries of a class loader are never released
+ * by garbage collection - they are evicted explicitly when the deployment that owns the class loader is
+ * redeployed with new class loader or is no longer available (see {@link #trackDeployment(String, ClassLoader)}
+ * and {@link #evictUndeployed()}).
+ * Evicted entries are only dropped from the cache, cached commands are closed once jobs that use them
+ * (see {@link #acquire(ClassLoader)} and {@link #release(LoaderCache)}) are completed.
  */
 
 public class ClassCacheManager {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(ClassCacheManager.class);
-    
-    private final Map<String, Command> commandCache = new HashMap<String, Command>();
-    private final Map<String, CommandCallback> callbackCache = new HashMap<String, CommandCallback>();  
+
+    // class loaders do not override equals/hashCode so they are compared by identity
+    private final ConcurrentMap<ClassLoader, LoaderCache> loaderCaches = new ConcurrentHashMap<ClassLoader, LoaderCache>();
+    // evicted entries that are still used by running jobs, closed when last of them is released
+    private final Set<LoaderCache> retiredCaches = ConcurrentHashMap.newKeySet();
+    // classes loaded with bootstrap class loader (null)
+    private final LoaderCache bootstrapCache = new LoaderCache();
+    private final ConcurrentMap<String, String[]> callbackNamesCache = new ConcurrentHashMap<String, String[]>();
+    private final ConcurrentMap<String, ClassLoader> deploymentClassLoaders = new ConcurrentHashMap<String, ClassLoader>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
 
     /**
      * Finds command by FQCN and if not found loads the class and store the instance in
@@ -49,68 +67,55 @@ public class ClassCacheManager {
      * @return initialized class instance
      */
     public Command findCommand(String name, ClassLoader cl) {
-        synchronized (commandCache) {
-            
-            if (!commandCache.containsKey(name)) {
-                
-                try {
-                    Command commandInstance = (Command) Class.forName(name, true, cl).newInstance();
-                    commandCache.put(name, commandInstance);
-                } catch (Exception ex) {
-                    throw new IllegalArgumentException("Unknown Command implementation with name '" + name + "'");
-                }
-    
-            } else {
-                Command cmd = commandCache.get(name);
-                if (!cmd.getClass().getClassLoader().equals(cl)) {
-                    commandCache.remove(name);
-                    try {
-                        Command commandInstance = (Command) Class.forName(name, true, cl).newInstance();
-                        commandCache.put(name, commandInstance);
-                    } catch (Exception ex) {
-                        throw new IllegalArgumentException("Unknown Command implementation with name '" + name + "'");
-                    } 
-                }
-            }
+        return findCommand(name, cl, getLoaderCache(cl));
+    }
 
-       
+    /*
+     * finds command in given cache entries, used by jobs with entries obtained from acquire
+     */
+    Command findCommand(String name, ClassLoader cl, LoaderCache loaderCache) {
+        Command command = loaderCache.commands.get(name);
+        if (command != null) {
+            hits.incrementAndGet();
+            return command;
         }
-        return commandCache.get(name);
+
+        return loaderCache.commands.computeIfAbsent(name, n -> {
+            misses.incrementAndGet();
+            try {
+                return (Command) Class.forName(n, true, cl).newInstance();
+            } catch (Exception ex) {
+                throw new IllegalArgumentException("Unknown Command implementation with name '" + n + "'");
+            }
+        });
     }
 
     /**
-     * Finds command callback by FQCN and if not found loads the class and store the instance in
-     * the cache.
+     * Finds command callback by FQCN and if not found loads the class and store it in
+     * the cache. Each call returns new instance of the callback.
      * @param name - fully qualified class name of the command callback
      * @return initialized class instance
      */
     public CommandCallback findCommandCallback(String name, ClassLoader cl) {
-        synchronized (callbackCache) {
-            
-            if (!callbackCache.containsKey(name)) {
+        LoaderCache loaderCache = getLoaderCache(cl);
+        Class<?> callbackClass = loaderCache.callbacks.get(name);
+        if (callbackClass != null) {
+            hits.incrementAndGet();
+        } else {
+            callbackClass = loaderCache.callbacks.computeIfAbsent(name, n -> {
+                misses.incrementAndGet();
                 try {
-                    CommandCallback commandCallbackInstance = (CommandCallback) Class.forName(name, true, cl).newInstance();
-                    return commandCallbackInstance;
-                    //                            callbackCache.put(name, commandCallbackInstance);
+                    return Class.forName(n, true, cl);
                 } catch (Exception ex) {
-                    throw new IllegalArgumentException("Unknown Command implementation with name '" + name + "'");
-                }
-
-            } else {
-                CommandCallback cmdCallback = callbackCache.get(name);
-                if (!cmdCallback.getClass().getClassLoader().equals(cl)) {
-                    callbackCache.remove(name);
-                    try {
-                        CommandCallback commandCallbackInstance = (CommandCallback) Class.forName(name, true, cl).newInstance();
-                        callbackCache.put(name, commandCallbackInstance);
-                    } catch (Exception ex) {
-                        throw new IllegalArgumentException("Unknown Command implementation with name '" + name + "'");
-                    }
+                    throw new IllegalArgumentException("Unknown Command implementation with name '" + n + "'");
                 }
-            }
-
+            });
+        }
+        try {
+            return (CommandCallback) callbackClass.newInstance();
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Unknown Command implementation with name '" + name + "'");
         }
-        return callbackCache.get(name);
     }
 
     /**
@@ -122,40 +127,190 @@ public class ClassCacheManager {
         List<CommandCallback> callbackList = new ArrayList<CommandCallback>();
         if (ctx != null && ctx.getData("callbacks") != null) {
             logger.debug("Callback: {}", ctx.getData("callbacks"));
-            String[] callbacksArray = ((String) ctx.getData("callbacks")).split(",");
-            List<String> callbacks = (List<String>) Arrays.asList(callbacksArray);
+            String[] callbacks = callbackNamesCache.computeIfAbsent((String) ctx.getData("callbacks"), c -> {
+                String[] callbacksArray = c.split(",");
+                for (int i = 0; i < callbacksArray.length; i++) {
+                    callbacksArray[i] = callbacksArray[i].trim();
+                }
+                return callbacksArray;
+            });
             for (String callbackName : callbacks) {
-                CommandCallback handler = findCommandCallback(callbackName.trim(), cl);
+                CommandCallback handler = findCommandCallback(callbackName, cl);
                 callbackList.add(handler);
             }
         }
         return callbackList;
     }
-    
+
+    /**
+     * Keeps track of class loader used by given deployment so cache entries can be evicted when
+     * the deployment is redeployed (with new class loader) or undeployed.
+     * @param deploymentId deployment unique identifier
+     * @param cl class loader of the deployment
+     */
+    public void trackDeployment(String deploymentId, ClassLoader cl) {
+        if (deploymentClassLoaders.get(deploymentId) == cl) {
+            return;
+        }
+        ClassLoader previous = deploymentClassLoaders.put(deploymentId, cl);
+        if (previous != null && previous != cl) {
+            logger.debug("Deployment {} uses new class loader, evicting cached entries of the old one", deploymentId);
+            evict(previous);
+        }
+    }
+
+    /**
+     * Evicts cache entries of all tracked deployments that are no longer available.
+     */
+    public void evictUndeployed() {
+        for (Map.Entry<String, ClassLoader> entry : deploymentClassLoaders.entrySet()) {
+            if (RuntimeManagerRegistry.get().getManager(entry.getKey()) == null) {
+                logger.debug("Deployment {} is not available any more, evicting its cached entries", entry.getKey());
+                if (deploymentClassLoaders.remove(entry.getKey(), entry.getValue())) {
+                    evict(entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all cached entries that belong to given class loader, cached instances are closed right away
+     * when not used by any job, otherwise when last job that uses them releases the class loader
+     * @param cl class loader which entries should be removed
+     */
+    public void evict(ClassLoader cl) {
+        LoaderCache loaderCache = cl == null ? null : loaderCaches.remove(cl);
+        if (loaderCache == null) {
+            return;
+        }
+        retiredCaches.add(loaderCache);
+        if (loaderCache.retire() && retiredCaches.remove(loaderCache)) {
+            loaderCache.close();
+        }
+    }
+
+    /**
+     * Marks cached entries of given class loader as used by a job so they are not closed when evicted
+     * while the job is running. Must be followed by {@link #release(LoaderCache)} once the job is completed.
+     * @param cl class loader of the job
+     * @return acquired cache entries to be given to {@link #release(LoaderCache)}
+     */
+    LoaderCache acquire(ClassLoader cl) {
+        LoaderCache loaderCache = getLoaderCache(cl);
+        while (!loaderCache.acquire()) {
+            // evicted concurrently, retry with up to date cache
+            loaderCache = getLoaderCache(cl);
+        }
+        return loaderCache;
+    }
+
+    /**
+     * Releases cached entries acquired by {@link #acquire(ClassLoader)} and closes them if they were evicted
+     * in the meantime and no other job uses them.
+     * @param loaderCache cache entries returned by {@link #acquire(ClassLoader)}
+     */
+    void release(LoaderCache loaderCache) {
+        if (loaderCache != null && loaderCache.release() && retiredCaches.remove(loaderCache)) {
+            loaderCache.close();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of class loaders that have cached entries
+     */
+    public int getClassLoaderCount() {
+        return loaderCaches.size();
+    }
+
+    protected LoaderCache getLoaderCache(ClassLoader cl) {
+        if (cl == null) {
+            return bootstrapCache;
+        }
+        LoaderCache loaderCache = loaderCaches.get(cl);
+        if (loaderCache == null) {
+            loaderCache = loaderCaches.computeIfAbsent(cl, c -> new LoaderCache());
+        }
+        return loaderCache;
+    }
+
     protected void closeInstance(Object instance) {
     	if (instance == null) {
     		return;
     	}
-    	
+
     	if (instance instanceof Closeable) {
     		((Closeable) instance).close();
     	} else if (instance instanceof Cacheable) {
     		((Cacheable) instance).close();
     	}
     }
-        
+
     public void dispose() {
-    	if (commandCache != null) {
-    		for (Object command : commandCache.values()) {
-    			closeInstance(command);
-    		}
+    	for (LoaderCache loaderCache : loaderCaches.values()) {
+    		loaderCache.close();
     	}
-    	
-    	if (callbackCache != null) {
-    		for (Object callback : callbackCache.values()) {
-    			closeInstance(callback);
-    		}
+    	for (LoaderCache loaderCache : retiredCaches) {
+    		loaderCache.close();
     	}
+    	bootstrapCache.close();
+    	loaderCaches.clear();
+    	retiredCaches.clear();
+    	callbackNamesCache.clear();
+    	deploymentClassLoaders.clear();
+    }
+
+    /*
+     * commands and callback classes loaded by single class loader, by class name
+     */
+    protected class LoaderCache {
+
+        private final ConcurrentMap<String, Command> commands = new ConcurrentHashMap<String, Command>();
+        private final ConcurrentMap<String, Class<?>> callbacks = new ConcurrentHashMap<String, Class<?>>();
+
+        private int usages = 0;
+        private boolean retired = false;
+
+        synchronized boolean acquire() {
+            if (retired) {
+                return false;
+            }
+            usages++;
+            return true;
+        }
+
+        /*
+         * returns true when cache was retired and this was its last usage
+         */
+        synchronized boolean release() {
+            if (usages > 0) {
+                usages--;
+            }
+            return retired && usages == 0;
+        }
+
+        /*
+         * returns true when cache is not used and can be closed right away
+         */
+        synchronized boolean retire() {
+            retired = true;
+            return usages == 0;
+        }
+
+        void close() {
+            for (Command command : commands.values()) {
+                closeInstance(command);
+            }
+            commands.clear();
+            callbacks.clear();
+        }
     }
 
 }
@@ -16,17 +16,18 @@
 
 package org.jbpm.executor.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
@@ -38,8 +39,13 @@ import javax.jms.TextMessage;
 import javax.naming.InitialContext;
 
 import org.drools.core.time.TimeUtils;
+import org.drools.persistence.TransactionManager;
+import org.drools.persistence.TransactionManagerFactory;
+import org.drools.persistence.TransactionSynchronization;
 import org.jbpm.executor.ExecutorNotStartedException;
+import org.jbpm.executor.RequestDataCodec;
 import org.jbpm.executor.entities.RequestInfo;
+import org.jbpm.executor.impl.codec.RequestDataCodecFactory;
 import org.jbpm.executor.impl.event.ExecutorEventSupport;
 import org.kie.api.executor.CommandContext;
 import org.kie.api.executor.ExecutorStoreService;
@@ -56,6 +62,8 @@ import org.slf4j.LoggerFactory;
  *  <li>thread pool size - default 1 - use system property org.kie.executor.pool.size</li>
  *  <li>retry count - default 3 retries - use system property org.kie.executor.retry.count</li>
  *  <li>execution interval - default 3 seconds - use system property org.kie.executor.interval</li>
+ *  <li>batch size - default 1 - number of jobs claimed at once by single executor thread, when greater than 1 
+ *  executor thread keeps on processing jobs until there are no more available - use system property org.kie.executor.batch.size</li>
  * </ul>
  * Additionally executor can be disable to not start at all when system property org.kie.executor.disabled is 
  * set to true
@@ -69,6 +77,11 @@ import org.slf4j.LoggerFactory;
  *  <li>org.kie.executor.jms.cf - JNDI name of connection factory to be used for sending messages</li>
  *  <li>org.kie.executor.jms.queue - JNDI name for destination (usually a queue) to be used to send messages to</li>
  * </ul>
+ * When JMS is not used (disabled or not available) executor threads are notified directly (in the same JVM) 
+ * as soon as transaction that scheduled the job is committed, polling remains active as safety net. This can 
+ * be turned off by setting system property org.kie.executor.notify to false.
+ * Request data (<code>CommandContext</code>) is stored with <code>RequestDataCodec</code> configured via system property
+ * org.kie.executor.codec - see <code>RequestDataCodecFactory</code> for details.
  */
 public class ExecutorImpl implements Executor {
 
@@ -91,10 +104,18 @@ public class ExecutorImpl implements Executor {
     private boolean transacted = Boolean.parseBoolean(System.getProperty("org.kie.executor.jms.transacted", "false"));
     private ConnectionFactory connectionFactory;
     private Queue queue;
+    
+    // in JVM notification of executor threads, used when JMS is not available
+    private boolean useNotification = Boolean.parseBoolean(System.getProperty("org.kie.executor.notify", "true"));
+    private List<Runnable> executorRunnables = new CopyOnWriteArrayList<Runnable>();
+    private AtomicInteger pendingNotifications = new AtomicInteger();
+    private TransactionManager transactionManager;
 
 	private ScheduledExecutorService scheduler;
 	
 	private ExecutorEventSupport eventSupport = new ExecutorEventSupport();
+	
+	private RequestDataCodec requestDataCodec = RequestDataCodecFactory.get();
 
     public ExecutorImpl() {
     }
@@ -110,6 +131,10 @@ public class ExecutorImpl implements Executor {
     public ExecutorStoreService getExecutorStoreService() {
         return executorStoreService;
     }
+    
+    public void setRequestDataCodec(RequestDataCodec requestDataCodec) {
+        this.requestDataCodec = requestDataCodec;
+    }
 
     
     public String getConnectionFactoryName() {
@@ -223,7 +248,9 @@ public class ExecutorImpl implements Executor {
                 long delay = 2000 + delayIncremental;
                 long interval = TimeUnit.MILLISECONDS.convert(this.interval, timeunit);
                 logger.debug("Starting executor thread with initial delay {} interval {} and time unit {}", delay, interval, TimeUnit.MILLISECONDS);
-                handle.add(scheduler.scheduleAtFixedRate(executorStoreService.buildExecutorRunnable(), delay, interval, TimeUnit.MILLISECONDS));
+                Runnable runnable = executorStoreService.buildExecutorRunnable();
+                executorRunnables.add(runnable);
+                handle.add(scheduler.scheduleAtFixedRate(runnable, delay, interval, TimeUnit.MILLISECONDS));
                                
                 delayIncremental += this.initialDelay;
                 
@@ -265,7 +292,9 @@ public class ExecutorImpl implements Executor {
                 long delay = 2000 + delayIncremental;
                 long interval = TimeUnit.MILLISECONDS.convert(this.interval, timeunit);
                 logger.debug("Starting executor thread with initial delay {} interval {} and time unit {}", delay, interval, TimeUnit.MILLISECONDS);
-                handle.add(scheduler.scheduleAtFixedRate(executorStoreService.buildExecutorRunnable(), delay, interval, TimeUnit.MILLISECONDS));
+                Runnable runnable = executorStoreService.buildExecutorRunnable();
+                executorRunnables.add(runnable);
+                handle.add(scheduler.scheduleAtFixedRate(runnable, delay, interval, TimeUnit.MILLISECONDS));
                 
                 delayIncremental += this.initialDelay;
             }
@@ -287,6 +316,7 @@ public class ExecutorImpl implements Executor {
         if (scheduler != null) {
             scheduler.shutdownNow();
         }
+        executorRunnables.clear();
     }
 
     /**
@@ -347,10 +377,7 @@ public class ExecutorImpl implements Executor {
         
         if (ctx != null) {
             try {
-                ByteArrayOutputStream bout = new ByteArrayOutputStream();
-                ObjectOutputStream oout = new ObjectOutputStream(bout);
-                oout.writeObject(ctx);
-                requestInfo.setRequestData(bout.toByteArray());
+                requestInfo.setRequestData(requestDataCodec.encode(ctx));
             } catch (IOException e) {
                 logger.warn("Error serializing context data", e);
                 requestInfo.setRequestData(null);
@@ -359,11 +386,10 @@ public class ExecutorImpl implements Executor {
         eventSupport.fireBeforeJobScheduled(requestInfo, null);
         try {
             executorStoreService.persistRequest(requestInfo);
-    
+            // notify only about immediate job requests not for these that should be executed in future 
+            long currentTimestamp = System.currentTimeMillis();
+            
             if (useJMS) {
-                // send JMS only for immediate job requests not for these that should be executed in future 
-                long currentTimestamp = System.currentTimeMillis();
-                
                 if (currentTimestamp >= date.getTime()) {
                     logger.debug("Sending JMS message to trigger job execution for job {}", requestInfo.getId());
                     // send JMS message to trigger processing
@@ -371,6 +397,9 @@ public class ExecutorImpl implements Executor {
                 } else {
                     logger.debug("JMS message not sent for job {} as the job should not be executed immediately but at {}", requestInfo.getId(), date);
                 }
+            } else if (useNotification && currentTimestamp >= date.getTime()) {
+                logger.debug("Notifying executor threads about job {}", requestInfo.getId());
+                notifyExecutorsOnCommit();
             }
             
             logger.debug("Scheduled request for Command: {} - requestId: {} with {} retries", commandId, requestInfo.getId(), requestInfo.getRetries());
@@ -398,6 +427,68 @@ public class ExecutorImpl implements Executor {
         logger.debug("After - Cancelling Request with Id: {}", requestId);
     }
 
+    /*
+     * wakes up executor threads once the transaction that scheduled the job is committed
+     * or directly when there is no active transaction
+     */
+    protected void notifyExecutorsOnCommit() {
+        try {
+            if (transactionManager == null) {
+                transactionManager = TransactionManagerFactory.get().newTransactionManager();
+            }
+            int status = transactionManager.getStatus();
+            if (status != TransactionManager.STATUS_NO_TRANSACTION
+                    && status != TransactionManager.STATUS_ROLLEDBACK
+                    && status != TransactionManager.STATUS_COMMITTED) {
+                transactionManager.registerTransactionSynchronization(new TransactionSynchronization() {
+                    
+                    @Override
+                    public void beforeCompletion() {        
+                    }
+                    
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == TransactionManager.STATUS_COMMITTED) {
+                            notifyExecutors();
+                        }
+                    }
+                });
+                return;
+            }
+        } catch (Throwable e) {
+            logger.debug("Unable to register transaction synchronization for executor notification due to {}", e.getMessage());
+        }
+        notifyExecutors();
+    }
+    
+    protected void notifyExecutors() {
+        Runnable[] runnables = executorRunnables.toArray(new Runnable[0]);
+        if (scheduler == null || runnables.length == 0) {
+            return;
+        }
+        // there is no point in having more notifications waiting than executor threads
+        int pending = pendingNotifications.get();
+        while (pending < runnables.length) {
+            if (pendingNotifications.compareAndSet(pending, pending + 1)) {
+                final Runnable runnable = runnables[pending];
+                try {
+                    scheduler.execute(new Runnable() {
+                        
+                        @Override
+                        public void run() {
+                            pendingNotifications.decrementAndGet();
+                            runnable.run();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    pendingNotifications.decrementAndGet();
+                    logger.debug("Executor threads not notified as executor is shutting down");
+                }
+                return;
+            }
+            pending = pendingNotifications.get();
+        }
+    }
     
     protected void sendMessage(String messageBody, int priority) {
         if (connectionFactory == null && queue == null) {
@@ -144,6 +144,10 @@ public class ExecutorServiceImpl implements ExecutorService, RequeueAware {
     
     public void init() {
     	if (!executorStarted) {
+    		// jobs of this executor left in running state (e.g. by a crash) cannot be running any more
+    		if (adminService instanceof RequeueAware) {
+    			((RequeueAware) adminService).requeueByOwner(EXECUTOR_ID);
+    		}
     		if (maxRunningTime > -1) {
     			requeue(maxRunningTime);
     		}
@@ -252,6 +256,13 @@ public class ExecutorServiceImpl implements ExecutorService, RequeueAware {
         }
 	}
 
+	@Override
+	public void requeueByOwner(String owner) {
+		if (adminService instanceof RequeueAware) {
+        	((RequeueAware) adminService).requeueByOwner(owner);
+        }
+	}
+
     @Override
     public List<RequestInfo> getQueuedRequests(QueryContext queryContext) {
         
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import org.drools.core.process.instance.impl.WorkItemImpl;
+import org.jbpm.executor.RequestDataCodec;
+import org.kie.api.executor.CommandContext;
+import org.kie.api.executor.ExecutionResults;
+
+/**
+ * Compact binary codec for <code>CommandContext</code> and <code>ExecutionResults</code>.
+ * Data is written as tagged values with following types natively supported:
+ * <ul>
+ *  <li>null, String and primitive wrappers</li>
+ *  <li>java.util.Date and byte arrays</li>
+ *  <li>ArrayList, HashSet, LinkedHashSet, HashMap and LinkedHashMap (content is encoded recursively)</li>
+ *  <li>WorkItemImpl</li>
+ * </ul>
+ * Any other value, including any other collection type (e.g. sorted or concurrent ones, whose ordering,
+ * comparator or type would not survive the round trip), is stored using java serialization as individual entry.
+ * Encoded data always starts with header (magic bytes followed by format version) so it can be
+ * distinguished from data stored with java serialization.
+ */
+public class CompactRequestDataCodec implements RequestDataCodec {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    static final byte MAGIC_1 = 'K';
+    static final byte MAGIC_2 = 'X';
+    static final byte VERSION = 1;
+
+    private static final byte KIND_CONTEXT = 1;
+    private static final byte KIND_RESULTS = 2;
+    private static final byte KIND_OTHER = 3;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte DATE = 10;
+    private static final byte BYTES = 11;
+    private static final byte LIST = 12;
+    private static final byte SET = 13;
+    private static final byte MAP = 14;
+    private static final byte WORK_ITEM = 15;
+    private static final byte SERIALIZED = 16;
+
+    private final JavaSerializationRequestDataCodec fallback = new JavaSerializationRequestDataCodec();
+
+    /**
+     * Checks if given data has been encoded by this codec
+     * @param data encoded data
+     * @return true if data starts with this codec's header
+     */
+    public static boolean isCompact(byte[] data) {
+        return data != null && data.length > 2 && data[0] == MAGIC_1 && data[1] == MAGIC_2;
+    }
+
+    @Override
+    public byte[] encode(Object data) throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bout);
+        out.writeByte(MAGIC_1);
+        out.writeByte(MAGIC_2);
+        out.writeByte(VERSION);
+
+        if (data != null && data.getClass() == CommandContext.class) {
+            out.writeByte(KIND_CONTEXT);
+            writeMap(out, ((CommandContext) data).getData());
+        } else if (data != null && data.getClass() == ExecutionResults.class) {
+            out.writeByte(KIND_RESULTS);
+            writeMap(out, ((ExecutionResults) data).getData());
+        } else {
+            out.writeByte(KIND_OTHER);
+            writeValue(out, data);
+        }
+        out.close();
+
+        return bout.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] data, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        if (!isCompact(data)) {
+            throw new IOException("Data is not in compact format");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        try {
+            in.readByte();
+            in.readByte();
+            byte version = in.readByte();
+            if (version > VERSION) {
+                throw new IOException("Unsupported compact format version " + version);
+            }
+
+            byte kind = in.readByte();
+            switch (kind) {
+                case KIND_CONTEXT:
+                    CommandContext ctx = new CommandContext();
+                    for (Map.Entry<Object, Object> entry : readMap(in, classLoader).entrySet()) {
+                        ctx.setData((String) entry.getKey(), entry.getValue());
+                    }
+                    return ctx;
+                case KIND_RESULTS:
+                    ExecutionResults results = new ExecutionResults();
+                    for (Map.Entry<Object, Object> entry : readMap(in, classLoader).entrySet()) {
+                        results.setData((String) entry.getKey(), entry.getValue());
+                    }
+                    return results;
+                case KIND_OTHER:
+                    return readValue(in, classLoader);
+                default:
+                    throw new IOException("Unknown kind of data " + kind);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    protected void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHARACTER);
+            out.writeChar((Character) value);
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if (value.getClass() == ArrayList.class) {
+            out.writeByte(LIST);
+            writeCollection(out, (Collection<?>) value);
+        } else if (value.getClass() == HashSet.class || value.getClass() == LinkedHashSet.class) {
+            out.writeByte(SET);
+            writeCollection(out, (Collection<?>) value);
+        } else if (value.getClass() == HashMap.class || value.getClass() == LinkedHashMap.class) {
+            out.writeByte(MAP);
+            writeMap(out, (Map<?, ?>) value);
+        } else if (value.getClass() == WorkItemImpl.class) {
+            out.writeByte(WORK_ITEM);
+            writeWorkItem(out, (WorkItemImpl) value);
+        } else {
+            out.writeByte(SERIALIZED);
+            byte[] serialized = fallback.encode(value);
+            out.writeInt(serialized.length);
+            out.write(serialized);
+        }
+    }
+
+    protected Object readValue(DataInputStream in, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BOOLEAN:
+                return in.readBoolean();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case SHORT:
+                return in.readShort();
+            case BYTE:
+                return in.readByte();
+            case CHARACTER:
+                return in.readChar();
+            case DATE:
+                return new Date(in.readLong());
+            case BYTES:
+                return readBytes(in);
+            case LIST:
+                return readCollection(in, classLoader, new ArrayList<Object>());
+            case SET:
+                return readCollection(in, classLoader, new LinkedHashSet<Object>());
+            case MAP:
+                return readMap(in, classLoader);
+            case WORK_ITEM:
+                return readWorkItem(in, classLoader);
+            case SERIALIZED:
+                return fallback.decode(readBytes(in), classLoader);
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    protected void writeMap(DataOutputStream out, Map<?, ?> map) throws IOException {
+        if (map == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    protected Map<Object, Object> readMap(DataInputStream in, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<Object, Object> map = new LinkedHashMap<Object, Object>(size);
+        for (int i = 0; i < size; i++) {
+            Object key = readValue(in, classLoader);
+            map.put(key, readValue(in, classLoader));
+        }
+        return map;
+    }
+
+    protected void writeCollection(DataOutputStream out, Collection<?> collection) throws IOException {
+        out.writeInt(collection.size());
+        for (Object element : collection) {
+            writeValue(out, element);
+        }
+    }
+
+    protected Collection<Object> readCollection(DataInputStream in, ClassLoader classLoader, Collection<Object> collection) throws IOException, ClassNotFoundException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            collection.add(readValue(in, classLoader));
+        }
+        return collection;
+    }
+
+    protected void writeWorkItem(DataOutputStream out, WorkItemImpl workItem) throws IOException {
+        out.writeLong(workItem.getId());
+        writeValue(out, workItem.getName());
+        out.writeInt(workItem.getState());
+        out.writeLong(workItem.getProcessInstanceId());
+        writeValue(out, workItem.getDeploymentId());
+        out.writeLong(workItem.getNodeInstanceId());
+        out.writeLong(workItem.getNodeId());
+        writeMap(out, workItem.getParameters());
+        writeMap(out, workItem.getResults());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected WorkItemImpl readWorkItem(DataInputStream in, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        WorkItemImpl workItem = new WorkItemImpl();
+        workItem.setId(in.readLong());
+        workItem.setName((String) readValue(in, classLoader));
+        workItem.setState(in.readInt());
+        workItem.setProcessInstanceId(in.readLong());
+        workItem.setDeploymentId((String) readValue(in, classLoader));
+        workItem.setNodeInstanceId(in.readLong());
+        workItem.setNodeId(in.readLong());
+        Map parameters = readMap(in, classLoader);
+        if (parameters != null) {
+            workItem.setParameters(parameters);
+        }
+        Map results = readMap(in, classLoader);
+        if (results != null) {
+            workItem.setResults(results);
+        }
+        return workItem;
+    }
+
+    protected void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    protected String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), UTF8);
+    }
+
+    protected byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
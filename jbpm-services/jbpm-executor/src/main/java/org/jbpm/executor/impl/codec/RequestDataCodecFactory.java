@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl.codec;
+
+import java.io.IOException;
+
+import org.jbpm.executor.RequestDataCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides <code>RequestDataCodec</code> to be used by executor. Returned codec encodes data with
+ * the codec configured via system property org.kie.executor.codec and decodes data regardless of the codec
+ * it was encoded with - based on the format header.
+ * <br/>
+ * Encoding defaults to java serialization so that data can be read by any executor sharing the same data base,
+ * including these that do not know the compact format (e.g. during rolling upgrade). Compact format
+ * (<code>CompactRequestDataCodec</code>) is opt in with org.kie.executor.codec=compact and should only be
+ * enabled once all executors are able to read it.
+ */
+public class RequestDataCodecFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestDataCodecFactory.class);
+
+    private static final byte[] JAVA_SERIALIZATION_MAGIC = new byte[]{(byte) 0xAC, (byte) 0xED};
+
+    private static RequestDataCodec instance = new VersionAwareRequestDataCodec(
+            createCodec(System.getProperty("org.kie.executor.codec", "java")));
+
+    public static RequestDataCodec get() {
+        return instance;
+    }
+
+    protected static RequestDataCodec createCodec(String codecClass) {
+        if ("java".equalsIgnoreCase(codecClass)) {
+            return new JavaSerializationRequestDataCodec();
+        }
+        if ("compact".equalsIgnoreCase(codecClass)) {
+            return new CompactRequestDataCodec();
+        }
+        try {
+            return (RequestDataCodec) Class.forName(codecClass).newInstance();
+        } catch (Exception e) {
+            logger.warn("Unable to create request data codec {} due to {}, using default", codecClass, e.getMessage());
+            return new JavaSerializationRequestDataCodec();
+        }
+    }
+
+    private static class VersionAwareRequestDataCodec implements RequestDataCodec {
+
+        private RequestDataCodec delegate;
+        private CompactRequestDataCodec compact = new CompactRequestDataCodec();
+        private JavaSerializationRequestDataCodec java = new JavaSerializationRequestDataCodec();
+
+        VersionAwareRequestDataCodec(RequestDataCodec delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public byte[] encode(Object data) throws IOException {
+            return delegate.encode(data);
+        }
+
+        @Override
+        public Object decode(byte[] data, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+            if (CompactRequestDataCodec.isCompact(data)) {
+                return compact.decode(data, classLoader);
+            }
+            if (data.length > 1 && data[0] == JAVA_SERIALIZATION_MAGIC[0] && data[1] == JAVA_SERIALIZATION_MAGIC[1]) {
+                return java.decode(data, classLoader);
+            }
+            return delegate.decode(data, classLoader);
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.jbpm.executor.impl.jpa;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -25,6 +27,12 @@ import javax.persistence.NoResultException;
 
 import org.drools.core.command.CommandService;
 import org.drools.core.command.impl.GenericCommand;
+import org.drools.persistence.TransactionManager;
+import org.drools.persistence.TransactionManagerFactory;
+import org.drools.persistence.TransactionSynchronization;
+import org.jbpm.executor.BatchRequestAware;
+import org.jbpm.executor.SchedulingPolicy;
+import org.jbpm.executor.impl.policy.SchedulingPolicyFactory;
 import org.jbpm.shared.services.impl.JpaPersistenceContext;
 import org.jbpm.shared.services.impl.QueryManager;
 import org.kie.api.executor.ErrorInfo;
@@ -34,6 +42,8 @@ import org.kie.api.executor.STATUS;
 import org.kie.api.runtime.query.QueryContext;
 import org.kie.internal.command.Context;
 import org.kie.internal.executor.api.ExecutorQueryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 
@@ -42,9 +52,16 @@ import org.kie.internal.executor.api.ExecutorQueryService;
  * IMPORTANT: please keep all classes from package org.jbpm.shared.services.impl as FQCN
  * inside method body to avoid exception logged by CDI when used with in memory mode
  */
-public class ExecutorQueryServiceImpl implements ExecutorQueryService {
+public class ExecutorQueryServiceImpl implements ExecutorQueryService, BatchRequestAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorQueryServiceImpl.class);
+
+    // -2 stands for skip locked rows in JPA providers that support it (e.g. Hibernate), others fall back to regular lock
+    private static final Integer LOCK_TIMEOUT = Integer.parseInt(System.getProperty("org.kie.executor.batch.lock.timeout", "-2"));
 
     private CommandService commandService;
+    
+    private SchedulingPolicy schedulingPolicy = SchedulingPolicyFactory.get();
    
     public ExecutorQueryServiceImpl(boolean active) {
         QueryManager.get().addNamedQueries("META-INF/Executor-orm.xml");
@@ -53,6 +70,10 @@ public class ExecutorQueryServiceImpl implements ExecutorQueryService {
     public void setCommandService(CommandService commandService) {
         this.commandService = commandService;
     }
+    
+    public void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+    }
 
     /**
      * {@inheritDoc}
@@ -251,6 +272,168 @@ public class ExecutorQueryServiceImpl implements ExecutorQueryService {
     	
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<RequestInfo> getRequestsForProcessing(int batchSize) {
+        
+        // lock all rows of the batch at once to avoid many executor services fetch the same elements
+        List<RequestInfo> requests = commandService.execute(new LockAndUpdateRequestInfoBatchCommand(batchSize));
+        if (requests == null) {
+            return Collections.emptyList();
+        }
+        return requests;
+    }
+    
+    @Override
+    public void releaseRequests(List<RequestInfo> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return;
+        }
+        commandService.execute(new ReleaseRequestInfoBatchCommand(requests));
+    }
+    
+    private class ReleaseRequestInfoBatchCommand implements GenericCommand<Void> {
+
+        private static final long serialVersionUID = 4719251736542207383L;
+        
+        private List<RequestInfo> requests;
+        
+        ReleaseRequestInfoBatchCommand(List<RequestInfo> requests) {
+            this.requests = requests;
+        }
+
+        @Override
+        public Void execute(Context context) {
+            org.jbpm.shared.services.impl.JpaPersistenceContext ctx = (org.jbpm.shared.services.impl.JpaPersistenceContext) context;
+            for (RequestInfo released : requests) {
+                org.jbpm.executor.entities.RequestInfo request = ctx.find(org.jbpm.executor.entities.RequestInfo.class, released.getId());
+                // only requests still claimed are released, others were already handled (e.g. cancelled or requeued)
+                if (request != null && request.getStatus() == STATUS.RUNNING) {
+                    request.setStatus(STATUS.QUEUED);
+                    ctx.merge(request);
+                }
+            }
+            return null;
+        }
+    }
+    
+    private class LockAndUpdateRequestInfoBatchCommand implements GenericCommand<List<RequestInfo>> {
+
+        private static final long serialVersionUID = -1540163786342637542L;
+        
+        private int batchSize;
+        
+        LockAndUpdateRequestInfoBatchCommand(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public List<RequestInfo> execute(Context context) {
+            Date now = new Date();
+            Map<String, Object> hints = new HashMap<String, Object>();
+            hints.put(org.jbpm.shared.services.impl.JpaPersistenceContext.LOCK_TIMEOUT_HINT, LOCK_TIMEOUT);
+            
+            org.jbpm.shared.services.impl.JpaPersistenceContext ctx = (org.jbpm.shared.services.impl.JpaPersistenceContext) context;
+            List<RequestInfo> found;
+            if (schedulingPolicy == null) {
+                found = ctx.queryAndLockWithParametersInTransaction("PendingRequestsForProcessing", createParams(now, batchSize), hints, false, List.class);
+            } else {
+                // policy decides how many requests of every deployment are claimed, only these are locked
+                // so deployments with many pending requests do not hide requests of the other deployments
+                List<Object[]> counts = ctx.queryWithParametersInTransaction("PendingRequestsForProcessingCountByDeploymentAndPriority", createParams(now, null), List.class);
+                List<SchedulingPolicy.PendingRequests> pending = new ArrayList<SchedulingPolicy.PendingRequests>();
+                for (Object[] count : counts) {
+                    pending.add(new SchedulingPolicy.PendingRequests((String) count[0], ((Number) count[1]).intValue(), ((Number) count[2]).longValue()));
+                }
+                found = new ArrayList<RequestInfo>();
+                for (Map.Entry<String, Integer> allocation : schedulingPolicy.allocate(pending, batchSize).entrySet()) {
+                    Map<String, Object> params = createParams(now, allocation.getValue());
+                    String queryName = "PendingRequestsForProcessingWithoutDeployment";
+                    if (allocation.getKey() != null) {
+                        params.put("deploymentId", allocation.getKey());
+                        queryName = "PendingRequestsForProcessingByDeployment";
+                    }
+                    List<RequestInfo> deploymentRequests = ctx.queryAndLockWithParametersInTransaction(queryName, params, hints, false, List.class);
+                    if (deploymentRequests != null) {
+                        found.addAll(deploymentRequests);
+                    }
+                }
+                // orders selected requests, nothing is left out as allocation already respected the policy
+                found = schedulingPolicy.select(found, batchSize);
+            }
+            
+            List<RequestInfo> requests = new ArrayList<RequestInfo>();
+            List<Long> waitTimes = new ArrayList<Long>();
+            if (found != null) {
+                Date startedAt = new Date();
+                for (RequestInfo request : found) {
+                    waitTimes.add(request.getTime() == null ? 0 : Math.max(0, startedAt.getTime() - request.getTime().getTime()));
+                    request.setStatus(STATUS.RUNNING);
+                    // update date on when it was started to be executed
+                    ((org.jbpm.executor.entities.RequestInfo)request).setTime(startedAt);
+                    requests.add(ctx.merge(request));
+                }
+            }
+            if (schedulingPolicy != null && !requests.isEmpty()) {
+                jobsStartedOnCommit(requests, waitTimes);
+            }
+            return requests;
+        }
+        
+        /*
+         * claimed requests are reported to the policy as in flight only when the claim is committed
+         * so rolled back claims do not leave in flight counters behind
+         */
+        private void jobsStartedOnCommit(final List<RequestInfo> requests, final List<Long> waitTimes) {
+            try {
+                TransactionManager transactionManager = TransactionManagerFactory.get().newTransactionManager();
+                int status = transactionManager.getStatus();
+                if (status != TransactionManager.STATUS_NO_TRANSACTION
+                        && status != TransactionManager.STATUS_ROLLEDBACK
+                        && status != TransactionManager.STATUS_COMMITTED) {
+                    transactionManager.registerTransactionSynchronization(new TransactionSynchronization() {
+                        
+                        @Override
+                        public void beforeCompletion() {
+                        }
+                        
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status == TransactionManager.STATUS_COMMITTED) {
+                                jobsStarted(requests, waitTimes);
+                            }
+                        }
+                    });
+                    return;
+                }
+            } catch (Throwable e) {
+                logger.debug("Unable to register transaction synchronization for scheduling policy due to {}", e.getMessage());
+            }
+            jobsStarted(requests, waitTimes);
+        }
+        
+        private void jobsStarted(List<RequestInfo> requests, List<Long> waitTimes) {
+            for (int i = 0; i < requests.size(); i++) {
+                schedulingPolicy.jobStarted(requests.get(i), waitTimes.get(i));
+            }
+        }
+        
+        private Map<String, Object> createParams(Date now, Integer maxResults) {
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("now", now);
+            params.put("owner", ExecutorService.EXECUTOR_ID);
+            if (maxResults != null) {
+                params.put("firstResult", 0);
+                params.put("maxResults", maxResults);
+            }
+            return params;
+        }
+        
+    }
+    
     private class LockAndUpdateRequestInfoByIdCommand implements GenericCommand<RequestInfo> {
 
         private static final long serialVersionUID = 8670412133363766161L;
@@ -17,7 +17,9 @@
 package org.jbpm.executor.impl.jpa;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.drools.core.command.CommandService;
 import org.drools.core.command.impl.GenericCommand;
@@ -82,6 +84,11 @@ public class ExecutorRequestAdminServiceImpl implements ExecutorAdminService, Re
 		commandService.execute(new RequeueRunningJobCommand(requestId));
 	}
 	
+	@Override
+	public void requeueByOwner(String owner) {
+		commandService.execute(new RequeueOwnedRunningJobsCommand(owner));
+	}
+	
 	private class RequeueRunningJobsCommand implements GenericCommand<Void> {
 
 		private Logger logger = LoggerFactory.getLogger(RequeueRunningJobsCommand.class);
@@ -160,4 +167,38 @@ public class ExecutorRequestAdminServiceImpl implements ExecutorAdminService, Re
 			return null;
 		}
 	}
+	
+	private class RequeueOwnedRunningJobsCommand implements GenericCommand<Void> {
+
+		private Logger logger = LoggerFactory.getLogger(RequeueOwnedRunningJobsCommand.class);
+		private static final long serialVersionUID = -2957246870370911651L;
+
+		private String owner;
+		
+		public RequeueOwnedRunningJobsCommand(String owner) {
+			this.owner = owner;
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public Void execute(Context context) {
+			
+	    	try {
+	    		org.jbpm.shared.services.impl.JpaPersistenceContext ctx = (org.jbpm.shared.services.impl.JpaPersistenceContext) context;
+	    		Map<String, Object> params = new HashMap<String, Object>();
+	    		params.put("owner", owner);
+				List<RequestInfo> requests = ctx.queryWithParametersInTransaction("RunningRequestsByOwner", params, List.class);
+				
+				for (RequestInfo request : requests) {
+					logger.info("Requeing request left in running state by executor {} id : {}, key : {}, start time : {}",
+							owner, request.getId(), request.getKey(), request.getTime());
+	                request.setStatus(STATUS.QUEUED);
+	                ctx.merge(request);
+				}
+	    	} catch (Exception e) {
+	    		logger.warn("Error while trying to requeue jobs left in running state {}", e.getMessage());
+	    	}
+			return null;
+		}
+	}
 }
@@ -25,6 +25,7 @@ import java.util.Map;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
+import org.jbpm.executor.BatchRequestAware;
 import org.kie.api.executor.ErrorInfo;
 import org.kie.api.executor.RequestInfo;
 import org.kie.api.executor.STATUS;
@@ -33,7 +34,7 @@ import org.kie.internal.executor.api.ExecutorQueryService;
 
 
 @SuppressWarnings("unchecked")
-public class InMemoryExecutorQueryServiceImpl implements ExecutorQueryService {
+public class InMemoryExecutorQueryServiceImpl implements ExecutorQueryService, BatchRequestAware {
 
 	private InMemoryExecutorStoreService storeService;
 	
@@ -153,6 +154,27 @@ public class InMemoryExecutorQueryServiceImpl implements ExecutorQueryService {
 		return storeService.getAndLockFirst();
 	}
 	
+	@Override
+	public List<RequestInfo> getRequestsForProcessing(int batchSize) {
+		List<RequestInfo> requests = new ArrayList<RequestInfo>();
+		while (requests.size() < batchSize) {
+			RequestInfo request = storeService.getAndLockFirst();
+			if (request == null) {
+				break;
+			}
+			requests.add(request);
+		}
+		return requests;
+	}
+	
+	@Override
+	public void releaseRequests(List<RequestInfo> requests) {
+		for (RequestInfo request : requests) {
+			request.setStatus(STATUS.QUEUED);
+			storeService.updateRequest(request);
+		}
+	}
+	
 	private class GetRequestsByStatus implements Predicate {
 		
 		private List<STATUS> statuses;
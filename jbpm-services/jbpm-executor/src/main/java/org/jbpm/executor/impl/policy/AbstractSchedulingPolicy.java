@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl.policy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpm.executor.SchedulingPolicy;
+import org.kie.api.executor.RequestInfo;
+
+/**
+ * Base scheduling policy that takes care of in flight tracking, optional per deployment limit
+ * of jobs in flight and metrics. Subclasses only define the order in which candidates should be executed
+ * and which deployment gets the next request when allocating requests to be claimed.
+ */
+public abstract class AbstractSchedulingPolicy implements SchedulingPolicy {
+
+    protected static final String DEFAULT_DEPLOYMENT = "";
+
+    private int maxInFlight = -1;
+
+    protected SchedulingMetrics metrics = new SchedulingMetrics();
+
+    // ids of requests that were started and are not yet completed
+    private Set<Long> inFlight = new HashSet<Long>();
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public SchedulingMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public synchronized List<RequestInfo> select(List<RequestInfo> candidates, int maxJobs) {
+        List<RequestInfo> selected = new ArrayList<RequestInfo>();
+        if (candidates == null || candidates.isEmpty()) {
+            return selected;
+        }
+        Map<String, Integer> selectedPerDeployment = new HashMap<String, Integer>();
+
+        for (RequestInfo request : order(candidates)) {
+            if (selected.size() >= maxJobs) {
+                break;
+            }
+            String deploymentId = getDeploymentId(request);
+            int alreadySelected = selectedPerDeployment.getOrDefault(deploymentId, 0);
+            if (maxInFlight > 0 && metrics.getMetrics(deploymentId).getInFlight() + alreadySelected >= maxInFlight) {
+                continue;
+            }
+            selectedPerDeployment.put(deploymentId, alreadySelected + 1);
+            selected.add(request);
+        }
+        return selected;
+    }
+
+    @Override
+    public synchronized void jobStarted(RequestInfo request, long waitTime) {
+        if (inFlight.add(request.getId())) {
+            metrics.getMetrics(getDeploymentId(request)).jobSelected(waitTime);
+            onSelected(request);
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Integer> allocate(List<PendingRequests> pending, int maxJobs) {
+        // requests that can be claimed per deployment, limited by jobs in flight when max in flight is set
+        Map<String, Long> available = new LinkedHashMap<String, Long>();
+        Map<String, String> deploymentIds = new HashMap<String, String>();
+        for (PendingRequests group : pending) {
+            String deploymentId = getDeploymentId(group.getDeploymentId());
+            available.merge(deploymentId, group.getCount(), Long::sum);
+            deploymentIds.put(deploymentId, group.getDeploymentId());
+        }
+        if (maxInFlight > 0) {
+            for (Map.Entry<String, Long> entry : available.entrySet()) {
+                entry.setValue(Math.min(entry.getValue(), Math.max(0, maxInFlight - metrics.getMetrics(entry.getKey()).getInFlight())));
+            }
+        }
+        available.values().removeIf(count -> count <= 0);
+
+        Map<String, Integer> allocated = new LinkedHashMap<String, Integer>();
+        int total = 0;
+        while (total < maxJobs && !available.isEmpty()) {
+            String next = nextDeployment(pending, available.keySet(), allocated);
+            allocated.merge(next, 1, Integer::sum);
+            total++;
+            if (available.merge(next, -1L, Long::sum) <= 0) {
+                available.remove(next);
+            }
+        }
+
+        Map<String, Integer> allocation = new LinkedHashMap<String, Integer>();
+        for (Map.Entry<String, Integer> entry : allocated.entrySet()) {
+            allocation.put(deploymentIds.get(entry.getKey()), entry.getValue());
+        }
+        return allocation;
+    }
+
+    @Override
+    public synchronized void jobCompleted(RequestInfo request) {
+        // requests that were never started (e.g. executed directly) are not tracked
+        if (inFlight.remove(request.getId())) {
+            metrics.getMetrics(getDeploymentId(request)).jobCompleted();
+        }
+    }
+
+    /**
+     * Orders given candidates in the way they should be executed
+     * @param candidates pending requests
+     * @return ordered requests
+     */
+    protected abstract List<RequestInfo> order(List<RequestInfo> candidates);
+
+    /**
+     * Picks deployment that should get the next request when allocating requests to be claimed
+     * @param pending pending requests grouped by deployment and priority, ordered by priority (highest first)
+     * @param available deployments (see {@link #getDeploymentId(String)}) that still have requests that can be claimed
+     * @param allocated number of requests already allocated by deployment
+     * @return one of the available deployments
+     */
+    protected abstract String nextDeployment(List<PendingRequests> pending, Collection<String> available, Map<String, Integer> allocated);
+
+    /**
+     * Invoked for every request that was claimed for execution
+     * @param request selected request
+     */
+    protected void onSelected(RequestInfo request) {
+    }
+
+    protected String getDeploymentId(RequestInfo request) {
+        return getDeploymentId(request.getDeploymentId());
+    }
+
+    protected String getDeploymentId(String deploymentId) {
+        if (deploymentId == null) {
+            return DEFAULT_DEPLOYMENT;
+        }
+        return deploymentId;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl.policy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per deployment statistics collected by scheduling policies - number of jobs in flight 
+ * and time jobs waited (from their scheduled time) before being selected for execution.
+ */
+public class SchedulingMetrics {
+
+    private final ConcurrentMap<String, DeploymentMetrics> metrics = new ConcurrentHashMap<String, DeploymentMetrics>();
+
+    public DeploymentMetrics getMetrics(String deploymentId) {
+        return metrics.computeIfAbsent(deploymentId, d -> new DeploymentMetrics());
+    }
+
+    public Map<String, DeploymentMetrics> getAllMetrics() {
+        return Collections.unmodifiableMap(new HashMap<String, DeploymentMetrics>(metrics));
+    }
+
+    public static class DeploymentMetrics {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong selected = new AtomicLong();
+        private final AtomicLong totalWaitTime = new AtomicLong();
+        private final AtomicLong maxWaitTime = new AtomicLong();
+
+        void jobSelected(long waitTime) {
+            inFlight.incrementAndGet();
+            selected.incrementAndGet();
+            totalWaitTime.addAndGet(waitTime);
+            maxWaitTime.accumulateAndGet(waitTime, Math::max);
+        }
+
+        void jobCompleted() {
+            inFlight.updateAndGet(current -> current > 0 ? current - 1 : 0);
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        public long getSelected() {
+            return selected.get();
+        }
+
+        public long getAverageWaitTime() {
+            long count = selected.get();
+            if (count == 0) {
+                return 0;
+            }
+            return totalWaitTime.get() / count;
+        }
+
+        public long getMaxWaitTime() {
+            return maxWaitTime.get();
+        }
+
+        @Override
+        public String toString() {
+            return "DeploymentMetrics [inFlight=" + getInFlight() + ", selected=" + getSelected() 
+                    + ", averageWaitTime=" + getAverageWaitTime() + ", maxWaitTime=" + getMaxWaitTime() + "]";
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl.policy;
+
+import org.jbpm.executor.SchedulingPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides <code>SchedulingPolicy</code> shared by executor components. Policy is configured with 
+ * following system properties:
+ * <ul>
+ *  <li>org.kie.executor.policy - priority (strict priority), fair (weighted fair queuing per deployment) or 
+ *  fully qualified class name of <code>SchedulingPolicy</code> implementation - by default no policy is used and
+ *  jobs are taken directly in order given by the data base</li>
+ *  <li>org.kie.executor.policy.weights - weights of deployments for fair policy e.g. deploymentA=3,deploymentB=1</li>
+ *  <li>org.kie.executor.policy.max.inflight - max number of jobs of single deployment being executed at the same time, 
+ *  when set without policy strict priority is used</li>
+ * </ul>
+ */
+public class SchedulingPolicyFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulingPolicyFactory.class);
+
+    private static SchedulingPolicy instance = createPolicy(System.getProperty("org.kie.executor.policy"),
+            System.getProperty("org.kie.executor.policy.weights"),
+            Integer.parseInt(System.getProperty("org.kie.executor.policy.max.inflight", "-1")));
+
+    public static SchedulingPolicy get() {
+        return instance;
+    }
+
+    protected static SchedulingPolicy createPolicy(String policy, String weights, int maxInFlight) {
+        if (policy == null && maxInFlight < 1) {
+            return null;
+        }
+        SchedulingPolicy schedulingPolicy = null;
+        if (policy == null || "priority".equalsIgnoreCase(policy)) {
+            schedulingPolicy = new StrictPrioritySchedulingPolicy();
+        } else if ("fair".equalsIgnoreCase(policy)) {
+            WeightedFairSchedulingPolicy fairPolicy = new WeightedFairSchedulingPolicy();
+            if (weights != null) {
+                for (String weight : weights.split(",")) {
+                    String[] deploymentWeight = weight.split("=");
+                    if (deploymentWeight.length == 2) {
+                        fairPolicy.setWeight(deploymentWeight[0].trim(), Integer.parseInt(deploymentWeight[1].trim()));
+                    } else {
+                        logger.warn("Invalid deployment weight definition '{}', expected deploymentId=weight", weight);
+                    }
+                }
+            }
+            schedulingPolicy = fairPolicy;
+        } else {
+            try {
+                schedulingPolicy = (SchedulingPolicy) Class.forName(policy).newInstance();
+            } catch (Exception e) {
+                logger.warn("Unable to create scheduling policy {} due to {}, using strict priority", policy, e.getMessage());
+                schedulingPolicy = new StrictPrioritySchedulingPolicy();
+            }
+        }
+        if (schedulingPolicy instanceof AbstractSchedulingPolicy) {
+            ((AbstractSchedulingPolicy) schedulingPolicy).setMaxInFlight(maxInFlight);
+        }
+        logger.info("Executor scheduling policy {} (max in flight per deployment {})", schedulingPolicy.getClass().getSimpleName(), maxInFlight);
+        return schedulingPolicy;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl.policy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.kie.api.executor.RequestInfo;
+
+/**
+ * Executes requests strictly by their priority (highest first), requests with the same priority
+ * are executed in order they were scheduled for.
+ */
+public class StrictPrioritySchedulingPolicy extends AbstractSchedulingPolicy {
+
+    protected static final Comparator<RequestInfo> PRIORITY_COMPARATOR = new Comparator<RequestInfo>() {
+
+        @Override
+        public int compare(RequestInfo o1, RequestInfo o2) {
+            int result = Integer.compare(o2.getPriority(), o1.getPriority());
+            if (result == 0 && o1.getTime() != null && o2.getTime() != null) {
+                result = o1.getTime().compareTo(o2.getTime());
+            }
+            if (result == 0 && o1.getId() != null && o2.getId() != null) {
+                result = o1.getId().compareTo(o2.getId());
+            }
+            return result;
+        }
+    };
+
+    @Override
+    protected List<RequestInfo> order(List<RequestInfo> candidates) {
+        List<RequestInfo> ordered = new ArrayList<RequestInfo>(candidates);
+        Collections.sort(ordered, PRIORITY_COMPARATOR);
+        return ordered;
+    }
+
+    @Override
+    protected String nextDeployment(List<PendingRequests> pending, Collection<String> available, Map<String, Integer> allocated) {
+        // deployment whose next not yet allocated request has the highest priority
+        String next = null;
+        int nextPriority = Integer.MIN_VALUE;
+        for (String deploymentId : available) {
+            int priority = getNextPriority(pending, deploymentId, allocated.getOrDefault(deploymentId, 0));
+            if (next == null || priority > nextPriority) {
+                next = deploymentId;
+                nextPriority = priority;
+            }
+        }
+        return next;
+    }
+
+    protected int getNextPriority(List<PendingRequests> pending, String deploymentId, int allocated) {
+        long skip = allocated;
+        for (PendingRequests group : pending) {
+            if (!deploymentId.equals(getDeploymentId(group.getDeploymentId()))) {
+                continue;
+            }
+            if (skip < group.getCount()) {
+                return group.getPriority();
+            }
+            skip -= group.getCount();
+        }
+        return Integer.MIN_VALUE;
+    }
+
+}
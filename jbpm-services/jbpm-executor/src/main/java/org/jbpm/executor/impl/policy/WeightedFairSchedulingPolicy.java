@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl.policy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.kie.api.executor.RequestInfo;
+
+/**
+ * Shares executor between deployments according to their weights (weighted fair queuing) - 
+ * deployment with weight 2 gets twice as many jobs executed as deployment with weight 1 when
+ * both have jobs waiting. Within single deployment requests are executed by priority.
+ * Deployments without explicitly given weight use the default weight (1).
+ */
+public class WeightedFairSchedulingPolicy extends AbstractSchedulingPolicy {
+
+    private Map<String, Integer> weights = new HashMap<String, Integer>();
+    private int defaultWeight = 1;
+
+    // virtual time of each deployment - grows by 1/weight with every selected job
+    private Map<String, Double> virtualTimes = new HashMap<String, Double>();
+    // minimum virtual time of deployments that have jobs waiting
+    private double activeMinTime = 0;
+
+    public WeightedFairSchedulingPolicy() {
+    }
+
+    public WeightedFairSchedulingPolicy(Map<String, Integer> weights) {
+        this.weights.putAll(weights);
+    }
+
+    public void setWeight(String deploymentId, int weight) {
+        this.weights.put(deploymentId, weight);
+    }
+
+    public void setDefaultWeight(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    @Override
+    protected List<RequestInfo> order(List<RequestInfo> candidates) {
+        Map<String, LinkedList<RequestInfo>> perDeployment = new LinkedHashMap<String, LinkedList<RequestInfo>>();
+        for (RequestInfo request : candidates) {
+            String deploymentId = getDeploymentId(request);
+            LinkedList<RequestInfo> requests = perDeployment.get(deploymentId);
+            if (requests == null) {
+                requests = new LinkedList<RequestInfo>();
+                perDeployment.put(deploymentId, requests);
+            }
+            requests.add(request);
+        }
+        for (LinkedList<RequestInfo> requests : perDeployment.values()) {
+            Collections.sort(requests, StrictPrioritySchedulingPolicy.PRIORITY_COMPARATOR);
+        }
+
+        // work on a copy of virtual times as not all ordered requests will be selected
+        Map<String, Double> times = new HashMap<String, Double>();
+        activeMinTime = getMinVirtualTime(perDeployment.keySet());
+        double minTime = activeMinTime;
+        for (String deploymentId : perDeployment.keySet()) {
+            // deployments that were idle start at current minimum so they cannot claim their missed share at once
+            times.put(deploymentId, Math.max(minTime, virtualTimes.getOrDefault(deploymentId, minTime)));
+        }
+
+        List<RequestInfo> ordered = new ArrayList<RequestInfo>(candidates.size());
+        while (!perDeployment.isEmpty()) {
+            String next = null;
+            for (String deploymentId : perDeployment.keySet()) {
+                if (next == null || times.get(deploymentId) < times.get(next)) {
+                    next = deploymentId;
+                }
+            }
+            LinkedList<RequestInfo> requests = perDeployment.get(next);
+            ordered.add(requests.removeFirst());
+            times.put(next, times.get(next) + 1.0 / getWeight(next));
+            if (requests.isEmpty()) {
+                perDeployment.remove(next);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    protected String nextDeployment(List<PendingRequests> pending, Collection<String> available, Map<String, Integer> allocated) {
+        double minTime = getMinVirtualTime(available);
+        String next = null;
+        double nextTime = 0;
+        for (String deploymentId : available) {
+            double time = Math.max(minTime, virtualTimes.getOrDefault(deploymentId, minTime))
+                    + allocated.getOrDefault(deploymentId, 0) / (double) getWeight(deploymentId);
+            if (next == null || time < nextTime) {
+                next = deploymentId;
+                nextTime = time;
+            }
+        }
+        return next;
+    }
+
+    @Override
+    protected void onSelected(RequestInfo request) {
+        String deploymentId = getDeploymentId(request);
+        double current = Math.max(activeMinTime, virtualTimes.getOrDefault(deploymentId, activeMinTime));
+        virtualTimes.put(deploymentId, current + 1.0 / getWeight(deploymentId));
+    }
+
+    protected int getWeight(String deploymentId) {
+        Integer weight = weights.get(deploymentId);
+        if (weight == null || weight < 1) {
+            return defaultWeight;
+        }
+        return weight;
+    }
+
+    protected double getMinVirtualTime(Collection<String> deploymentIds) {
+        double min = 0;
+        boolean first = true;
+        for (String deploymentId : deploymentIds) {
+            Double time = virtualTimes.get(deploymentId);
+            if (time == null) {
+                continue;
+            }
+            if (first || time < min) {
+                min = time;
+                first = false;
+            }
+        }
+        return min;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.Persistence;
+
+import org.jbpm.executor.impl.ExecutorServiceImpl;
+import org.jbpm.executor.test.CountDownAsyncJobListener;
+import org.jbpm.test.util.ExecutorTestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.executor.CommandContext;
+import org.kie.api.executor.ExecutorService;
+import org.kie.api.executor.RequestInfo;
+import org.kie.api.runtime.query.QueryContext;
+
+import bitronix.tm.resource.jdbc.PoolingDataSource;
+
+
+public class BatchExecutorTest extends BasicExecutorBaseTest {
+    
+	private PoolingDataSource pds;
+    
+    @Before
+    public void setUp() {
+        System.setProperty("org.kie.executor.batch.size", "5");
+        pds = ExecutorTestUtil.setupPoolingDataSource();
+        emf = Persistence.createEntityManagerFactory("org.jbpm.executor");
+
+        executorService = ExecutorServiceFactory.newExecutorService(emf);
+        
+        executorService.init();
+        super.setUp();
+    }
+    
+    @After
+    public void tearDown() {
+        super.tearDown();
+        System.clearProperty("org.kie.executor.batch.size");
+        executorService.destroy();
+        if (emf != null) {
+        	emf.close();
+        }
+        pds.close();
+    }
+   
+    @Test
+    public void batchExecutionDrainsQueueTest() throws InterruptedException {
+        CountDownAsyncJobListener countDownListener = configureListener(12);
+        for (int i = 0; i < 12; i++) {
+            CommandContext ctxCMD = new CommandContext();
+            ctxCMD.setData("businessKey", UUID.randomUUID().toString());
+    
+            executorService.scheduleRequest("org.jbpm.executor.commands.PrintOutCommand", ctxCMD);
+        }
+
+        // single poll claims all of them in batches, polling alone would need three runs (3 seconds apart)
+        countDownListener.waitTillCompleted(6000);
+
+        List<RequestInfo> inErrorRequests = executorService.getInErrorRequests(new QueryContext());
+        assertEquals(0, inErrorRequests.size());
+        List<RequestInfo> queuedRequests = executorService.getQueuedRequests(new QueryContext());
+        assertEquals(0, queuedRequests.size());
+        List<RequestInfo> runningRequests = executorService.getRunningRequests(new QueryContext());
+        assertEquals(0, runningRequests.size());
+        List<RequestInfo> executedRequests = executorService.getCompletedRequests(new QueryContext());
+        assertEquals(12, executedRequests.size());
+    }   
+    
+    @Test
+    public void releaseClaimedJobsTest() {
+        // stop executor threads so they do not pick up the jobs
+        executorService.destroy();
+        for (int i = 0; i < 3; i++) {
+            CommandContext ctxCMD = new CommandContext();
+            ctxCMD.setData("businessKey", UUID.randomUUID().toString());
+    
+            executorService.scheduleRequest("org.jbpm.executor.commands.PrintOutCommand", ctxCMD);
+        }
+        
+        BatchRequestAware queryService = (BatchRequestAware) ((ExecutorServiceImpl) executorService).getQueryService();
+        List<RequestInfo> claimed = queryService.getRequestsForProcessing(5);
+        assertEquals(3, claimed.size());
+        assertEquals(3, executorService.getRunningRequests(new QueryContext()).size());
+        
+        queryService.releaseRequests(claimed);
+        assertEquals(0, executorService.getRunningRequests(new QueryContext()).size());
+        assertEquals(3, executorService.getQueuedRequests(new QueryContext()).size());
+    }
+    
+    @Test
+    public void requeueOwnedRunningJobsTest() {
+        executorService.destroy();
+        for (int i = 0; i < 2; i++) {
+            CommandContext ctxCMD = new CommandContext();
+            ctxCMD.setData("businessKey", UUID.randomUUID().toString());
+            ctxCMD.setData("owner", ExecutorService.EXECUTOR_ID);
+    
+            executorService.scheduleRequest("org.jbpm.executor.commands.PrintOutCommand", ctxCMD);
+        }
+        
+        BatchRequestAware queryService = (BatchRequestAware) ((ExecutorServiceImpl) executorService).getQueryService();
+        assertEquals(2, queryService.getRequestsForProcessing(5).size());
+        assertEquals(2, executorService.getRunningRequests(new QueryContext()).size());
+        
+        // as if executor was restarted after crash while running the jobs
+        ((RequeueAware) executorService).requeueByOwner(ExecutorService.EXECUTOR_ID);
+        assertEquals(0, executorService.getRunningRequests(new QueryContext()).size());
+        assertEquals(2, executorService.getQueuedRequests(new QueryContext()).size());
+    }
+}
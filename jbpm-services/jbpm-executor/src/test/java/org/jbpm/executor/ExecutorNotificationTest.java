@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.Persistence;
+
+import org.jbpm.executor.test.CountDownAsyncJobListener;
+import org.jbpm.test.util.ExecutorTestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.executor.CommandContext;
+import org.kie.api.executor.RequestInfo;
+import org.kie.api.runtime.query.QueryContext;
+
+import bitronix.tm.resource.jdbc.PoolingDataSource;
+
+
+public class ExecutorNotificationTest extends BasicExecutorBaseTest {
+    
+	private PoolingDataSource pds;
+    
+    @Before
+    public void setUp() {
+        pds = ExecutorTestUtil.setupPoolingDataSource();
+        emf = Persistence.createEntityManagerFactory("org.jbpm.executor");
+
+        executorService = ExecutorServiceFactory.newExecutorService(emf);
+        
+        executorService.init();
+        super.setUp();
+    }
+    
+    @After
+    public void tearDown() {
+        super.tearDown();
+        executorService.destroy();
+        if (emf != null) {
+        	emf.close();
+        }
+        pds.close();
+    }
+   
+    @Test
+    public void notifiedExecutionTest() throws InterruptedException {
+        // replace executor of the fixture with one that is notified and polls rarely
+        executorService.destroy();
+        String notify = System.getProperty("org.kie.executor.notify");
+        System.setProperty("org.kie.executor.notify", "true");
+        try {
+            executorService = ExecutorServiceFactory.newExecutorService(emf);
+        } finally {
+            if (notify == null) {
+                System.clearProperty("org.kie.executor.notify");
+            } else {
+                System.setProperty("org.kie.executor.notify", notify);
+            }
+        }
+        executorService.setThreadPoolSize(1);
+        // long interval to make sure job is not picked up by polling
+        executorService.setInterval(30000);
+        executorService.setTimeunit(TimeUnit.MILLISECONDS);
+        executorService.init();
+        
+        // let the executor thread do its first poll
+        Thread.sleep(3000);
+        
+        CountDownAsyncJobListener countDownListener = configureListener(1);
+        CommandContext ctxCMD = new CommandContext();
+        ctxCMD.setData("businessKey", UUID.randomUUID().toString());
+
+        executorService.scheduleRequest("org.jbpm.executor.commands.PrintOutCommand", ctxCMD);
+
+        countDownListener.waitTillCompleted(5000);
+
+        List<RequestInfo> inErrorRequests = executorService.getInErrorRequests(new QueryContext());
+        assertEquals(0, inErrorRequests.size());
+        List<RequestInfo> queuedRequests = executorService.getQueuedRequests(new QueryContext());
+        assertEquals(0, queuedRequests.size());
+        List<RequestInfo> executedRequests = executorService.getCompletedRequests(new QueryContext());
+        assertEquals(1, executedRequests.size());
+    }   
+}
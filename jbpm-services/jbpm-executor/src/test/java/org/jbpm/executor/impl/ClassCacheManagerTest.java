@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import org.jbpm.executor.SimpleIncrementCallback;
+import org.junit.Test;
+import org.kie.api.executor.Command;
+import org.kie.api.executor.CommandCallback;
+import org.kie.api.executor.CommandContext;
+import org.kie.api.executor.ExecutionResults;
+import org.kie.internal.runtime.Closeable;
+
+public class ClassCacheManagerTest {
+
+    private static final String COMMAND = "org.jbpm.executor.commands.PrintOutCommand";
+
+    @Test
+    public void testCommandIsCachedPerClassLoader() {
+        ClassCacheManager cacheManager = new ClassCacheManager();
+        ClassLoader cl = getClass().getClassLoader();
+        ClassLoader otherCl = new URLClassLoader(new URL[0], cl);
+
+        Command command = cacheManager.findCommand(COMMAND, cl);
+        assertSame(command, cacheManager.findCommand(COMMAND, cl));
+        assertEquals(1, cacheManager.getMisses());
+        assertEquals(1, cacheManager.getHits());
+
+        Command otherCommand = cacheManager.findCommand(COMMAND, otherCl);
+        assertNotSame(command, otherCommand);
+        assertEquals(2, cacheManager.getMisses());
+    }
+
+    @Test
+    public void testEvictClassLoader() {
+        ClassCacheManager cacheManager = new ClassCacheManager();
+        ClassLoader cl = new URLClassLoader(new URL[0], getClass().getClassLoader());
+
+        Command command = cacheManager.findCommand(COMMAND, cl);
+        cacheManager.evict(cl);
+
+        assertNotSame(command, cacheManager.findCommand(COMMAND, cl));
+        assertEquals(2, cacheManager.getMisses());
+    }
+
+    @Test
+    public void testEvictOnRedeploy() {
+        ClassCacheManager cacheManager = new ClassCacheManager();
+        ClassLoader cl = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        ClassLoader newCl = new URLClassLoader(new URL[0], getClass().getClassLoader());
+
+        cacheManager.trackDeployment("org.jbpm:test:1.0", cl);
+        Command command = cacheManager.findCommand(COMMAND, cl);
+
+        cacheManager.trackDeployment("org.jbpm:test:1.0", newCl);
+        assertNotSame(command, cacheManager.findCommand(COMMAND, cl));
+    }
+
+    @Test
+    public void testEvictOnUndeploy() {
+        ClassCacheManager cacheManager = new ClassCacheManager();
+        ClassLoader cl = new URLClassLoader(new URL[0], getClass().getClassLoader());
+
+        // no runtime manager is registered for the deployment so it is considered undeployed
+        cacheManager.trackDeployment("org.jbpm:undeployed:1.0", cl);
+        cacheManager.findCommand(COMMAND, cl);
+        cacheManager.findCommandCallback(SimpleIncrementCallback.class.getName(), cl);
+        assertEquals(1, cacheManager.getClassLoaderCount());
+
+        cacheManager.evictUndeployed();
+        assertEquals(0, cacheManager.getClassLoaderCount());
+    }
+
+    @Test
+    public void testEvictedCommandClosedWhenReleased() {
+        ClassCacheManager cacheManager = new ClassCacheManager();
+        ClassLoader cl = new URLClassLoader(new URL[0], getClass().getClassLoader());
+
+        ClassCacheManager.LoaderCache loaderCache = cacheManager.acquire(cl);
+        CloseableCommand command = (CloseableCommand) cacheManager.findCommand(CloseableCommand.class.getName(), cl, loaderCache);
+
+        cacheManager.evict(cl);
+        assertEquals(0, cacheManager.getClassLoaderCount());
+        assertFalse(command.closed);
+
+        cacheManager.release(loaderCache);
+        assertTrue(command.closed);
+    }
+
+    @Test
+    public void testCallbacksResolved() {
+        ClassCacheManager cacheManager = new ClassCacheManager();
+        ClassLoader cl = getClass().getClassLoader();
+
+        CommandContext ctx = new CommandContext();
+        ctx.setData("callbacks", SimpleIncrementCallback.class.getName() + ", " + SimpleIncrementCallback.class.getName());
+
+        List<CommandCallback> callbacks = cacheManager.buildCommandCallback(ctx, cl);
+        assertEquals(2, callbacks.size());
+        assertNotSame(callbacks.get(0), callbacks.get(1));
+        assertEquals(1, cacheManager.getMisses());
+        assertEquals(1, cacheManager.getHits());
+    }
+
+    public static class CloseableCommand implements Command, Closeable {
+
+        private volatile boolean closed = false;
+
+        @Override
+        public ExecutionResults execute(CommandContext ctx) throws Exception {
+            return new ExecutionResults();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.drools.core.process.instance.impl.WorkItemImpl;
+import org.jbpm.executor.RequestDataCodec;
+import org.junit.Test;
+import org.kie.api.executor.CommandContext;
+import org.kie.api.executor.ExecutionResults;
+
+public class RequestDataCodecTest {
+
+    private ClassLoader cl = RequestDataCodecTest.class.getClassLoader();
+
+    @Test
+    public void testCommandContextRoundTrip() throws Exception {
+        List<Long> retryDelay = new ArrayList<Long>();
+        retryDelay.add(1000l);
+        retryDelay.add(2000l);
+
+        WorkItemImpl workItem = new WorkItemImpl();
+        workItem.setId(10);
+        workItem.setName("Log");
+        workItem.setProcessInstanceId(5);
+        workItem.setDeploymentId("org.jbpm:test:1.0");
+        workItem.setParameter("Message", "hello");
+
+        Date date = new Date();
+        CommandContext ctx = new CommandContext();
+        ctx.setData("businessKey", "key");
+        ctx.setData("retries", 3);
+        ctx.setData("processInstanceId", 5l);
+        ctx.setData("date", date);
+        ctx.setData("retryDelay", retryDelay);
+        ctx.setData("workItem", workItem);
+        ctx.setData("amount", new BigDecimal("10.5"));
+        ctx.setData("nothing", null);
+
+        RequestDataCodec codec = new CompactRequestDataCodec();
+        byte[] encoded = codec.encode(ctx);
+        assertTrue(CompactRequestDataCodec.isCompact(encoded));
+
+        CommandContext decoded = (CommandContext) codec.decode(encoded, cl);
+        assertNotNull(decoded);
+        assertEquals("key", decoded.getData("businessKey"));
+        assertEquals(3, decoded.getData("retries"));
+        assertEquals(5l, decoded.getData("processInstanceId"));
+        assertEquals(date, decoded.getData("date"));
+        assertEquals(retryDelay, decoded.getData("retryDelay"));
+        assertEquals(new BigDecimal("10.5"), decoded.getData("amount"));
+        assertTrue(decoded.getData().containsKey("nothing"));
+
+        WorkItemImpl decodedWorkItem = (WorkItemImpl) decoded.getData("workItem");
+        assertEquals(10, decodedWorkItem.getId());
+        assertEquals("Log", decodedWorkItem.getName());
+        assertEquals(5, decodedWorkItem.getProcessInstanceId());
+        assertEquals("org.jbpm:test:1.0", decodedWorkItem.getDeploymentId());
+        assertEquals("hello", decodedWorkItem.getParameter("Message"));
+    }
+
+    @Test
+    public void testExecutionResultsRoundTrip() throws Exception {
+        Map<String, Object> nested = new HashMap<String, Object>();
+        nested.put("value", 1);
+
+        ExecutionResults results = new ExecutionResults();
+        results.setData("custom", "custom callback invoked");
+        results.setData("nested", nested);
+
+        RequestDataCodec codec = new CompactRequestDataCodec();
+        ExecutionResults decoded = (ExecutionResults) codec.decode(codec.encode(results), cl);
+        assertEquals("custom callback invoked", decoded.getData("custom"));
+        assertEquals(nested, decoded.getData("nested"));
+    }
+
+    @Test
+    public void testOtherCollectionTypesPreserved() throws Exception {
+        TreeMap<String, Integer> sorted = new TreeMap<String, Integer>(Collections.reverseOrder());
+        sorted.put("a", 1);
+        sorted.put("b", 2);
+        TreeSet<String> sortedSet = new TreeSet<String>(Arrays.asList("y", "x"));
+        ConcurrentHashMap<String, String> concurrent = new ConcurrentHashMap<String, String>();
+        concurrent.put("key", "value");
+        List<String> linked = new LinkedList<String>(Arrays.asList("first", "second"));
+
+        CommandContext ctx = new CommandContext();
+        ctx.setData("sorted", sorted);
+        ctx.setData("sortedSet", sortedSet);
+        ctx.setData("concurrent", concurrent);
+        ctx.setData("linked", linked);
+
+        RequestDataCodec codec = new CompactRequestDataCodec();
+        CommandContext decoded = (CommandContext) codec.decode(codec.encode(ctx), cl);
+
+        assertEquals(TreeMap.class, decoded.getData("sorted").getClass());
+        assertEquals("b", ((TreeMap<?, ?>) decoded.getData("sorted")).firstKey());
+        assertEquals(TreeSet.class, decoded.getData("sortedSet").getClass());
+        assertEquals(sortedSet, decoded.getData("sortedSet"));
+        assertEquals(ConcurrentHashMap.class, decoded.getData("concurrent").getClass());
+        assertEquals(concurrent, decoded.getData("concurrent"));
+        assertEquals(LinkedList.class, decoded.getData("linked").getClass());
+        assertEquals(linked, decoded.getData("linked"));
+    }
+
+    @Test
+    public void testDecodeJavaSerializedData() throws Exception {
+        CommandContext ctx = new CommandContext();
+        ctx.setData("businessKey", "legacy");
+
+        byte[] legacy = new JavaSerializationRequestDataCodec().encode(ctx);
+
+        CommandContext decoded = (CommandContext) RequestDataCodecFactory.get().decode(legacy, cl);
+        assertEquals("legacy", decoded.getData("businessKey"));
+    }
+
+    @Test
+    public void testDefaultEncodesWithJavaSerialization() throws Exception {
+        CommandContext ctx = new CommandContext();
+        ctx.setData("businessKey", "key");
+
+        byte[] encoded = RequestDataCodecFactory.get().encode(ctx);
+        assertFalse(CompactRequestDataCodec.isCompact(encoded));
+
+        CommandContext decoded = (CommandContext) new JavaSerializationRequestDataCodec().decode(encoded, cl);
+        assertEquals("key", decoded.getData("businessKey"));
+    }
+
+    @Test
+    public void testCompactSmallerThanJavaSerialization() throws Exception {
+        CommandContext ctx = new CommandContext();
+        ctx.setData("businessKey", "key");
+        ctx.setData("deploymentId", "org.jbpm:test:1.0");
+        ctx.setData("retries", 3);
+
+        byte[] compact = new CompactRequestDataCodec().encode(ctx);
+        byte[] java = new JavaSerializationRequestDataCodec().encode(ctx);
+        assertTrue(compact.length < java.length);
+    }
+}
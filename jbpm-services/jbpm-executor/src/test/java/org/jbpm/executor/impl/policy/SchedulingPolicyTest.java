@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.executor.impl.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.jbpm.executor.SchedulingPolicy.PendingRequests;
+import org.junit.Test;
+import org.kie.api.executor.RequestInfo;
+
+public class SchedulingPolicyTest {
+
+    private long ids = 0;
+
+    @Test
+    public void testStrictPriority() {
+        List<RequestInfo> candidates = new ArrayList<RequestInfo>();
+        candidates.add(request("A", 2));
+        candidates.add(request("B", 8));
+        candidates.add(request("A", 5));
+
+        StrictPrioritySchedulingPolicy policy = new StrictPrioritySchedulingPolicy();
+        List<RequestInfo> selected = policy.select(candidates, 2);
+        assertEquals(2, selected.size());
+        assertEquals(8, selected.get(0).getPriority());
+        assertEquals(5, selected.get(1).getPriority());
+        // selection alone does not make the requests in flight
+        assertEquals(0, policy.getMetrics().getMetrics("A").getInFlight());
+        
+        start(policy, selected);
+        assertEquals(1, policy.getMetrics().getMetrics("A").getInFlight());
+        assertEquals(1, policy.getMetrics().getMetrics("B").getInFlight());
+
+        policy.jobCompleted(selected.get(1));
+        assertEquals(0, policy.getMetrics().getMetrics("A").getInFlight());
+        
+        // completing request that is not in flight does not affect the others
+        policy.jobCompleted(candidates.get(0));
+        policy.jobCompleted(selected.get(1));
+        assertEquals(1, policy.getMetrics().getMetrics("B").getInFlight());
+    }
+
+    @Test
+    public void testWeightedFair() {
+        List<RequestInfo> candidates = new ArrayList<RequestInfo>();
+        // noisy deployment comes first with many jobs
+        for (int i = 0; i < 10; i++) {
+            candidates.add(request("noisy", 5));
+        }
+        for (int i = 0; i < 10; i++) {
+            candidates.add(request("quiet", 5));
+        }
+
+        WeightedFairSchedulingPolicy policy = new WeightedFairSchedulingPolicy();
+        policy.setWeight("quiet", 2);
+        List<RequestInfo> selected = policy.select(candidates, 6);
+        assertEquals(6, selected.size());
+
+        int quiet = 0;
+        for (RequestInfo request : selected) {
+            if ("quiet".equals(request.getDeploymentId())) {
+                quiet++;
+            }
+        }
+        assertEquals(4, quiet);
+    }
+
+    @Test
+    public void testMaxInFlight() {
+        List<RequestInfo> candidates = new ArrayList<RequestInfo>();
+        for (int i = 0; i < 5; i++) {
+            candidates.add(request("noisy", 9));
+        }
+        candidates.add(request("other", 1));
+
+        StrictPrioritySchedulingPolicy policy = new StrictPrioritySchedulingPolicy();
+        policy.setMaxInFlight(2);
+        List<RequestInfo> selected = policy.select(candidates, 5);
+        assertEquals(3, selected.size());
+        assertEquals("other", selected.get(2).getDeploymentId());
+        start(policy, selected);
+
+        // noisy deployment is at its limit so nothing more can be selected for it
+        selected = policy.select(candidates.subList(2, 5), 5);
+        assertEquals(0, selected.size());
+    }
+
+    @Test
+    public void testWeightedFairAllocation() {
+        List<PendingRequests> pending = new ArrayList<PendingRequests>();
+        // flooding deployment has many requests with higher priority
+        pending.add(new PendingRequests("noisy", 9, 1000));
+        pending.add(new PendingRequests("quiet", 1, 3));
+        pending.add(new PendingRequests(null, 1, 1));
+
+        WeightedFairSchedulingPolicy policy = new WeightedFairSchedulingPolicy();
+        Map<String, Integer> allocation = policy.allocate(pending, 6);
+        assertEquals(Integer.valueOf(3), allocation.get("noisy"));
+        assertEquals(Integer.valueOf(2), allocation.get("quiet"));
+        assertEquals(Integer.valueOf(1), allocation.get(null));
+    }
+
+    @Test
+    public void testStrictPriorityAllocationWithMaxInFlight() {
+        List<PendingRequests> pending = new ArrayList<PendingRequests>();
+        pending.add(new PendingRequests("noisy", 9, 1000));
+        pending.add(new PendingRequests("other", 5, 2));
+        pending.add(new PendingRequests("noisy", 1, 10));
+        pending.add(new PendingRequests("other", 1, 10));
+
+        StrictPrioritySchedulingPolicy policy = new StrictPrioritySchedulingPolicy();
+        Map<String, Integer> allocation = policy.allocate(pending, 5);
+        assertEquals(1, allocation.size());
+        assertEquals(Integer.valueOf(5), allocation.get("noisy"));
+
+        policy.setMaxInFlight(3);
+        allocation = policy.allocate(pending, 5);
+        assertEquals(Integer.valueOf(3), allocation.get("noisy"));
+        assertEquals(Integer.valueOf(2), allocation.get("other"));
+
+        // noisy deployment is at its limit so the others get the slots
+        start(policy, policy.select(Arrays.asList(request("noisy", 9), request("noisy", 9), request("noisy", 9)), 3));
+        allocation = policy.allocate(pending, 5);
+        assertNull(allocation.get("noisy"));
+        assertEquals(Integer.valueOf(3), allocation.get("other"));
+    }
+
+    protected void start(StrictPrioritySchedulingPolicy policy, List<RequestInfo> selected) {
+        for (RequestInfo request : selected) {
+            policy.jobStarted(request, 0);
+        }
+    }
+
+    protected RequestInfo request(String deploymentId, int priority) {
+        org.jbpm.executor.entities.RequestInfo request = new org.jbpm.executor.entities.RequestInfo();
+        request.setId(++ids);
+        request.setDeploymentId(deploymentId);
+        request.setPriority(priority);
+        request.setTime(new Date(System.currentTimeMillis() - 1000 + ids));
+        return request;
+    }
+}
@@ -17,6 +17,7 @@
 package org.jbpm.executor.impl.wih;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
@@ -28,6 +29,7 @@ import java.util.Properties;
 import javax.persistence.EntityManagerFactory;
 
 import org.jbpm.executor.ExecutorServiceFactory;
+import org.jbpm.executor.commands.LogCleanupCommand;
 import org.jbpm.executor.impl.ExecutorServiceImpl;
 import org.jbpm.executor.test.CountDownAsyncJobListener;
 import org.jbpm.process.audit.JPAAuditLogService;
@@ -43,6 +45,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.kie.api.executor.CommandContext;
 import org.kie.api.executor.ExecutorService;
+import org.kie.api.executor.ExecutionResults;
 import org.kie.api.io.ResourceType;
 import org.kie.api.runtime.KieSession;
 import org.kie.api.runtime.manager.RuntimeEngine;
@@ -173,6 +176,61 @@ public class CleanupLogCommandWithProcessTest extends AbstractExecutorBaseTest {
     }
     
     
+    @Test
+    public void testChunkedLogCleanup() throws Exception {
+        RuntimeEnvironment environment = RuntimeEnvironmentBuilder.Factory.get().newDefaultBuilder()
+                .userGroupCallback(userGroupCallback)
+                .entityManagerFactory(emf)
+                .addAsset(ResourceFactory.newClassPathResource("BPMN2-ScriptTask.bpmn2"), ResourceType.BPMN2)
+                .registerableItemsFactory(new DefaultRegisterableItemsFactory() {
+
+                    @Override
+                    public Map<String, WorkItemHandler> getWorkItemHandlers(RuntimeEngine runtime) {
+
+                        Map<String, WorkItemHandler> handlers = super.getWorkItemHandlers(runtime);
+                        handlers.put("async", new DoNothingWorkItemHandler());
+                        return handlers;
+                    }
+                    
+                })
+                .get();
+        
+        manager = RuntimeManagerFactory.Factory.get().newSingletonRuntimeManager(environment); 
+        assertNotNull(manager);
+        
+        RuntimeEngine runtime = manager.getRuntimeEngine(EmptyContext.get());
+        KieSession ksession = runtime.getKieSession();
+        
+        for (int i = 0; i < 3; i++) {
+            ProcessInstance processInstance = ksession.startProcess("ScriptTask");
+            ksession.abortProcessInstance(processInstance.getId());
+        }
+        assertEquals(3, getProcessLogSize("ScriptTask"));
+        assertEquals(18, getNodeInstanceLogSize("ScriptTask"));
+        
+        Thread.sleep(1000);
+        
+        CommandContext commandContext = new CommandContext();
+        commandContext.setData("EmfName", "org.jbpm.persistence.complete");
+        commandContext.setData("SkipTaskLog", "true");
+        commandContext.setData("SkipExecutorLog", "true");
+        commandContext.setData("SingleRun", "true");
+        commandContext.setData("OlderThan", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+        commandContext.setData("DateFormat", "yyyy-MM-dd HH:mm:ss");
+        commandContext.setData("ForProcess", "ScriptTask");
+        commandContext.setData("RecordsPerTransaction", "4");
+        commandContext.setData("RecordsPerSecond", "1000");
+        
+        ExecutionResults results = new LogCleanupCommand().execute(commandContext);
+        assertEquals(3l, results.getData("ProcessInstanceLogRemoved"));
+        assertEquals(18l, results.getData("NodeInstanceLogRemoved"));
+        // progress is cleared once all logs were visited
+        assertFalse(commandContext.getData().containsKey("CheckpointNodeInstanceLog"));
+        
+        assertEquals(0, getProcessLogSize("ScriptTask"));
+        assertEquals(0, getNodeInstanceLogSize("ScriptTask"));
+    }
+    
     private ExecutorService buildExecutorService() {        
         emf = EntityManagerFactoryManager.get().getOrCreate("org.jbpm.persistence.complete");
 
@@ -35,6 +35,8 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
 import org.jbpm.kie.services.api.DeploymentIdResolver;
 import org.jbpm.kie.services.impl.model.ProcessAssetDesc;
+import org.jbpm.kie.services.impl.model.VariableStateDesc;
+import org.jbpm.kie.services.impl.query.KeysetPagination;
 import org.jbpm.kie.services.impl.security.DeploymentRolesManager;
 import org.jbpm.services.api.DeploymentEvent;
 import org.jbpm.services.api.DeploymentEventListener;
@@ -45,6 +47,7 @@ import org.jbpm.services.api.model.ProcessDefinition;
 import org.jbpm.services.api.model.ProcessInstanceDesc;
 import org.jbpm.services.api.model.UserTaskInstanceDesc;
 import org.jbpm.services.api.model.VariableDesc;
+import org.jbpm.services.api.query.model.KeysetQueryFilter;
 import org.jbpm.services.task.audit.service.TaskAuditService;
 import org.jbpm.services.task.impl.TaskSummaryQueryBuilderImpl;
 import org.jbpm.shared.services.impl.QueryManager;
@@ -68,6 +71,26 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
 
     private static final String DEPLOYMENT_ID_MUST_NOT_BE_NULL = "DeploymentId must not be null";
 
+    private static final KeysetPagination<ProcessInstanceDesc> PROCESS_INSTANCE_KEYSET =
+            new KeysetPagination<ProcessInstanceDesc>("log.processInstanceId", ProcessInstanceDesc::getId)
+            .sortColumn("ProcessInstanceId", "log.processInstanceId", ProcessInstanceDesc::getId)
+            .sortColumn("ProcessName", "log.processName", ProcessInstanceDesc::getProcessName)
+            .sortColumn("Initiator", "log.identity", ProcessInstanceDesc::getInitiator)
+            .sortColumn("ProcessVersion", "log.processVersion", ProcessInstanceDesc::getProcessVersion)
+            .sortColumn("Status", "log.status", ProcessInstanceDesc::getState)
+            .sortColumn("StartDate", "log.start", ProcessInstanceDesc::getDataTimeStamp);
+
+    private static final KeysetPagination<VariableDesc> VARIABLE_HISTORY_KEYSET =
+            new KeysetPagination<VariableDesc>("log.id", variable -> ((VariableStateDesc) variable).getId());
+
+    private static final KeysetPagination<TaskSummary> TASK_KEYSET =
+            new KeysetPagination<TaskSummary>("t.id", TaskSummary::getId)
+            .sortColumn("Id", "t.id", TaskSummary::getId)
+            .sortColumn("Task", "t.name", TaskSummary::getName)
+            .sortColumn("Priority", "t.priority", TaskSummary::getPriority)
+            .sortColumn("CreatedOn", "t.taskData.createdOn", TaskSummary::getCreatedOn)
+            .sortColumn("ProcessInstanceId", "t.taskData.processInstanceId", TaskSummary::getProcessInstanceId);
+
     protected Set<String> deploymentIds = new HashSet<String>();
     protected Set<ProcessDefinition> availableProcesses = new HashSet<ProcessDefinition>();
 
@@ -183,6 +206,9 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
 	}
 
     protected void applyQueryContext(Map<String, Object> params, QueryContext queryContext) {
+    	if (queryContext instanceof KeysetQueryFilter) {
+    		throw new IllegalArgumentException("Keyset pagination is not supported by this query");
+    	}
     	if (queryContext != null) {
         	params.put("firstResult", queryContext.getOffset());
         	params.put("maxResults", queryContext.getCount());
@@ -199,13 +225,72 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
         }
     }
 
+    /**
+     * Applies given query context to the parameters of a query that supports keyset pagination - in case the context
+     * is a {@link KeysetQueryFilter} the page is selected with a seek predicate instead of an offset.
+     */
+    protected <T> void applyQueryContext(Map<String, Object> params, QueryContext queryContext, KeysetPagination<T> keyset) {
+    	if (!(queryContext instanceof KeysetQueryFilter)) {
+    		applyQueryContext(params, queryContext);
+    		return;
+    	}
+    	KeysetQueryFilter filter = (KeysetQueryFilter) queryContext;
+    	params.put("firstResult", 0);
+    	params.put("maxResults", filter.getCount());
+    	params.put(QueryManager.ORDER_BY_KEY, keyset.getOrderBy(filter));
+    	if (filter.isSortAscending()) {
+    		params.put(QueryManager.ASCENDING_KEY, "true");
+    	} else {
+    		params.put(QueryManager.DESCENDING_KEY, "true");
+    	}
+    	addFilter(params, keyset.getSeekPredicate(filter, params));
+    }
+
+    protected <T> void applyContinuationToken(QueryContext queryContext, List<? extends T> results, KeysetPagination<T> keyset) {
+    	if (queryContext instanceof KeysetQueryFilter) {
+    		keyset.setNextContinuationToken((KeysetQueryFilter) queryContext, results);
+    	}
+    }
 
+    /**
+     * Converts {@link KeysetQueryFilter} into a plain {@link QueryFilter} with seek predicate and order by, as understood
+     * by the task query service
+     */
+    protected <T> QueryFilter applyKeysetQueryFilter(QueryFilter filter, KeysetPagination<T> keyset) {
+    	if (!(filter instanceof KeysetQueryFilter)) {
+    		return filter;
+    	}
+    	KeysetQueryFilter keysetFilter = (KeysetQueryFilter) filter;
+    	Map<String, Object> params = new HashMap<String, Object>();
+    	if (keysetFilter.getParams() != null) {
+    		params.putAll(keysetFilter.getParams());
+    	}
+    	String filterParams = keysetFilter.getFilterParams();
+    	String seekPredicate = keyset.getSeekPredicate(keysetFilter, params);
+    	if (seekPredicate != null) {
+    		filterParams = (filterParams == null || filterParams.isEmpty()) ? seekPredicate : filterParams + " and " + seekPredicate;
+    	}
+    	QueryFilter queryFilter = new QueryFilter(filterParams, params, keyset.getOrderBy(keysetFilter), 0, keysetFilter.getCount());
+    	queryFilter.setAscending(keysetFilter.isSortAscending());
+    	return queryFilter;
+    }
+
+    protected void addFilter(Map<String, Object> params, String filter) {
+    	if (filter == null) {
+    		return;
+    	}
+    	String existingFilter = (String) params.get(FILTER);
+    	if (existingFilter != null && !existingFilter.isEmpty()) {
+    		filter = existingFilter + " and " + filter;
+    	}
+    	params.put(FILTER, filter);
+    }
 
     protected void applyDeploymentFilter(Map<String, Object> params) {
     	List<String> deploymentIdForUser = deploymentRolesManager.getDeploymentsForUser(identityProvider);
 
     	if (deploymentIdForUser != null && !deploymentIdForUser.isEmpty()) {
-    		params.put(FILTER, " log.externalId in (:deployments) ");
+    		addFilter(params, " log.externalId in (:deployments) ");
     		params.put("deployments", deploymentIdForUser);
         }
     }
@@ -346,11 +431,12 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
 
     public Collection<ProcessInstanceDesc> getProcessInstances(QueryContext queryContext) {
     	Map<String, Object> params = new HashMap<String, Object>();
-    	applyQueryContext(params, queryContext);
+    	applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
     	applyDeploymentFilter(params);
         List<ProcessInstanceDesc> processInstances =  commandService.execute(
 			new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstances", params));
 
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return Collections.unmodifiableCollection(processInstances);
     }
 
@@ -359,7 +445,7 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
         List<ProcessInstanceDesc> processInstances = null;
         Map<String, Object> params = new HashMap<String, Object>();
         params.put("states", states);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
         if (initiator == null) {
 
@@ -371,6 +457,7 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
             processInstances = commandService.execute(
     				new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByStatusAndInitiator", params));
         }
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return Collections.unmodifiableCollection(processInstances);
     }
 
@@ -380,11 +467,12 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
     	Map<String, Object> params = new HashMap<String, Object>();
         params.put("externalId", deploymentId);
         params.put("states", states);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
         List<ProcessInstanceDesc> processInstances = commandService.execute(
 				new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByDeploymentId",
                 params));
+	    applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
 	    return Collections.unmodifiableCollection(processInstances);
 
     }
@@ -393,12 +481,13 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
     public Collection<ProcessInstanceDesc> getProcessInstancesByProcessDefinition(String processDefId, QueryContext queryContext){
     	Map<String, Object> params = new HashMap<String, Object>();
         params.put("processDefId", processDefId);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
     	List<ProcessInstanceDesc> processInstances = commandService.execute(
 				new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByProcessDefinition",
               params));
 
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return Collections.unmodifiableCollection(processInstances);
     }
 
@@ -408,12 +497,13 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
 		Map<String, Object> params = new HashMap<String, Object>();
         params.put("processId", processDefId);
         params.put("states", states);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
     	List<ProcessInstanceDesc> processInstances = commandService.execute(
 				new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByProcessIdAndStatus",
               params));
 
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return Collections.unmodifiableCollection(processInstances);
 	}
 
@@ -476,13 +566,14 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
     public Collection<ProcessInstanceDesc> getProcessInstancesByCorrelationKey(CorrelationKey correlationKey, QueryContext queryContext) {
         Map<String, Object> params = new HashMap<String, Object>();
         params.put("correlationKey", correlationKey.toExternalForm() + "%");
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
 
         List<ProcessInstanceDesc> processInstances = commandService.execute(
                 new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByCorrelationKey",
                 params));
 
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return processInstances;
     }
 	
@@ -491,13 +582,14 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
         Map<String, Object> params = new HashMap<String, Object>();
         params.put("correlationKey", correlationKey.toExternalForm() + "%");
         params.put("states", states);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
 
         List<ProcessInstanceDesc> processInstances = commandService.execute(
                 new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByCorrelationKeyAndStatus",
                 params));
 
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return processInstances;
     }
 
@@ -509,7 +601,7 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
 
         params.put("states", states);
         params.put("processId", processId);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
         if (initiator == null) {
 
@@ -522,6 +614,7 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
     				new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByProcessIdAndStatusAndInitiator", params));
         }
 
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return Collections.unmodifiableCollection(processInstances);
     }
 
@@ -533,7 +626,7 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
 
         params.put("states", states);
         params.put("processName", processName);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
         if (initiator == null) {
 
@@ -546,6 +639,7 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
     				new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByProcessNameAndStatusAndInitiator", params));
         }
 
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return Collections.unmodifiableCollection(processInstances);
     }
 
@@ -560,13 +654,14 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
         }
         params.put("states", states);
         params.put("variable", variableName);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
 
         List<ProcessInstanceDesc> processInstances = commandService.execute(
                     new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByVariableName", params));
 
 
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return Collections.unmodifiableCollection(processInstances);
     }
 
@@ -581,13 +676,14 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
         params.put("states", states);
         params.put("variable", variableName);
         params.put("variableValue", variableValue);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, PROCESS_INSTANCE_KEYSET);
         applyDeploymentFilter(params);
 
         List<ProcessInstanceDesc> processInstances = commandService.execute(
                     new QueryNameCommand<List<ProcessInstanceDesc>>("getProcessInstancesByVariableNameAndValue", params));
 
 
+        applyContinuationToken(queryContext, processInstances, PROCESS_INSTANCE_KEYSET);
         return Collections.unmodifiableCollection(processInstances);
     }
 
@@ -722,11 +818,12 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
         Map<String, Object> params = new HashMap<String, Object>();
         params.put("processInstanceId", processInstanceId);
         params.put("variableId", variableId);
-        applyQueryContext(params, queryContext);
+        applyQueryContext(params, queryContext, VARIABLE_HISTORY_KEYSET);
     	List<VariableDesc> variablesState = commandService.execute(
 				new QueryNameCommand<List<VariableDesc>>("getVariableHistory",
                 params));
 
+        applyContinuationToken(queryContext, variablesState, VARIABLE_HISTORY_KEYSET);
         return variablesState;
     }
 
@@ -791,22 +888,24 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
 
 	@Override
 	public List<TaskSummary> getTasksAssignedAsPotentialOwner(String userId, QueryFilter filter) {
-		return ((InternalTaskService)taskService).getTasksAssignedAsPotentialOwner(userId, null , null, filter);
+		return getTasksAssignedAsPotentialOwner(userId, null, null, filter);
 	}
 
 	@Override
 	public List<TaskSummary> getTasksAssignedAsPotentialOwner(String userId, List<String> groupIds, QueryFilter filter) {
-		return ((InternalTaskService)taskService).getTasksAssignedAsPotentialOwner(userId, groupIds , null, filter);
+		return getTasksAssignedAsPotentialOwner(userId, groupIds, null, filter);
 	}
 
 	@Override
 	public List<TaskSummary> getTasksAssignedAsPotentialOwner(String userId, List<String> groupIds, List<Status> status, QueryFilter filter) {
-		return ((InternalTaskService)taskService).getTasksAssignedAsPotentialOwner(userId, groupIds , status, filter);
+		List<TaskSummary> tasks = ((InternalTaskService)taskService).getTasksAssignedAsPotentialOwner(userId, groupIds , status, applyKeysetQueryFilter(filter, TASK_KEYSET));
+		applyContinuationToken(filter, tasks, TASK_KEYSET);
+		return tasks;
 	}
 
 	@Override
 	public List<TaskSummary> getTasksAssignedAsPotentialOwnerByStatus(String userId, List<Status> status, QueryFilter filter) {
-		return ((InternalTaskService)taskService).getTasksAssignedAsPotentialOwner(userId, null, status, filter);
+		return getTasksAssignedAsPotentialOwner(userId, null, status, filter);
 	}
 
 	@Override
@@ -850,12 +949,14 @@ public class RuntimeDataServiceImpl implements RuntimeDataService, DeploymentEve
 	@Override
 	public List<TaskSummary> getTasksOwned(String userId, QueryFilter filter) {
 
-        return ((InternalTaskService)taskService).getTasksOwned(userId, null, filter);
+        return getTasksOwnedByStatus(userId, null, filter);
 	}
 
 	@Override
 	public List<TaskSummary> getTasksOwnedByStatus(String userId, List<Status> status, QueryFilter filter) {
-		return ((InternalTaskService)taskService).getTasksOwned(userId, status, filter);
+		List<TaskSummary> tasks = ((InternalTaskService)taskService).getTasksOwned(userId, status, applyKeysetQueryFilter(filter, TASK_KEYSET));
+		applyContinuationToken(filter, tasks, TASK_KEYSET);
+		return tasks;
 	}
 
 	@Override
@@ -21,7 +21,10 @@ import java.util.Set;
 
 import org.drools.core.util.StringUtils;
 import org.jbpm.kie.services.api.FormProviderService;
+import org.jbpm.kie.services.impl.form.provider.AbstractFormProvider;
 import org.jbpm.services.api.DefinitionService;
+import org.jbpm.services.api.DeploymentEvent;
+import org.jbpm.services.api.DeploymentEventListener;
 import org.jbpm.services.api.DeploymentService;
 import org.jbpm.services.api.RuntimeDataService;
 import org.jbpm.services.api.model.DeployedUnit;
@@ -37,7 +40,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
-public class FormProviderServiceImpl implements FormProviderService {
+/**
+ * Renders forms using registered form providers. When registered as deployment listener it lets the providers
+ * prepare compiled forms on deploy and evict them on undeploy.
+ */
+public class FormProviderServiceImpl implements FormProviderService, DeploymentEventListener {
 
     private static Logger logger = LoggerFactory.getLogger(FormProviderServiceImpl.class);
 
@@ -194,6 +201,40 @@ public class FormProviderServiceImpl implements FormProviderService {
         return "";
     }
 
+    @Override
+    public void onDeploy(DeploymentEvent event) {
+        if (providers == null) {
+            return;
+        }
+        for (FormProvider provider : providers) {
+            if (provider instanceof AbstractFormProvider) {
+                ((AbstractFormProvider) provider).onDeploy(event.getDeploymentId());
+            }
+        }
+    }
+
+    @Override
+    public void onUnDeploy(DeploymentEvent event) {
+        if (providers == null) {
+            return;
+        }
+        for (FormProvider provider : providers) {
+            if (provider instanceof AbstractFormProvider) {
+                ((AbstractFormProvider) provider).onUnDeploy(event.getDeploymentId());
+            }
+        }
+    }
+
+    @Override
+    public void onActivate(DeploymentEvent event) {
+        // no op
+    }
+
+    @Override
+    public void onDeactivate(DeploymentEvent event) {
+        // no op
+    }
+
     protected ContentMarshallerContext getMarshallerContext(String deploymentId, String processId) {
         DeployedUnit deployedUnit = deploymentService.getDeployedUnit(deploymentId);
         if (deployedUnit == null) {
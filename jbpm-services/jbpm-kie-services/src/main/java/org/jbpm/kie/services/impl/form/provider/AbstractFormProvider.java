@@ -15,6 +15,10 @@
  */
 package org.jbpm.kie.services.impl.form.provider;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
 import org.jbpm.kie.services.impl.FormManagerService;
 import org.jbpm.kie.services.impl.form.FormProvider;
 import org.kie.api.task.model.Task;
@@ -28,6 +32,9 @@ public abstract class AbstractFormProvider implements FormProvider {
 
     protected FormManagerService formManagerService;
 
+    // compiled forms by deployment id and form key
+    private final ConcurrentMap<String, ConcurrentMap<String, CompiledForm>> compiledForms = new ConcurrentHashMap<String, ConcurrentMap<String, CompiledForm>>();
+
     public void setFormManagerService(FormManagerService formManagerService){
         this.formManagerService = formManagerService;
     }
@@ -54,4 +61,55 @@ public abstract class AbstractFormProvider implements FormProvider {
     protected String getFormExtension() {
         return "";
     }
+
+    /**
+     * Invoked when given deployment was deployed, allows to prepare (compile) forms of the deployment upfront
+     */
+    public void onDeploy(String deploymentId) {
+    }
+
+    /**
+     * Invoked when given deployment was undeployed, evicts all compiled forms of the deployment
+     */
+    public void onUnDeploy(String deploymentId) {
+        compiledForms.remove(deploymentId);
+    }
+
+    /**
+     * Returns compiled form for given source, compiling it only when it is not yet cached or its source has changed
+     * (e.g. on redeploy)
+     * @param deploymentId deployment the form belongs to
+     * @param key key of the form within the deployment (process id or task form name)
+     * @param source source of the form
+     * @param compiler compiles the source
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T getCompiledForm(String deploymentId, String key, String source, Function<String, T> compiler) {
+        String deployment = deploymentId == null ? "" : deploymentId;
+        ConcurrentMap<String, CompiledForm> forms = compiledForms.get(deployment);
+        if (forms == null) {
+            ConcurrentMap<String, CompiledForm> created = new ConcurrentHashMap<String, CompiledForm>();
+            forms = compiledForms.putIfAbsent(deployment, created);
+            if (forms == null) {
+                forms = created;
+            }
+        }
+        CompiledForm compiledForm = forms.get(key);
+        if (compiledForm == null || !compiledForm.source.equals(source)) {
+            compiledForm = new CompiledForm(source, compiler.apply(source));
+            forms.put(key, compiledForm);
+        }
+        return (T) compiledForm.form;
+    }
+
+    private static class CompiledForm {
+
+        private final String source;
+        private final Object form;
+
+        CompiledForm(String source, Object form) {
+            this.source = source;
+            this.form = form;
+        }
+    }
 }
@@ -16,21 +16,48 @@
 
 package org.jbpm.kie.services.impl.form.provider;
 
+import java.io.InputStream;
 import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jbpm.services.api.model.ProcessDefinition;
 import org.kie.api.task.model.Task;
 
 
 public class ClasspathFormProvider extends FreemakerFormProvider {
+
+    private static final String CLASSPATH_FORMS = "classpath";
+    private static final String DEFAULT_PROCESS_FORM = "/forms/DefaultProcess.ftl";
+    private static final String DEFAULT_TASK_FORM = "/forms/DefaultTask.ftl";
+
+    // classpath forms do not change so they are read only once
+    private final ConcurrentMap<String, String> sources = new ConcurrentHashMap<String, String>();
+
     @Override
     public String render(String name, ProcessDefinition process, Map<String, Object> renderContext) {
-        return render(name, this.getClass().getResourceAsStream("/forms/DefaultProcess.ftl"), renderContext);
+        return render(name, CLASSPATH_FORMS, DEFAULT_PROCESS_FORM, getSource(DEFAULT_PROCESS_FORM), renderContext);
     }
 
     @Override
     public String render(String name, Task task, ProcessDefinition process, Map<String, Object> renderContext) {
-        return render(name, this.getClass().getResourceAsStream("/forms/DefaultTask.ftl"), renderContext);
+        return render(name, CLASSPATH_FORMS, DEFAULT_TASK_FORM, getSource(DEFAULT_TASK_FORM), renderContext);
+    }
+
+    protected String getSource(String path) {
+        String source = sources.get(path);
+        if (source == null) {
+            InputStream stream = this.getClass().getResourceAsStream(path);
+            if (stream == null) {
+                throw new IllegalStateException("Form " + path + " not found on classpath");
+            }
+            try (Scanner scanner = new Scanner(stream)) {
+                source = scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+            }
+            sources.putIfAbsent(path, source);
+        }
+        return source;
     }
 
     @Override
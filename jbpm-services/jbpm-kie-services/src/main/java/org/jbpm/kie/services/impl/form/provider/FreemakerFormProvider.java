@@ -19,35 +19,67 @@ package org.jbpm.kie.services.impl.form.provider;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Map;
 
 
 import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.Configuration;
 import freemarker.template.Template;
 
 
+/**
+ * Base class for providers rendering freemarker templates. All templates are created with single, shared
+ * configuration and compiled templates are cached per deployment and form key so they are parsed only once.
+ */
 public abstract class FreemakerFormProvider extends AbstractFormProvider {
 
-    
-    
+    private static final Configuration CONFIGURATION = createConfiguration();
+
+    private static Configuration createConfiguration() {
+        Configuration cfg = new Configuration();
+        BeansWrapper defaultInstance = new BeansWrapper();
+        defaultInstance.setSimpleMapWrapper(true);
+        cfg.setObjectWrapper(defaultInstance);
+        return cfg;
+    }
+
     protected String render(String name, InputStream src, Map<String, Object> renderContext) {
-        
-        String str = null;
         try {
-            freemarker.template.Configuration cfg = new freemarker.template.Configuration();
-            BeansWrapper defaultInstance = new BeansWrapper();
-            defaultInstance.setSimpleMapWrapper(true);
-            cfg.setObjectWrapper(defaultInstance);
-            cfg.setTemplateUpdateDelay(0);
-            Template temp = new Template(name, new InputStreamReader(src), cfg);
-            StringWriter out = new StringWriter();
-            temp.process(renderContext, out);
-            out.flush();
-            str = out.getBuffer().toString();
+            return render(new Template(name, new InputStreamReader(src), CONFIGURATION), renderContext);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to process form template", e);
+        }
+    }
+
+    /**
+     * Renders template of given source, compiled template is taken from the cache
+     * @param deploymentId deployment the template belongs to
+     * @param key key of the template within the deployment
+     */
+    protected String render(String name, String deploymentId, String key, String source, Map<String, Object> renderContext) {
+        try {
+            return render(getTemplate(name, deploymentId, key, source), renderContext);
         } catch (Exception e) {
             throw new RuntimeException("Failed to process form template", e);
         }
-        return str;
+    }
+
+    protected Template getTemplate(final String name, String deploymentId, String key, String source) {
+        return getCompiledForm(deploymentId, key, source, templateSource -> {
+            try {
+                return new Template(name, new StringReader(templateSource), CONFIGURATION);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to parse form template " + key, e);
+            }
+        });
+    }
+
+    private String render(Template template, Map<String, Object> renderContext) throws Exception {
+        StringWriter out = new StringWriter();
+        template.process(renderContext, out);
+        out.flush();
+        return out.getBuffer().toString();
     }
 }
@@ -15,15 +15,18 @@
  */
 package org.jbpm.kie.services.impl.form.provider;
 
-import java.io.ByteArrayInputStream;
 import java.util.Map;
 
 import org.jbpm.kie.services.impl.model.ProcessAssetDesc;
 import org.jbpm.services.api.model.ProcessDefinition;
 import org.kie.api.task.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class InMemoryFormProvider extends FreemakerFormProvider {
 
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryFormProvider.class);
+
     private static final String DEFAULT_PROCESS = "DefaultProcess";
     private static final String DEFAULT_TASK = "DefaultTask";
 
@@ -34,15 +37,17 @@ public class InMemoryFormProvider extends FreemakerFormProvider {
             return null;
         }
 
-        String templateString = formManagerService.getFormByKey(process.getDeploymentId(), process.getId());
+        String formKey = process.getId();
+        String templateString = formManagerService.getFormByKey(process.getDeploymentId(), formKey);
         if (templateString == null) {
-            templateString = formManagerService.getFormByKey(process.getDeploymentId(), process.getId() + getFormSuffix());
+            formKey = process.getId() + getFormSuffix();
+            templateString = formManagerService.getFormByKey(process.getDeploymentId(), formKey);
         }
 
         if (templateString == null || templateString.isEmpty()) {
             return null;
         } else {
-            return render(name, new ByteArrayInputStream(templateString.getBytes()), renderContext);
+            return render(name, process.getDeploymentId(), formKey, templateString, renderContext);
         }
     }
 
@@ -59,7 +64,25 @@ public class InMemoryFormProvider extends FreemakerFormProvider {
         if (templateString == null || templateString.isEmpty()) {
             return null;
         } else {
-            return render(name, new ByteArrayInputStream(templateString.getBytes()), renderContext);
+            return render(name, task.getTaskData().getDeploymentId(), lookupName, templateString, renderContext);
+        }
+    }
+
+    @Override
+    public void onDeploy(String deploymentId) {
+        Map<String, String> forms = formManagerService == null ? null : formManagerService.getAllFormsByDeployment(deploymentId);
+        if (forms == null) {
+            return;
+        }
+        for (Map.Entry<String, String> form : forms.entrySet()) {
+            if (!form.getKey().endsWith(getFormExtension()) || form.getValue() == null || form.getValue().isEmpty()) {
+                continue;
+            }
+            try {
+                getTemplate(form.getKey(), deploymentId, form.getKey(), form.getValue());
+            } catch (Exception e) {
+                logger.warn("Unable to compile form {} of deployment {} - {}", form.getKey(), deploymentId, e.getMessage());
+            }
         }
     }
 
@@ -38,6 +38,8 @@ public class VariableStateDesc implements VariableDesc, Serializable{
     
     private Date dataTimeStamp;
 
+    private Long id;
+
     public VariableStateDesc() {
      
     }
@@ -55,6 +57,12 @@ public class VariableStateDesc implements VariableDesc, Serializable{
         this.dataTimeStamp = date;
     }
 
+    public VariableStateDesc(String variableId, String variableInstanceId, String oldValue, String newValue,
+            String deploymentId, long processInstanceId, Date date, Long id) {
+        this(variableId, variableInstanceId, oldValue, newValue, deploymentId, processInstanceId, date);
+        this.id = id;
+    }
+
    
     public String getVariableId() {
         return variableId;
@@ -84,6 +92,13 @@ public class VariableStateDesc implements VariableDesc, Serializable{
         return dataTimeStamp;
     }
 
+    /**
+     * @return id of the variable log entry, available only for variable history
+     */
+    public Long getId() {
+        return id;
+    }
+
     @Override
     public String toString() {
         return "VariableStateDesc["+dataTimeStamp.toString()+"]{variableId=" + variableId + ", variableInstanceId=" + variableInstanceId + ", oldValue=" + oldValue + ", newValue=" + newValue + ", deploymentId=" + deploymentId + ", processInstanceId=" + processInstanceId + '}';
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.kie.services.impl.query;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.jbpm.services.api.query.model.KeysetQueryFilter;
+
+/**
+ * Describes how keyset pagination is applied to JPQL (named) queries returning given type of results:
+ * JPQL path and value of the unique key and of the supported sort columns (by order by name as used by
+ * <code>QueryContext</code>).
+ * </p>
+ * Seek predicate is built with <code>keysetSortValue</code> and <code>keysetKeyValue</code> parameters.
+ */
+public class KeysetPagination<T> {
+
+    public static final String SORT_VALUE_PARAM = "keysetSortValue";
+    public static final String KEY_VALUE_PARAM = "keysetKeyValue";
+
+    private final String keyPath;
+    private final Function<T, Object> keyValue;
+    private final Map<String, SortColumn<T>> sortColumns = new HashMap<String, SortColumn<T>>();
+
+    public KeysetPagination(String keyPath, Function<T, Object> keyValue) {
+        this.keyPath = keyPath;
+        this.keyValue = keyValue;
+    }
+
+    public KeysetPagination<T> sortColumn(String orderBy, String path, Function<T, Object> value) {
+        sortColumns.put(orderBy.toLowerCase(), new SortColumn<T>(path, value));
+        return this;
+    }
+
+    /**
+     * @return order by clause (without the trailing sort direction of the key column) for given filter
+     */
+    public String getOrderBy(KeysetQueryFilter filter) {
+        SortColumn<T> sortColumn = getSortColumn(filter);
+        if (sortColumn == null) {
+            return keyPath;
+        }
+        return sortColumn.path + (filter.isSortAscending() ? " ASC, " : " DESC, ") + keyPath;
+    }
+
+    /**
+     * Builds seek predicate selecting rows after the continuation token of given filter and adds its values
+     * to the parameters
+     * @return the predicate or null if the filter points to the first page
+     */
+    public String getSeekPredicate(KeysetQueryFilter filter, Map<String, Object> params) {
+        Object[] values = filter.getContinuationValues();
+        if (values == null) {
+            return null;
+        }
+        String operator = filter.isSortAscending() ? " > " : " < ";
+        params.put(KEY_VALUE_PARAM, values[1]);
+
+        SortColumn<T> sortColumn = getSortColumn(filter);
+        if (sortColumn == null) {
+            return " (" + keyPath + operator + ":" + KEY_VALUE_PARAM + ") ";
+        }
+        params.put(SORT_VALUE_PARAM, values[0]);
+        return " (" + sortColumn.path + operator + ":" + SORT_VALUE_PARAM
+                + " or (" + sortColumn.path + " = :" + SORT_VALUE_PARAM + " and " + keyPath + operator + ":" + KEY_VALUE_PARAM + ")) ";
+    }
+
+    /**
+     * Sets continuation token of the next page based on the last row of given page, or clears it when the page is
+     * not complete
+     */
+    public void setNextContinuationToken(KeysetQueryFilter filter, List<? extends T> page) {
+        if (page == null || page.isEmpty() || page.size() < filter.getCount()) {
+            filter.setNextContinuationToken(null);
+            return;
+        }
+        T last = page.get(page.size() - 1);
+        SortColumn<T> sortColumn = getSortColumn(filter);
+        Object sortValue = sortColumn == null ? null : sortColumn.value.apply(last);
+        filter.setNextContinuationToken(filter.createContinuationToken(sortValue, keyValue.apply(last)));
+    }
+
+    protected SortColumn<T> getSortColumn(KeysetQueryFilter filter) {
+        String orderBy = filter.getOrderBy();
+        if (orderBy == null || orderBy.isEmpty()) {
+            return null;
+        }
+        SortColumn<T> sortColumn = sortColumns.get(orderBy.toLowerCase());
+        if (sortColumn == null) {
+            throw new IllegalArgumentException("Keyset pagination does not support order by " + orderBy + ", supported values are " + sortColumns.keySet());
+        }
+        return sortColumn;
+    }
+
+    private static class SortColumn<T> {
+
+        private final String path;
+        private final Function<T, Object> value;
+
+        SortColumn(String path, Function<T, Object> value) {
+            this.path = path;
+            this.value = value;
+        }
+    }
+}
@@ -22,20 +22,27 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.dashbuilder.DataSetCore;
 import org.dashbuilder.dataprovider.DataSetProviderRegistry;
 import org.dashbuilder.dataprovider.sql.SQLDataSetProvider;
 import org.dashbuilder.dataset.DataSet;
+import org.dashbuilder.dataset.DataSetLookup;
 import org.dashbuilder.dataset.DataSetLookupBuilder;
 import org.dashbuilder.dataset.DataSetLookupFactory;
 import org.dashbuilder.dataset.DataSetManager;
 import org.dashbuilder.dataset.DataSetMetadata;
+import org.dashbuilder.dataset.DataSetOp;
 import org.dashbuilder.dataset.def.DataSetDef;
 import org.dashbuilder.dataset.def.DataSetDefFactory;
 import org.dashbuilder.dataset.def.DataSetDefRegistry;
+import org.dashbuilder.dataset.def.DataSetPreprocessor;
+import org.dashbuilder.dataset.def.SQLDataSetDef;
 import org.dashbuilder.dataset.def.SQLDataSetDefBuilder;
 import org.dashbuilder.dataset.filter.ColumnFilter;
+import org.dashbuilder.dataset.filter.DataSetFilter;
+import org.dashbuilder.dataset.group.DataSetGroup;
 import org.jbpm.kie.services.impl.model.ProcessAssetDesc;
 import org.jbpm.kie.services.impl.query.persistence.PersistDataSetListener;
 import org.jbpm.kie.services.impl.query.persistence.QueryDefinitionEntity;
@@ -51,6 +58,9 @@ import org.jbpm.services.api.query.QueryNotFoundException;
 import org.jbpm.services.api.query.QueryParamBuilder;
 import org.jbpm.services.api.query.QueryResultMapper;
 import org.jbpm.services.api.query.QueryService;
+import org.jbpm.services.api.query.StreamingQueryResultMapper;
+import org.jbpm.services.api.query.StreamingQueryService;
+import org.jbpm.services.api.query.model.KeysetQueryFilter;
 import org.jbpm.services.api.query.model.QueryDefinition;
 import org.jbpm.services.api.query.model.QueryDefinition.Target;
 import org.jbpm.services.api.query.model.QueryParam;
@@ -62,11 +72,16 @@ import org.kie.internal.identity.IdentityProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.dashbuilder.dataset.filter.FilterFactory.AND;
+import static org.dashbuilder.dataset.filter.FilterFactory.OR;
+import static org.dashbuilder.dataset.filter.FilterFactory.equalsTo;
+import static org.dashbuilder.dataset.filter.FilterFactory.greaterThan;
+import static org.dashbuilder.dataset.filter.FilterFactory.lowerThan;
 import static org.jbpm.services.api.query.QueryResultMapper.COLUMN_EXTERNALID;
 import static org.jbpm.services.api.query.QueryResultMapper.COLUMN_DEPLOYMENTID;;
 
 
-public class QueryServiceImpl implements QueryService, DeploymentEventListener {
+public class QueryServiceImpl implements QueryService, StreamingQueryService, DeploymentEventListener {
     
     private static final Logger logger = LoggerFactory.getLogger(QueryServiceImpl.class);
 
@@ -79,6 +94,7 @@ public class QueryServiceImpl implements QueryService, DeploymentEventListener {
     private TransactionalCommandService commandService;
     
     private DeploymentRolesManager deploymentRolesManager = new DeploymentRolesManager();
+    private StreamingSqlQueryExecutor streamingExecutor = new StreamingSqlQueryExecutor();
 
     
     public void setDeploymentRolesManager(DeploymentRolesManager deploymentRolesManager) {
@@ -105,6 +121,10 @@ public class QueryServiceImpl implements QueryService, DeploymentEventListener {
         this.dataSetManager = dataSetManager;
     }
 
+    public void setStreamingExecutor(StreamingSqlQueryExecutor streamingExecutor) {
+        this.streamingExecutor = streamingExecutor;
+    }
+
     public void init() {
         if (dataSetDefRegistry == null && dataSetManager == null && providerRegistry == null) {
             dataSetDefRegistry = DataSetCore.get().getDataSetDefRegistry();
@@ -208,10 +228,16 @@ public class QueryServiceImpl implements QueryService, DeploymentEventListener {
         logger.debug("About to query using {} definition with number of rows {} and starting at {} offset", 
                                 queryName, queryContext.getCount(), queryContext.getOffset());
         
+        KeysetQueryFilter keysetFilter = null;
+        if (queryContext instanceof KeysetQueryFilter) {
+            keysetFilter = (KeysetQueryFilter) queryContext;
+            validateKeysetQueryFilter(keysetFilter);
+        }
+
         DataSetLookupBuilder<?> builder = DataSetLookupFactory.newDataSetLookupBuilder()
         .dataset(queryName)
         .rowNumber(queryContext.getCount())
-        .rowOffset(queryContext.getOffset());
+        .rowOffset(keysetFilter == null ? queryContext.getOffset() : 0);
         Object filter = paramBuilder.build();
         while (filter != null ) {
             if (filter instanceof ColumnFilter) {
@@ -232,8 +258,9 @@ public class QueryServiceImpl implements QueryService, DeploymentEventListener {
             // call builder again in case more parameters are available
             filter = paramBuilder.build();
         }
-        
-        if (queryContext.getOrderBy() != null) {
+        if (keysetFilter != null) {
+            applyKeysetQueryFilter(builder, keysetFilter);
+        } else if (queryContext.getOrderBy() != null) {
             String[] oderByItems = queryContext.getOrderBy().split(",");
             
             for (String orderBy : oderByItems) {
@@ -244,12 +271,112 @@ public class QueryServiceImpl implements QueryService, DeploymentEventListener {
         
         DataSet result = dataSetManager.lookupDataSet(builder.buildLookup());
         logger.debug("Query result is {}", result);
+        if (keysetFilter != null) {
+            setNextContinuationToken(keysetFilter, result);
+        }
         T mappedResult = mapper.map(result);
         
         logger.debug("Mapped result is {}", mappedResult);
         return mappedResult;
     }
 
+    protected void validateKeysetQueryFilter(KeysetQueryFilter filter) {
+        if (filter.getKeyColumn() == null || filter.getKeyColumn().isEmpty()) {
+            throw new IllegalArgumentException("Key column must be set for keyset pagination of advanced queries");
+        }
+        if (filter.getOrderBy() != null && filter.getOrderBy().contains(",")) {
+            throw new IllegalArgumentException("Keyset pagination supports single order by column only, given " + filter.getOrderBy());
+        }
+    }
+
+    /**
+     * Adds seek filter and sorting by the sort column (if any) and the key column to the lookup
+     */
+    @SuppressWarnings("rawtypes")
+    protected void applyKeysetQueryFilter(DataSetLookupBuilder<?> builder, KeysetQueryFilter filter) {
+        String orderBy = filter.getOrderBy() == null || filter.getOrderBy().isEmpty() ? null : filter.getOrderBy().trim();
+        String keyColumn = filter.getKeyColumn();
+        boolean ascending = filter.isSortAscending();
+
+        Object[] values = filter.getContinuationValues();
+        if (values != null) {
+            Comparable keyValue = (Comparable) values[1];
+            ColumnFilter seekFilter = ascending ? greaterThan(keyColumn, keyValue) : lowerThan(keyColumn, keyValue);
+            if (orderBy != null) {
+                Comparable sortValue = (Comparable) values[0];
+                seekFilter = OR(ascending ? greaterThan(orderBy, sortValue) : lowerThan(orderBy, sortValue),
+                                AND(equalsTo(orderBy, sortValue), seekFilter));
+            }
+            logger.debug("Applying keyset filter {}", seekFilter);
+            builder.filter(seekFilter);
+        }
+        if (orderBy != null) {
+            builder.sort(orderBy, ascending ? "asc" : "desc");
+        }
+        builder.sort(keyColumn, ascending ? "asc" : "desc");
+    }
+
+    protected void setNextContinuationToken(KeysetQueryFilter filter, DataSet result) {
+        int rows = result.getRowCount();
+        if (rows == 0 || rows < filter.getCount()) {
+            filter.setNextContinuationToken(null);
+            return;
+        }
+        Object sortValue = null;
+        if (filter.getOrderBy() != null && !filter.getOrderBy().isEmpty()) {
+            sortValue = result.getColumnById(filter.getOrderBy().trim()).getValues().get(rows - 1);
+        }
+        Object keyValue = result.getColumnById(filter.getKeyColumn()).getValues().get(rows - 1);
+        filter.setNextContinuationToken(filter.createContinuationToken(sortValue, keyValue));
+    }
+
+    @Override
+    public <T> void stream(String queryName, StreamingQueryResultMapper<T> mapper, QueryContext queryContext, Consumer<? super T> consumer, QueryParam... filterParams) throws QueryNotFoundException {
+        stream(queryName, mapper, queryContext, consumer, new CoreFunctionQueryParamBuilder(filterParams));
+    }
+
+    @Override
+    public <T> void stream(String queryName, StreamingQueryResultMapper<T> mapper, QueryContext queryContext, Consumer<? super T> consumer, QueryParamBuilder<?> paramBuilder) throws QueryNotFoundException {
+        DataSetDef def = dataSetDefRegistry.getDataSetDef(queryName);
+        if (def == null) {
+            throw new QueryNotFoundException("Query " + queryName + " not found");
+        }
+        if (!(def instanceof SQLDataSetDef)) {
+            throw new IllegalArgumentException("Query " + queryName + " is not sql query and cannot be streamed");
+        }
+        SQLDataSetDef sqlDef = (SQLDataSetDef) def;
+        logger.debug("About to stream query using {} definition", queryName);
+
+        DataSetLookupBuilder<?> builder = DataSetLookupFactory.newDataSetLookupBuilder().dataset(queryName);
+        Object filter = paramBuilder.build();
+        while (filter != null ) {
+            if (filter instanceof ColumnFilter) {
+                builder.filter((ColumnFilter) filter);
+            } else {
+                throw new IllegalArgumentException("Unsupported filter '" + filter + "' for streaming query, only column filters are supported");
+            }
+            filter = paramBuilder.build();
+        }
+        DataSetLookup lookup = builder.buildLookup();
+        List<DataSetPreprocessor> preprocessors = dataSetDefRegistry.getDataSetDefPreProcessors(queryName);
+        if (preprocessors != null) {
+            for (DataSetPreprocessor preprocessor : preprocessors) {
+                preprocessor.preprocess(lookup);
+            }
+        }
+        List<ColumnFilter> columnFilters = new ArrayList<ColumnFilter>();
+        for (DataSetOp op : lookup.getOperationList()) {
+            if (op instanceof DataSetFilter) {
+                columnFilters.addAll(((DataSetFilter) op).getColumnFilterList());
+            } else if (op instanceof DataSetGroup) {
+                throw new IllegalArgumentException("Grouping is not supported by streaming query");
+            }
+        }
+
+        DataSetMetadata metadata = dataSetManager.getDataSetMetadata(queryName);
+        streamingExecutor.execute(sqlDef.getDataSource(), sqlDef.getDbSQL(), metadata.getColumnIds(), columnFilters, queryContext, mapper, consumer);
+    }
+
     @Override
     public QueryDefinition getQuery(String uniqueQueryName) throws QueryNotFoundException {
         Map<String, Object> params = new HashMap<String, Object>();
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.kie.services.impl.query;
+
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+import org.dashbuilder.dataset.filter.ColumnFilter;
+import org.dashbuilder.dataset.filter.CoreFunctionFilter;
+import org.dashbuilder.dataset.filter.LogicalExprFilter;
+import org.jbpm.services.api.query.StreamingQueryResultMapper;
+import org.jbpm.services.api.query.StreamingQueryResultMapper.RowMapping;
+import org.kie.api.runtime.query.QueryContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes sql query definitions with forward only, read only cursor and hands over rows to
+ * {@link StreamingQueryResultMapper} one by one. Column filters are translated into where clause
+ * of the query wrapping the query definition expression. Only columns of the query definition can be used
+ * in filters and sorting, they are always quoted and values are always bound as parameters.
+ * </p>
+ * Fetch size (number of rows fetched from data base at once) can be set with the
+ * <code>org.jbpm.query.stream.fetch.size</code> system property (defaults to 500). Auto commit of the connection
+ * is disabled while the rows are streamed (and restored afterwards) as e.g. PostgreSQL honors fetch size only
+ * within transaction. Note that MySQL requires fetch size to be set to <code>Integer.MIN_VALUE</code> to stream results.
+ */
+public class StreamingSqlQueryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingSqlQueryExecutor.class);
+
+    private final int fetchSize;
+
+    public StreamingSqlQueryExecutor() {
+        this(Integer.parseInt(System.getProperty("org.jbpm.query.stream.fetch.size", "500")));
+    }
+
+    public StreamingSqlQueryExecutor(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public <T> void execute(String dataSourceName, String expression, Collection<String> columns, List<ColumnFilter> filters,
+            QueryContext queryContext, StreamingQueryResultMapper<T> mapper, Consumer<? super T> consumer) {
+        DataSource dataSource = lookupDataSource(dataSourceName);
+        String sql = null;
+        long rows = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            List<Object> params = new ArrayList<Object>();
+            sql = buildQuery(expression, new QueryColumns(columns, connection.getMetaData().getIdentifierQuoteString()),
+                    filters, queryContext, mapper.getGroupingColumn(), params);
+            logger.debug("Streaming query {} with parameters {}", sql, params);
+
+            // some drivers (e.g. PostgreSQL) fetch all rows at once in auto commit mode regardless of fetch size
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                rows = stream(connection, sql, params, mapper, consumer);
+            } finally {
+                if (autoCommit) {
+                    restoreAutoCommit(connection);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to stream query " + (sql != null ? sql : expression) + " due to " + e.getMessage(), e);
+        }
+        logger.debug("Streamed {} rows of query {}", rows, sql);
+    }
+
+    protected <T> long stream(Connection connection, String sql, List<Object> params, StreamingQueryResultMapper<T> mapper,
+            Consumer<? super T> consumer) throws SQLException {
+        long rows = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                String[] resultColumns = new String[metaData.getColumnCount()];
+                for (int i = 0; i < resultColumns.length; i++) {
+                    resultColumns[i] = metaData.getColumnLabel(i + 1);
+                }
+                RowMapping<T> rowMapping = mapper.newRowMapping(consumer);
+                while (resultSet.next()) {
+                    Map<String, Object> row = new TreeMap<String, Object>(String.CASE_INSENSITIVE_ORDER);
+                    for (int i = 0; i < resultColumns.length; i++) {
+                        row.put(resultColumns[i], readValue(resultSet, i + 1));
+                    }
+                    rowMapping.mapRow(row);
+                    rows++;
+                }
+                rowMapping.complete();
+            }
+        }
+        return rows;
+    }
+
+    private void restoreAutoCommit(Connection connection) {
+        try {
+            // nothing was changed, just end the read only transaction before the connection is handed back
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.warn("Unable to restore auto commit of connection due to {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Builds query that wraps given expression with where clause created from column filters and order by
+     * clause based on query context. Rows are ordered by the grouping column first (when given) so rows that are
+     * mapped into single object are consecutive.
+     * @param columns columns of the query definition, only these can be used in filters and order by clause
+     * @param groupingColumn column identifying rows mapped into single object, might be null
+     * @param params list that the values of the filters are added to, in order of the parameters in the query
+     */
+    protected String buildQuery(String expression, QueryColumns columns, List<ColumnFilter> filters, QueryContext queryContext,
+            String groupingColumn, List<Object> params) {
+        StringBuilder sql = new StringBuilder("select * from (").append(expression).append(") dbSQL");
+        if (filters != null && !filters.isEmpty()) {
+            sql.append(" where ");
+            appendFilters(sql, columns, filters, " and ", params);
+        }
+        List<String> orderBy = new ArrayList<String>();
+        if (groupingColumn != null) {
+            orderBy.add(columns.quote(groupingColumn));
+        }
+        if (queryContext != null && queryContext.getOrderBy() != null && !queryContext.getOrderBy().isEmpty()) {
+            for (String orderByItem : queryContext.getOrderBy().split(",")) {
+                String column = columns.quote(orderByItem.trim());
+                if (!orderBy.contains(column)) {
+                    orderBy.add(column);
+                }
+            }
+        }
+        if (!orderBy.isEmpty()) {
+            // direction is never taken from the caller as text
+            String direction = queryContext != null && Boolean.FALSE.equals(queryContext.isAscending()) ? " desc" : " asc";
+            sql.append(" order by ");
+            for (int i = 0; i < orderBy.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(orderBy.get(i)).append(direction);
+            }
+        }
+        return sql.toString();
+    }
+
+    protected void appendFilters(StringBuilder sql, QueryColumns columns, List<ColumnFilter> filters, String operator, List<Object> params) {
+        for (int i = 0; i < filters.size(); i++) {
+            if (i > 0) {
+                sql.append(operator);
+            }
+            appendFilter(sql, columns, filters.get(i), params);
+        }
+    }
+
+    protected void appendFilter(StringBuilder sql, QueryColumns columns, ColumnFilter filter, List<Object> params) {
+        if (filter instanceof LogicalExprFilter) {
+            LogicalExprFilter logicalFilter = (LogicalExprFilter) filter;
+            String type = logicalFilter.getLogicalOperator().toString();
+            if ("NOT".equals(type)) {
+                sql.append("not ");
+                type = "AND";
+            }
+            sql.append("(");
+            appendFilters(sql, columns, logicalFilter.getLogicalTerms(), " " + type.toLowerCase() + " ", params);
+            sql.append(")");
+            return;
+        }
+        if (!(filter instanceof CoreFunctionFilter)) {
+            throw new IllegalArgumentException("Unsupported filter " + filter + " for streaming query");
+        }
+        CoreFunctionFilter coreFilter = (CoreFunctionFilter) filter;
+        String column = columns.quote(coreFilter.getColumnId());
+        List<Object> values = flatten(coreFilter.getParameters());
+        String type = coreFilter.getType().toString();
+
+        if ("IS_NULL".equals(type)) {
+            sql.append(column).append(" is null");
+        } else if ("NOT_NULL".equals(type)) {
+            sql.append(column).append(" is not null");
+        } else if ("EQUALS_TO".equals(type) || "IN".equals(type)) {
+            appendIn(sql, column, values, false, params);
+        } else if ("NOT_EQUALS_TO".equals(type) || "NOT_IN".equals(type)) {
+            appendIn(sql, column, values, true, params);
+        } else if ("LIKE_TO".equals(type)) {
+            boolean caseSensitive = values.size() < 2 || !Boolean.FALSE.equals(values.get(1));
+            if (caseSensitive) {
+                sql.append(column).append(" like ?");
+                params.add(values.get(0));
+            } else {
+                sql.append("lower(").append(column).append(") like ?");
+                params.add(values.get(0).toString().toLowerCase());
+            }
+        } else if ("GREATER_THAN".equals(type)) {
+            appendComparison(sql, column, " > ?", values, params);
+        } else if ("GREATER_OR_EQUALS_TO".equals(type)) {
+            appendComparison(sql, column, " >= ?", values, params);
+        } else if ("LOWER_THAN".equals(type)) {
+            appendComparison(sql, column, " < ?", values, params);
+        } else if ("LOWER_OR_EQUALS_TO".equals(type)) {
+            appendComparison(sql, column, " <= ?", values, params);
+        } else if ("BETWEEN".equals(type)) {
+            sql.append(column).append(" between ? and ?");
+            params.add(toParameter(values.get(0)));
+            params.add(toParameter(values.get(1)));
+        } else {
+            throw new IllegalArgumentException("Unsupported filter function " + type + " for streaming query");
+        }
+    }
+
+    private void appendIn(StringBuilder sql, String column, List<Object> values, boolean negated, List<Object> params) {
+        if (values.size() == 1) {
+            sql.append(column).append(negated ? " <> ?" : " = ?");
+            params.add(toParameter(values.get(0)));
+            return;
+        }
+        sql.append(column).append(negated ? " not in (" : " in (");
+        for (int i = 0; i < values.size(); i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+            params.add(toParameter(values.get(i)));
+        }
+        sql.append(")");
+    }
+
+    private void appendComparison(StringBuilder sql, String column, String comparison, List<Object> values, List<Object> params) {
+        sql.append(column).append(comparison);
+        params.add(toParameter(values.get(0)));
+    }
+
+    private List<Object> flatten(List<?> parameters) {
+        List<Object> values = new ArrayList<Object>();
+        if (parameters != null) {
+            for (Object parameter : parameters) {
+                if (parameter instanceof Collection) {
+                    values.addAll((Collection<?>) parameter);
+                } else {
+                    values.add(parameter);
+                }
+            }
+        }
+        return values;
+    }
+
+    private Object toParameter(Object value) {
+        if (value instanceof Date && !(value instanceof Timestamp)) {
+            return new Timestamp(((Date) value).getTime());
+        }
+        return value;
+    }
+
+    private Object readValue(ResultSet resultSet, int column) throws SQLException {
+        Object value = resultSet.getObject(column);
+        if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            return clob.getSubString(1, (int) clob.length());
+        }
+        return value;
+    }
+
+    protected DataSource lookupDataSource(String dataSourceName) {
+        try {
+            return InitialContext.doLookup(dataSourceName);
+        } catch (NamingException e) {
+            throw new RuntimeException("Unable to find data source " + dataSourceName + " for streaming query", e);
+        }
+    }
+
+    /**
+     * Columns of the query definition - column names given by the caller (filters, sorting) are never added to the
+     * query as they are, but resolved to the (quoted) name of the column of the query definition
+     */
+    public static class QueryColumns {
+
+        private final Map<String, String> columns = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        private final String quote;
+
+        /**
+         * @param columns ids of the columns of the query definition
+         * @param quote identifier quote string of the data base, blank if quoting is not supported
+         */
+        public QueryColumns(Collection<String> columns, String quote) {
+            for (String column : columns) {
+                this.columns.put(column, column);
+            }
+            this.quote = quote == null ? "" : quote.trim();
+        }
+
+        /**
+         * Resolves given column name to the quoted column of the query definition
+         * @throws IllegalArgumentException when the query definition has no such column
+         */
+        public String quote(String name) {
+            String column = name == null ? null : columns.get(name);
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown column '" + name + "' for streaming query, available columns are " + columns.keySet());
+            }
+            if (quote.isEmpty()) {
+                return column;
+            }
+            return quote + column.replace(quote, quote + quote) + quote;
+        }
+    }
+}
@@ -107,5 +107,54 @@ public abstract class AbstractQueryMapper<T> {
         
         return variables;
     }
-      
+
+    protected Long getColumnLongValue(Map<String, Object> row, String columnId){
+        Object value = row.get(columnId);
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    protected String getColumnStringValue(Map<String, Object> row, String columnId){
+        Object value = row.get(columnId);
+        return value != null ? value.toString() : null;
+    }
+
+    protected Date getColumnDateValue(Map<String, Object> row, String columnId){
+        Object value = row.get(columnId);
+        return value instanceof Date ? (Date) value : null;
+    }
+
+    protected int getColumnIntValue(Map<String, Object> row, String columnId){
+        Object value = row.get(columnId);
+        return value != null ? ((Number) value).intValue() : -1;
+    }
+
+    protected Double getColumnDoubleValue(Map<String, Object> row, String columnId){
+        Object value = row.get(columnId);
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
+
+    protected Map<String, Object> readVariables(Map<String, String> variablesMap, Map<String, Object> row) {
+        Map<String, Object> variables = new HashMap<String, Object>();
+
+        for (Entry<String, String> entry : variablesMap.entrySet()) {
+            String varName = entry.getKey();
+            Object varValue;
+            if (entry.getValue().equalsIgnoreCase(Long.class.getSimpleName())) {
+                varValue = getColumnLongValue(row, varName);
+            } else if (entry.getValue().equalsIgnoreCase(Integer.class.getSimpleName())) {
+                varValue = getColumnIntValue(row, varName);
+            } else if (entry.getValue().equalsIgnoreCase(Date.class.getSimpleName())) {
+                varValue = getColumnDateValue(row, varName);
+            } else if (entry.getValue().equalsIgnoreCase(Double.class.getSimpleName())) {
+                varValue = getColumnDoubleValue(row, varName);
+            } else {
+                varValue = getColumnStringValue(row, varName);
+            }
+
+            variables.put(varName, varValue);
+        }
+
+        return variables;
+    }
+
 }
@@ -19,16 +19,18 @@ package org.jbpm.kie.services.impl.query.mapper;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.dashbuilder.dataset.DataSet;
 import org.jbpm.services.api.model.ProcessInstanceDesc;
 import org.jbpm.services.api.query.QueryResultMapper;
+import org.jbpm.services.api.query.StreamingQueryResultMapper;
 
 /**
  * Dedicated mapper that transforms DataSet to ProcessInstanceDesc.
  *
  */
-public class ProcessInstanceQueryMapper extends AbstractQueryMapper<ProcessInstanceDesc> implements QueryResultMapper<List<ProcessInstanceDesc>> {
+public class ProcessInstanceQueryMapper extends AbstractQueryMapper<ProcessInstanceDesc> implements QueryResultMapper<List<ProcessInstanceDesc>>, StreamingQueryResultMapper<ProcessInstanceDesc> {
     
     private static final long serialVersionUID = 5935133069234696714L;
 
@@ -67,6 +69,12 @@ public class ProcessInstanceQueryMapper extends AbstractQueryMapper<ProcessInsta
         throw new IllegalArgumentException("Unsupported result for mapping " + result);
     }
     
+    @Override
+    public RowMapping<ProcessInstanceDesc> newRowMapping(Consumer<? super ProcessInstanceDesc> consumer) {
+        // every row is complete object
+        return row -> consumer.accept(buildInstance(row));
+    }
+
     protected ProcessInstanceDesc buildInstance(DataSet dataSetResult, int index) {
         ProcessInstanceDesc pi = new org.jbpm.kie.services.impl.model.ProcessInstanceDesc(
                 getColumnLongValue(dataSetResult, COLUMN_PROCESSINSTANCEID, index),
@@ -84,6 +92,23 @@ public class ProcessInstanceQueryMapper extends AbstractQueryMapper<ProcessInsta
         return pi;
     }
 
+    protected ProcessInstanceDesc buildInstance(Map<String, Object> row) {
+        ProcessInstanceDesc pi = new org.jbpm.kie.services.impl.model.ProcessInstanceDesc(
+                getColumnLongValue(row, COLUMN_PROCESSINSTANCEID),
+                getColumnStringValue(row, COLUMN_PROCESSID),
+                getColumnStringValue(row, COLUMN_PROCESSNAME),
+                getColumnStringValue(row, COLUMN_PROCESSVERSION),
+                getColumnIntValue(row, COLUMN_STATUS),
+                getColumnStringValue(row, COLUMN_EXTERNALID),
+                getColumnDateValue(row, COLUMN_START),
+                getColumnStringValue(row, COLUMN_IDENTITY),
+                getColumnStringValue(row, COLUMN_PROCESSINSTANCEDESCRIPTION),
+                getColumnStringValue(row, COLUMN_CORRELATIONKEY), 
+                getColumnLongValue(row, COLUMN_PARENTPROCESSINSTANCEID)
+                );
+        return pi;
+    }
+
     @Override
     public String getName() {
         return "ProcessInstances";
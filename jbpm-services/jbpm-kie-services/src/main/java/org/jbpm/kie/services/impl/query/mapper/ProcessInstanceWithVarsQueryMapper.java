@@ -20,18 +20,21 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.dashbuilder.dataset.DataSet;
 import org.jbpm.services.api.model.ProcessInstanceWithVarsDesc;
 import org.jbpm.services.api.query.QueryResultMapper;
+import org.jbpm.services.api.query.StreamingQueryResultMapper;
 
 /**
  * Dedicated mapper to transform data set into list of ProcessInstanceWithVarsDesc
  *
  */
-public class ProcessInstanceWithVarsQueryMapper extends AbstractQueryMapper<ProcessInstanceWithVarsDesc> implements QueryResultMapper<List<ProcessInstanceWithVarsDesc>> {
+public class ProcessInstanceWithVarsQueryMapper extends AbstractQueryMapper<ProcessInstanceWithVarsDesc> implements QueryResultMapper<List<ProcessInstanceWithVarsDesc>>, StreamingQueryResultMapper<ProcessInstanceWithVarsDesc> {
     
     private static final long serialVersionUID = 5935133069234696715L;
+
     /**
      * Dedicated for ServiceLoader to create instance, use <code>get()</code> method instead 
      */
@@ -76,6 +79,41 @@ public class ProcessInstanceWithVarsQueryMapper extends AbstractQueryMapper<Proc
         throw new IllegalArgumentException("Unsupported result for mapping " + result);
     }
     
+    @Override
+    public RowMapping<ProcessInstanceWithVarsDesc> newRowMapping(Consumer<? super ProcessInstanceWithVarsDesc> consumer) {
+        return new RowMapping<ProcessInstanceWithVarsDesc>() {
+
+            // instance being built, rows of the same instance are consecutive as query is ordered by its id first
+            private ProcessInstanceWithVarsDesc pending;
+
+            @Override
+            public void mapRow(Map<String, Object> row) {
+                Long processInstanceId = getColumnLongValue(row, COLUMN_PROCESSINSTANCEID);
+                if (pending != null && !pending.getId().equals(processInstanceId)) {
+                    consumer.accept(pending);
+                    pending = null;
+                }
+                if (pending == null) {
+                    pending = buildInstance(row);
+                }
+                ((org.jbpm.kie.services.impl.model.ProcessInstanceWithVarsDesc)pending).addVariable(getColumnStringValue(row, COLUMN_VAR_NAME), getColumnStringValue(row, COLUMN_VAR_VALUE));
+            }
+
+            @Override
+            public void complete() {
+                if (pending != null) {
+                    consumer.accept(pending);
+                    pending = null;
+                }
+            }
+        };
+    }
+
+    @Override
+    public String getGroupingColumn() {
+        return COLUMN_PROCESSINSTANCEID;
+    }
+
     protected ProcessInstanceWithVarsDesc buildInstance(DataSet dataSetResult, int index) {
         ProcessInstanceWithVarsDesc pi = new org.jbpm.kie.services.impl.model.ProcessInstanceWithVarsDesc(
                 getColumnLongValue(dataSetResult, COLUMN_PROCESSINSTANCEID, index),
@@ -92,6 +130,23 @@ public class ProcessInstanceWithVarsQueryMapper extends AbstractQueryMapper<Proc
                 );
         return pi;
     }
+
+    protected ProcessInstanceWithVarsDesc buildInstance(Map<String, Object> row) {
+        ProcessInstanceWithVarsDesc pi = new org.jbpm.kie.services.impl.model.ProcessInstanceWithVarsDesc(
+                getColumnLongValue(row, COLUMN_PROCESSINSTANCEID),
+                getColumnStringValue(row, COLUMN_PROCESSID),
+                getColumnStringValue(row, COLUMN_PROCESSNAME),
+                getColumnStringValue(row, COLUMN_PROCESSVERSION),
+                getColumnIntValue(row, COLUMN_STATUS),
+                getColumnStringValue(row, COLUMN_EXTERNALID),
+                getColumnDateValue(row, COLUMN_START),
+                getColumnStringValue(row, COLUMN_IDENTITY),
+                getColumnStringValue(row, COLUMN_PROCESSINSTANCEDESCRIPTION),
+                getColumnStringValue(row, COLUMN_CORRELATIONKEY), 
+                getColumnLongValue(row, COLUMN_PARENTPROCESSINSTANCEID)
+                );
+        return pi;
+    }
     
     @Override
     public String getName() {
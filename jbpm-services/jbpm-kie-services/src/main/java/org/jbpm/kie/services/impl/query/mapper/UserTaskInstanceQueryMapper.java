@@ -19,16 +19,18 @@ package org.jbpm.kie.services.impl.query.mapper;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.dashbuilder.dataset.DataSet;
 import org.jbpm.services.api.model.UserTaskInstanceDesc;
 import org.jbpm.services.api.query.QueryResultMapper;
+import org.jbpm.services.api.query.StreamingQueryResultMapper;
 
 /**
  * Dedicated mapper that transform data set into List of UserTaskInstanceDesc
  *
  */
-public class UserTaskInstanceQueryMapper extends AbstractQueryMapper<UserTaskInstanceDesc> implements QueryResultMapper<List<UserTaskInstanceDesc>> {
+public class UserTaskInstanceQueryMapper extends AbstractQueryMapper<UserTaskInstanceDesc> implements QueryResultMapper<List<UserTaskInstanceDesc>>, StreamingQueryResultMapper<UserTaskInstanceDesc> {
 
     private static final long serialVersionUID = 5935133069234696712L;
     /**
@@ -62,6 +64,12 @@ public class UserTaskInstanceQueryMapper extends AbstractQueryMapper<UserTaskIns
         throw new IllegalArgumentException("Unsupported result for mapping " + result);
     }
 
+    @Override
+    public RowMapping<UserTaskInstanceDesc> newRowMapping(Consumer<? super UserTaskInstanceDesc> consumer) {
+        // every row is complete object
+        return row -> consumer.accept(buildInstance(row));
+    }
+
     @Override
     protected UserTaskInstanceDesc buildInstance(DataSet dataSetResult, int index) {
         UserTaskInstanceDesc userTask = new org.jbpm.kie.services.impl.model.UserTaskInstanceDesc(
@@ -81,6 +89,25 @@ public class UserTaskInstanceQueryMapper extends AbstractQueryMapper<UserTaskIns
                 );
         return userTask;
     }
+
+    protected UserTaskInstanceDesc buildInstance(Map<String, Object> row) {
+        UserTaskInstanceDesc userTask = new org.jbpm.kie.services.impl.model.UserTaskInstanceDesc(
+                getColumnLongValue(row, COLUMN_TASKID),//taskId,
+                getColumnStringValue(row, COLUMN_TASK_STATUS),//status,
+                getColumnDateValue(row, COLUMN_ACTIVATIONTIME),//activationTime,
+                getColumnStringValue(row, COLUMN_NAME),//name,
+                getColumnStringValue(row, COLUMN_DESCRIPTION),//description,
+                getColumnIntValue(row, COLUMN_PRIORITY),//priority,
+                getColumnStringValue(row, COLUMN_ACTUALOWNER),//actualOwner,
+                getColumnStringValue(row, COLUMN_CREATEDBY),//createdBy,
+                getColumnStringValue(row, COLUMN_DEPLOYMENTID),//deploymentId,
+                getColumnStringValue(row, COLUMN_TASK_PROCESSID),//processId,
+                getColumnLongValue(row, COLUMN_TASK_PROCESSINSTANCEID),//processInstanceId,
+                getColumnDateValue(row, COLUMN_CREATEDON),//createdOn,
+                getColumnDateValue(row, COLUMN_DUEDATE)//dueDate
+                );
+        return userTask;
+    }
     
     @Override
     public String getName() {
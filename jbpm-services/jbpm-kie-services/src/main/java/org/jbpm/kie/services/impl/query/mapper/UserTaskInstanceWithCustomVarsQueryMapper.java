@@ -20,16 +20,18 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.dashbuilder.dataset.DataSet;
 import org.jbpm.services.api.model.UserTaskInstanceWithVarsDesc;
 import org.jbpm.services.api.query.QueryResultMapper;
+import org.jbpm.services.api.query.StreamingQueryResultMapper;
 
 /**
  * Dedicated mapper that transforms data set into UserTaskInstanceWithVarsDesc based on given mapping of custom variables
  *
  */
-public class UserTaskInstanceWithCustomVarsQueryMapper extends AbstractQueryMapper<UserTaskInstanceWithVarsDesc> implements QueryResultMapper<List<UserTaskInstanceWithVarsDesc>> {
+public class UserTaskInstanceWithCustomVarsQueryMapper extends AbstractQueryMapper<UserTaskInstanceWithVarsDesc> implements QueryResultMapper<List<UserTaskInstanceWithVarsDesc>>, StreamingQueryResultMapper<UserTaskInstanceWithVarsDesc> {
 
     private static final long serialVersionUID = 5935133069234696711L;
     
@@ -81,6 +83,41 @@ public class UserTaskInstanceWithCustomVarsQueryMapper extends AbstractQueryMapp
         throw new IllegalArgumentException("Unsupported result for mapping " + result);
     }
 
+    @Override
+    public RowMapping<UserTaskInstanceWithVarsDesc> newRowMapping(Consumer<? super UserTaskInstanceWithVarsDesc> consumer) {
+        return new RowMapping<UserTaskInstanceWithVarsDesc>() {
+
+            // task being built, rows of the same task are consecutive as query is ordered by its id first
+            private UserTaskInstanceWithVarsDesc pending;
+
+            @Override
+            public void mapRow(Map<String, Object> row) {
+                Long taskId = getColumnLongValue(row, COLUMN_TASKID);
+                if (pending != null && !pending.getTaskId().equals(taskId)) {
+                    consumer.accept(pending);
+                    pending = null;
+                }
+                if (pending == null) {
+                    pending = buildInstance(row);
+                }
+                ((org.jbpm.kie.services.impl.model.UserTaskInstanceWithVarsDesc) pending).setVariables(readVariables(variablesMap, row));
+            }
+
+            @Override
+            public void complete() {
+                if (pending != null) {
+                    consumer.accept(pending);
+                    pending = null;
+                }
+            }
+        };
+    }
+
+    @Override
+    public String getGroupingColumn() {
+        return COLUMN_TASKID;
+    }
+
     @Override
     protected UserTaskInstanceWithVarsDesc buildInstance(DataSet dataSetResult, int index) {
         UserTaskInstanceWithVarsDesc userTask = new org.jbpm.kie.services.impl.model.UserTaskInstanceWithVarsDesc(
@@ -101,6 +138,25 @@ public class UserTaskInstanceWithCustomVarsQueryMapper extends AbstractQueryMapp
         return userTask;
     }
 
+    protected UserTaskInstanceWithVarsDesc buildInstance(Map<String, Object> row) {
+        UserTaskInstanceWithVarsDesc userTask = new org.jbpm.kie.services.impl.model.UserTaskInstanceWithVarsDesc(
+                getColumnLongValue(row, COLUMN_TASKID),//taskId,
+                getColumnStringValue(row, COLUMN_TASK_STATUS),//status,
+                getColumnDateValue(row, COLUMN_ACTIVATIONTIME),//activationTime,
+                getColumnStringValue(row, COLUMN_NAME),//name,
+                getColumnStringValue(row, COLUMN_DESCRIPTION),//description,
+                getColumnIntValue(row, COLUMN_PRIORITY),//priority,
+                getColumnStringValue(row, COLUMN_ACTUALOWNER),//actualOwner,
+                getColumnStringValue(row, COLUMN_CREATEDBY),//createdBy,
+                getColumnStringValue(row, COLUMN_DEPLOYMENTID),//deploymentId,
+                getColumnStringValue(row, COLUMN_TASK_PROCESSID),//processId,
+                getColumnLongValue(row, COLUMN_TASK_PROCESSINSTANCEID),//processInstanceId,
+                getColumnDateValue(row, COLUMN_CREATEDON),//createdOn,
+                getColumnDateValue(row, COLUMN_DUEDATE)//dueDate
+                );
+        return userTask;
+    }
+
     @Override
     public String getName() {
         return "UserTasksWithCustomVariables";
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.kie.services.impl.form;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jbpm.kie.services.impl.FormManagerServiceImpl;
+import org.jbpm.kie.services.impl.form.provider.InMemoryFormProvider;
+import org.jbpm.kie.services.impl.model.ProcessAssetDesc;
+import org.jbpm.services.api.DeploymentEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import freemarker.template.Template;
+
+import static org.junit.Assert.*;
+
+public class InMemoryFormProviderTest {
+
+    private static final String DEPLOYMENT_ID = "org.jbpm:test:1.0";
+    private static final String PROCESS_ID = "org.jbpm.test";
+    private static final String FORM_KEY = PROCESS_ID + "-taskform.ftl";
+
+    private FormManagerServiceImpl formManagerService;
+    private TestInMemoryFormProvider formProvider;
+    private FormProviderServiceImpl formProviderService;
+    private ProcessAssetDesc process;
+
+    @Before
+    public void init() {
+        formManagerService = new FormManagerServiceImpl();
+        formManagerService.registerForm(DEPLOYMENT_ID, FORM_KEY, "Hello ${name}");
+
+        formProvider = new TestInMemoryFormProvider();
+        formProvider.setFormManagerService(formManagerService);
+
+        formProviderService = new FormProviderServiceImpl();
+        formProviderService.setProviders(Collections.<FormProvider>singleton(formProvider));
+
+        process = new ProcessAssetDesc(PROCESS_ID, "test", "1.0", "org.jbpm", "RuleFlow", "PROCESS", "org.jbpm", DEPLOYMENT_ID);
+    }
+
+    @Test
+    public void testTemplateCompiledOnce() {
+        Map<String, Object> renderContext = new HashMap<String, Object>();
+        renderContext.put("name", "john");
+
+        assertEquals("Hello john", formProvider.render("test", process, renderContext));
+        Template template = formProvider.getTemplate(FORM_KEY);
+        assertEquals("Hello john", formProvider.render("test", process, renderContext));
+        assertSame(template, formProvider.getTemplate(FORM_KEY));
+    }
+
+    @Test
+    public void testTemplateCompiledOnDeployAndEvictedOnUndeploy() {
+        formProviderService.onDeploy(new DeploymentEvent(DEPLOYMENT_ID, null));
+        Template template = formProvider.getTemplate(FORM_KEY);
+
+        Map<String, Object> renderContext = new HashMap<String, Object>();
+        renderContext.put("name", "john");
+        assertEquals("Hello john", formProvider.render("test", process, renderContext));
+        assertSame(template, formProvider.getTemplate(FORM_KEY));
+
+        formProviderService.onUnDeploy(new DeploymentEvent(DEPLOYMENT_ID, null));
+        assertNotSame(template, formProvider.getTemplate(FORM_KEY));
+    }
+
+    @Test
+    public void testTemplateRecompiledWhenChanged() {
+        Map<String, Object> renderContext = new HashMap<String, Object>();
+        renderContext.put("name", "john");
+        assertEquals("Hello john", formProvider.render("test", process, renderContext));
+
+        formManagerService.registerForm(DEPLOYMENT_ID, FORM_KEY, "Bye ${name}");
+        assertEquals("Bye john", formProvider.render("test", process, renderContext));
+    }
+
+    private static class TestInMemoryFormProvider extends InMemoryFormProvider {
+
+        Template getTemplate(String key) {
+            return getTemplate(key, DEPLOYMENT_ID, key, formManagerService.getFormByKey(DEPLOYMENT_ID, key));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.kie.services.impl.query;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.dashbuilder.dataset.filter.ColumnFilter;
+import org.junit.Test;
+import org.kie.api.runtime.query.QueryContext;
+
+import static org.dashbuilder.dataset.filter.FilterFactory.*;
+import static org.jbpm.services.api.query.QueryResultMapper.*;
+import static org.junit.Assert.*;
+
+public class StreamingSqlQueryExecutorTest {
+
+    private StreamingSqlQueryExecutor executor = new StreamingSqlQueryExecutor(100);
+
+    private StreamingSqlQueryExecutor.QueryColumns columns = new StreamingSqlQueryExecutor.QueryColumns(
+            Arrays.asList(COLUMN_PROCESSINSTANCEID, COLUMN_PROCESSNAME, COLUMN_STATUS, COLUMN_CORRELATIONKEY, COLUMN_START), "\"");
+
+    @Test
+    public void testQueryWithoutFilters() {
+        List<Object> params = new ArrayList<Object>();
+        String sql = executor.buildQuery("select * from processinstancelog", columns, Collections.<ColumnFilter>emptyList(), new QueryContext(), null, params);
+
+        assertEquals("select * from (select * from processinstancelog) dbSQL", sql);
+        assertTrue(params.isEmpty());
+    }
+
+    @Test
+    public void testQueryWithFiltersAndSorting() {
+        List<Object> params = new ArrayList<Object>();
+        List<ColumnFilter> filters = Arrays.asList(
+                equalsTo(COLUMN_STATUS, Arrays.<Comparable>asList(1, 2)),
+                likeTo(COLUMN_PROCESSNAME, "%Doc%", false),
+                OR(isNull(COLUMN_CORRELATIONKEY), notEqualsTo(COLUMN_CORRELATIONKEY, "key")));
+
+        String sql = executor.buildQuery("select * from processinstancelog", columns, filters, new QueryContext("processName, " + COLUMN_PROCESSINSTANCEID, false), null, params);
+
+        assertEquals("select * from (select * from processinstancelog) dbSQL where \"STATUS\" in (?, ?)"
+                + " and lower(\"PROCESSNAME\") like ? and (\"CORRELATIONKEY\" is null or \"CORRELATIONKEY\" <> ?)"
+                + " order by \"PROCESSNAME\" desc, \"PROCESSINSTANCEID\" desc", sql);
+        assertEquals(Arrays.<Object>asList(1, 2, "%doc%", "key"), params);
+    }
+
+    @Test
+    public void testQueryWithDateRange() {
+        List<Object> params = new ArrayList<Object>();
+        Date from = new Date(1000);
+        Date to = new Date(2000);
+
+        String sql = executor.buildQuery("select * from processinstancelog", columns, Arrays.asList(between(COLUMN_START, from, to)), null, null, params);
+
+        assertEquals("select * from (select * from processinstancelog) dbSQL where \"START_DATE\" between ? and ?", sql);
+        assertEquals(Arrays.<Object>asList(new Timestamp(1000), new Timestamp(2000)), params);
+    }
+
+    @Test
+    public void testGroupingColumnIsLeadingSortColumn() {
+        List<Object> params = new ArrayList<Object>();
+        String sql = executor.buildQuery("select * from processinstancelog", columns, null, new QueryContext(COLUMN_PROCESSNAME + "," + COLUMN_PROCESSINSTANCEID, true), COLUMN_PROCESSINSTANCEID, params);
+
+        assertEquals("select * from (select * from processinstancelog) dbSQL order by \"PROCESSINSTANCEID\" asc, \"PROCESSNAME\" asc", sql);
+
+        sql = executor.buildQuery("select * from processinstancelog", columns, null, null, COLUMN_PROCESSINSTANCEID, params);
+        assertEquals("select * from (select * from processinstancelog) dbSQL order by \"PROCESSINSTANCEID\" asc", sql);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownSortColumnRejected() {
+        executor.buildQuery("select * from processinstancelog", columns, null,
+                new QueryContext(COLUMN_PROCESSNAME + " desc; delete from processinstancelog --", true), null, new ArrayList<Object>());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFilterColumnRejected() {
+        executor.buildQuery("select * from processinstancelog", columns,
+                Arrays.asList(isNull("1=1 or " + COLUMN_STATUS)), null, null, new ArrayList<Object>());
+    }
+
+    @Test
+    public void testQuoteInColumnNameEscaped() {
+        StreamingSqlQueryExecutor.QueryColumns quoted = new StreamingSqlQueryExecutor.QueryColumns(Arrays.asList("odd\"name"), "\"");
+        assertEquals("\"odd\"\"name\"", quoted.quote("ODD\"NAME"));
+    }
+}
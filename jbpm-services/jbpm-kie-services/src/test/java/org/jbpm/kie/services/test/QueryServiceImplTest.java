@@ -63,6 +63,8 @@ import org.jbpm.services.api.query.NamedQueryMapper;
 import org.jbpm.services.api.query.QueryNotFoundException;
 import org.jbpm.services.api.query.QueryParamBuilder;
 import org.jbpm.services.api.query.QueryParamBuilderFactory;
+import org.jbpm.services.api.query.StreamingQueryService;
+import org.jbpm.services.api.query.model.KeysetQueryFilter;
 import org.jbpm.services.api.query.model.QueryDefinition;
 import org.jbpm.services.api.query.model.QueryDefinition.Target;
 import org.jbpm.services.api.query.model.QueryParam;
@@ -281,6 +283,94 @@ private static final Logger logger = LoggerFactory.getLogger(KModuleDeploymentSe
     	assertEquals(3, (int)instances.iterator().next().getState());
     }
     
+    @Test
+    public void testGetProcessInstancesKeysetPaging() {
+        query = new SqlQueryDefinition("getAllProcessInstances", dataSourceJNDIname);
+        query.setExpression("select * from processinstancelog");
+
+        queryService.registerQuery(query);
+
+        List<Long> processInstanceIds = new ArrayList<Long>();
+        for (int i = 0; i < 5; i++) {
+            processInstanceIds.add(processService.startProcess(deploymentUnit.getIdentifier(), "org.jbpm.writedocument"));
+        }
+
+        KeysetQueryFilter filter = new KeysetQueryFilter(2, COLUMN_PROCESSNAME, true);
+        filter.setKeyColumn(COLUMN_PROCESSINSTANCEID);
+        List<Long> pagedIds = new ArrayList<Long>();
+        do {
+            Collection<ProcessInstanceDesc> instances = queryService.query(query.getName(), ProcessInstanceQueryMapper.get(), filter,
+                    QueryParam.equalsTo(COLUMN_STATUS, 1));
+            assertTrue(instances.size() <= 2);
+            for (ProcessInstanceDesc instance : instances) {
+                pagedIds.add(instance.getId());
+            }
+        } while (filter.nextPage());
+
+        assertEquals(processInstanceIds, pagedIds);
+
+        for (Long processInstanceId : processInstanceIds) {
+            processService.abortProcessInstance(processInstanceId);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetProcessInstancesKeysetPagingWithoutKeyColumn() {
+        query = new SqlQueryDefinition("getAllProcessInstances", dataSourceJNDIname);
+        query.setExpression("select * from processinstancelog");
+
+        queryService.registerQuery(query);
+
+        queryService.query(query.getName(), ProcessInstanceQueryMapper.get(), new KeysetQueryFilter(2));
+    }
+
+    @Test
+    public void testStreamProcessInstancesWithVariables() {
+        query = new SqlQueryDefinition("getAllProcessInstancesWithVariables", dataSourceJNDIname);
+        query.setExpression("select pil.*, v.variableId, v.value " +
+                            "from ProcessInstanceLog pil " +
+                            "inner join VariableInstanceLog v " +
+                            "on (v.processInstanceId = pil.processInstanceId)");
+
+        queryService.registerQuery(query);
+
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("approval_document", "initial content");
+        List<Long> processInstanceIds = new ArrayList<Long>();
+        for (int i = 0; i < 3; i++) {
+            processInstanceIds.add(processService.startProcess(deploymentUnit.getIdentifier(), "org.jbpm.writedocument", params));
+        }
+
+        final List<ProcessInstanceWithVarsDesc> streamed = new ArrayList<ProcessInstanceWithVarsDesc>();
+        ((StreamingQueryService) queryService).stream(query.getName(), ProcessInstanceWithVarsQueryMapper.get(),
+                new QueryContext(COLUMN_PROCESSINSTANCEID, true), streamed::add,
+                QueryParam.equalsTo(COLUMN_VAR_NAME, "approval_document"));
+
+        assertEquals(3, streamed.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(processInstanceIds.get(i), streamed.get(i).getId());
+            assertEquals("initial content", streamed.get(i).getVariables().get("approval_document"));
+        }
+
+        final List<ProcessInstanceDesc> active = new ArrayList<ProcessInstanceDesc>();
+        query = new SqlQueryDefinition("getAllProcessInstances", dataSourceJNDIname);
+        query.setExpression("select * from processinstancelog");
+        queryService.registerQuery(query);
+
+        processService.abortProcessInstance(processInstanceIds.get(0));
+        ((StreamingQueryService) queryService).stream(query.getName(), ProcessInstanceQueryMapper.get(),
+                new QueryContext(COLUMN_PROCESSINSTANCEID, false), active::add,
+                QueryParam.equalsTo(COLUMN_STATUS, 1));
+
+        assertEquals(2, active.size());
+        assertEquals(processInstanceIds.get(2), active.get(0).getId());
+        assertEquals(processInstanceIds.get(1), active.get(1).getId());
+
+        for (Long processInstanceId : processInstanceIds.subList(1, 3)) {
+            processService.abortProcessInstance(processInstanceId);
+        }
+    }
+
     @Test
     public void testGetProcessInstancesByProcessId() {
         query = new SqlQueryDefinition("getAllProcessInstances", dataSourceJNDIname);
@@ -27,6 +27,7 @@ import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +45,7 @@ import org.jbpm.services.api.model.ProcessDefinition;
 import org.jbpm.services.api.model.ProcessInstanceDesc;
 import org.jbpm.services.api.model.UserTaskInstanceDesc;
 import org.jbpm.services.api.model.VariableDesc;
+import org.jbpm.services.api.query.model.KeysetQueryFilter;
 import org.jbpm.workflow.instance.impl.WorkflowProcessInstanceImpl;
 import org.jbpm.workflow.instance.node.WorkItemNodeInstance;
 import org.junit.After;
@@ -328,6 +330,49 @@ private static final Logger logger = LoggerFactory.getLogger(KModuleDeploymentSe
     	assertEquals(3, (int)instances.iterator().next().getState());
     }
 
+    @Test
+    public void testGetProcessInstancesKeysetPaging() {
+    	List<Long> processInstanceIds = new ArrayList<Long>();
+    	for (int i = 0; i < 5; i++) {
+    		processInstanceIds.add(processService.startProcess(deploymentUnit.getIdentifier(), "org.jbpm.writedocument"));
+    	}
+
+    	KeysetQueryFilter filter = new KeysetQueryFilter(2, "ProcessInstanceId", false);
+    	List<Long> pagedIds = new ArrayList<Long>();
+    	int pages = 0;
+    	do {
+    		Collection<ProcessInstanceDesc> instances = runtimeDataService.getProcessInstances(filter);
+    		assertTrue(instances.size() <= 2);
+    		for (ProcessInstanceDesc instance : instances) {
+    			pagedIds.add(instance.getId());
+    		}
+    		pages++;
+    	} while (filter.nextPage());
+
+    	assertEquals(3, pages);
+    	Collections.reverse(processInstanceIds);
+    	assertEquals(processInstanceIds, pagedIds);
+
+    	// token can be passed over to a new filter
+    	filter = new KeysetQueryFilter(2, "ProcessInstanceId", false);
+    	runtimeDataService.getProcessInstances(filter);
+    	KeysetQueryFilter nextFilter = new KeysetQueryFilter(filter.getNextContinuationToken(), 2, "ProcessInstanceId", false);
+    	Collection<ProcessInstanceDesc> instances = runtimeDataService.getProcessInstances(nextFilter);
+    	assertEquals(2, instances.size());
+    	assertEquals(processInstanceIds.get(2), instances.iterator().next().getId());
+
+    	for (Long processInstanceId : processInstanceIds) {
+    		processService.abortProcessInstance(processInstanceId);
+    	}
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetProcessInstancesKeysetPagingInvalidToken() {
+    	KeysetQueryFilter filter = new KeysetQueryFilter(2, "ProcessInstanceId", true);
+    	filter.setContinuationToken(new KeysetQueryFilter(2, "StartDate", true).createContinuationToken(new Date(), 1L));
+    	runtimeDataService.getProcessInstances(filter);
+    }
+
     @Test
     public void testGetProcessInstancesByState() {
     	Collection<ProcessInstanceDesc> instances = runtimeDataService.getProcessInstances(new QueryContext());
@@ -1140,6 +1185,33 @@ private static final Logger logger = LoggerFactory.getLogger(KModuleDeploymentSe
     	}
     }
 
+    @Test
+    public void testGetTasksAssignedAsPotentialOwnerKeysetPaging() {
+    	List<Long> processInstanceIds = new ArrayList<Long>();
+    	for (int i = 0; i < 5; i++) {
+    		processInstanceIds.add(processService.startProcess(deploymentUnit.getIdentifier(), "org.jbpm.writedocument"));
+    	}
+
+    	KeysetQueryFilter filter = new KeysetQueryFilter(2, "Id", true);
+    	List<Long> taskIds = new ArrayList<Long>();
+    	do {
+    		List<TaskSummary> tasks = runtimeDataService.getTasksAssignedAsPotentialOwner("salaboy", filter);
+    		assertTrue(tasks.size() <= 2);
+    		for (TaskSummary task : tasks) {
+    			taskIds.add(task.getId());
+    		}
+    	} while (filter.nextPage());
+
+    	assertEquals(5, taskIds.size());
+    	List<Long> sortedTaskIds = new ArrayList<Long>(taskIds);
+    	Collections.sort(sortedTaskIds);
+    	assertEquals(sortedTaskIds, taskIds);
+
+    	for (Long processInstanceId : processInstanceIds) {
+    		processService.abortProcessInstance(processInstanceId);
+    	}
+    }
+
     @Test
     public void testTasksByStatusByProcessInstanceIdPagingAndFiltering() {
 
@@ -45,6 +45,8 @@ import org.kie.internal.task.query.TaskSummaryQueryBuilder;
  * 	<li>node instance information</li>
  * 	<li>variable information</li>
  * </ul>
+ * Process instance queries, variable history and tasks assigned as potential owner or owned by user support keyset pagination
+ * when given {@link org.jbpm.services.api.query.model.KeysetQueryFilter} as query context.
  */
 public interface RuntimeDataService {
 	/**
@@ -69,7 +69,8 @@ public interface QueryService {
      * Performs query on given query definition that had to be previously registered. Results will be mapped 
      * by given <code>mapper</code> and:
      * <ul>
-     *  <li>sorting and paging will be applied based on <code>queryContext</code></li>
+     *  <li>sorting and paging will be applied based on <code>queryContext</code> - keyset pagination is used
+     *  when it is {@link org.jbpm.services.api.query.model.KeysetQueryFilter} with key column set</li>
      *  <li>filtering of results will be done based on <code>filterParams</code> if given</li>
      *</ul>
      * @param queryName unique name that query was registered under
@@ -85,7 +86,8 @@ public interface QueryService {
      * Performs query on given query definition that had to be previously registered. Results will be mapped 
      * by given <code>mapper</code> and:
      * <ul>
-     *  <li>sorting and paging will be applied based on <code>queryContext</code></li>
+     *  <li>sorting and paging will be applied based on <code>queryContext</code> - keyset pagination is used
+     *  when it is {@link org.jbpm.services.api.query.model.KeysetQueryFilter} with key column set</li>
      *  <li>filtering of results will be done based on <code>paramBuilder</code> which 
      *  is an implementation of <code>QueryParamBuilder</code> for building advanced filters</li>
      *</ul>
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.services.api.query;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Maps rows of streamed query one by one, so mapped objects can be handed over as soon as they are complete
+ * instead of mapping whole data set at once.
+ * <br/>
+ * Mappers that build single object out of multiple rows (e.g. instance with its variables) declare the column
+ * identifying the object as grouping column, streamed query is then always ordered by that column first so rows
+ * of the same object are consecutive. State of the object being built is kept by the {@link RowMapping} created
+ * for every query, so the mapper itself can be shared.
+ *
+ * @param <T> type of the object this mapper will produce
+ */
+public interface StreamingQueryResultMapper<T> {
+
+    /**
+     * Creates mapping of the rows of single streamed query
+     * @param consumer consumer of mapped objects, receives all objects as soon as they are complete
+     * @return new row mapping, used by single query only
+     */
+    RowMapping<T> newRowMapping(Consumer<? super T> consumer);
+
+    /**
+     * Returns column that identifies object built out of multiple rows
+     * @return column id or null when every row is mapped into separate object
+     */
+    default String getGroupingColumn() {
+        return null;
+    }
+
+    /**
+     * Mapping of the rows of single streamed query
+     *
+     * @param <T> type of the object this mapping will produce
+     */
+    interface RowMapping<T> {
+
+        /**
+         * Maps single row of the query result
+         * @param row column values of the row by column name (case insensitive)
+         */
+        void mapRow(Map<String, Object> row);
+
+        /**
+         * Invoked after the last row was mapped to hand over object that is still being built
+         */
+        default void complete() {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.services.api.query;
+
+import java.util.function.Consumer;
+
+import org.jbpm.services.api.query.model.QueryParam;
+import org.kie.api.runtime.query.QueryContext;
+
+/**
+ * Streaming access to query definitions registered in {@link QueryService}. Instead of loading complete result
+ * into memory, rows are read with forward only cursor and mapped objects are handed over to the consumer
+ * as they are read, so memory consumption does not depend on size of the result - intended for exports
+ * and reporting over large data.
+ * <br/>
+ * Query context provides sorting only - offset and count are ignored and all matching rows are streamed. Sort columns
+ * must be columns of the query definition. Mappers that group rows (see {@link StreamingQueryResultMapper#getGroupingColumn()})
+ * always have their grouping column as leading sort column.
+ * Filtering is supported (including filters added by query target e.g. potential owners), grouping and aggregate
+ * functions are not.
+ */
+public interface StreamingQueryService {
+
+    /**
+     * Streams results of given query definition that had to be previously registered.
+     * @param queryName unique name that query was registered under
+     * @param mapper mapper that maps rows into objects
+     * @param queryContext query context carrying sorting details
+     * @param consumer consumer of mapped objects, invoked while the query is being read
+     * @param filterParams additional filter parameters to narrow down the result
+     * @throws QueryNotFoundException in case there is no such query registered
+     */
+    <T> void stream(String queryName, StreamingQueryResultMapper<T> mapper, QueryContext queryContext, Consumer<? super T> consumer, QueryParam...filterParams) throws QueryNotFoundException;
+
+    /**
+     * Streams results of given query definition that had to be previously registered.
+     * @param queryName unique name that query was registered under
+     * @param mapper mapper that maps rows into objects
+     * @param queryContext query context carrying sorting details
+     * @param consumer consumer of mapped objects, invoked while the query is being read
+     * @param paramBuilder implementation of <code>QueryParamBuilder</code> that allows to build custom filters in advanced way
+     * @throws QueryNotFoundException in case there is no such query registered
+     */
+    <T> void stream(String queryName, StreamingQueryResultMapper<T> mapper, QueryContext queryContext, Consumer<? super T> consumer, QueryParamBuilder<?> paramBuilder) throws QueryNotFoundException;
+}
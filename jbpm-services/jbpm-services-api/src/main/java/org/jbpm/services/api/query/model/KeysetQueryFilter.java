@@ -0,0 +1,227 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.services.api.query.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.Date;
+
+import org.kie.internal.query.QueryFilter;
+
+/**
+ * Query filter for keyset (seek) pagination. Instead of skipping <code>offset</code> rows, the next page is selected
+ * with a predicate on the sort column and a unique key column that continues right after the last row of the previous page:
+ * <pre>
+ * KeysetQueryFilter filter = new KeysetQueryFilter(100, "StartDate", true);
+ * do {
+ *     Collection&lt;ProcessInstanceDesc&gt; page = runtimeDataService.getProcessInstances(filter);
+ *     ...
+ * } while (filter.nextPage());
+ * </pre>
+ * Position of the page is kept in an opaque continuation token - the token of the next page is set by the service
+ * once the query is executed and can be handed over to a client and passed back to continue with the next page.
+ * <br/>
+ * Offset is ignored, order by supports single sort column only and the sort column must not contain null values.
+ * If order by is not set rows are ordered by the key column only.
+ * Key column is given by the service for predefined queries and must be set with {@link #setKeyColumn(String)}
+ * for advanced queries of <code>QueryService</code> - it must be unique within the query result.
+ */
+public class KeysetQueryFilter extends QueryFilter {
+
+    private static final long serialVersionUID = 2930764587294730471L;
+
+    private static final byte TOKEN_VERSION = 1;
+
+    private String keyColumn;
+    private String continuationToken;
+    private String nextContinuationToken;
+
+    public KeysetQueryFilter(int count) {
+        super(0, count);
+    }
+
+    public KeysetQueryFilter(int count, String orderBy, boolean ascending) {
+        this(null, count, orderBy, ascending);
+    }
+
+    public KeysetQueryFilter(String continuationToken, int count, String orderBy, boolean ascending) {
+        super(0, count);
+        setOrderBy(orderBy);
+        setAscending(ascending);
+        this.continuationToken = continuationToken;
+    }
+
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+
+    public void setKeyColumn(String keyColumn) {
+        this.keyColumn = keyColumn;
+    }
+
+    /**
+     * @return token of the page to be queried, null for the first page
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * @return token of the page following the last queried page, null if there are no more pages
+     */
+    public String getNextContinuationToken() {
+        return nextContinuationToken;
+    }
+
+    public void setNextContinuationToken(String nextContinuationToken) {
+        this.nextContinuationToken = nextContinuationToken;
+    }
+
+    /**
+     * Moves this filter to the page following the last queried page
+     * @return true if there is next page, false otherwise
+     */
+    public boolean nextPage() {
+        if (nextContinuationToken == null) {
+            return false;
+        }
+        continuationToken = nextContinuationToken;
+        nextContinuationToken = null;
+        return true;
+    }
+
+    public boolean isSortAscending() {
+        return !Boolean.FALSE.equals(isAscending());
+    }
+
+    /**
+     * Creates continuation token pointing right after the row with given values
+     * @param sortValue value of the sort column of the last row, ignored when order by is not set
+     * @param keyValue value of the key column of the last row
+     * @return opaque continuation token
+     */
+    public String createContinuationToken(Object sortValue, Object keyValue) {
+        if (keyValue == null) {
+            throw new IllegalArgumentException("Key value of continuation token cannot be null");
+        }
+        if (getOrderBy() != null && sortValue == null) {
+            throw new IllegalArgumentException("Keyset pagination does not support null values of sort column " + getOrderBy());
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(TOKEN_VERSION);
+            out.writeUTF(getOrderBy() == null ? "" : getOrderBy());
+            out.writeBoolean(isSortAscending());
+            writeValue(out, getOrderBy() == null ? null : sortValue);
+            writeValue(out, keyValue);
+            out.close();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create continuation token", e);
+        }
+    }
+
+    /**
+     * Reads values of the last row of previous page from the continuation token
+     * @return array with value of the sort column (null when order by is not set) and value of the key column,
+     * or null if there is no continuation token
+     * @throws IllegalArgumentException in case the token is not valid or was created for different order
+     */
+    public Object[] getContinuationValues() {
+        if (continuationToken == null || continuationToken.isEmpty()) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(continuationToken)));
+            if (in.readByte() != TOKEN_VERSION) {
+                throw new IllegalArgumentException("Unsupported continuation token " + continuationToken);
+            }
+            String orderBy = in.readUTF();
+            boolean ascending = in.readBoolean();
+            if (!orderBy.equals(getOrderBy() == null ? "" : getOrderBy()) || ascending != isSortAscending()) {
+                throw new IllegalArgumentException("Continuation token " + continuationToken + " was created for different order");
+            }
+            return new Object[]{readValue(in), readValue(in)};
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid continuation token " + continuationToken, e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte('N');
+        } else if (value instanceof String) {
+            out.writeByte('S');
+            out.writeUTF((String) value);
+        } else if (value instanceof Long) {
+            out.writeByte('L');
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer || value instanceof Short) {
+            out.writeByte('I');
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte('F');
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte('B');
+            out.writeUTF(value.toString());
+        } else if (value instanceof Date) {
+            out.writeByte('D');
+            out.writeLong(((Date) value).getTime());
+        } else {
+            throw new IllegalArgumentException("Keyset pagination does not support values of type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+        case 'N':
+            return null;
+        case 'S':
+            return in.readUTF();
+        case 'L':
+            return in.readLong();
+        case 'I':
+            return in.readInt();
+        case 'F':
+            return in.readDouble();
+        case 'B':
+            return new BigDecimal(in.readUTF());
+        case 'D':
+            return new Date(in.readLong());
+        default:
+            throw new IOException("Unknown value type " + (char) type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetQueryFilter [count=" + getCount() + ", orderBy=" + getOrderBy() + ", ascending=" + isSortAscending()
+                + ", keyColumn=" + keyColumn + ", continuationToken=" + continuationToken + "]";
+    }
+}
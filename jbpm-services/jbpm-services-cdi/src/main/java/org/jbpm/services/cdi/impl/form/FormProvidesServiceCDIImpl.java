@@ -22,6 +22,7 @@ import java.util.TreeSet;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
@@ -29,8 +30,11 @@ import javax.inject.Inject;
 import org.jbpm.kie.services.impl.form.FormProvider;
 import org.jbpm.kie.services.impl.form.FormProviderServiceImpl;
 import org.jbpm.services.api.DefinitionService;
+import org.jbpm.services.api.DeploymentEvent;
 import org.jbpm.services.api.DeploymentService;
 import org.jbpm.services.api.RuntimeDataService;
+import org.jbpm.services.cdi.Deploy;
+import org.jbpm.services.cdi.Undeploy;
 import org.kie.api.task.TaskService;
 
 @ApplicationScoped
@@ -84,6 +88,16 @@ public class FormProvidesServiceCDIImpl extends FormProviderServiceImpl {
 		super.setDeploymentService(deploymentService);
 	}
 
+    @Override
+    public void onDeploy(@Observes@Deploy DeploymentEvent event) {
+        super.onDeploy(event);
+    }
+
+    @Override
+    public void onUnDeploy(@Observes@Undeploy DeploymentEvent event) {
+        super.onUnDeploy(event);
+    }
+
     
     
 }
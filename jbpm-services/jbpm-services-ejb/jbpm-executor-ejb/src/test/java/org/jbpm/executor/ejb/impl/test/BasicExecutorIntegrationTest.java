@@ -19,10 +19,7 @@ package org.jbpm.executor.ejb.impl.test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +34,7 @@ import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.jbpm.executor.impl.codec.RequestDataCodecFactory;
 import org.jbpm.executor.impl.jpa.ExecutorJPAAuditService;
 import org.jbpm.services.ejb.api.ExecutorServiceEJB;
 import org.junit.After;
@@ -157,21 +155,11 @@ public class BasicExecutorIntegrationTest {
 
         ExecutionResults results = null;
         byte[] responseData = executedRequests.get(0).getResponseData();
-        ObjectInputStream in = null;
         try {
-            in = new ObjectInputStream(new ByteArrayInputStream(responseData));
-            results = (ExecutionResults) in.readObject();
+            results = (ExecutionResults) RequestDataCodecFactory.get().decode(responseData, getClass().getClassLoader());
         } catch (Exception e) {                        
             logger.warn("Exception while serializing context data", e);
             return;
-        } finally {
-            if (in != null) {
-                try {
-					in.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-            }
         }
         
         String result = (String)results.getData("custom");
@@ -202,21 +190,11 @@ public class BasicExecutorIntegrationTest {
 
         ExecutionResults results = null;
         byte[] responseData = executedRequests.get(0).getResponseData();
-        ObjectInputStream in = null;
         try {
-            in = new ObjectInputStream(new ByteArrayInputStream(responseData));
-            results = (ExecutionResults) in.readObject();
+            results = (ExecutionResults) RequestDataCodecFactory.get().decode(responseData, getClass().getClassLoader());
         } catch (Exception e) {                        
             logger.warn("Exception while serializing context data", e);
             return;
-        } finally {
-            if (in != null) {
-                try {
-					in.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-            }
         }
         
         String result = (String)results.getData("custom");
@@ -88,6 +88,20 @@ public class ClientQueryServiceEJBTest extends QueryServiceImplTest {
         
     }
     
+	@Ignore("continuation token is not returned by remote ejb")
+    @Test
+    @Override
+    public void testGetProcessInstancesKeysetPaging() {
+        
+    }
+	
+	@Ignore("streaming is not supported for remote ejb")
+    @Test
+    @Override
+    public void testStreamProcessInstancesWithVariables() {
+        
+    }
+	
 	@Ignore("not supported for remote ejb")
     @Test
     @Override
@@ -67,6 +67,24 @@ public class ClientRuntimeDataServiceEJBTest extends RuntimeDataServiceImplTest
 		}
 	}
 	
+	@Ignore("continuation token is not returned by remote ejb")
+	@Test
+    public void testGetProcessInstancesKeysetPaging() {
+	    
+	}
+	
+	@Ignore("continuation token is not returned by remote ejb")
+	@Test
+    public void testGetProcessInstancesKeysetPagingInvalidToken() {
+	    
+	}
+	
+	@Ignore("continuation token is not returned by remote ejb")
+	@Test
+    public void testGetTasksAssignedAsPotentialOwnerKeysetPaging() {
+	    
+	}
+	
 	@Ignore("not supported for remote ejb")
 	@Test
     public void testGetTasksByVariableAndValueWithTaskQueryBuilder() {
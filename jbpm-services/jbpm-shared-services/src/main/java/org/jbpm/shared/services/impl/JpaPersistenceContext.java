@@ -29,6 +29,7 @@ public class JpaPersistenceContext implements Context {
 
 	public final static String FIRST_RESULT = "firstResult";
     public final static String MAX_RESULTS = "maxResults";
+    public final static String LOCK_TIMEOUT_HINT = "javax.persistence.lock.timeout";
 	
 	private EntityManager em;
 	
@@ -64,6 +65,18 @@ public class JpaPersistenceContext implements Context {
 		Query query = getQueryByName(queryName, params);
 		return queryStringWithParameters(params, singleResult, LockModeType.PESSIMISTIC_WRITE, clazz, query);
 	}
+	
+	public <T> T queryAndLockWithParametersInTransaction(String queryName,
+			Map<String, Object> params, Map<String, Object> hints, boolean singleResult, Class<T> clazz) {
+		check();
+		Query query = getQueryByName(queryName, params);
+		if (hints != null) {
+			for (Map.Entry<String, Object> hint : hints.entrySet()) {
+				query.setHint(hint.getKey(), hint.getValue());
+			}
+		}
+		return queryStringWithParameters(params, singleResult, LockModeType.PESSIMISTIC_WRITE, clazz, query);
+	}
 
 	
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.test.functional.timer;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.persistence.Persistence;
+
+import org.jbpm.persistence.timer.JpaSchedulerService;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.kie.api.runtime.manager.RuntimeEnvironment;
+import org.kie.api.runtime.manager.RuntimeManager;
+import org.kie.api.runtime.manager.RuntimeManagerFactory;
+
+@RunWith(Parameterized.class)
+public class GlobalJpaTimerServiceTest extends GlobalTimerServiceBaseTest {
+
+    private int managerType;
+
+    @Parameters
+    public static Collection<Object[]> persistence() {
+        Object[][] data = new Object[][] { { 1 }, { 2 }, { 3 }  };
+        return Arrays.asList(data);
+    };
+
+    public GlobalJpaTimerServiceTest(int managerType) {
+        this.managerType = managerType;
+    }
+
+    @BeforeClass
+    public static void configure() {
+        System.setProperty("org.jbpm.timer.jpa.poll.interval", "500");
+        System.setProperty("org.jbpm.timer.jpa.lease", "5000");
+    }
+
+    @AfterClass
+    public static void reset() {
+        System.clearProperty("org.jbpm.timer.jpa.poll.interval");
+        System.clearProperty("org.jbpm.timer.jpa.lease");
+        System.clearProperty("org.jbpm.rm.init.timer");
+    }
+
+    @Before
+    public void setUp() {
+        cleanupSingletonSessionId();
+        emf = Persistence.createEntityManagerFactory("org.jbpm.test.persistence");
+        globalScheduler = new JpaSchedulerService(emf);
+    }
+
+    @After
+    public void tearDown() {
+        try {
+            globalScheduler.shutdown();
+        } catch (Exception e) {
+
+        }
+        cleanup();
+    }
+
+    @Override
+    protected RuntimeManager getManager(RuntimeEnvironment environment, boolean waitOnStart) {
+        if (managerType ==1) {
+            return RuntimeManagerFactory.Factory.get().newSingletonRuntimeManager(environment);
+        } else if (managerType == 2) {
+            return RuntimeManagerFactory.Factory.get().newPerRequestRuntimeManager(environment);
+        } else if (managerType == 3) {
+            return RuntimeManagerFactory.Factory.get().newPerProcessInstanceRuntimeManager(environment);
+        } else {
+            throw new IllegalArgumentException("Invalid runtime maanger type");
+        }
+    }
+}
@@ -26,7 +26,17 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.naming.InitialContext;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 import javax.xml.bind.JAXBContext;
 
 import org.apache.http.Consts;
@@ -43,6 +53,7 @@ import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpGet;
@@ -57,18 +68,29 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.params.CoreConnectionPNames;
 import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
+import org.drools.core.process.instance.impl.WorkItemImpl;
 import org.drools.core.util.StringUtils;
+import org.jbpm.bpmn2.handler.WorkItemHandlerRuntimeException;
 import org.jbpm.process.workitem.AbstractLogOrThrowWorkItemHandler;
+import org.kie.api.runtime.manager.RuntimeEngine;
+import org.kie.api.runtime.manager.RuntimeManager;
 import org.kie.api.runtime.process.WorkItem;
 import org.kie.api.runtime.process.WorkItemManager;
+import org.kie.internal.runtime.Cacheable;
+import org.kie.internal.runtime.manager.RuntimeManagerRegistry;
+import org.kie.internal.runtime.manager.context.ProcessInstanceIdContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -97,11 +119,47 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  *  of non successful response codes (other than 2XX)</li>
  *  <li>ResultClass - fully qualified class name of the class that response should be transformed to, 
  *  if not given string format will be returned</li>
+ *  <li>Mode - SYNC (default) completes work item in the calling thread, ASYNC sends the request from handler's
+ *  thread pool (after the current transaction commits) and completes work item once the response is received,
+ *  so the engine thread is not blocked by slow endpoints. Failed async request completes the work item with
+ *  <code>Error</code> result when handler logs exceptions, otherwise aborts the work item</li>
  * </ul>
+ * Handler uses single http client with connection pool (http client 4.3 api only) shared by all handler instances
+ * of the JVM so connections are reused across work items and deployments. Pool can be configured via system properties
+ * (or setters) - settings of the handler that creates the pool are used:
+ * <ul>
+ *  <li>org.jbpm.rest.pool.max.connections - max number of connections in total - defaults to 100</li>
+ *  <li>org.jbpm.rest.pool.max.per.route - max number of connections per route (host) - defaults to 20</li>
+ *  <li>org.jbpm.rest.pool.keep.alive - keep alive (ms) used when not given by the server - defaults to 30 seconds</li>
+ *  <li>org.jbpm.rest.pool.idle.timeout - idle connections are evicted after (ms) - defaults to 60 seconds</li>
+ *  <li>org.jbpm.rest.async.threads - number of threads serving ASYNC requests - defaults to 10</li>
+ * </ul>
+ * Idle async threads and idle connections are released over time, pool and threads are closed once the last handler
+ * that used them is closed.
  */
-public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
+public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler implements Cacheable {
     
     private static final Logger logger = LoggerFactory.getLogger(RESTWorkItemHandler.class);
+
+    private static final long EVICTION_INTERVAL = 5000;
+    private static final String TRANSACTION_SYNCHRONIZATION_REGISTRY_NAME = "java:comp/TransactionSynchronizationRegistry";
+
+    private int maxConnections = Integer.parseInt(System.getProperty("org.jbpm.rest.pool.max.connections", "100"));
+    private int maxConnectionsPerRoute = Integer.parseInt(System.getProperty("org.jbpm.rest.pool.max.per.route", "20"));
+    private long keepAlive = Long.parseLong(System.getProperty("org.jbpm.rest.pool.keep.alive", "30000"));
+    private long idleTimeout = Long.parseLong(System.getProperty("org.jbpm.rest.pool.idle.timeout", "60000"));
+    private int asyncThreads = Integer.parseInt(System.getProperty("org.jbpm.rest.async.threads", "10"));
+
+    // pool and async threads are shared by all handler instances of the JVM, created by the first
+    // handler that needs them and released when the last handler that used them is closed
+    private static final Object SHARED_LOCK = new Object();
+    private static int sharedUsers = 0;
+    private static PoolingHttpClientConnectionManager connectionManager;
+    private static CloseableHttpClient pooledHttpClient;
+    private static volatile long lastEviction = System.currentTimeMillis();
+    private static ThreadPoolExecutor asyncExecutor;
+
+    private boolean usesShared = false;
 	
 	private String username;
 	private String password;
@@ -200,7 +258,168 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
 		return authUrl;
 	}
 
-	public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public void setAsyncThreads(int asyncThreads) {
+        this.asyncThreads = asyncThreads;
+    }
+
+	public void executeWorkItem(final WorkItem workItem, final WorkItemManager manager) {
+        String mode = (String) workItem.getParameter("Mode");
+        if ("ASYNC".equalsIgnoreCase(mode)) {
+            submitAsync(new Runnable() {
+
+                public void run() {
+                    Map<String, Object> results;
+                    try {
+                        results = invoke(workItem, false);
+                        logger.debug("Received async response for work item {}", workItem.getId());
+                    } catch (Throwable e) {
+                        failAsyncWorkItem(workItem, manager, e);
+                        return;
+                    }
+                    try {
+                        completeAsyncWorkItem(workItem, manager, results);
+                    } catch (Throwable e) {
+                        logger.error("Unable to complete work item " + workItem.getId() + " with async response from REST service", e);
+                    }
+                }
+            });
+            return;
+        }
+        Map<String, Object> results = invoke(workItem);
+        if (results != null) {
+            // notify manager that work item has been completed
+            manager.completeWorkItem(workItem.getId(), results);
+        }
+    }
+
+    /**
+     * Hands over given task to handler's thread pool. When called within active transaction the task is submitted
+     * only after the transaction commits, so the response is not delivered before the work item is stored and
+     * no request is sent for work item which was rolled back.
+     */
+    protected void submitAsync(final Runnable task) {
+        TransactionSynchronizationRegistry registry = getTransactionSynchronizationRegistry();
+        if (registry != null && registry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            registry.registerInterposedSynchronization(new Synchronization() {
+
+                public void beforeCompletion() {
+                }
+
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        getAsyncExecutor().execute(task);
+                    } else {
+                        logger.debug("Transaction did not commit (status {}), async REST request is not sent", status);
+                    }
+                }
+            });
+            return;
+        }
+        getAsyncExecutor().execute(task);
+    }
+
+    protected TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+        try {
+            return (TransactionSynchronizationRegistry) new InitialContext().lookup(TRANSACTION_SYNCHRONIZATION_REGISTRY_NAME);
+        } catch (Exception e) {
+            logger.debug("No transaction synchronization registry available ({}), async REST requests are sent immediately", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reports failure of async request to the engine as it cannot be thrown to the caller - when handler is configured
+     * to log exceptions work item is completed with the error given as <code>Error</code> result, otherwise
+     * work item is aborted
+     */
+    protected void failAsyncWorkItem(WorkItem workItem, WorkItemManager manager, Throwable cause) {
+        try {
+            if (logThrownException) {
+                logger.error("Error encountered while invoking REST service asynchronously, work item " + workItem.getId() + " is completed with error", cause);
+                Map<String, Object> results = new HashMap<String, Object>();
+                results.put("Error", cause);
+                results.put("StatusMsg", "endpoint " + workItem.getParameter("Url") + " could not be reached: " + cause.getMessage());
+                completeAsyncWorkItem(workItem, manager, results);
+            } else {
+                logger.error("Error encountered while invoking REST service asynchronously, work item " + workItem.getId() + " is aborted", cause);
+                abortAsyncWorkItem(workItem, manager);
+            }
+        } catch (Throwable e) {
+            logger.error("Unable to report failure of async REST request to work item " + workItem.getId(), e);
+        }
+    }
+
+    /**
+     * Completes work item from the thread that received the response - via runtime manager when available, as the
+     * engine that started the work item might not be available any more, otherwise via given work item manager
+     */
+    protected void completeAsyncWorkItem(WorkItem workItem, WorkItemManager manager, Map<String, Object> results) {
+        RuntimeManager runtimeManager = getRuntimeManager(workItem);
+        if (runtimeManager != null) {
+            RuntimeEngine engine = runtimeManager.getRuntimeEngine(ProcessInstanceIdContext.get(workItem.getProcessInstanceId()));
+            try {
+                engine.getKieSession().getWorkItemManager().completeWorkItem(workItem.getId(), results);
+            } finally {
+                runtimeManager.disposeRuntimeEngine(engine);
+            }
+        } else {
+            manager.completeWorkItem(workItem.getId(), results);
+        }
+    }
+
+    /**
+     * Aborts work item from the thread that sent the request, same way as {@link #completeAsyncWorkItem}
+     */
+    protected void abortAsyncWorkItem(WorkItem workItem, WorkItemManager manager) {
+        RuntimeManager runtimeManager = getRuntimeManager(workItem);
+        if (runtimeManager != null) {
+            RuntimeEngine engine = runtimeManager.getRuntimeEngine(ProcessInstanceIdContext.get(workItem.getProcessInstanceId()));
+            try {
+                engine.getKieSession().getWorkItemManager().abortWorkItem(workItem.getId());
+            } finally {
+                runtimeManager.disposeRuntimeEngine(engine);
+            }
+        } else {
+            manager.abortWorkItem(workItem.getId());
+        }
+    }
+
+    private RuntimeManager getRuntimeManager(WorkItem workItem) {
+        String deploymentId = workItem instanceof WorkItemImpl ? ((WorkItemImpl) workItem).getDeploymentId() : null;
+        return deploymentId == null ? null : RuntimeManagerRegistry.get().getManager(deploymentId);
+    }
+
+    /**
+     * Sends the request described by given work item
+     * @return results of the work item or null in case the error was handled (logged)
+     */
+    protected Map<String, Object> invoke(WorkItem workItem) {
+        return invoke(workItem, true);
+    }
+
+    /**
+     * Sends the request described by given work item
+     * @param handleErrors if true errors are handled according to handler's configuration (logged or thrown),
+     * otherwise they are always thrown as {@link WorkItemHandlerRuntimeException} so the caller can report them
+     * @return results of the work item or null in case the error was handled (logged)
+     */
+    protected Map<String, Object> invoke(WorkItem workItem, boolean handleErrors) {
 		boolean handleException = false;
     	// extract required parameters
         String urlStr = (String) workItem.getParameter("Url");
@@ -233,8 +452,13 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
         HttpClient httpClient = getHttpClient(readTimeout, connectTimeout);
 	        
         Object methodObject = configureRequest(method, urlStr, params);
+        if (HTTP_CLIENT_API_43) {
+            // client is shared so timeouts are given per request
+            ((RequestBuilder) methodObject).setConfig(getRequestConfig(readTimeout, connectTimeout));
+        }
+        HttpResponse response = null;
         try {
-            HttpResponse response = doRequestWithAuthorization(httpClient, methodObject, params, authType);
+            response = doRequestWithAuthorization(httpClient, methodObject, params, authType);
         	StatusLine statusLine = response.getStatusLine();
         	int responseCode = statusLine.getStatusCode();
 	        Map<String, Object> results = new HashMap<String, Object>();
@@ -262,12 +486,19 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
 	        }
             results.put("Status", responseCode);
             
-	        // notify manager that work item has been completed
-	        manager.completeWorkItem(workItem.getId(), results);
+	        return results;
     	} catch (Exception e) {
+    	    if (!handleErrors) {
+    	        throw new WorkItemHandlerRuntimeException(e);
+    	    }
     		handleException(e);
+    		return null;
     	} finally {
     	    try { 
+    	        if (response instanceof CloseableHttpResponse) {
+    	            // returns connection back to the pool
+    	            ((CloseableHttpResponse) response).close();
+    	        }
     	        close(httpClient, methodObject);
     	    } catch( Exception e ) { 
     	        // no idea if this throws something, but we still don't care!
@@ -394,11 +625,14 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
      * @return A {@link HttpResponse} instance from which we can extract the content
      */
     protected HttpResponse doRequestWithAuthorization(HttpClient httpclient, RequestBuilder requestBuilder, Map<String, Object> params, AuthenticationType type) {
+        // client is shared across work items so cookies (e.g. session of form based authentication) are kept per request
+        HttpClientContext context = HttpClientContext.create();
+        context.setCookieStore(new BasicCookieStore());
         // no authorization
     	if (type == null || type == AuthenticationType.NONE) {
     	    HttpUriRequest request = requestBuilder.build();
     	    try {
-                return httpclient.execute(request);
+                return httpclient.execute(request, context);
             } catch( Exception e ) {
                 throw new RuntimeException("Could not execute request [" + request.getMethod() + "] " + request.getURI(), e);
             }
@@ -431,7 +665,7 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
         	authCache.put(targetHost, basicAuth);
 
         	// - add AuthCache to the execution context:
-        	HttpClientContext clientContext = HttpClientContext.create();
+        	HttpClientContext clientContext = context;
             CredentialsProvider credsProvider = new BasicCredentialsProvider();
         	credsProvider.setCredentials(
         	    // specify host and port, since that is safer/more secure
@@ -455,7 +689,7 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
         	HttpUriRequest request = requestBuilder.build();
         	int statusCode = -1;
         	try {
-        	    HttpResponse initialResponse = httpclient.execute(request);
+        	    HttpResponse initialResponse = httpclient.execute(request, context);
         	    statusCode = initialResponse.getStatusLine().getStatusCode();
         	} catch (IOException e) {
         		throw new RuntimeException("Could not execute request for form-based authentication", e);
@@ -491,7 +725,9 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
             }
             authMethod.setEntity(formEntity);
             try {
-                httpclient.execute(authMethod);
+                HttpResponse authResponse = httpclient.execute(authMethod, context);
+                // release connection of the authentication request
+                EntityUtils.consumeQuietly(authResponse.getEntity());
             } catch (IOException e) {
         		throw new RuntimeException("Could not initialize form-based authentication", e);
             } finally {
@@ -501,7 +737,7 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
             // 3. rebuild request and execute
             request = requestBuilder.build();
             try {
-                return httpclient.execute(request);
+                return httpclient.execute(request, context);
             } catch( Exception e ) {
                 throw new RuntimeException("Could not execute request [" + request.getMethod() + "] " + request.getURI(), e);
             }
@@ -606,19 +842,16 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
     }
 
     
+    /**
+     * Returns http client to be used for the request - with http client 4.3 api it is the pooled client
+     * shared by all requests of this handler (timeouts are then given by {@link #getRequestConfig(Integer, Integer)}),
+     * otherwise new client is created for every request
+     */
     protected HttpClient getHttpClient(Integer readTimeout, Integer connectTimeout) {
     	
     	if (HTTP_CLIENT_API_43) {
-            RequestConfig config = RequestConfig.custom()
-                    .setSocketTimeout(readTimeout)
-                    .setConnectTimeout(connectTimeout)
-                    .setConnectionRequestTimeout(connectTimeout)
-                    .build();
-
-            HttpClientBuilder clientBuilder = HttpClientBuilder.create()
-                    .setDefaultRequestConfig(config);
-            
-            HttpClient httpClient = clientBuilder.build();
+            CloseableHttpClient httpClient = getPooledHttpClient();
+            evictIdleConnections();
             
             return httpClient;
 
@@ -631,12 +864,123 @@ public class RESTWorkItemHandler extends AbstractLogOrThrowWorkItemHandler {
     	}
     }
     
+    protected RequestConfig getRequestConfig(Integer readTimeout, Integer connectTimeout) {
+        return RequestConfig.custom()
+                .setSocketTimeout(readTimeout)
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .build();
+    }
+
+    protected CloseableHttpClient getPooledHttpClient() {
+        synchronized (SHARED_LOCK) {
+            acquireShared();
+            if (pooledHttpClient == null) {
+                final long defaultKeepAlive = keepAlive;
+                connectionManager = new PoolingHttpClientConnectionManager();
+                connectionManager.setMaxTotal(maxConnections);
+                connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+                pooledHttpClient = HttpClientBuilder.create()
+                        .setConnectionManager(connectionManager)
+                        .setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+
+                            @Override
+                            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                                long duration = super.getKeepAliveDuration(response, context);
+                                // server did not say how long the connection can be kept
+                                return duration > 0 ? duration : defaultKeepAlive;
+                            }
+                        })
+                        .build();
+                logger.debug("Created pooled http client with max connections {} and max connections per route {}", maxConnections, maxConnectionsPerRoute);
+            }
+            return pooledHttpClient;
+        }
+    }
+
+    /**
+     * Closes expired and idle connections of the pool, done at most once per eviction interval
+     */
+    protected void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        if (now - lastEviction < EVICTION_INTERVAL) {
+            return;
+        }
+        lastEviction = now;
+        synchronized (SHARED_LOCK) {
+            if (connectionManager != null) {
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    protected ExecutorService getAsyncExecutor() {
+        synchronized (SHARED_LOCK) {
+            acquireShared();
+            if (asyncExecutor == null) {
+                final AtomicInteger threadNumber = new AtomicInteger();
+                asyncExecutor = new ThreadPoolExecutor(asyncThreads, asyncThreads, idleTimeout, TimeUnit.MILLISECONDS,
+                                                       new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "jbpm-rest-async-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                // threads are not kept around when there are no async requests
+                asyncExecutor.allowCoreThreadTimeOut(true);
+            }
+            return asyncExecutor;
+        }
+    }
+
+    // must be called while holding SHARED_LOCK
+    private void acquireShared() {
+        if (!usesShared) {
+            usesShared = true;
+            sharedUsers++;
+        }
+    }
+
     protected void close(HttpClient httpClient, Object httpMethod) throws IOException {
-    	if (HTTP_CLIENT_API_43) {
-    		((CloseableHttpClient) httpClient).close();
-    	} else {
+    	if (!HTTP_CLIENT_API_43) {
     		((HttpRequestBase)httpMethod).releaseConnection();
     	}
+    	// pooled client is kept open, connection is released with the response
+    }
+
+    /**
+     * Releases this handler's use of the shared pool and async threads, they are closed once
+     * the last handler that used them is closed. Async requests already submitted are still sent.
+     */
+    @Override
+    public void close() {
+        synchronized (SHARED_LOCK) {
+            if (!usesShared) {
+                return;
+            }
+            usesShared = false;
+            if (--sharedUsers > 0) {
+                return;
+            }
+            if (asyncExecutor != null) {
+                asyncExecutor.shutdown();
+                asyncExecutor = null;
+            }
+            if (pooledHttpClient != null) {
+                try {
+                    pooledHttpClient.close();
+                } catch (IOException e) {
+                    logger.debug("Error when closing http client", e);
+                }
+                pooledHttpClient = null;
+                connectionManager = null;
+            }
+        }
     }
     
     protected Object configureRequest(String method, String urlStr, Map<String, Object> params) {
@@ -17,17 +17,22 @@ package org.jbpm.process.workitem.rest;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.ext.RuntimeDelegate;
 
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
 import org.apache.cxf.jaxrs.provider.JAXBElementProvider;
+import org.apache.http.client.HttpClient;
 import org.drools.core.process.instance.impl.WorkItemImpl;
 import org.jbpm.bpmn2.handler.WorkItemHandlerRuntimeException;
 import org.junit.AfterClass;
@@ -112,6 +117,135 @@ public class RestWorkItemHandlerTest {
         assertEquals("request to endpoint " + workItem.getParameter("Url") +" successfully completed OK", responseMsg);
     }
     
+    @Test
+    public void testGETOperationAsync() throws Exception {
+        RESTWorkItemHandler handler = new RESTWorkItemHandler();
+        
+        WorkItemImpl workItem = new WorkItemImpl();
+        workItem.setParameter( "Url", serverURL);
+        workItem.setParameter( "Method", "GET" );
+        workItem.setParameter( "Mode", "ASYNC" );
+        
+        final CountDownLatch completed = new CountDownLatch(1);
+        WorkItemManager manager = new TestWorkItemManager(workItem) {
+            
+            @Override
+            public void completeWorkItem(long id, Map<String, Object> results) {
+                super.completeWorkItem(id, results);
+                completed.countDown();
+            }
+        };
+        try {
+            handler.executeWorkItem(workItem, manager);
+            
+            assertTrue("work item was not completed", completed.await(10, TimeUnit.SECONDS));
+            String result = (String) workItem.getResult("Result");
+            assertEquals("Hello from REST", result);
+            int responseCode = (Integer) workItem.getResult("Status");
+            assertEquals(200, responseCode);
+        } finally {
+            handler.close();
+        }
+    }
+    
+    @Test
+    public void testAsyncFailureAbortsWorkItem() throws Exception {
+        RESTWorkItemHandler handler = new RESTWorkItemHandler();
+        
+        WorkItemImpl workItem = new WorkItemImpl();
+        workItem.setParameter( "Url", "http://localhost:9999/not-available");
+        workItem.setParameter( "Method", "GET" );
+        workItem.setParameter( "Mode", "ASYNC" );
+        
+        final CountDownLatch aborted = new CountDownLatch(1);
+        WorkItemManager manager = new TestWorkItemManager(workItem) {
+            
+            @Override
+            public void abortWorkItem(long id) {
+                aborted.countDown();
+            }
+        };
+        try {
+            handler.executeWorkItem(workItem, manager);
+            
+            assertTrue("work item was not aborted", aborted.await(10, TimeUnit.SECONDS));
+        } finally {
+            handler.close();
+        }
+    }
+    
+    @Test
+    public void testAsyncFailureCompletesWorkItemWithError() throws Exception {
+        RESTWorkItemHandler handler = new RESTWorkItemHandler();
+        handler.setLogThrownException(true);
+        
+        WorkItemImpl workItem = new WorkItemImpl();
+        workItem.setParameter( "Url", "http://localhost:9999/not-available");
+        workItem.setParameter( "Method", "GET" );
+        workItem.setParameter( "Mode", "ASYNC" );
+        
+        final CountDownLatch completed = new CountDownLatch(1);
+        WorkItemManager manager = new TestWorkItemManager(workItem) {
+            
+            @Override
+            public void completeWorkItem(long id, Map<String, Object> results) {
+                super.completeWorkItem(id, results);
+                completed.countDown();
+            }
+        };
+        try {
+            handler.executeWorkItem(workItem, manager);
+            
+            assertTrue("work item was not completed", completed.await(10, TimeUnit.SECONDS));
+            assertNotNull(workItem.getResult("Error"));
+            assertNotNull(workItem.getResult("StatusMsg"));
+        } finally {
+            handler.close();
+        }
+    }
+    
+    @Test
+    public void testGETOperationReusesPooledClient() {
+        RESTWorkItemHandler handler = new RESTWorkItemHandler();
+        try {
+            for (int i = 0; i < 3; i++) {
+                WorkItemImpl workItem = new WorkItemImpl();
+                workItem.setParameter( "Url", serverURL);
+                workItem.setParameter( "Method", "GET" );
+                
+                WorkItemManager manager = new TestWorkItemManager(workItem);
+                handler.executeWorkItem(workItem, manager);
+                
+                assertEquals("Hello from REST", workItem.getResult("Result"));
+            }
+            if (httpClient43) {
+                assertSame(handler.getHttpClient(60000, 60000), handler.getHttpClient(1000, 1000));
+            }
+        } finally {
+            handler.close();
+        }
+    }
+
+    @Test
+    public void testPooledClientSharedAcrossHandlers() {
+        if (!httpClient43) {
+            return;
+        }
+        RESTWorkItemHandler first = new RESTWorkItemHandler();
+        RESTWorkItemHandler second = new RESTWorkItemHandler();
+        try {
+            HttpClient client = first.getHttpClient(60000, 60000);
+            assertSame(client, second.getHttpClient(60000, 60000));
+
+            first.close();
+            // still used by the second handler
+            assertSame(client, second.getHttpClient(60000, 60000));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
     @Test
     public void testGETOperationWithCustomTimeout() {
         RESTWorkItemHandler handler = new RESTWorkItemHandler();